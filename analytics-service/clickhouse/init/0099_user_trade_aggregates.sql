@@ -0,0 +1,112 @@
+-- =============================================================================
+-- USER TRADE PRE-AGGREGATES
+-- =============================================================================
+-- Purpose:
+--   Per (username, day, market, outcome, side) rollups maintained incrementally by a materialized view on
+--   every insert into user_trades, so report / complete-set endpoints read a few rows per market-day instead of
+--   re-running the argMax(..., kafka_offset) dedup in user_trades_dedup over every trade of the user.
+--
+-- Dedup:
+--   user_trades may contain the same event_key more than once (ingestor restarts re-publish history).
+--   trade_rows counts inserted rows and trade_keys counts distinct event_keys. On days where both agree for a user
+--   the sums below equal the user_trades_dedup path exactly; readers re-aggregate the other days from
+--   user_trades_dedup (user_trade_agg_health lists them).
+--
+-- Backfill:
+--   History that predates the MV is backfilled up to a cutoff recorded after the MV is created, so every row reaches
+--   the rollups through the MV, the backfill, or both. A row inserted between the two statements is counted twice:
+--   trade_rows then exceeds trade_keys for its day, and user_trade_agg_health sends that day to the raw path.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS polybot.user_trade_daily_agg (
+  username LowCardinality(String),
+  day Date,
+  market_slug LowCardinality(String),
+  outcome LowCardinality(String),
+  side LowCardinality(String),
+  title SimpleAggregateFunction(anyLast, String),
+  trade_rows SimpleAggregateFunction(sum, UInt64),
+  trade_keys AggregateFunction(uniqExact, String),
+  token_ids AggregateFunction(uniqExact, String),
+  first_ts SimpleAggregateFunction(min, DateTime64(3)),
+  last_ts SimpleAggregateFunction(max, DateTime64(3)),
+  size_sum SimpleAggregateFunction(sum, Float64),
+  notional_sum SimpleAggregateFunction(sum, Float64),
+  price_sum SimpleAggregateFunction(sum, Float64),
+  max_ingested_at SimpleAggregateFunction(max, DateTime64(3))
+)
+ENGINE = AggregatingMergeTree
+PARTITION BY toYYYYMM(day)
+ORDER BY (username, day, market_slug, outcome, side);
+
+CREATE TABLE IF NOT EXISTS polybot.user_trade_daily_agg_backfill (
+  step LowCardinality(String),
+  at DateTime64(3)
+)
+ENGINE = MergeTree
+ORDER BY step;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS polybot.user_trade_daily_agg_mv
+TO polybot.user_trade_daily_agg
+AS
+SELECT
+  username,
+  toDate(ts) AS day,
+  market_slug,
+  outcome,
+  side,
+  anyLast(title) AS title,
+  toUInt64(count()) AS trade_rows,
+  uniqExactState(event_key) AS trade_keys,
+  uniqExactState(token_id) AS token_ids,
+  min(ts) AS first_ts,
+  max(ts) AS last_ts,
+  sum(size) AS size_sum,
+  sum(size * price) AS notional_sum,
+  sum(price) AS price_sum,
+  max(ingested_at) AS max_ingested_at
+FROM polybot.user_trades
+GROUP BY username, day, market_slug, outcome, side;
+
+-- Recorded after the MV exists, so no insert is missed by both the MV and the backfill (see Backfill above).
+INSERT INTO polybot.user_trade_daily_agg_backfill
+SELECT 'cutoff', now64(3)
+WHERE (SELECT count() FROM polybot.user_trade_daily_agg_backfill WHERE step = 'cutoff') = 0;
+
+-- One-time backfill of trades ingested before the cutoff (no-op once the 'done' step is recorded).
+INSERT INTO polybot.user_trade_daily_agg
+SELECT
+  username,
+  toDate(ts) AS day,
+  market_slug,
+  outcome,
+  side,
+  anyLast(title) AS title,
+  toUInt64(count()) AS trade_rows,
+  uniqExactState(event_key) AS trade_keys,
+  uniqExactState(token_id) AS token_ids,
+  min(ts) AS first_ts,
+  max(ts) AS last_ts,
+  sum(size) AS size_sum,
+  sum(size * price) AS notional_sum,
+  sum(price) AS price_sum,
+  max(ingested_at) AS max_ingested_at
+FROM polybot.user_trades
+WHERE ingested_at < (SELECT min(at) FROM polybot.user_trade_daily_agg_backfill WHERE step = 'cutoff')
+  AND (SELECT count() FROM polybot.user_trade_daily_agg_backfill WHERE step = 'done') = 0
+GROUP BY username, day, market_slug, outcome, side;
+
+INSERT INTO polybot.user_trade_daily_agg_backfill
+SELECT 'done', now64(3)
+WHERE (SELECT count() FROM polybot.user_trade_daily_agg_backfill WHERE step = 'done') = 0;
+
+CREATE OR REPLACE VIEW polybot.user_trade_agg_health AS
+SELECT
+  username,
+  day,
+  sum(trade_rows) AS trade_rows,
+  uniqExactMerge(trade_keys) AS trades,
+  trade_rows = trades AS duplicate_free,
+  max(max_ingested_at) AS max_ingested_at
+FROM polybot.user_trade_daily_agg
+GROUP BY username, day;
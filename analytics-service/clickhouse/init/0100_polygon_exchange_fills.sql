@@ -0,0 +1,68 @@
+-- Decoded CTF Exchange fills from the ingestor's eth_getLogs range scanner (event type polygon.exchange.order_filled),
+-- one row per fill of an order the proxy signed. proxy_role says whether that order was the taker of its match.
+--
+-- Unlike polygon_exchange_order_filled / polygon_exchange_orders_matched (views that decode logs out of stored
+-- receipts), these rows are decoded in Java and do not require a receipt per trade.
+
+CREATE TABLE IF NOT EXISTS polybot.polygon_exchange_fills (
+  ts DateTime64(3),
+  event_name LowCardinality(String),
+  chain_id UInt32,
+  tx_hash String,
+  log_index UInt32,
+  block_number UInt64,
+  block_timestamp DateTime64(3),
+  exchange LowCardinality(String),
+  proxy_address LowCardinality(String),
+  proxy_role LowCardinality(String),
+  order_hash String,
+  maker String,
+  taker String,
+  maker_asset_id String,
+  taker_asset_id String,
+  token_id String,
+  maker_side LowCardinality(String),
+  usdc_amount Float64,
+  shares_amount Float64,
+  price Float64,
+  fee Float64,
+  event_key String,
+  ingested_at DateTime64(3),
+  kafka_partition Int32,
+  kafka_offset Int64
+)
+ENGINE = ReplacingMergeTree(ingested_at)
+PARTITION BY toYYYYMM(ts)
+ORDER BY (proxy_address, tx_hash, log_index);
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS polybot.polygon_exchange_fills_mv
+TO polybot.polygon_exchange_fills
+AS
+SELECT
+  ts,
+  'OrderFilled' AS event_name,
+  toUInt32(JSONExtractInt(data, 'chainId')) AS chain_id,
+  JSONExtractString(data, 'txHash') AS tx_hash,
+  toUInt32(JSONExtractInt(data, 'logIndex')) AS log_index,
+  toUInt64(JSONExtractInt(data, 'blockNumber')) AS block_number,
+  ifNull(parseDateTime64BestEffortOrNull(JSONExtractString(data, 'blockTimestamp')), ts) AS block_timestamp,
+  JSONExtractString(data, 'exchange') AS exchange,
+  JSONExtractString(data, 'proxyAddress') AS proxy_address,
+  JSONExtractString(data, 'proxyRole') AS proxy_role,
+  JSONExtractString(data, 'orderHash') AS order_hash,
+  JSONExtractString(data, 'maker') AS maker,
+  JSONExtractString(data, 'taker') AS taker,
+  JSONExtractString(data, 'makerAssetId') AS maker_asset_id,
+  JSONExtractString(data, 'takerAssetId') AS taker_asset_id,
+  JSONExtractString(data, 'tokenId') AS token_id,
+  JSONExtractString(data, 'makerSide') AS maker_side,
+  JSONExtractFloat(data, 'usdcAmount') AS usdc_amount,
+  JSONExtractFloat(data, 'sharesAmount') AS shares_amount,
+  JSONExtractFloat(data, 'price') AS price,
+  JSONExtractFloat(data, 'fee') AS fee,
+  kafka_key AS event_key,
+  ingested_at,
+  kafka_partition,
+  kafka_offset
+FROM polybot.analytics_events
+WHERE type = 'polygon.exchange.order_filled';
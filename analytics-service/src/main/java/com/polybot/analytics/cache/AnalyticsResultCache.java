@@ -0,0 +1,159 @@
+package com.polybot.analytics.cache;
+
+import com.polybot.analytics.config.AnalyticsProperties;
+import com.polybot.analytics.repo.UserTradeAnalyticsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded cache of per-user analytics responses keyed by (endpoint, username, params).
+ *
+ * An entry stays valid while the user's trade watermark ({@code max(ingested_at)}) is unchanged, so a new trade for
+ * that user invalidates all of their cached responses on the next read. The watermark itself is re-read at most
+ * once per {@code watermarkTtlMillis}, and concurrent misses for the same key share one load.
+ */
+@Component
+@Slf4j
+public class AnalyticsResultCache {
+
+  private final AnalyticsProperties.Cache config;
+  private final UserTradeAnalyticsRepository repository;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final ConcurrentMap<String, Watermark> watermarks = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter invalidations;
+
+  public AnalyticsResultCache(AnalyticsProperties properties, UserTradeAnalyticsRepository repository, MeterRegistry registry) {
+    this.config = properties.cache();
+    this.repository = repository;
+    this.hits = Counter.builder("analytics_cache_requests_total").tag("result", "hit").register(registry);
+    this.misses = Counter.builder("analytics_cache_requests_total").tag("result", "miss").register(registry);
+    this.invalidations = Counter.builder("analytics_cache_invalidations_total")
+        .description("Cached responses dropped because the user's trade watermark advanced")
+        .register(registry);
+    Gauge.builder("analytics_cache_entries", this, AnalyticsResultCache::size)
+        .description("Cached analytics responses")
+        .register(registry);
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> T get(String endpoint, String username, List<?> params, Supplier<T> loader) {
+    if (!config.enabled()) {
+      return loader.get();
+    }
+    Key key = new Key(endpoint, username, List.copyOf(params));
+    Instant watermark = watermark(username);
+    long now = System.currentTimeMillis();
+
+    lock.lock();
+    try {
+      Entry e = entries.get(key);
+      if (e != null) {
+        if (Objects.equals(e.watermark(), watermark) && now - e.cachedAtMillis() <= config.maxAgeMillis()) {
+          hits.increment();
+          return (T) e.value();
+        }
+        entries.remove(key);
+        if (!Objects.equals(e.watermark(), watermark)) {
+          invalidations.increment();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    misses.increment();
+    CompletableFuture<Object> mine = new CompletableFuture<>();
+    CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+    if (existing != null) {
+      return (T) await(existing);
+    }
+    try {
+      T value = loader.get();
+      put(key, new Entry(watermark, now, value));
+      mine.complete(value);
+      return value;
+    } catch (RuntimeException ex) {
+      mine.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlight.remove(key, mine);
+    }
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void put(Key key, Entry entry) {
+    lock.lock();
+    try {
+      entries.put(key, entry);
+      while (entries.size() > config.maxEntries()) {
+        Key eldest = entries.keySet().iterator().next();
+        entries.remove(eldest);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Instant watermark(String username) {
+    long now = System.currentTimeMillis();
+    Watermark w = watermarks.get(username);
+    if (w != null && now - w.fetchedAtMillis() < config.watermarkTtlMillis()) {
+      return w.value();
+    }
+    Instant value = repository.tradesWatermark(username);
+    if (watermarks.size() >= config.maxEntries()) {
+      watermarks.clear();
+    }
+    watermarks.put(username, new Watermark(value, now));
+    return value;
+  }
+
+  private static Object await(CompletableFuture<Object> f) {
+    try {
+      return f.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw e;
+    }
+  }
+
+  private record Key(String endpoint, String username, List<Object> params) {
+  }
+
+  private record Entry(Instant watermark, long cachedAtMillis, Object value) {
+  }
+
+  private record Watermark(Instant value, long fetchedAtMillis) {
+  }
+}
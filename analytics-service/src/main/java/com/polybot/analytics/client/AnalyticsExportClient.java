@@ -0,0 +1,130 @@
+package com.polybot.analytics.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.NonNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+/**
+ * Pages through the NDJSON export endpoints ({@code /api/analytics/export/...}) and hands each row to a sink as it
+ * is read off the wire. The next page starts after the {@link Cursor} of the last row seen; a page shorter than
+ * {@code pageSize} ends the export. An interrupted export resumes from the cursor of the last row the caller kept.
+ */
+public final class AnalyticsExportClient {
+
+  private final HttpClient httpClient;
+  private final ObjectMapper objectMapper;
+  private final URI baseUri;
+  private final Duration requestTimeout;
+
+  public AnalyticsExportClient(@NonNull URI baseUri, @NonNull ObjectMapper objectMapper, @NonNull Duration requestTimeout) {
+    this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    this.objectMapper = objectMapper;
+    this.baseUri = baseUri;
+    this.requestTimeout = requestTimeout;
+  }
+
+  public long exportEvents(String type, int pageSize, Cursor after, Consumer<JsonNode> sink)
+      throws IOException, InterruptedException {
+    Map<String, String> query = new LinkedHashMap<>();
+    if (type != null && !type.isBlank()) {
+      query.put("type", type);
+    }
+    return exportAll("/api/analytics/export/events", query, pageSize, after, sink);
+  }
+
+  /**
+   * Rows are raw user_trades; dedupe by {@code eventKey} keeping the highest {@code kafkaOffset}.
+   */
+  public long exportUserTrades(@NonNull String username, int pageSize, Cursor after, Consumer<JsonNode> sink)
+      throws IOException, InterruptedException {
+    String path = "/api/analytics/export/users/" + URLEncoder.encode(username, StandardCharsets.UTF_8) + "/trades";
+    return exportAll(path, new LinkedHashMap<>(), pageSize, after, sink);
+  }
+
+  private long exportAll(String path, Map<String, String> query, int pageSize, Cursor after, Consumer<JsonNode> sink)
+      throws IOException, InterruptedException {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("pageSize must be > 0");
+    }
+    query.put("limit", Integer.toString(pageSize));
+    long total = 0;
+    Cursor cursor = after;
+    while (true) {
+      if (cursor != null) {
+        query.put("afterTs", cursor.ts());
+        query.put("afterTopic", cursor.kafkaTopic());
+        query.put("afterPartition", Integer.toString(cursor.kafkaPartition()));
+        query.put("afterOffset", Long.toString(cursor.kafkaOffset()));
+      }
+      Page page = fetchPage(path, query, sink);
+      total += page.rows;
+      if (page.rows < pageSize || page.last == null || page.last.ts() == null) {
+        return total;
+      }
+      cursor = page.last;
+    }
+  }
+
+  private Page fetchPage(String path, Map<String, String> query, Consumer<JsonNode> sink) throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path + "?" + encode(query)))
+        .timeout(requestTimeout)
+        .header("Accept", "application/x-ndjson")
+        .GET()
+        .build();
+    HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    Page page = new Page();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+      if (response.statusCode() / 100 != 2) {
+        throw new IOException("export failed status=" + response.statusCode() + " path=" + path);
+      }
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank()) {
+          continue;
+        }
+        JsonNode row = objectMapper.readTree(line);
+        page.rows++;
+        page.last = Cursor.of(row);
+        sink.accept(row);
+      }
+    }
+    return page;
+  }
+
+  private static String encode(Map<String, String> query) {
+    StringJoiner joiner = new StringJoiner("&");
+    query.forEach((k, v) -> joiner.add(k + "=" + URLEncoder.encode(v, StandardCharsets.UTF_8)));
+    return joiner.toString();
+  }
+
+  /**
+   * Keyset position of an exported row. Trade rows carry no topic; theirs is empty.
+   */
+  public record Cursor(String ts, String kafkaTopic, int kafkaPartition, long kafkaOffset) {
+    public static Cursor of(JsonNode row) {
+      return new Cursor(row.path("ts").asText(null), row.path("kafkaTopic").asText(""),
+          row.path("kafkaPartition").asInt(-1), row.path("kafkaOffset").asLong(-1));
+    }
+  }
+
+  private static final class Page {
+    private long rows;
+    private Cursor last;
+  }
+}
@@ -0,0 +1,96 @@
+package com.polybot.analytics.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "analytics")
+public record AnalyticsProperties(
+    @Valid UserTrades userTrades,
+    @Valid Cache cache,
+    @Valid Export export
+) {
+  public AnalyticsProperties {
+    if (userTrades == null) {
+      userTrades = new UserTrades(null);
+    }
+    if (cache == null) {
+      cache = new Cache(null, null, null, null);
+    }
+    if (export == null) {
+      export = new Export(null, null);
+    }
+  }
+
+  public record UserTrades(
+      /**
+       * Serve report / complete-set queries from the user_trade_daily_agg rollups. Days holding re-published
+       * duplicates are read from user_trades_dedup instead, as is everything when the table is missing.
+       */
+      @NotNull Boolean aggregatesEnabled
+  ) {
+    public UserTrades {
+      if (aggregatesEnabled == null) {
+        aggregatesEnabled = true;
+      }
+    }
+  }
+
+  public record Cache(
+      /**
+       * Cache per-user analytics responses until new trades for that user are ingested.
+       */
+      @NotNull Boolean enabled,
+      /**
+       * Upper bound on cached responses (least recently used are evicted first).
+       */
+      @NotNull @Min(1) Integer maxEntries,
+      /**
+       * How long a user's trade watermark (max ingested_at) is trusted before it is re-read from ClickHouse.
+       */
+      @NotNull @Min(0) Long watermarkTtlMillis,
+      /**
+       * Hard cap on entry age. Bounds staleness of results that depend on more than the user's trades
+       * (market resolutions, TOB captures).
+       */
+      @NotNull @Min(0) Long maxAgeMillis
+  ) {
+    public Cache {
+      if (enabled == null) {
+        enabled = true;
+      }
+      if (maxEntries == null) {
+        maxEntries = 2_000;
+      }
+      if (watermarkTtlMillis == null) {
+        watermarkTtlMillis = 1_000L;
+      }
+      if (maxAgeMillis == null) {
+        maxAgeMillis = 60_000L;
+      }
+    }
+  }
+
+  public record Export(
+      /**
+       * Upper bound on rows per export request; clients page with the returned cursor beyond this.
+       */
+      @NotNull @Min(1) Long maxRowsPerRequest,
+      /**
+       * Flush the response stream every N rows so clients see progress and the servlet buffer stays small.
+       */
+      @NotNull @Min(1) Integer flushEveryRows
+  ) {
+    public Export {
+      if (maxRowsPerRequest == null) {
+        maxRowsPerRequest = 1_000_000L;
+      }
+      if (flushEveryRows == null) {
+        flushEveryRows = 1_000;
+      }
+    }
+  }
+}
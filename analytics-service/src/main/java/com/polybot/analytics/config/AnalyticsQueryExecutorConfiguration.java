@@ -0,0 +1,20 @@
+package com.polybot.analytics.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class AnalyticsQueryExecutorConfiguration {
+
+  /**
+   * Virtual-thread executor for fanning out independent ClickHouse queries (they block on JDBC I/O).
+   * Concurrency is effectively bounded by the Hikari pool size.
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService analyticsQueryExecutor() {
+    return Executors.newVirtualThreadPerTaskExecutor();
+  }
+}
@@ -0,0 +1,64 @@
+package com.polybot.analytics.repo;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Row-at-a-time reads for bulk exports. Rows are handed to the sink as the JDBC result set is consumed, so callers
+ * can write them out without materializing the result. Ordering is ascending by
+ * {@code (ts, kafka_topic, kafka_partition, kafka_offset)} and {@code after} is an exclusive keyset cursor over the
+ * same columns (null = from the beginning).
+ */
+public interface AnalyticsExportRepository {
+
+  void streamEvents(String type, Cursor after, long limit, Consumer<RawEvent> sink);
+
+  void streamUserTrades(String username, Cursor after, long limit, Consumer<UserTradeRow> sink);
+
+  /**
+   * Position of the last row received. user_trades rows have no topic; their cursors use an empty one.
+   */
+  record Cursor(Instant ts, String kafkaTopic, int kafkaPartition, long kafkaOffset) {
+  }
+
+  /**
+   * Like {@link AnalyticsEventRepository.StoredEvent} but keeps {@code data} as the raw JSON string.
+   */
+  record RawEvent(
+      Instant ts,
+      String source,
+      String type,
+      String kafkaTopic,
+      int kafkaPartition,
+      long kafkaOffset,
+      String kafkaKey,
+      String dataJson,
+      Instant ingestedAt
+  ) {
+  }
+
+  /**
+   * Raw user_trades row. The same eventKey can appear more than once; keep the highest kafkaOffset
+   * (the rule user_trades_dedup applies).
+   */
+  record UserTradeRow(
+      Instant ts,
+      String username,
+      String proxyAddress,
+      String marketSlug,
+      String title,
+      String tokenId,
+      String conditionId,
+      String side,
+      String outcome,
+      int outcomeIndex,
+      double price,
+      double size,
+      String transactionHash,
+      String eventKey,
+      int kafkaPartition,
+      long kafkaOffset,
+      Instant ingestedAt
+  ) {
+  }
+}
@@ -0,0 +1,111 @@
+package com.polybot.analytics.repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class JdbcAnalyticsExportRepository implements AnalyticsExportRepository {
+
+  /**
+   * user_trades has no topic column (every row comes from the events topic), so its cursors carry an empty topic.
+   */
+  private static final String USER_TRADES_TOPIC = "''";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public void streamEvents(String type, Cursor after, long limit, Consumer<RawEvent> sink) {
+    List<Object> args = new ArrayList<>();
+    StringBuilder where = new StringBuilder("WHERE 1");
+    if (type != null && !type.isBlank()) {
+      where.append(" AND type = ?");
+      args.add(type.trim());
+    }
+    appendCursor(where, args, after, "kafka_topic");
+    args.add(limit);
+    String sql = """
+        SELECT ts, source, type, kafka_topic, kafka_partition, kafka_offset, kafka_key, data, ingested_at
+        FROM analytics_events
+        %s
+        ORDER BY ts ASC, kafka_topic ASC, kafka_partition ASC, kafka_offset ASC
+        LIMIT ?
+        """.formatted(where);
+    jdbcTemplate.query(sql, rs -> {
+      sink.accept(new RawEvent(
+          rs.getTimestamp(1).toInstant(),
+          rs.getString(2),
+          rs.getString(3),
+          rs.getString(4),
+          rs.getInt(5),
+          rs.getLong(6),
+          rs.getString(7),
+          rs.getString(8),
+          rs.getTimestamp(9).toInstant()
+      ));
+    }, args.toArray());
+  }
+
+  @Override
+  public void streamUserTrades(String username, Cursor after, long limit, Consumer<UserTradeRow> sink) {
+    List<Object> args = new ArrayList<>();
+    StringBuilder where = new StringBuilder("WHERE username = ?");
+    args.add(username);
+    appendCursor(where, args, after, USER_TRADES_TOPIC);
+    args.add(limit);
+    String sql = """
+        SELECT
+          ts, username, proxy_address, market_slug, title, token_id, condition_id, side, outcome, outcome_index,
+          price, size, transaction_hash, event_key, kafka_partition, kafka_offset, ingested_at
+        FROM user_trades
+        %s
+        ORDER BY ts ASC, kafka_partition ASC, kafka_offset ASC
+        LIMIT ?
+        """.formatted(where);
+    jdbcTemplate.query(sql, rs -> {
+      sink.accept(new UserTradeRow(
+          rs.getTimestamp(1).toInstant(),
+          rs.getString(2),
+          rs.getString(3),
+          rs.getString(4),
+          rs.getString(5),
+          rs.getString(6),
+          rs.getString(7),
+          rs.getString(8),
+          rs.getString(9),
+          rs.getInt(10),
+          rs.getDouble(11),
+          rs.getDouble(12),
+          rs.getString(13),
+          rs.getString(14),
+          rs.getInt(15),
+          rs.getLong(16),
+          rs.getTimestamp(17).toInstant()
+      ));
+    }, args.toArray());
+  }
+
+  /**
+   * Keyset predicate over {@code (ts, topic, partition, offset)}; offsets are only unique within a topic partition.
+   * The leading {@code ts >=} term lets ClickHouse prune by the (…, ts, …) sort key.
+   */
+  private static void appendCursor(StringBuilder where, List<Object> args, Cursor after, String topicColumn) {
+    if (after == null || after.ts() == null) {
+      return;
+    }
+    long tsMillis = after.ts().toEpochMilli();
+    where.append("""
+         AND ts >= fromUnixTimestamp64Milli(?)
+         AND (ts > fromUnixTimestamp64Milli(?) OR (%s, kafka_partition, kafka_offset) > (?, ?, ?))""".formatted(topicColumn));
+    args.add(tsMillis);
+    args.add(tsMillis);
+    args.add(after.kafkaTopic() == null ? "" : after.kafkaTopic());
+    args.add(after.kafkaPartition());
+    args.add(after.kafkaOffset());
+  }
+}
@@ -8,6 +8,7 @@ import java.sql.ResultSet;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Repository
 @RequiredArgsConstructor
@@ -337,8 +338,19 @@ public class JdbcUserPositionAnalyticsRepository implements UserPositionAnalytic
   @Override
   public List<LedgerRow> ledger(String username, String marketSlug, String tokenId, int limit) {
     int safeLimit = Math.max(1, Math.min(500, limit));
+    String sql = ledgerSql("DESC") + "LIMIT %d\n".formatted(safeLimit);
+    return jdbcTemplate.query(sql, (rs, rowNum) -> mapLedgerRow(rs), username, marketSlug, tokenId);
+  }
 
-    String sql = """
+  @Override
+  public void streamLedger(String username, String marketSlug, String tokenId, Consumer<LedgerRow> sink) {
+    jdbcTemplate.query(ledgerSql("ASC"), rs -> {
+      sink.accept(mapLedgerRow(rs));
+    }, username, marketSlug, tokenId);
+  }
+
+  private static String ledgerSql(String direction) {
+    return """
         WITH trades AS (
           SELECT
             ts,
@@ -375,11 +387,8 @@ public class JdbcUserPositionAnalyticsRepository implements UserPositionAnalytic
             sum(signed_cost_usd) OVER (ORDER BY ts ASC, event_key ASC) AS position_cost_usd
           FROM trades
         )
-        ORDER BY ts DESC, event_key DESC
-        LIMIT %d
-        """.formatted(safeLimit);
-
-    return jdbcTemplate.query(sql, (rs, rowNum) -> mapLedgerRow(rs), username, marketSlug, tokenId);
+        ORDER BY ts %s, event_key %s
+        """.formatted(direction, direction);
   }
 
   @Override
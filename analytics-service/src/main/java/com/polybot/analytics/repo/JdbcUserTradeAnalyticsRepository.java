@@ -1,6 +1,9 @@
 package com.polybot.analytics.repo;
 
+import com.polybot.analytics.config.AnalyticsProperties;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
@@ -9,17 +12,83 @@ import java.sql.Date;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Repository
 @RequiredArgsConstructor
+@Slf4j
 public class JdbcUserTradeAnalyticsRepository implements UserTradeAnalyticsRepository {
 
   private static final double EPS = 1e-6;
+  private static final String ROLLUPS = "user_trade_daily_agg";
+  /**
+   * The rollups with the given days (in both placeholders) re-aggregated from user_trades_dedup, in the rollup columns
+   * the report queries read.
+   */
+  private static final String ROLLUPS_WITH_RAW_DAYS = """
+      (
+        SELECT
+          username,
+          day,
+          market_slug,
+          outcome,
+          side,
+          toString(title) AS title,
+          toUInt64(trade_rows) AS trade_rows,
+          token_ids,
+          toDateTime64(first_ts, 3) AS first_ts,
+          toDateTime64(last_ts, 3) AS last_ts,
+          toFloat64(size_sum) AS size_sum,
+          toFloat64(notional_sum) AS notional_sum,
+          toFloat64(price_sum) AS price_sum
+        FROM user_trade_daily_agg
+        WHERE day NOT IN (%1$s)
+        UNION ALL
+        SELECT
+          username,
+          toDate(ts) AS day,
+          market_slug,
+          outcome,
+          side,
+          any(title) AS title,
+          count() AS trade_rows,
+          uniqExactState(token_id) AS token_ids,
+          min(ts) AS first_ts,
+          max(ts) AS last_ts,
+          sum(size) AS size_sum,
+          sum(size * price) AS notional_sum,
+          sum(price) AS price_sum
+        FROM user_trades_dedup
+        WHERE toDate(ts) IN (%1$s)
+        GROUP BY username, day, market_slug, outcome, side
+      )""";
 
   private final JdbcTemplate jdbcTemplate;
+  private final AnalyticsProperties properties;
+
+  private final Map<String, RollupHealth> rollupHealth = new ConcurrentHashMap<>();
 
   @Override
   public UserTradeStats stats(String username) {
+    String rollups = rollupSource(username);
+    if (rollups != null) {
+      String sql = """
+          SELECT
+            sum(trade_rows) AS trades,
+            min(first_ts) AS first_trade_at,
+            max(last_ts) AS last_trade_at,
+            uniqExact(market_slug) AS unique_markets,
+            uniqExactMerge(token_ids) AS unique_assets,
+            sum(notional_sum) AS notional_usd,
+            sum(price_sum) / sum(trade_rows) AS avg_price,
+            sum(size_sum) / sum(trade_rows) AS avg_size
+          FROM %s
+          WHERE username = ?
+          """.formatted(rollups);
+      return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> mapStats(rs), username);
+    }
     String sql = """
         SELECT
           count() AS trades,
@@ -38,6 +107,19 @@ public class JdbcUserTradeAnalyticsRepository implements UserTradeAnalyticsRepos
 
   @Override
   public List<NamedCount> sideBreakdown(String username) {
+    String rollups = rollupSource(username);
+    if (rollups != null) {
+      String sql = """
+          SELECT
+            side,
+            sum(trade_rows) AS trades
+          FROM %s
+          WHERE username = ?
+          GROUP BY side
+          ORDER BY trades DESC
+          """.formatted(rollups);
+      return jdbcTemplate.query(sql, (rs, rowNum) -> new NamedCount(rs.getString(1), rs.getLong(2)), username);
+    }
     String sql = """
         SELECT
           side,
@@ -52,6 +134,19 @@ public class JdbcUserTradeAnalyticsRepository implements UserTradeAnalyticsRepos
 
   @Override
   public List<NamedCount> outcomeBreakdown(String username) {
+    String rollups = rollupSource(username);
+    if (rollups != null) {
+      String sql = """
+          SELECT
+            outcome,
+            sum(trade_rows) AS trades
+          FROM %s
+          WHERE username = ?
+          GROUP BY outcome
+          ORDER BY trades DESC
+          """.formatted(rollups);
+      return jdbcTemplate.query(sql, (rs, rowNum) -> new NamedCount(rs.getString(1), rs.getLong(2)), username);
+    }
     String sql = """
         SELECT
           outcome,
@@ -67,7 +162,20 @@ public class JdbcUserTradeAnalyticsRepository implements UserTradeAnalyticsRepos
   @Override
   public List<MarketCount> topMarkets(String username, int limit) {
     int safeLimit = Math.max(1, Math.min(200, limit));
-    String sql = """
+    String rollups = rollupSource(username);
+    String sql = rollups != null
+        ? """
+        SELECT
+          market_slug AS slug,
+          anyLast(title) AS title,
+          sum(trade_rows) AS trades
+        FROM %s
+        WHERE username = ?
+        GROUP BY market_slug
+        ORDER BY trades DESC
+        LIMIT %d
+        """.formatted(rollups, safeLimit)
+        : """
         SELECT
           market_slug AS slug,
           any(title) AS title,
@@ -133,22 +241,10 @@ public class JdbcUserTradeAnalyticsRepository implements UserTradeAnalyticsRepos
             least(up_shares, down_shares) AS complete_set_shares,
             (1 - (up_avg_price + down_avg_price)) AS implied_edge_per_share
           FROM (
-            SELECT
-              market_slug,
-              sumIf(size, outcome = 'Up') AS up_shares,
-              sumIf(size * price, outcome = 'Up') AS up_cost,
-              sumIf(size, outcome = 'Down') AS down_shares,
-              sumIf(size * price, outcome = 'Down') AS down_cost,
-              if(up_shares > 0, up_cost / up_shares, 0) AS up_avg_price,
-              if(down_shares > 0, down_cost / down_shares, 0) AS down_avg_price
-            FROM user_trades_dedup
-            WHERE username = ?
-              AND side = 'BUY'
-              AND outcome IN ('Up', 'Down')
-            GROUP BY market_slug
+            %s
           )
         )
-        """;
+        """.formatted(upDownBuysByMarket(username));
 
     return jdbcTemplate.query(sql, rs -> {
       if (!rs.next()) {
@@ -210,24 +306,11 @@ public class JdbcUserTradeAnalyticsRepository implements UserTradeAnalyticsRepos
           (1 - (up_avg_price + down_avg_price)) AS implied_edge_per_share,
           least(up_shares, down_shares) * (1 - (up_avg_price + down_avg_price)) AS implied_edge_usd
         FROM (
-          SELECT
-            market_slug,
-            any(title) AS title,
-            sumIf(size, outcome = 'Up') AS up_shares,
-            sumIf(size * price, outcome = 'Up') AS up_cost,
-            sumIf(size, outcome = 'Down') AS down_shares,
-            sumIf(size * price, outcome = 'Down') AS down_cost,
-            if(up_shares > 0, up_cost / up_shares, 0) AS up_avg_price,
-            if(down_shares > 0, down_cost / down_shares, 0) AS down_avg_price
-          FROM user_trades_dedup
-          WHERE username = ?
-            AND side = 'BUY'
-            AND outcome IN ('Up', 'Down')
-          GROUP BY market_slug
+          %s
         )
         ORDER BY complete_set_shares DESC
         LIMIT %d
-        """.formatted(safeLimit);
+        """.formatted(upDownBuysByMarket(username), safeLimit);
     return jdbcTemplate.query(sql, (rs, rowNum) -> new CompleteSetMarket(
         rs.getString(1),
         rs.getString(2),
@@ -1084,6 +1167,175 @@ public class JdbcUserTradeAnalyticsRepository implements UserTradeAnalyticsRepos
     ), username);
   }
 
+  @Override
+  public AggregateConsistency aggregateConsistency(String username) {
+    String aggSql = """
+        SELECT
+          sum(trade_rows) AS trade_rows,
+          uniqExactMerge(trade_keys) AS trades,
+          sum(notional_sum) AS notional_usd,
+          sum(size_sum) AS shares
+        FROM user_trade_daily_agg
+        WHERE username = ?
+        """;
+    String rawSql = """
+        SELECT
+          count() AS trades,
+          sum(size * price) AS notional_usd,
+          sum(size) AS shares
+        FROM user_trades_dedup
+        WHERE username = ?
+        """;
+    double[] agg = jdbcTemplate.queryForObject(aggSql, (rs, rowNum) -> new double[]{
+        rs.getLong(1), rs.getLong(2), rs.getDouble(3), rs.getDouble(4)
+    }, username);
+    double[] raw = jdbcTemplate.queryForObject(rawSql, (rs, rowNum) -> new double[]{
+        rs.getLong(1), rs.getDouble(2), rs.getDouble(3)
+    }, username);
+    long aggRows = (long) agg[0];
+    long aggTrades = (long) agg[1];
+    long rawTrades = (long) raw[0];
+    boolean duplicateFree = aggRows == aggTrades;
+    boolean consistent = aggTrades == rawTrades
+        && (!duplicateFree || (nearlyEqual(agg[2], raw[1]) && nearlyEqual(agg[3], raw[2])));
+    return new AggregateConsistency(
+        username,
+        aggRows,
+        aggTrades,
+        rawTrades,
+        agg[2],
+        raw[1],
+        agg[3],
+        raw[2],
+        duplicateFree,
+        consistent
+    );
+  }
+
+  @Override
+  public Instant tradesWatermark(String username) {
+    try {
+      return jdbcTemplate.queryForObject(
+          "SELECT max(max_ingested_at) FROM user_trade_daily_agg WHERE username = ?",
+          (rs, rowNum) -> rs.getTimestamp(1).toInstant(),
+          username
+      );
+    } catch (DataAccessException e) {
+      log.debug("user_trade_daily_agg unavailable, reading watermark from user_trades username={} error={}", username, e.toString());
+      return jdbcTemplate.queryForObject(
+          "SELECT max(ingested_at) FROM user_trades WHERE username = ?",
+          (rs, rowNum) -> rs.getTimestamp(1).toInstant(),
+          username
+      );
+    }
+  }
+
+  /**
+   * Per-market BUY Up/Down shares and average prices, from the rollups when usable, else from user_trades_dedup.
+   * Expects a single {@code username} bind parameter.
+   */
+  private String upDownBuysByMarket(String username) {
+    String rollups = rollupSource(username);
+    if (rollups != null) {
+      return """
+          SELECT
+            market_slug,
+            anyLast(title) AS title,
+            sumIf(size_sum, outcome = 'Up') AS up_shares,
+            sumIf(notional_sum, outcome = 'Up') AS up_cost,
+            sumIf(size_sum, outcome = 'Down') AS down_shares,
+            sumIf(notional_sum, outcome = 'Down') AS down_cost,
+            if(up_shares > 0, up_cost / up_shares, 0) AS up_avg_price,
+            if(down_shares > 0, down_cost / down_shares, 0) AS down_avg_price
+          FROM %s
+          WHERE username = ?
+            AND side = 'BUY'
+            AND outcome IN ('Up', 'Down')
+          GROUP BY market_slug
+          """.formatted(rollups);
+    }
+    return """
+        SELECT
+          market_slug,
+          any(title) AS title,
+          sumIf(size, outcome = 'Up') AS up_shares,
+          sumIf(size * price, outcome = 'Up') AS up_cost,
+          sumIf(size, outcome = 'Down') AS down_shares,
+          sumIf(size * price, outcome = 'Down') AS down_cost,
+          if(up_shares > 0, up_cost / up_shares, 0) AS up_avg_price,
+          if(down_shares > 0, down_cost / down_shares, 0) AS down_avg_price
+        FROM user_trades_dedup
+        WHERE username = ?
+          AND side = 'BUY'
+          AND outcome IN ('Up', 'Down')
+        GROUP BY market_slug
+        """;
+  }
+
+  /**
+   * Source for the rollup queries, or null when they read user_trades_dedup instead (rollups disabled, missing, or
+   * empty for the user). Re-published duplicates inflate the rollup sums of the day they land on, so only those days
+   * are re-aggregated from user_trades_dedup; the rest of the user's history still comes from the rollups.
+   */
+  private String rollupSource(String username) {
+    if (!properties.userTrades().aggregatesEnabled()) {
+      return null;
+    }
+    RollupHealth health;
+    try {
+      health = rollupHealth(username);
+    } catch (DataAccessException e) {
+      log.debug("user_trade_daily_agg unavailable, using user_trades_dedup username={} error={}", username, e.toString());
+      return null;
+    }
+    if (health == null) {
+      return null;
+    }
+    if (health.duplicateDays().isEmpty()) {
+      return ROLLUPS;
+    }
+    String days = health.duplicateDays().stream().map(d -> "'" + d + "'").collect(Collectors.joining(", "));
+    return ROLLUPS_WITH_RAW_DAYS.formatted(days);
+  }
+
+  /**
+   * Days with duplicates, re-checked only when the user's rollups have taken new inserts since the last check.
+   */
+  private RollupHealth rollupHealth(String username) {
+    RollupHealth current = jdbcTemplate.query(
+        "SELECT count(), max(max_ingested_at) FROM user_trade_daily_agg WHERE username = ?",
+        rs -> rs.next() && rs.getLong(1) > 0 ? new RollupHealth(rs.getTimestamp(2).toInstant(), List.of()) : null,
+        username
+    );
+    if (current == null) {
+      rollupHealth.remove(username);
+      return null;
+    }
+    RollupHealth cached = rollupHealth.get(username);
+    if (cached != null && cached.watermark().equals(current.watermark())) {
+      return cached;
+    }
+    List<LocalDate> duplicateDays = jdbcTemplate.query("""
+        SELECT day
+        FROM user_trade_daily_agg
+        WHERE username = ?
+        GROUP BY day
+        HAVING sum(trade_rows) != uniqExactMerge(trade_keys)
+        ORDER BY day
+        """, (rs, rowNum) -> rs.getDate(1).toLocalDate(), username);
+    RollupHealth checked = new RollupHealth(current.watermark(), List.copyOf(duplicateDays));
+    if (!duplicateDays.isEmpty() && (cached == null || !cached.duplicateDays().equals(checked.duplicateDays()))) {
+      log.info("user_trade_daily_agg has re-published duplicates username={} days={}, reading them from user_trades_dedup",
+          username, duplicateDays);
+    }
+    rollupHealth.put(username, checked);
+    return checked;
+  }
+
+  private static boolean nearlyEqual(double a, double b) {
+    return Math.abs(a - b) <= EPS * Math.max(1.0, Math.max(Math.abs(a), Math.abs(b)));
+  }
+
   private static UserTradeStats mapStats(ResultSet rs) {
     try {
       long trades = rs.getLong(1);
@@ -1119,4 +1371,7 @@ public class JdbcUserTradeAnalyticsRepository implements UserTradeAnalyticsRepos
   private static SideExecutionReport emptySideExecutionReport() {
     return new SideExecutionReport(0, 0, 0, 0, emptyDistribution(), emptyDistribution(), emptyDistribution());
   }
+
+  private record RollupHealth(Instant watermark, List<LocalDate> duplicateDays) {
+  }
 }
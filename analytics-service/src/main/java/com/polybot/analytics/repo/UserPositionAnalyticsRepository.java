@@ -2,6 +2,7 @@ package com.polybot.analytics.repo;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserPositionAnalyticsRepository {
 
@@ -13,6 +14,11 @@ public interface UserPositionAnalyticsRepository {
 
   List<LedgerRow> ledger(String username, String marketSlug, String tokenId, int limit);
 
+  /**
+   * Full ledger for one token in ascending order, handed to {@code sink} row by row (no row cap).
+   */
+  void streamLedger(String username, String marketSlug, String tokenId, Consumer<LedgerRow> sink);
+
   List<UpDown15mAssetPnl> upDown15mRealizedPnlByAsset(String username);
 
   List<UpDown15mEntryBucketPnl> upDown15mRealizedPnlByEntryBucket(String username, int bucketSeconds);
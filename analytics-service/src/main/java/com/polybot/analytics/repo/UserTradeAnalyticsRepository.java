@@ -58,6 +58,16 @@ public interface UserTradeAnalyticsRepository {
 
   List<SeriesPnl> realizedPnlBySeries(String username);
 
+  /**
+   * Compares the user_trade_daily_agg rollups with the raw user_trades_dedup path for one user.
+   */
+  AggregateConsistency aggregateConsistency(String username);
+
+  /**
+   * Latest {@code ingested_at} across the user's trades; advances whenever a new trade for the user lands.
+   */
+  Instant tradesWatermark(String username);
+
   record UserTradeStats(
       long trades,
       Instant firstTradeAt,
@@ -322,4 +332,18 @@ public interface UserTradeAnalyticsRepository {
       double notionalUsd
   ) {
   }
+
+  record AggregateConsistency(
+      String username,
+      long aggregateRows,
+      long aggregateTrades,
+      long rawTrades,
+      double aggregateNotionalUsd,
+      double rawNotionalUsd,
+      double aggregateShares,
+      double rawShares,
+      boolean duplicateFree,
+      boolean consistent
+  ) {
+  }
 }
@@ -0,0 +1,168 @@
+package com.polybot.analytics.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polybot.analytics.config.AnalyticsProperties;
+import com.polybot.analytics.repo.AnalyticsExportRepository;
+import com.polybot.analytics.repo.UserPositionAnalyticsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Bulk exports as newline-delimited JSON. Rows are written while the ClickHouse result set is being read, so
+ * memory use does not grow with the result size. Event and trade exports page by an exclusive
+ * {@code (afterTs, afterTopic, afterPartition, afterOffset)} cursor taken from the last row received; a page shorter
+ * than {@code limit} is the last one. Trade rows have no topic, so their cursors leave {@code afterTopic} out.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/analytics/export")
+@RequiredArgsConstructor
+public class AnalyticsExportController {
+
+  public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+  private final AnalyticsExportRepository exportRepository;
+  private final UserPositionAnalyticsRepository positionRepository;
+  private final AnalyticsProperties properties;
+  private final ObjectMapper objectMapper;
+
+  @GetMapping("/events")
+  public ResponseEntity<StreamingResponseBody> events(
+      @RequestParam(name = "type", required = false) String type,
+      @RequestParam(name = "afterTs", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant afterTs,
+      @RequestParam(name = "afterTopic", required = false, defaultValue = "") String afterTopic,
+      @RequestParam(name = "afterPartition", required = false, defaultValue = "-1") int afterPartition,
+      @RequestParam(name = "afterOffset", required = false, defaultValue = "-1") long afterOffset,
+      @RequestParam(name = "limit", required = false) Long limit
+  ) {
+    AnalyticsExportRepository.Cursor cursor = cursor(afterTs, afterTopic, afterPartition, afterOffset);
+    long safeLimit = safeLimit(limit);
+    return ndjson(out -> exportRepository.streamEvents(type, cursor, safeLimit, row -> out.write(gen -> {
+      gen.writeStartObject();
+      gen.writeStringField("ts", row.ts().toString());
+      gen.writeStringField("source", row.source());
+      gen.writeStringField("type", row.type());
+      gen.writeStringField("kafkaTopic", row.kafkaTopic());
+      gen.writeNumberField("kafkaPartition", row.kafkaPartition());
+      gen.writeNumberField("kafkaOffset", row.kafkaOffset());
+      gen.writeStringField("kafkaKey", row.kafkaKey());
+      gen.writeFieldName("data");
+      // data is stored as a JSON string; pass it through instead of parsing it into a tree per row.
+      if (row.dataJson() == null || row.dataJson().isBlank()) {
+        gen.writeNull();
+      } else {
+        gen.writeRawValue(row.dataJson());
+      }
+      gen.writeStringField("ingestedAt", row.ingestedAt().toString());
+      gen.writeEndObject();
+    })));
+  }
+
+  /**
+   * Raw user_trades rows (not deduplicated); consumers keep the highest kafkaOffset per eventKey.
+   */
+  @GetMapping("/users/{username}/trades")
+  public ResponseEntity<StreamingResponseBody> userTrades(
+      @PathVariable("username") String username,
+      @RequestParam(name = "afterTs", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant afterTs,
+      @RequestParam(name = "afterPartition", required = false, defaultValue = "-1") int afterPartition,
+      @RequestParam(name = "afterOffset", required = false, defaultValue = "-1") long afterOffset,
+      @RequestParam(name = "limit", required = false) Long limit
+  ) {
+    AnalyticsExportRepository.Cursor cursor = cursor(afterTs, "", afterPartition, afterOffset);
+    long safeLimit = safeLimit(limit);
+    return ndjson(out -> exportRepository.streamUserTrades(username, cursor, safeLimit, row -> out.write(gen -> gen.writeObject(row))));
+  }
+
+  /**
+   * Full position ledger for one token, oldest first. Unlike {@code /positions/ledger} it is not capped.
+   */
+  @GetMapping("/users/{username}/positions/ledger")
+  public ResponseEntity<StreamingResponseBody> ledger(
+      @PathVariable("username") String username,
+      @RequestParam("marketSlug") String marketSlug,
+      @RequestParam("tokenId") String tokenId
+  ) {
+    return ndjson(out -> positionRepository.streamLedger(username, marketSlug, tokenId, row -> out.write(gen -> gen.writeObject(row))));
+  }
+
+  private ResponseEntity<StreamingResponseBody> ndjson(Consumer<RowWriter> body) {
+    int flushEvery = properties.export().flushEveryRows();
+    StreamingResponseBody stream = out -> {
+      try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+        // The servlet container owns the response stream.
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.setRootValueSeparator(null);
+        RowWriter writer = new RowWriter(gen, flushEvery);
+        body.accept(writer);
+        gen.flush();
+        log.debug("export finished rows={}", writer.rows);
+      } catch (UncheckedIOException e) {
+        // Usually the client went away mid-stream; the query has already been abandoned by then.
+        throw e.getCause();
+      }
+    };
+    return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(stream);
+  }
+
+  private long safeLimit(Long limit) {
+    long max = properties.export().maxRowsPerRequest();
+    if (limit == null) {
+      return max;
+    }
+    return Math.max(1, Math.min(max, limit));
+  }
+
+  private static AnalyticsExportRepository.Cursor cursor(Instant afterTs, String afterTopic, int afterPartition,
+                                                         long afterOffset) {
+    return afterTs == null ? null : new AnalyticsExportRepository.Cursor(afterTs, afterTopic, afterPartition, afterOffset);
+  }
+
+  @FunctionalInterface
+  private interface RowBody {
+    void write(JsonGenerator gen) throws IOException;
+  }
+
+  /**
+   * Writes one row per line and flushes every {@code flushEvery} rows. IOExceptions (typically a disconnected
+   * client) are rethrown unchecked so they abort the JDBC row callback.
+   */
+  private static final class RowWriter {
+    private final JsonGenerator gen;
+    private final int flushEvery;
+    private long rows;
+
+    private RowWriter(JsonGenerator gen, int flushEvery) {
+      this.gen = gen;
+      this.flushEvery = flushEvery;
+    }
+
+    private void write(RowBody body) {
+      try {
+        body.write(gen);
+        gen.writeRaw('\n');
+        rows++;
+        if (rows % flushEvery == 0) {
+          gen.flush();
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
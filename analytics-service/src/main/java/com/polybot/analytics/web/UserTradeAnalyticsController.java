@@ -1,5 +1,6 @@
 package com.polybot.analytics.web;
 
+import com.polybot.analytics.cache.AnalyticsResultCache;
 import com.polybot.analytics.repo.UserTradeAnalyticsRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,6 +10,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/analytics/users/{username}/trades")
@@ -16,21 +21,37 @@ import java.util.List;
 public class UserTradeAnalyticsController {
 
   private final UserTradeAnalyticsRepository repository;
+  private final AnalyticsResultCache cache;
+  private final ExecutorService analyticsQueryExecutor;
 
   @GetMapping("/report")
   public UserTradeReport report(
       @PathVariable("username") String username,
       @RequestParam(name = "topMarkets", required = false, defaultValue = "20") int topMarkets
   ) {
+    return cache.get("/report", username, List.of(topMarkets), () -> loadReport(username, topMarkets));
+  }
+
+  /**
+   * The report sections are independent queries; run them concurrently so a cold report costs the slowest one.
+   */
+  private UserTradeReport loadReport(String username, int topMarkets) {
+    var stats = async(() -> repository.stats(username));
+    var sideBreakdown = async(() -> repository.sideBreakdown(username));
+    var outcomeBreakdown = async(() -> repository.outcomeBreakdown(username));
+    var timing = async(() -> repository.upDown15mTiming(username));
+    var completeSets = async(() -> repository.completeSetStats(username));
+    var realizedPnl = async(() -> repository.realizedPnl(username));
+    var markets = async(() -> repository.topMarkets(username, topMarkets));
     return new UserTradeReport(
         username,
-        repository.stats(username),
-        repository.sideBreakdown(username),
-        repository.outcomeBreakdown(username),
-        repository.upDown15mTiming(username),
-        repository.completeSetStats(username),
-        repository.realizedPnl(username),
-        repository.topMarkets(username, topMarkets)
+        await(stats),
+        await(sideBreakdown),
+        await(outcomeBreakdown),
+        await(timing),
+        await(completeSets),
+        await(realizedPnl),
+        await(markets)
     );
   }
 
@@ -39,7 +60,7 @@ public class UserTradeAnalyticsController {
       @PathVariable("username") String username,
       @RequestParam(name = "limit", required = false, defaultValue = "50") int limit
   ) {
-    return repository.completeSetMarkets(username, limit);
+    return cache.get("/complete-sets", username, List.of(limit), () -> repository.completeSetMarkets(username, limit));
   }
 
   @GetMapping("/complete-sets/detected")
@@ -47,7 +68,7 @@ public class UserTradeAnalyticsController {
       @PathVariable("username") String username,
       @RequestParam(name = "windowSeconds", required = false, defaultValue = "10") int windowSeconds
   ) {
-    return repository.detectedCompleteSetStats(username, windowSeconds);
+    return cache.get("/complete-sets/detected", username, List.of(windowSeconds), () -> repository.detectedCompleteSetStats(username, windowSeconds));
   }
 
   @GetMapping("/complete-sets/detected/markets")
@@ -56,21 +77,21 @@ public class UserTradeAnalyticsController {
       @RequestParam(name = "windowSeconds", required = false, defaultValue = "10") int windowSeconds,
       @RequestParam(name = "limit", required = false, defaultValue = "50") int limit
   ) {
-    return repository.detectedCompleteSetMarkets(username, windowSeconds, limit);
+    return cache.get("/complete-sets/detected/markets", username, List.of(windowSeconds, limit), () -> repository.detectedCompleteSetMarkets(username, windowSeconds, limit));
   }
 
   @GetMapping("/execution")
   public UserTradeAnalyticsRepository.ExecutionQualityStats execution(
       @PathVariable("username") String username
   ) {
-    return repository.executionQuality(username);
+    return cache.get("/execution", username, List.of(), () -> repository.executionQuality(username));
   }
 
   @GetMapping("/execution/report")
   public UserTradeAnalyticsRepository.ExecutionQualityReport executionReport(
       @PathVariable("username") String username
   ) {
-    return repository.executionQualityReport(username);
+    return cache.get("/execution/report", username, List.of(), () -> repository.executionQualityReport(username));
   }
 
   @GetMapping("/pnl/markets")
@@ -78,21 +99,21 @@ public class UserTradeAnalyticsController {
       @PathVariable("username") String username,
       @RequestParam(name = "limit", required = false, defaultValue = "50") int limit
   ) {
-    return repository.realizedPnlByMarket(username, limit);
+    return cache.get("/pnl/markets", username, List.of(limit), () -> repository.realizedPnlByMarket(username, limit));
   }
 
   @GetMapping("/pnl/execution")
   public List<UserTradeAnalyticsRepository.ExecutionTypePnl> pnlByExecutionType(
       @PathVariable("username") String username
   ) {
-    return repository.realizedPnlByExecutionType(username);
+    return cache.get("/pnl/execution", username, List.of(), () -> repository.realizedPnlByExecutionType(username));
   }
 
   @GetMapping("/pnl/series")
   public List<UserTradeAnalyticsRepository.SeriesPnl> pnlBySeries(
       @PathVariable("username") String username
   ) {
-    return repository.realizedPnlBySeries(username);
+    return cache.get("/pnl/series", username, List.of(), () -> repository.realizedPnlBySeries(username));
   }
 
   @GetMapping("/pnl/timing/updown-15m")
@@ -100,7 +121,7 @@ public class UserTradeAnalyticsController {
       @PathVariable("username") String username,
       @RequestParam(name = "bucketSeconds", required = false, defaultValue = "60") int bucketSeconds
   ) {
-    return repository.upDown15mPnlByTimingBucket(username, bucketSeconds);
+    return cache.get("/pnl/timing/updown-15m", username, List.of(bucketSeconds), () -> repository.upDown15mPnlByTimingBucket(username, bucketSeconds));
   }
 
   @GetMapping("/timing/updown-15m/buckets")
@@ -108,56 +129,56 @@ public class UserTradeAnalyticsController {
       @PathVariable("username") String username,
       @RequestParam(name = "bucketSeconds", required = false, defaultValue = "60") int bucketSeconds
   ) {
-    return repository.upDown15mTimingBuckets(username, bucketSeconds);
+    return cache.get("/timing/updown-15m/buckets", username, List.of(bucketSeconds), () -> repository.upDown15mTimingBuckets(username, bucketSeconds));
   }
 
   @GetMapping("/activity/hourly")
   public List<UserTradeAnalyticsRepository.HourlyTradeActivity> hourlyActivity(
       @PathVariable("username") String username
   ) {
-    return repository.hourlyTradeActivity(username);
+    return cache.get("/activity/hourly", username, List.of(), () -> repository.hourlyTradeActivity(username));
   }
 
   @GetMapping("/selection/updown-15m/assets")
   public List<UserTradeAnalyticsRepository.UpDown15mAssetActivity> upDown15mAssets(
       @PathVariable("username") String username
   ) {
-    return repository.upDown15mAssetActivity(username);
+    return cache.get("/selection/updown-15m/assets", username, List.of(), () -> repository.upDown15mAssetActivity(username));
   }
 
   @GetMapping("/selection/summary")
   public UserTradeAnalyticsRepository.MarketSelectionSummary selectionSummary(
       @PathVariable("username") String username
   ) {
-    return repository.selectionSummary(username);
+    return cache.get("/selection/summary", username, List.of(), () -> repository.selectionSummary(username));
   }
 
   @GetMapping("/selection/series")
   public List<UserTradeAnalyticsRepository.SeriesActivity> selectionSeries(
       @PathVariable("username") String username
   ) {
-    return repository.seriesActivity(username);
+    return cache.get("/selection/series", username, List.of(), () -> repository.seriesActivity(username));
   }
 
   @GetMapping("/churn")
   public UserTradeAnalyticsRepository.MarketChurnStats churn(
       @PathVariable("username") String username
   ) {
-    return repository.marketChurn(username);
+    return cache.get("/churn", username, List.of(), () -> repository.marketChurn(username));
   }
 
   @GetMapping("/timing/updown-15m/assets")
   public List<UserTradeAnalyticsRepository.UpDown15mAssetTimingQuantiles> upDown15mTimingByAsset(
       @PathVariable("username") String username
   ) {
-    return repository.upDown15mTimingQuantilesByAsset(username);
+    return cache.get("/timing/updown-15m/assets", username, List.of(), () -> repository.upDown15mTimingQuantilesByAsset(username));
   }
 
   @GetMapping("/timing/updown-15m/outcomes")
   public List<UserTradeAnalyticsRepository.UpDown15mOutcomeTimingQuantiles> upDown15mTimingByOutcome(
       @PathVariable("username") String username
   ) {
-    return repository.upDown15mTimingQuantilesByOutcome(username);
+    return cache.get("/timing/updown-15m/outcomes", username, List.of(), () -> repository.upDown15mTimingQuantilesByOutcome(username));
   }
 
   @GetMapping("/timing/updown-15m/markets")
@@ -165,14 +186,36 @@ public class UserTradeAnalyticsController {
       @PathVariable("username") String username,
       @RequestParam(name = "limit", required = false, defaultValue = "50") int limit
   ) {
-    return repository.upDown15mTimingQuantilesByMarket(username, limit);
+    return cache.get("/timing/updown-15m/markets", username, List.of(limit), () -> repository.upDown15mTimingQuantilesByMarket(username, limit));
   }
 
   @GetMapping("/timing/updown-15m/daily-assets")
   public List<UserTradeAnalyticsRepository.UpDown15mDailyAssetTiming> upDown15mTimingDailyAssets(
       @PathVariable("username") String username
   ) {
-    return repository.upDown15mDailyTimingByAsset(username);
+    return cache.get("/timing/updown-15m/daily-assets", username, List.of(), () -> repository.upDown15mDailyTimingByAsset(username));
+  }
+
+  @GetMapping("/aggregates/consistency")
+  public UserTradeAnalyticsRepository.AggregateConsistency aggregateConsistency(
+      @PathVariable("username") String username
+  ) {
+    return repository.aggregateConsistency(username);
+  }
+
+  private <T> CompletableFuture<T> async(Supplier<T> query) {
+    return CompletableFuture.supplyAsync(query, analyticsQueryExecutor);
+  }
+
+  private static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw e;
+    }
   }
 
   public record UserTradeReport(
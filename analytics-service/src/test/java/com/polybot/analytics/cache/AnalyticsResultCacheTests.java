@@ -0,0 +1,47 @@
+package com.polybot.analytics.cache;
+
+import com.polybot.analytics.config.AnalyticsProperties;
+import com.polybot.analytics.repo.UserTradeAnalyticsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AnalyticsResultCacheTests {
+
+  private final UserTradeAnalyticsRepository repository = mock(UserTradeAnalyticsRepository.class);
+  private final AnalyticsResultCache cache = new AnalyticsResultCache(
+      new AnalyticsProperties(null, new AnalyticsProperties.Cache(true, 10, 0L, 60_000L), null),
+      repository,
+      new SimpleMeterRegistry()
+  );
+
+  @Test
+  void servesCachedValueUntilWatermarkAdvances() {
+    AtomicInteger loads = new AtomicInteger();
+    when(repository.tradesWatermark("alice")).thenReturn(Instant.ofEpochSecond(1));
+
+    assertThat(cache.get("/report", "alice", List.of(20), loads::incrementAndGet)).isEqualTo(1);
+    assertThat(cache.get("/report", "alice", List.of(20), loads::incrementAndGet)).isEqualTo(1);
+    assertThat(cache.get("/report", "alice", List.of(50), loads::incrementAndGet)).isEqualTo(2);
+
+    when(repository.tradesWatermark("alice")).thenReturn(Instant.ofEpochSecond(2));
+    assertThat(cache.get("/report", "alice", List.of(20), loads::incrementAndGet)).isEqualTo(3);
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedBeyondCapacity() {
+    when(repository.tradesWatermark("bob")).thenReturn(Instant.EPOCH);
+    for (int i = 0; i < 15; i++) {
+      int n = i;
+      cache.get("/pnl/markets", "bob", List.of(n), () -> n);
+    }
+    assertThat(cache.size()).isEqualTo(10);
+  }
+}
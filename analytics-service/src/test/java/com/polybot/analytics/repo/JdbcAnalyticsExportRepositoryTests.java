@@ -0,0 +1,101 @@
+package com.polybot.analytics.repo;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset paging against ClickHouse over rows that share ts and offsets across topics and partitions. Needs a
+ * ClickHouse initialised from {@code clickhouse/init}, e.g.
+ * {@code ANALYTICS_PARITY_DB_URL=jdbc:clickhouse://localhost:8123/polybot}.
+ */
+@EnabledIfEnvironmentVariable(named = "ANALYTICS_PARITY_DB_URL", matches = ".+")
+class JdbcAnalyticsExportRepositoryTests {
+
+  private static final String TYPE = "export-" + UUID.randomUUID();
+  private static final String USERNAME = "export-" + UUID.randomUUID();
+  private static final Instant TS = Instant.parse("2026-01-05T10:00:00Z");
+
+  private static JdbcAnalyticsExportRepository repository;
+  private static List<String> events;
+  private static List<String> trades;
+
+  @BeforeAll
+  static void insertRows() {
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(System.getenv("ANALYTICS_PARITY_DB_URL")));
+    repository = new JdbcAnalyticsExportRepository(jdbcTemplate);
+
+    List<Object[]> eventRows = new ArrayList<>();
+    List<Object[]> tradeRows = new ArrayList<>();
+    events = new ArrayList<>();
+    trades = new ArrayList<>();
+    for (String topic : List.of("polybot.events", "polybot.replay")) {
+      for (int partition = 0; partition < 3; partition++) {
+        for (long offset = 100; offset < 102; offset++) {
+          eventRows.add(new Object[]{Timestamp.from(TS), TYPE, topic, partition, offset});
+          events.add(topic + "/" + partition + ":" + offset);
+        }
+      }
+    }
+    for (int partition = 0; partition < 3; partition++) {
+      for (long offset = 100; offset < 103; offset++) {
+        tradeRows.add(new Object[]{Timestamp.from(TS), USERNAME, "e-" + partition + "-" + offset, partition, offset});
+        trades.add(partition + ":" + offset);
+      }
+    }
+    // Inserted out of order: the export must sort, not rely on insertion order.
+    jdbcTemplate.batchUpdate("""
+        INSERT INTO polybot.analytics_events
+          (ts, source, type, data, ingested_at, kafka_topic, kafka_partition, kafka_offset, kafka_timestamp, kafka_key)
+        VALUES (?, 'test', ?, '{}', now64(3), ?, ?, ?, now64(3), '')
+        """, eventRows.reversed());
+    jdbcTemplate.batchUpdate("""
+        INSERT INTO polybot.user_trades
+          (ts, username, market_slug, title, token_id, side, outcome, price, size, event_key, ingested_at,
+           kafka_partition, kafka_offset)
+        VALUES (?, ?, 'm', 'm', '1', 'BUY', 'Up', 0.5, 10, ?, now64(3), ?, ?)
+        """, tradeRows.reversed());
+  }
+
+  @Test
+  void eventsPageWithoutGapsOrRepeats() {
+    List<String> exported = new ArrayList<>();
+    AnalyticsExportRepository.Cursor after = null;
+    int page;
+    do {
+      List<AnalyticsExportRepository.RawEvent> rows = new ArrayList<>();
+      repository.streamEvents(TYPE, after, 5, rows::add);
+      rows.forEach(e -> exported.add(e.kafkaTopic() + "/" + e.kafkaPartition() + ":" + e.kafkaOffset()));
+      page = rows.size();
+      if (page > 0) {
+        AnalyticsExportRepository.RawEvent last = rows.getLast();
+        after = new AnalyticsExportRepository.Cursor(last.ts(), last.kafkaTopic(), last.kafkaPartition(), last.kafkaOffset());
+      }
+    } while (page == 5);
+
+    assertThat(exported).containsExactlyElementsOf(events);
+  }
+
+  @Test
+  void userTradesResumeFromAnyRow() {
+    for (int resumeAt = 0; resumeAt < trades.size(); resumeAt++) {
+      String[] key = trades.get(resumeAt).split(":");
+      List<String> rest = new ArrayList<>();
+      repository.streamUserTrades(USERNAME,
+          new AnalyticsExportRepository.Cursor(TS, "", Integer.parseInt(key[0]), Long.parseLong(key[1])), 100,
+          t -> rest.add(t.kafkaPartition() + ":" + t.kafkaOffset()));
+
+      assertThat(rest).containsExactlyElementsOf(trades.subList(resumeAt + 1, trades.size()));
+    }
+  }
+}
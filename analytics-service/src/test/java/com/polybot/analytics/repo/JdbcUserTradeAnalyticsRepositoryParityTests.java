@@ -0,0 +1,102 @@
+package com.polybot.analytics.repo;
+
+import com.polybot.analytics.config.AnalyticsProperties;
+import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rollup queries against the user_trades_dedup path on the same trades, including a day with a re-published trade.
+ * Needs a ClickHouse initialised from {@code clickhouse/init}, e.g.
+ * {@code ANALYTICS_PARITY_DB_URL=jdbc:clickhouse://localhost:8123/polybot}.
+ */
+@EnabledIfEnvironmentVariable(named = "ANALYTICS_PARITY_DB_URL", matches = ".+")
+class JdbcUserTradeAnalyticsRepositoryParityTests {
+
+  private static final String USERNAME = "parity-" + UUID.randomUUID();
+  private static final Instant DAY_1 = Instant.parse("2026-01-05T10:00:00Z");
+  private static final Instant DAY_2 = Instant.parse("2026-01-06T10:00:00Z");
+  private static final RecursiveComparisonConfiguration CLOSE_DOUBLES = RecursiveComparisonConfiguration.builder()
+      .withComparatorForType((Double a, Double b) -> Math.abs(a - b) <= 1e-9 ? 0 : Double.compare(a, b), Double.class)
+      .build();
+
+  private static JdbcTemplate jdbcTemplate;
+  private static JdbcUserTradeAnalyticsRepository rollups;
+  private static JdbcUserTradeAnalyticsRepository raw;
+
+  @BeforeAll
+  static void insertTrades() {
+    jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(System.getenv("ANALYTICS_PARITY_DB_URL")));
+    rollups = new JdbcUserTradeAnalyticsRepository(jdbcTemplate, properties(true));
+    raw = new JdbcUserTradeAnalyticsRepository(jdbcTemplate, properties(false));
+
+    List<Object[]> rows = new ArrayList<>();
+    long offset = 0;
+    for (int i = 0; i < 6; i++) {
+      String market = "btc-updown-15m-" + (i % 3);
+      rows.add(trade(DAY_1.plusSeconds(i * 60L), market, i % 2 == 0 ? "Up" : "Down", "BUY", 0.40 + i * 0.01, 10 + i, "d1-" + i, offset++));
+    }
+    rows.add(trade(DAY_2, "eth-updown-15m-0", "Up", "BUY", 0.47, 25, "d2-0", offset++));
+    rows.add(trade(DAY_2.plusSeconds(30), "eth-updown-15m-0", "Down", "BUY", 0.49, 20, "d2-1", offset++));
+    rows.add(trade(DAY_2.plusSeconds(90), "eth-updown-15m-0", "Up", "SELL", 0.55, 5, "d2-2", offset++));
+    // The ingestor re-published d2-1 after a restart.
+    rows.add(trade(DAY_2.plusSeconds(30), "eth-updown-15m-0", "Down", "BUY", 0.49, 20, "d2-1", offset++));
+    jdbcTemplate.batchUpdate("""
+        INSERT INTO polybot.user_trades
+          (ts, username, market_slug, title, token_id, side, outcome, price, size, event_key, ingested_at, kafka_offset)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now64(3), ?)
+        """, rows);
+  }
+
+  @Test
+  void duplicateDayIsDetected() {
+    assertThat(rollups.aggregateConsistency(USERNAME).duplicateFree()).isFalse();
+  }
+
+  @Test
+  void statsMatch() {
+    var expected = raw.stats(USERNAME);
+    var actual = rollups.stats(USERNAME);
+
+    assertThat(actual.trades()).isEqualTo(9);
+    assertThat(actual).usingRecursiveComparison(CLOSE_DOUBLES).isEqualTo(expected);
+  }
+
+  @Test
+  void breakdownsMatch() {
+    assertThat(rollups.sideBreakdown(USERNAME)).containsExactlyInAnyOrderElementsOf(raw.sideBreakdown(USERNAME));
+    assertThat(rollups.outcomeBreakdown(USERNAME)).containsExactlyInAnyOrderElementsOf(raw.outcomeBreakdown(USERNAME));
+    assertThat(rollups.topMarkets(USERNAME, 10)).containsExactlyInAnyOrderElementsOf(raw.topMarkets(USERNAME, 10));
+  }
+
+  @Test
+  void completeSetsMatch() {
+    assertThat(rollups.completeSetStats(USERNAME)).usingRecursiveComparison(CLOSE_DOUBLES)
+        .isEqualTo(raw.completeSetStats(USERNAME));
+    assertThat(rollups.completeSetMarkets(USERNAME, 10)).usingRecursiveFieldByFieldElementComparator(CLOSE_DOUBLES)
+        .containsExactlyInAnyOrderElementsOf(raw.completeSetMarkets(USERNAME, 10));
+  }
+
+  private static AnalyticsProperties properties(boolean aggregatesEnabled) {
+    return new AnalyticsProperties(new AnalyticsProperties.UserTrades(aggregatesEnabled), null, null);
+  }
+
+  private static Object[] trade(Instant ts, String market, String outcome, String side, double price, double size,
+                                String key, long offset) {
+    return new Object[]{
+        Timestamp.from(ts), USERNAME, market, market, market + "-" + outcome, side, outcome, price, size,
+        USERNAME + "-" + key, offset
+    };
+  }
+}
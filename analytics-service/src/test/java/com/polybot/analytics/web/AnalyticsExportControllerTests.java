@@ -0,0 +1,214 @@
+package com.polybot.analytics.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.polybot.analytics.client.AnalyticsExportClient;
+import com.polybot.analytics.config.AnalyticsProperties;
+import com.polybot.analytics.repo.AnalyticsExportRepository;
+import com.polybot.analytics.repo.UserPositionAnalyticsRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Drives the export endpoints through {@link AnalyticsExportClient} over HTTP. The repository is an in-memory stand-in
+ * that applies the documented ordering and exclusive cursor, so what is under test is the cursor round trip: the
+ * controller's parameters, the rows it writes, and the client's paging on top of them.
+ */
+class AnalyticsExportControllerTests {
+
+  private static final Instant TS = Instant.parse("2026-01-05T10:00:00Z");
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+  private final InMemoryExportRepository repository = new InMemoryExportRepository();
+  private final AnalyticsExportController controller = new AnalyticsExportController(repository,
+      mock(UserPositionAnalyticsRepository.class),
+      new AnalyticsProperties(null, null, new AnalyticsProperties.Export(null, 2)), objectMapper);
+
+  private HttpServer server;
+  private AnalyticsExportClient client;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/api/analytics/export/", exchange -> {
+      Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+      String path = exchange.getRequestURI().getPath();
+      Instant afterTs = query.containsKey("afterTs") ? Instant.parse(query.get("afterTs")) : null;
+      int afterPartition = Integer.parseInt(query.getOrDefault("afterPartition", "-1"));
+      long afterOffset = Long.parseLong(query.getOrDefault("afterOffset", "-1"));
+      Long limit = Long.valueOf(query.get("limit"));
+      ResponseEntity<StreamingResponseBody> response = path.endsWith("/events")
+          ? controller.events(query.get("type"), afterTs, query.getOrDefault("afterTopic", ""), afterPartition,
+              afterOffset, limit)
+          : controller.userTrades(path.split("/")[5], afterTs, afterPartition, afterOffset, limit);
+      exchange.sendResponseHeaders(200, 0);
+      try (OutputStream out = exchange.getResponseBody()) {
+        response.getBody().writeTo(out);
+      }
+    });
+    server.start();
+    client = new AnalyticsExportClient(URI.create("http://127.0.0.1:" + server.getAddress().getPort()), objectMapper,
+        Duration.ofSeconds(5));
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void events_pagesThroughRowsThatShareTsAndOffsetAcrossTopicsAndPartitions() throws Exception {
+    List<String> expected = sharedTsEvents();
+
+    List<String> exported = new ArrayList<>();
+    long rows = client.exportEvents("t", 5, null, row -> exported.add(key(row)));
+
+    assertThat(rows).isEqualTo(expected.size());
+    assertThat(exported).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  void events_resumeFromTheLastKeptRowWithoutGapsOrRepeats() throws Exception {
+    List<String> expected = sharedTsEvents();
+
+    List<String> exported = new ArrayList<>();
+    JsonNode[] last = new JsonNode[1];
+    Consumer<JsonNode> crashing = row -> {
+      if (exported.size() == 7) {
+        throw new IllegalStateException("consumer died");
+      }
+      exported.add(key(row));
+      last[0] = row;
+    };
+    assertThatThrownBy(() -> client.exportEvents("t", 5, null, crashing)).hasMessage("consumer died");
+
+    client.exportEvents("t", 5, AnalyticsExportClient.Cursor.of(last[0]), row -> exported.add(key(row)));
+
+    assertThat(exported).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  void userTrades_pagesAcrossPartitionsWithoutATopic() throws Exception {
+    List<String> expected = new ArrayList<>();
+    for (int partition = 0; partition < 3; partition++) {
+      for (long offset = 10; offset < 13; offset++) {
+        repository.trades.add(trade(TS, partition, offset));
+        expected.add(partition + ":" + offset);
+      }
+    }
+    repository.trades.add(trade(TS.plusMillis(1), 0, 1));
+    expected.add("0:1");
+
+    List<String> exported = new ArrayList<>();
+    long rows = client.exportUserTrades("alice", 4, null,
+        row -> exported.add(row.get("kafkaPartition").asInt() + ":" + row.get("kafkaOffset").asLong()));
+
+    assertThat(rows).isEqualTo(expected.size());
+    assertThat(exported).containsExactlyElementsOf(expected);
+  }
+
+  /**
+   * Two topics, three partitions each, the same offsets everywhere and mostly the same ts: a cursor that ignores
+   * topic or partition drops rows here.
+   */
+  private List<String> sharedTsEvents() {
+    List<String> expected = new ArrayList<>();
+    for (String topic : List.of("polybot.events", "polybot.replay")) {
+      for (int partition = 0; partition < 3; partition++) {
+        for (long offset = 100; offset < 102; offset++) {
+          repository.events.add(event(TS, topic, partition, offset));
+          expected.add(topic + "/" + partition + ":" + offset);
+        }
+      }
+    }
+    repository.events.add(event(TS.plusSeconds(1), "polybot.events", 0, 5));
+    expected.add("polybot.events/0:5");
+    repository.events.add(new AnalyticsExportRepository.RawEvent(TS, "s", "other", "polybot.events", 0, 1, "k", "{}", TS));
+    return expected;
+  }
+
+  private static String key(JsonNode row) {
+    return row.get("kafkaTopic").asText() + "/" + row.get("kafkaPartition").asInt() + ":" + row.get("kafkaOffset").asLong();
+  }
+
+  private static AnalyticsExportRepository.RawEvent event(Instant ts, String topic, int partition, long offset) {
+    return new AnalyticsExportRepository.RawEvent(ts, "s", "t", topic, partition, offset, "k",
+        "{\"n\":" + offset + "}", ts);
+  }
+
+  private static AnalyticsExportRepository.UserTradeRow trade(Instant ts, int partition, long offset) {
+    return new AnalyticsExportRepository.UserTradeRow(ts, "alice", "0xproxy", "m", "m", "1", "c", "BUY", "Up", 0,
+        0.5, 10, "0xtx", "e-" + partition + "-" + offset, partition, offset, ts);
+  }
+
+  private static Map<String, String> query(String raw) {
+    Map<String, String> out = new HashMap<>();
+    for (String kv : raw.split("&")) {
+      String[] parts = kv.split("=", 2);
+      out.put(parts[0], URLDecoder.decode(parts[1], StandardCharsets.UTF_8));
+    }
+    return out;
+  }
+
+  private static final class InMemoryExportRepository implements AnalyticsExportRepository {
+    private static final Comparator<Cursor> ORDER = Comparator.comparing(Cursor::ts)
+        .thenComparing(Cursor::kafkaTopic)
+        .thenComparingInt(Cursor::kafkaPartition)
+        .thenComparingLong(Cursor::kafkaOffset);
+
+    private final List<RawEvent> events = new ArrayList<>();
+    private final List<UserTradeRow> trades = new ArrayList<>();
+
+    @Override
+    public void streamEvents(String type, Cursor after, long limit, Consumer<RawEvent> sink) {
+      events.stream()
+          .filter(e -> type == null || type.equals(e.type()))
+          .filter(e -> after == null || ORDER.compare(cursor(e), after) > 0)
+          .sorted(Comparator.comparing(InMemoryExportRepository::cursor, ORDER))
+          .limit(limit)
+          .forEach(sink);
+    }
+
+    @Override
+    public void streamUserTrades(String username, Cursor after, long limit, Consumer<UserTradeRow> sink) {
+      trades.stream()
+          .filter(t -> username.equals(t.username()))
+          .filter(t -> after == null || ORDER.compare(cursor(t), after) > 0)
+          .sorted(Comparator.comparing(InMemoryExportRepository::cursor, ORDER))
+          .limit(limit)
+          .forEach(sink);
+    }
+
+    private static Cursor cursor(RawEvent e) {
+      return new Cursor(e.ts(), e.kafkaTopic(), e.kafkaPartition(), e.kafkaOffset());
+    }
+
+    private static Cursor cursor(UserTradeRow t) {
+      return new Cursor(t.ts(), "", t.kafkaPartition(), t.kafkaOffset());
+    }
+  }
+}
@@ -4,7 +4,12 @@ import com.polybot.hft.domain.OrderSide;
 import com.polybot.hft.polymarket.model.ClobOrderType;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
+/**
+ * @param latencyMicros for a placed order, microseconds spent in each stage up to the CLOB ack
+ *                      (see {@link com.polybot.hft.domain.OrderLatencyTrace#stageMicros()})
+ */
 public record ExecutorLimitOrderEvent(
     String tokenId,
     OrderSide side,
@@ -20,7 +25,8 @@ public record ExecutorLimitOrderEvent(
     String mode,
     boolean success,
     String orderId,
-    ExecutorOrderError error
+    ExecutorOrderError error,
+    Map<String, Long> latencyMicros
 ) {
 }
 
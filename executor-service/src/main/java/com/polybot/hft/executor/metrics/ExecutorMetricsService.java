@@ -3,17 +3,22 @@ package com.polybot.hft.executor.metrics;
 import com.polybot.hft.metrics.PolybotMetrics;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Metrics service for executor-service.
- * Tracks order placement, fills, cancellations, and slippage.
+ * Tracks order placement, fills, cancellations, slippage, and order latency by stage.
  */
 @Service
 @RequiredArgsConstructor
@@ -34,6 +39,9 @@ public class ExecutorMetricsService {
     // Gauges
     private AtomicReference<BigDecimal> averageSlippageTicks;
 
+    // Order latency timers, one per stage
+    private final Map<String, Timer> orderLatencyTimers = new ConcurrentHashMap<>();
+
     @PostConstruct
     public void initializeMetrics() {
         log.info("Initializing executor metrics...");
@@ -124,6 +132,29 @@ public class ExecutorMetricsService {
         ordersRejectedTotalCounter.increment();
     }
 
+    /**
+     * Record an order's per-stage latencies (see {@link com.polybot.hft.domain.OrderLatencyTrace#stageMicros()}).
+     * Negative stages, which only come from clock skew between hosts, are skipped.
+     */
+    public void recordOrderLatency(Map<String, Long> stageMicros) {
+        stageMicros.forEach((stage, micros) -> {
+            if (micros != null && micros >= 0) {
+                orderLatencyTimers.computeIfAbsent(stage, this::orderLatencyTimer).record(micros, TimeUnit.MICROSECONDS);
+            }
+        });
+    }
+
+    private Timer orderLatencyTimer(String stage) {
+        return Timer.builder("polybot_order_latency_seconds")
+                .description("Time an order spent reaching each stage from WS frame to CLOB ack")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(metrics.getRegistry());
+    }
+
     /**
      * Update the average slippage metric.
      */
@@ -0,0 +1,115 @@
+package com.polybot.hft.executor.onchain;
+
+import org.web3j.utils.Numeric;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal ABI codec for Multicall3:
+ * <pre>
+ * function aggregate3((address target, bool allowFailure, bytes callData)[] calls)
+ *     payable returns ((bool success, bytes returnData)[] returnData)
+ * </pre>
+ *
+ * Web3j 5.0.0 doesn't ship struct/tuple encoders, so (like the proxy wallet encoder) this is done by hand.
+ */
+final class Multicall3Codec {
+
+  private static final byte[] SELECTOR_AGGREGATE3 = Numeric.hexStringToByteArray("0x82ad56cb");
+
+  private Multicall3Codec() {
+  }
+
+  /**
+   * Every call is encoded with {@code allowFailure = true} so one bad call can't fail the whole read.
+   */
+  static String encodeAggregate3(List<OnchainCall> calls) {
+    List<byte[]> elements = new ArrayList<>(calls.size());
+    for (OnchainCall call : calls) {
+      ByteArrayOutputStream tuple = new ByteArrayOutputStream();
+      tuple.writeBytes(encodeAddress(call.target()));
+      tuple.writeBytes(encodeUint256(BigInteger.ONE));
+      tuple.writeBytes(encodeUint256(BigInteger.valueOf(32L * 3))); // offset to callData
+      tuple.writeBytes(encodeBytes(Numeric.hexStringToByteArray(call.callData())));
+      elements.add(tuple.toByteArray());
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.writeBytes(SELECTOR_AGGREGATE3);
+    out.writeBytes(encodeUint256(BigInteger.valueOf(32)));
+    out.writeBytes(encodeUint256(BigInteger.valueOf(elements.size())));
+    // Element offsets are relative to the first offset word.
+    long running = 32L * elements.size();
+    for (byte[] element : elements) {
+      out.writeBytes(encodeUint256(BigInteger.valueOf(running)));
+      running += element.length;
+    }
+    for (byte[] element : elements) {
+      out.writeBytes(element);
+    }
+    return Numeric.toHexString(out.toByteArray());
+  }
+
+  /**
+   * @return per call, the hex return data, or {@code null} when that call failed
+   */
+  static List<String> decodeAggregate3(String returnHex, int expectedCalls) {
+    byte[] b = Numeric.hexStringToByteArray(returnHex);
+    int array = word(b, 0);
+    int n = word(b, array);
+    if (n != expectedCalls) {
+      throw new IllegalStateException("multicall returned " + n + " results for " + expectedCalls + " calls");
+    }
+    int elements = array + 32;
+    List<String> results = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      int tuple = elements + word(b, elements + 32 * i);
+      boolean success = word(b, tuple) != 0;
+      int data = tuple + word(b, tuple + 32);
+      int length = word(b, data);
+      if (!success) {
+        results.add(null);
+        continue;
+      }
+      byte[] returnData = new byte[length];
+      System.arraycopy(b, data + 32, returnData, 0, length);
+      results.add(Numeric.toHexString(returnData));
+    }
+    return results;
+  }
+
+  private static int word(byte[] b, int offset) {
+    if (offset < 0 || offset + 32 > b.length) {
+      throw new IllegalStateException("multicall return data truncated at offset " + offset);
+    }
+    byte[] w = new byte[32];
+    System.arraycopy(b, offset, w, 0, 32);
+    return new BigInteger(1, w).intValueExact();
+  }
+
+  private static byte[] encodeUint256(BigInteger v) {
+    return Numeric.toBytesPadded(v, 32);
+  }
+
+  private static byte[] encodeAddress(String addressHex) {
+    byte[] addr = Numeric.hexStringToByteArray(addressHex);
+    if (addr.length != 20) {
+      throw new IllegalArgumentException("Expected 20-byte address hex, got: " + addressHex);
+    }
+    byte[] padded = new byte[32];
+    System.arraycopy(addr, 0, padded, 12, 20);
+    return padded;
+  }
+
+  private static byte[] encodeBytes(byte[] data) {
+    int paddedLen = ((data.length + 31) / 32) * 32;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.writeBytes(encodeUint256(BigInteger.valueOf(data.length)));
+    out.writeBytes(data);
+    out.writeBytes(new byte[paddedLen - data.length]);
+    return out.toByteArray();
+  }
+}
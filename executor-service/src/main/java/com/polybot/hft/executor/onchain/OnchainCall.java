@@ -0,0 +1,30 @@
+package com.polybot.hft.executor.onchain;
+
+import lombok.NonNull;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+
+import java.util.List;
+
+/**
+ * A read-only contract call to be aggregated by {@link OnchainReader}.
+ */
+public record OnchainCall(String target, String callData, Function function) {
+
+  public static OnchainCall of(@NonNull String target, @NonNull Function function) {
+    return new OnchainCall(target.toLowerCase(), FunctionEncoder.encode(function), function);
+  }
+
+  /**
+   * Decodes {@code returnData} with the function's output types; empty for a failed call.
+   */
+  @SuppressWarnings("rawtypes")
+  public List<Type> decode(String returnData) {
+    if (returnData == null || returnData.length() <= 2) {
+      return List.of();
+    }
+    return FunctionReturnDecoder.decode(returnData, function.getOutputParameters());
+  }
+}
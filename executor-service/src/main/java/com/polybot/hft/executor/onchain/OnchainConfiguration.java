@@ -0,0 +1,19 @@
+package com.polybot.hft.executor.onchain;
+
+import com.polybot.hft.executor.settlement.ExecutorOnchainProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.http.HttpService;
+
+/**
+ * One JSON-RPC client for the executor: reads (multicall) and settlement txs share its HTTP connection pool.
+ */
+@Configuration(proxyBeanMethods=false)
+public class OnchainConfiguration {
+
+  @Bean(destroyMethod="shutdown")
+  public Web3j executorWeb3j(ExecutorOnchainProperties onchainProperties) {
+    return Web3j.build(new HttpService(onchainProperties.rpcUrl().toString()));
+  }
+}
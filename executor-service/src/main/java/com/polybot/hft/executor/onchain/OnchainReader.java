@@ -0,0 +1,98 @@
+package com.polybot.hft.executor.onchain;
+
+import com.polybot.hft.executor.settlement.ExecutorOnchainProperties;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthCall;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batched contract reads: every call not answered by the short-lived cache goes into one Multicall3
+ * {@code aggregate3} {@code eth_call}, so a whole wallet read (balances, position tokens, approvals) is one round trip.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OnchainReader {
+
+  private static final String ZERO_ADDRESS = "0x0000000000000000000000000000000000000000";
+
+  private final @NonNull Web3j web3j;
+  private final @NonNull ExecutorOnchainProperties onchainProperties;
+
+  private final Map<CallKey, CachedResult> cache = new ConcurrentHashMap<>();
+  private final AtomicLong rpcCalls = new AtomicLong(0);
+
+  /**
+   * @return per call (same order), the hex return data, or {@code null} when that call reverted
+   * @throws IOException when the aggregate call itself fails
+   */
+  public List<String> read(List<OnchainCall> calls) throws IOException {
+    long now = System.nanoTime();
+    long ttlNanos = TimeUnit.MILLISECONDS.toNanos(onchainProperties.readCacheMillis());
+    String[] results = new String[calls.size()];
+    Map<CallKey, List<Integer>> misses = new LinkedHashMap<>();
+    for (int i = 0; i < calls.size(); i++) {
+      CallKey key = new CallKey(calls.get(i).target(), calls.get(i).callData());
+      CachedResult cached = cache.get(key);
+      if (cached != null && now - cached.atNanos() < ttlNanos) {
+        results[i] = cached.returnData();
+      } else {
+        misses.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+      }
+    }
+    if (!misses.isEmpty()) {
+      List<OnchainCall> batch = new ArrayList<>(misses.size());
+      for (List<Integer> indexes : misses.values()) {
+        batch.add(calls.get(indexes.getFirst()));
+      }
+      List<String> fetched = aggregate(batch);
+      int j = 0;
+      for (Map.Entry<CallKey, List<Integer>> e : misses.entrySet()) {
+        String returnData = fetched.get(j++);
+        cache.put(e.getKey(), new CachedResult(returnData, now));
+        for (int i : e.getValue()) {
+          results[i] = returnData;
+        }
+      }
+      cache.values().removeIf(c -> now - c.atNanos() >= ttlNanos);
+    }
+    return Arrays.asList(results);
+  }
+
+  public long rpcCalls() {
+    return rpcCalls.get();
+  }
+
+  private List<String> aggregate(List<OnchainCall> calls) throws IOException {
+    rpcCalls.incrementAndGet();
+    String data = Multicall3Codec.encodeAggregate3(calls);
+    Transaction tx = Transaction.createEthCallTransaction(ZERO_ADDRESS, onchainProperties.multicallAddress(), data);
+    EthCall response = web3j.ethCall(tx, DefaultBlockParameterName.LATEST).send();
+    if (response.hasError()) {
+      throw new IOException("multicall eth_call error: " + response.getError().getMessage());
+    }
+    log.debug("multicall read {} calls", calls.size());
+    return Multicall3Codec.decodeAggregate3(response.getValue(), calls.size());
+  }
+
+  private record CallKey(String target, String callData) {
+  }
+
+  private record CachedResult(String returnData, long atNanos) {
+  }
+}
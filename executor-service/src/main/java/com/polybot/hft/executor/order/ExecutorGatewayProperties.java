@@ -0,0 +1,50 @@
+package com.polybot.hft.executor.order;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "executor.gateway")
+public record ExecutorGatewayProperties(
+    /**
+     * Route order traffic through the prioritized gateway; when off, requests go straight to the CLOB as before.
+     */
+    @NotNull Boolean enabled,
+    /**
+     * Requests in flight to the CLOB at once.
+     */
+    @NotNull @Min(1) Integer workers,
+    /**
+     * Minimum spacing between two replaces sent for the same token; a replace arriving sooner waits, and is coalesced
+     * with any newer replace for that token.
+     */
+    @NotNull @Min(0) Long replaceMinIntervalMillis,
+    /**
+     * Maximum queued requests across all lanes; beyond it new requests are rejected.
+     */
+    @NotNull @Min(1) Integer maxQueueDepth,
+    /**
+     * Orders that waited longer than this are dropped instead of sent (cancels are always sent). 0 = never.
+     */
+    @NotNull @Min(0) Long maxQueueMillis
+) {
+  public ExecutorGatewayProperties {
+    if (enabled == null) {
+      enabled = true;
+    }
+    if (workers == null) {
+      workers = 4;
+    }
+    if (replaceMinIntervalMillis == null) {
+      replaceMinIntervalMillis = 250L;
+    }
+    if (maxQueueDepth == null) {
+      maxQueueDepth = 1_000;
+    }
+    if (maxQueueMillis == null) {
+      maxQueueMillis = 2_000L;
+    }
+  }
+}
@@ -8,6 +8,8 @@ import com.polybot.hft.events.HftEventPublisher;
 import com.polybot.hft.events.HftEventTypes;
 import com.polybot.hft.executor.events.ExecutorOrderStatusEvent;
 import com.polybot.hft.executor.metrics.ExecutorMetricsService;
+import com.polybot.hft.executor.portfolio.PortfolioSnapshotService;
+import com.polybot.hft.executor.risk.ExposureService;
 import com.polybot.hft.polymarket.service.PolymarketTradingService;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +18,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
@@ -38,6 +41,8 @@ public class ExecutorOrderMonitor {
   private final @NonNull ObjectMapper objectMapper;
   private final @NonNull Clock clock;
   private final @NonNull ExecutorMetricsService metricsService;
+  private final @NonNull PortfolioSnapshotService portfolio;
+  private final @NonNull ExposureService exposure;
 
   private final Map<String, TrackedOrder> trackedByOrderId = new ConcurrentHashMap<>();
 
@@ -45,7 +50,7 @@ public class ExecutorOrderMonitor {
     if (orderId == null || orderId.isBlank()) {
       return;
     }
-    trackedByOrderId.putIfAbsent(orderId, new TrackedOrder(orderId, tokenId, side, price, size, clock.instant(), null, null, null, 0));
+    trackedByOrderId.putIfAbsent(orderId, new TrackedOrder(orderId, tokenId, side, price, size, clock.instant(), null, null, null, BigDecimal.ZERO, 0));
   }
 
   @Scheduled(initialDelay = 2_000L, fixedDelay = 1_000L)
@@ -136,20 +141,97 @@ public class ExecutorOrderMonitor {
       int nextErrors = tracked.errorCount() + 1;
       if (nextErrors >= MAX_ERRORS_PER_ORDER) {
         trackedByOrderId.remove(tracked.orderId());
+        // Untracked from here on; the portfolio reconcile keeps filled exposure right, the open part can't be.
+        exposure.release(tracked.orderId());
       } else {
         trackedByOrderId.put(tracked.orderId(), tracked.withErrorCount(nextErrors));
       }
       return;
     }
 
-    TrackedOrder updated = tracked.withLast(status, matched, remaining);
+    BigDecimal newlyMatched = matched == null ? null
+        : tracked.lastMatchedSize() == null ? matched : matched.subtract(tracked.lastMatchedSize());
+    BigDecimal matchedNotional = tracked.lastMatchedNotional();
+    if (newlyMatched != null && newlyMatched.signum() > 0) {
+      BigDecimal fillPrice = fillPrice(tracked, order, matched, newlyMatched);
+      matchedNotional = matchedNotional.add(fillPrice.multiply(newlyMatched));
+      portfolio.applyFill(tracked.tokenId(), tracked.side(), fillPrice, newlyMatched);
+      exposure.onFill(tracked.orderId(), tracked.tokenId(), tracked.side(), fillPrice, newlyMatched);
+    }
+
+    TrackedOrder updated = tracked.withLast(status, matched, remaining, matchedNotional);
     trackedByOrderId.put(tracked.orderId(), updated);
 
     // Record metrics for terminal states
     if (isTerminal(status, matched, remaining, tracked.requestedSize())) {
       recordTerminalMetrics(status, matched, tracked.requestedSize());
       trackedByOrderId.remove(tracked.orderId());
+      exposure.release(tracked.orderId());
+    }
+  }
+
+  /**
+   * Price the newly matched shares traded at: the order's matched notional so far minus what earlier fills were booked
+   * at. A limit order can fill better than its limit, so the requested price is only the fallback when the payload
+   * carries neither an average price nor its trades.
+   */
+  private BigDecimal fillPrice(TrackedOrder tracked, JsonNode order, BigDecimal matched, BigDecimal newlyMatched) {
+    BigDecimal notional;
+    try {
+      notional = matchedNotional(order, tracked.orderId(), matched);
+    } catch (Exception e) {
+      log.debug("matched price lookup failed for order {}: {}", tracked.orderId(), e.toString());
+      notional = null;
+    }
+    if (notional == null) {
+      return tracked.requestedPrice();
+    }
+    BigDecimal price = notional.subtract(tracked.lastMatchedNotional()).divide(newlyMatched, MathContext.DECIMAL64);
+    return price.signum() > 0 && price.compareTo(BigDecimal.ONE) <= 0 ? price : tracked.requestedPrice();
+  }
+
+  /**
+   * Cumulative matched notional of the order, or null when the payload doesn't tell. Each associated trade is matched
+   * either with this order as taker (the trade's price and size) or as one of its maker orders (that entry's price and
+   * matched amount).
+   */
+  private BigDecimal matchedNotional(JsonNode order, String orderId, BigDecimal matched) {
+    BigDecimal avg = firstDecimal(order, "avg_price", "average_price", "avgPrice", "averagePrice");
+    if (avg != null && avg.signum() > 0) {
+      return avg.multiply(matched);
+    }
+    JsonNode tradeIds = order.get("associate_trades");
+    if (tradeIds == null || !tradeIds.isArray() || tradeIds.isEmpty()) {
+      return null;
+    }
+    BigDecimal notional = BigDecimal.ZERO;
+    for (JsonNode tradeId : tradeIds) {
+      JsonNode trades = tradingService.getTrades(Map.of("id", tradeId.asText()));
+      JsonNode trade = trades == null ? null : trades.isArray() ? trades.get(0) : trades.path("data").get(0);
+      if (trade == null) {
+        return null;
+      }
+      BigDecimal leg = null;
+      if (orderId.equals(firstText(trade, "taker_order_id"))) {
+        BigDecimal price = firstDecimal(trade, "price");
+        BigDecimal size = firstDecimal(trade, "size");
+        leg = price == null || size == null ? null : price.multiply(size);
+      } else {
+        for (JsonNode maker : trade.path("maker_orders")) {
+          if (orderId.equals(firstText(maker, "order_id"))) {
+            BigDecimal price = firstDecimal(maker, "price");
+            BigDecimal size = firstDecimal(maker, "matched_amount");
+            leg = price == null || size == null ? null : price.multiply(size);
+            break;
+          }
+        }
+      }
+      if (leg == null) {
+        return null;
+      }
+      notional = notional.add(leg);
     }
+    return notional;
   }
 
   private static boolean isTerminal(String status, BigDecimal matched, BigDecimal remaining, BigDecimal requestedSize) {
@@ -285,14 +367,17 @@ public class ExecutorOrderMonitor {
       String lastStatus,
       BigDecimal lastMatchedSize,
       BigDecimal lastRemainingSize,
+      BigDecimal lastMatchedNotional,
       int errorCount
   ) {
-    TrackedOrder withLast(String status, BigDecimal matched, BigDecimal remaining) {
-      return new TrackedOrder(orderId, tokenId, side, requestedPrice, requestedSize, trackedAt, status, matched, remaining, errorCount);
+    TrackedOrder withLast(String status, BigDecimal matched, BigDecimal remaining, BigDecimal matchedNotional) {
+      return new TrackedOrder(orderId, tokenId, side, requestedPrice, requestedSize, trackedAt, status, matched, remaining,
+          matchedNotional, errorCount);
     }
 
     TrackedOrder withErrorCount(int next) {
-      return new TrackedOrder(orderId, tokenId, side, requestedPrice, requestedSize, trackedAt, lastStatus, lastMatchedSize, lastRemainingSize, next);
+      return new TrackedOrder(orderId, tokenId, side, requestedPrice, requestedSize, trackedAt, lastStatus, lastMatchedSize,
+          lastRemainingSize, lastMatchedNotional, next);
     }
   }
 }
@@ -0,0 +1,141 @@
+package com.polybot.hft.executor.order;
+
+import com.polybot.hft.domain.OrderPriority;
+import com.polybot.hft.metrics.PolybotMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Single path from the HTTP endpoints to the CLOB for order placement and cancels.
+ * <p>
+ * Requests are queued by {@link OrderPriority} and sent by a fixed number of workers, so a burst of quote replaces
+ * can't hold up a cancel or a near-end taker top-up. Replaces are throttled per token and a replace still waiting is
+ * superseded by a newer one for the same token (the caller of the old one gets {@link OrderGatewayException}).
+ * The calling request thread waits for its own result.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderGateway {
+
+  private final @NonNull ExecutorGatewayProperties gatewayProperties;
+  private final @NonNull PolybotMetrics metrics;
+
+  private final ExecutorService workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("order-gateway-", 0).factory());
+  private final Map<OrderPriority, Timer> queueTimers = new EnumMap<>(OrderPriority.class);
+  private OrderLanes<Task<?>> lanes;
+  private Counter coalesced;
+  private Counter expired;
+
+  @PostConstruct
+  void start() {
+    lanes = new OrderLanes<>(
+        TimeUnit.MILLISECONDS.toNanos(gatewayProperties.replaceMinIntervalMillis()),
+        gatewayProperties.maxQueueDepth(),
+        System::nanoTime);
+    for (OrderPriority priority : OrderPriority.values()) {
+      Tag lane = Tag.of("lane", priority.name().toLowerCase());
+      queueTimers.put(priority, Timer.builder("polybot_order_gateway_queue_seconds")
+          .description("Time an order request waited in the gateway before being sent")
+          .tags(List.of(lane))
+          .publishPercentiles(0.5, 0.99)
+          .register(metrics.getRegistry()));
+      metrics.registerIntGauge("polybot_order_gateway_depth", "Order requests waiting in the gateway",
+          () -> lanes.size(priority), lane);
+    }
+    coalesced = metrics.createCounter("polybot_order_gateway_coalesced_total",
+        "Replaces superseded by a newer replace for the same token before being sent");
+    expired = metrics.createCounter("polybot_order_gateway_expired_total",
+        "Orders dropped after waiting longer than max-queue-millis");
+    if (gatewayProperties.enabled()) {
+      for (int i = 0; i < gatewayProperties.workers(); i++) {
+        workers.execute(this::work);
+      }
+      log.info("order gateway started (workers={}, replaceMinIntervalMillis={}, maxQueueMillis={})",
+          gatewayProperties.workers(), gatewayProperties.replaceMinIntervalMillis(), gatewayProperties.maxQueueMillis());
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    workers.shutdownNow();
+    for (OrderLanes.Entry<Task<?>> e : lanes.drain()) {
+      e.item().future().completeExceptionally(
+          new OrderGatewayException(OrderGatewayException.Reason.SHUTDOWN, e.priority(), e.tokenId()));
+    }
+  }
+
+  /**
+   * Queues {@code action} in the {@code priority} lane and waits for it to run.
+   */
+  public <T> T submit(OrderPriority priority, String tokenId, Supplier<T> action) {
+    if (!gatewayProperties.enabled()) {
+      return action.get();
+    }
+    Task<T> task = new Task<>(action, new CompletableFuture<>());
+    Task<?> superseded = lanes.offer(priority, tokenId, task);
+    if (superseded != null) {
+      coalesced.increment();
+      superseded.future().completeExceptionally(
+          new OrderGatewayException(OrderGatewayException.Reason.SUPERSEDED, priority, tokenId));
+    }
+    try {
+      return task.future().join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException re ? re : e;
+    }
+  }
+
+  private void work() {
+    while (!Thread.currentThread().isInterrupted()) {
+      OrderLanes.Entry<Task<?>> next;
+      try {
+        next = lanes.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      long waitedNanos = System.nanoTime() - next.enqueuedNanos();
+      queueTimers.get(next.priority()).record(waitedNanos, TimeUnit.NANOSECONDS);
+      long maxQueueMillis = gatewayProperties.maxQueueMillis();
+      if (next.priority() != OrderPriority.CANCEL && maxQueueMillis > 0 && waitedNanos > TimeUnit.MILLISECONDS.toNanos(maxQueueMillis)) {
+        expired.increment();
+        log.warn("order gateway dropped {} token={} after {}ms in queue",
+            next.priority(), next.tokenId(), Duration.ofNanos(waitedNanos).toMillis());
+        next.item().future().completeExceptionally(
+            new OrderGatewayException(OrderGatewayException.Reason.EXPIRED, next.priority(), next.tokenId()));
+        continue;
+      }
+      next.item().run();
+    }
+  }
+
+  private record Task<T>(Supplier<T> action, CompletableFuture<T> future) {
+
+    void run() {
+      try {
+        future.complete(action.get());
+      } catch (Throwable t) {
+        future.completeExceptionally(t);
+      }
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.polybot.hft.executor.order;
+
+import com.polybot.hft.domain.OrderPriority;
+
+/**
+ * An order request the gateway did not send to the CLOB.
+ */
+public class OrderGatewayException extends RuntimeException {
+
+  public enum Reason {
+    /**
+     * A newer replace for the same token was queued before this one was sent.
+     */
+    SUPERSEDED,
+    /**
+     * Waited in the queue longer than {@code executor.gateway.max-queue-millis}.
+     */
+    EXPIRED,
+    QUEUE_FULL,
+    SHUTDOWN
+  }
+
+  private final Reason reason;
+  private final OrderPriority priority;
+
+  public OrderGatewayException(Reason reason, OrderPriority priority, String tokenId) {
+    super(priority + " order " + reason.name().toLowerCase().replace('_', ' ') + (tokenId == null ? "" : " (token " + tokenId + ")"));
+    this.reason = reason;
+    this.priority = priority;
+  }
+
+  public Reason reason() {
+    return reason;
+  }
+
+  public OrderPriority priority() {
+    return priority;
+  }
+}
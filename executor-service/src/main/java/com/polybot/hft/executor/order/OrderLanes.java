@@ -0,0 +1,199 @@
+package com.polybot.hft.executor.order;
+
+import com.polybot.hft.domain.OrderPriority;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Pending order requests, one lane per {@link OrderPriority}, always drained highest lane first.
+ * <p>
+ * The replace lane holds at most one request per token: a newer replace takes the place (queue position and enqueue
+ * time) of the one still waiting, which is handed back to the caller as superseded. A replace also isn't released until
+ * {@code replaceIntervalNanos} after the previous replace for its token, so a noisy token can't crowd out the others.
+ */
+final class OrderLanes<E> {
+
+  private static final int PRUNE_THRESHOLD = 1_024;
+
+  record Entry<E>(OrderPriority priority, String tokenId, E item, long enqueuedNanos) {
+  }
+
+  private final long replaceIntervalNanos;
+  private final int maxDepth;
+  private final LongSupplier nanoClock;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
+  private final Map<OrderPriority, ArrayDeque<Entry<E>>> fifo = new EnumMap<>(OrderPriority.class);
+  private final LinkedHashMap<String, Entry<E>> replaces = new LinkedHashMap<>();
+  private final Map<String, Long> lastReplaceNanos = new HashMap<>();
+  private int depth;
+
+  OrderLanes(long replaceIntervalNanos, int maxDepth, LongSupplier nanoClock) {
+    this.replaceIntervalNanos = replaceIntervalNanos;
+    this.maxDepth = maxDepth;
+    this.nanoClock = nanoClock;
+    for (OrderPriority p : OrderPriority.values()) {
+      if (p != OrderPriority.REPLACE) {
+        fifo.put(p, new ArrayDeque<>());
+      }
+    }
+  }
+
+  /**
+   * Queues {@code item}; returns the replace it superseded, if any.
+   *
+   * @throws OrderGatewayException when the lanes are full
+   */
+  E offer(OrderPriority priority, String tokenId, E item) {
+    lock.lock();
+    try {
+      Entry<E> entry = new Entry<>(priority, tokenId, item, nanoClock.getAsLong());
+      if (priority == OrderPriority.REPLACE) {
+        Entry<E> previous = replaces.get(tokenId);
+        if (previous != null) {
+          // Keeps the queue age too: a token requoting faster than the lane drains must still hit max-queue-millis.
+          replaces.put(tokenId, new Entry<>(priority, tokenId, item, previous.enqueuedNanos()));
+          changed.signal();
+          return previous.item();
+        }
+      }
+      // Cancels are never refused: they only ever reduce risk.
+      if (depth >= maxDepth && priority != OrderPriority.CANCEL) {
+        throw new OrderGatewayException(OrderGatewayException.Reason.QUEUE_FULL, priority, tokenId);
+      }
+      if (priority == OrderPriority.REPLACE) {
+        replaces.put(tokenId, entry);
+      } else {
+        fifo.get(priority).addLast(entry);
+      }
+      depth++;
+      changed.signal();
+      return null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The next request that may be sent now, or null.
+   */
+  Entry<E> poll() {
+    lock.lock();
+    try {
+      return pollLocked(nanoClock.getAsLong());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Blocks until a request may be sent.
+   */
+  Entry<E> take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (true) {
+        long now = nanoClock.getAsLong();
+        Entry<E> next = pollLocked(now);
+        if (next != null) {
+          if (depth > 0) {
+            // Let another worker pick up what's left.
+            changed.signal();
+          }
+          return next;
+        }
+        long wait = nanosUntilEligible(now);
+        if (wait < 0) {
+          changed.await();
+        } else {
+          changed.awaitNanos(wait);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int size(OrderPriority priority) {
+    lock.lock();
+    try {
+      return priority == OrderPriority.REPLACE ? replaces.size() : fifo.get(priority).size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes and returns everything still queued.
+   */
+  List<Entry<E>> drain() {
+    lock.lock();
+    try {
+      List<Entry<E>> out = new ArrayList<>(depth);
+      fifo.values().forEach(q -> {
+        out.addAll(q);
+        q.clear();
+      });
+      out.addAll(replaces.values());
+      replaces.clear();
+      depth = 0;
+      return out;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Entry<E> pollLocked(long now) {
+    for (ArrayDeque<Entry<E>> q : fifo.values()) {
+      Entry<E> head = q.pollFirst();
+      if (head != null) {
+        depth--;
+        return head;
+      }
+    }
+    Iterator<Entry<E>> it = replaces.values().iterator();
+    while (it.hasNext()) {
+      Entry<E> e = it.next();
+      Long last = lastReplaceNanos.get(e.tokenId());
+      if (last == null || now - last >= replaceIntervalNanos) {
+        it.remove();
+        depth--;
+        if (lastReplaceNanos.size() >= PRUNE_THRESHOLD) {
+          lastReplaceNanos.values().removeIf(t -> now - t >= replaceIntervalNanos);
+        }
+        lastReplaceNanos.put(e.tokenId(), now);
+        return e;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 0 when something is ready, -1 when nothing is queued, otherwise the wait for the earliest throttled replace.
+   */
+  private long nanosUntilEligible(long now) {
+    for (ArrayDeque<Entry<E>> q : fifo.values()) {
+      if (!q.isEmpty()) {
+        return 0;
+      }
+    }
+    long min = -1;
+    for (Entry<E> e : replaces.values()) {
+      Long last = lastReplaceNanos.get(e.tokenId());
+      long wait = last == null ? 0 : Math.max(0, last + replaceIntervalNanos - now);
+      min = min < 0 ? wait : Math.min(min, wait);
+    }
+    return min;
+  }
+}
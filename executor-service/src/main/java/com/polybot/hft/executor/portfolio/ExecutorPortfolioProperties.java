@@ -0,0 +1,42 @@
+package com.polybot.hft.executor.portfolio;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "executor.portfolio")
+public record ExecutorPortfolioProperties(
+    /**
+     * Background refresh interval of the shared USDC balance + positions snapshot.
+     */
+    @NotNull @Min(500) Long refreshMillis,
+    /**
+     * A request that finds the snapshot older than this refreshes it synchronously (coalesced with other callers).
+     */
+    @NotNull @Min(500) Long maxStalenessMillis,
+    /**
+     * Positions fetched from the Data API per refresh.
+     */
+    @NotNull @Min(1) Integer positionsLimit,
+    /**
+     * A fill the chain and Data API still don't reflect after this long is dropped from the snapshot overlay.
+     */
+    @NotNull @Min(1_000) Long pendingFillTtlMillis
+) {
+  public ExecutorPortfolioProperties {
+    if (refreshMillis == null) {
+      refreshMillis = 5_000L;
+    }
+    if (maxStalenessMillis == null) {
+      maxStalenessMillis = 15_000L;
+    }
+    if (positionsLimit == null) {
+      positionsLimit = 500;
+    }
+    if (pendingFillTtlMillis == null) {
+      pendingFillTtlMillis = 60_000L;
+    }
+  }
+}
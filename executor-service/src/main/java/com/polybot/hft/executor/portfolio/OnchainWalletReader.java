@@ -0,0 +1,155 @@
+package com.polybot.hft.executor.portfolio;
+
+import com.polybot.hft.config.HftProperties;
+import com.polybot.hft.executor.onchain.OnchainCall;
+import com.polybot.hft.executor.onchain.OnchainReader;
+import com.polybot.hft.polymarket.onchain.ContractConfig;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Uint256;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads everything on-chain about the maker wallet in one multicall: USDC balance, conditional token balances of the
+ * given position ids, and the USDC allowances / CTF operator approvals the exchanges need.
+ */
+@Component
+@RequiredArgsConstructor
+public class OnchainWalletReader {
+
+  private final @NonNull HftProperties properties;
+  private final @NonNull OnchainReader reader;
+
+  /**
+   * @throws IOException when the multicall fails or the USDC balance can't be read
+   */
+  public WalletState read(@NonNull String owner, Collection<String> tokenIds) throws IOException {
+    ContractConfig contracts = ContractConfig.forChainId(properties.polymarket().chainId());
+
+    List<String> ids = new ArrayList<>();
+    List<Uint256> idWords = new ArrayList<>();
+    for (String tokenId : tokenIds) {
+      BigInteger id = parseTokenId(tokenId);
+      if (id != null) {
+        ids.add(tokenId);
+        idWords.add(new Uint256(id));
+      }
+    }
+    Map<String, String> spenders = new LinkedHashMap<>();
+    spenders.put("exchange", contracts.exchange());
+    spenders.put("negRiskExchange", contracts.negRiskExchange());
+    spenders.put("negRiskAdapter", contracts.negRiskAdapter());
+
+    List<OnchainCall> calls = new ArrayList<>();
+    calls.add(OnchainCall.of(contracts.collateral(), uint256Call("balanceOf", new Address(owner))));
+    for (String spender : spenders.values()) {
+      calls.add(OnchainCall.of(contracts.collateral(), uint256Call("allowance", new Address(owner), new Address(spender))));
+      calls.add(OnchainCall.of(contracts.conditionalTokens(), new Function(
+          "isApprovedForAll",
+          List.of(new Address(owner), new Address(spender)),
+          List.of(new TypeReference<Bool>() {
+          })
+      )));
+    }
+    if (!ids.isEmpty()) {
+      List<Address> owners = new ArrayList<>(ids.size());
+      for (int i = 0; i < ids.size(); i++) {
+        owners.add(new Address(owner));
+      }
+      calls.add(OnchainCall.of(contracts.conditionalTokens(), new Function(
+          "balanceOfBatch",
+          List.of(new DynamicArray<>(Address.class, owners), new DynamicArray<>(Uint256.class, idWords)),
+          List.of(new TypeReference<DynamicArray<Uint256>>() {
+          })
+      )));
+    }
+
+    List<String> results = reader.read(calls);
+
+    BigInteger usdcRaw = firstUint(calls.get(0), results.get(0));
+    if (usdcRaw == null) {
+      throw new IOException("USDC balanceOf failed for " + owner);
+    }
+
+    List<String> missingApprovals = new ArrayList<>();
+    int i = 1;
+    for (String name : spenders.keySet()) {
+      BigInteger allowance = firstUint(calls.get(i), results.get(i));
+      if (allowance != null && allowance.signum() == 0) {
+        missingApprovals.add("USDC allowance -> " + name);
+      }
+      List<Type> approved = calls.get(i + 1).decode(results.get(i + 1));
+      if (!approved.isEmpty() && Boolean.FALSE.equals(approved.getFirst().getValue())) {
+        missingApprovals.add("CTF approvalForAll -> " + name);
+      }
+      i += 2;
+    }
+
+    Map<String, BigDecimal> tokenBalances = new LinkedHashMap<>();
+    if (!ids.isEmpty()) {
+      List<Type> decoded = calls.get(i).decode(results.get(i));
+      if (!decoded.isEmpty() && decoded.getFirst().getValue() instanceof List<?> balances && balances.size() == ids.size()) {
+        for (int k = 0; k < ids.size(); k++) {
+          BigInteger raw = ((Uint256) balances.get(k)).getValue();
+          tokenBalances.put(ids.get(k), scale(raw, contracts.conditionalTokenDecimals()));
+        }
+      }
+    }
+
+    return new WalletState(scale(usdcRaw, contracts.collateralTokenDecimals()), tokenBalances, List.copyOf(missingApprovals));
+  }
+
+  private static Function uint256Call(String name, Address... args) {
+    return new Function(name, List.of(args), List.of(new TypeReference<Uint256>() {
+    }));
+  }
+
+  private static BigInteger firstUint(OnchainCall call, String returnData) {
+    List<Type> decoded = call.decode(returnData);
+    if (decoded.isEmpty()) {
+      return null;
+    }
+    return decoded.getFirst().getValue() instanceof BigInteger bi ? bi : null;
+  }
+
+  private static BigInteger parseTokenId(String tokenId) {
+    if (tokenId == null || tokenId.isBlank()) {
+      return null;
+    }
+    try {
+      return new BigInteger(tokenId.trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static BigDecimal scale(BigInteger raw, int decimals) {
+    if (decimals <= 0) {
+      return new BigDecimal(raw);
+    }
+    return new BigDecimal(raw).movePointLeft(decimals).setScale(decimals, RoundingMode.DOWN);
+  }
+
+  /**
+   * @param tokenBalances on-chain share balance per position token id; empty when the batch read failed
+   * @param missingApprovals spender approvals that are zero/false (orders or settlement through them will fail)
+   */
+  public record WalletState(BigDecimal usdcBalance, Map<String, BigDecimal> tokenBalances, List<String> missingApprovals) {
+  }
+}
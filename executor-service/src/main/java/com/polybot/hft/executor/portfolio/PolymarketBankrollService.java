@@ -1,58 +1,32 @@
 package com.polybot.hft.executor.portfolio;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.polybot.hft.config.HftProperties;
-import com.polybot.hft.executor.sim.PaperExchangeSimulator;
 import com.polybot.hft.polymarket.api.PolymarketBankrollResponse;
-import com.polybot.hft.polymarket.auth.PolymarketAuthContext;
-import com.polybot.hft.polymarket.data.PolymarketDataApiClient;
 import com.polybot.hft.polymarket.data.PolymarketPosition;
-import com.polybot.hft.polymarket.onchain.ContractConfig;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 
 import java.math.BigDecimal;
 import java.time.Clock;
-import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class PolymarketBankrollService {
 
-  private static final TypeReference<List<PolymarketPosition>> POSITIONS_LIST = new TypeReference<>() {
-  };
-
   private final @NonNull HftProperties properties;
-  private final @NonNull PolymarketAuthContext authContext;
-  private final @NonNull PolymarketDataApiClient dataApiClient;
-  private final @NonNull ObjectMapper objectMapper;
-  private final @NonNull OnchainErc20BalanceService onchainErc20;
-  private final @NonNull PaperExchangeSimulator simulator;
+  private final @NonNull PortfolioSnapshotService portfolio;
   private final @NonNull Clock clock;
 
   public PolymarketBankrollResponse snapshot() {
-    long now = clock.millis();
-    if (simulator.enabled()) {
-      return new PolymarketBankrollResponse(
-          properties.mode().name(),
-          null,
-          BigDecimal.ZERO,
-          BigDecimal.ZERO,
-          BigDecimal.ZERO,
-          BigDecimal.ZERO,
-          0,
-          0,
-          0,
-          now
-      );
-    }
+    return from(portfolio.current().orElse(null));
+  }
 
-    String maker = makerAddress();
-    if (maker == null || maker.isBlank()) {
+  /**
+   * Bankroll derived from a portfolio snapshot; zeros when there is none (simulator mode or no maker address).
+   */
+  public PolymarketBankrollResponse from(PortfolioSnapshot snapshot) {
+    if (snapshot == null) {
       return new PolymarketBankrollResponse(
           properties.mode().name(),
           null,
@@ -63,24 +37,15 @@ public class PolymarketBankrollService {
           0,
           0,
           0,
-          now
+          clock.millis()
       );
     }
 
-    ContractConfig contracts = ContractConfig.forChainId(properties.polymarket().chainId());
-    BigDecimal usdc = onchainErc20.balanceOf(contracts.collateral(), maker, contracts.collateralTokenDecimals());
-
-    JsonNode raw = dataApiClient.getPositions(maker, 500, 0);
-    List<PolymarketPosition> positions = objectMapper.convertValue(raw, POSITIONS_LIST);
-
     BigDecimal cur = BigDecimal.ZERO;
     BigDecimal init = BigDecimal.ZERO;
     int redeemable = 0;
     int mergeable = 0;
-    for (PolymarketPosition p : positions) {
-      if (p == null) {
-        continue;
-      }
+    for (PolymarketPosition p : snapshot.positions()) {
       if (Boolean.TRUE.equals(p.redeemable())) {
         redeemable++;
       }
@@ -95,31 +60,20 @@ public class PolymarketBankrollService {
       }
     }
 
+    BigDecimal usdc = snapshot.usdcBalance();
     BigDecimal equity = usdc.add(cur);
 
     return new PolymarketBankrollResponse(
         properties.mode().name(),
-        maker,
+        snapshot.makerAddress(),
         usdc,
         cur,
         init,
         equity,
-        positions.size(),
+        snapshot.positions().size(),
         redeemable,
         mergeable,
-        now
+        snapshot.asOfMillis()
     );
   }
-
-  private String makerAddress() {
-    String funder = authContext.funderAddress().orElse(null);
-    if (funder != null && !funder.isBlank()) {
-      return funder.toLowerCase();
-    }
-    return authContext.signerCredentials()
-        .map(Credentials::getAddress)
-        .map(String::toLowerCase)
-        .orElse(null);
-  }
 }
-
@@ -0,0 +1,26 @@
+package com.polybot.hft.executor.portfolio;
+
+import com.polybot.hft.polymarket.data.PolymarketPosition;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * USDC balance + positions of the maker wallet at one point in time.
+ * <p>
+ * {@code etag} changes exactly when the content does (a refresh that finds nothing new keeps it), so HTTP clients can
+ * poll with {@code If-None-Match}. It embeds a per-process id so versions from a restarted executor never collide.
+ */
+public record PortfolioSnapshot(
+    String makerAddress,
+    BigDecimal usdcBalance,
+    List<PolymarketPosition> positions,
+    long version,
+    String etag,
+    long asOfMillis
+) {
+
+  boolean sameContent(String maker, BigDecimal usdc, List<PolymarketPosition> otherPositions) {
+    return makerAddress.equals(maker) && usdcBalance.compareTo(usdc) == 0 && positions.equals(otherPositions);
+  }
+}
@@ -0,0 +1,363 @@
+package com.polybot.hft.executor.portfolio;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polybot.hft.domain.OrderSide;
+import com.polybot.hft.executor.sim.PaperExchangeSimulator;
+import com.polybot.hft.polymarket.auth.PolymarketAuthContext;
+import com.polybot.hft.polymarket.data.PolymarketDataApiClient;
+import com.polybot.hft.polymarket.data.PolymarketPosition;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.web3j.crypto.Credentials;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single source of the maker wallet's USDC balance and positions for {@code /bankroll}, {@code /positions} and
+ * settlement planning.
+ * <p>
+ * The snapshot is refreshed in the background; a request that finds it too old refreshes it synchronously, and
+ * concurrent refreshes share one on-chain + Data API round trip. Fills seen by the order monitor are applied in place
+ * and kept as a per-asset overlay: every refresh re-applies the part the chain balance doesn't show yet, so a refresh
+ * that read the wallet just before a fill settled can't erase it. An overlay entry is dropped once the balance has
+ * moved by the filled shares and the Data API lists the position, or after {@code pendingFillTtlMillis}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PortfolioSnapshotService {
+
+  private static final TypeReference<List<PolymarketPosition>> POSITIONS_LIST = new TypeReference<>() {
+  };
+
+  private final @NonNull ExecutorPortfolioProperties portfolioProperties;
+  private final @NonNull PolymarketAuthContext authContext;
+  private final @NonNull PolymarketDataApiClient dataApiClient;
+  private final @NonNull ObjectMapper objectMapper;
+  private final @NonNull OnchainWalletReader walletReader;
+  private final @NonNull PaperExchangeSimulator simulator;
+  private final @NonNull Clock clock;
+
+  private final String processId = UUID.randomUUID().toString().substring(0, 8);
+  private final AtomicReference<PortfolioSnapshot> latest = new AtomicReference<>();
+  private final AtomicReference<CompletableFuture<PortfolioSnapshot>> inFlight = new AtomicReference<>();
+  private final AtomicLong versions = new AtomicLong(0);
+  private final AtomicLong loads = new AtomicLong(0);
+  private final AtomicLong coalesced = new AtomicLong(0);
+  private volatile boolean invalidated;
+  private volatile List<String> missingApprovals = List.of();
+
+  private final ReentrantLock fillsLock = new ReentrantLock();
+  // Guarded by fillsLock.
+  private final Map<String, PendingFill> pendingFills = new HashMap<>();
+  private Map<String, BigDecimal> lastChainSizes = Map.of();
+
+  /**
+   * The current snapshot, refreshed first when it is missing, invalidated or older than the staleness bound. Empty in
+   * simulator mode or when no maker address is configured. A failed refresh falls back to the previous snapshot.
+   */
+  public Optional<PortfolioSnapshot> current() {
+    if (!available()) {
+      return Optional.empty();
+    }
+    PortfolioSnapshot snapshot = latest.get();
+    if (snapshot != null && !invalidated && clock.millis() - snapshot.asOfMillis() <= portfolioProperties.maxStalenessMillis()) {
+      return Optional.of(snapshot);
+    }
+    try {
+      return Optional.of(refresh());
+    } catch (RuntimeException e) {
+      if (snapshot == null) {
+        throw e;
+      }
+      log.warn("portfolio refresh failed, serving snapshot v{} from {}ms ago: {}",
+          snapshot.version(), clock.millis() - snapshot.asOfMillis(), e.toString());
+      return Optional.of(snapshot);
+    }
+  }
+
+  /**
+   * Forces the next {@link #current()} to reload, e.g. after settlement transactions changed the wallet.
+   */
+  public void invalidate() {
+    invalidated = true;
+  }
+
+  /**
+   * Loads a fresh snapshot; callers arriving while a load is running wait for that load instead of starting another.
+   */
+  public PortfolioSnapshot refresh() {
+    CompletableFuture<PortfolioSnapshot> mine = new CompletableFuture<>();
+    CompletableFuture<PortfolioSnapshot> running = inFlight.compareAndExchange(null, mine);
+    if (running != null) {
+      coalesced.incrementAndGet();
+      try {
+        return running.join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException re ? re : e;
+      }
+    }
+    try {
+      invalidated = false;
+      PortfolioSnapshot snapshot = load();
+      mine.complete(snapshot);
+      return snapshot;
+    } catch (RuntimeException e) {
+      mine.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.set(null);
+    }
+  }
+
+  /**
+   * Applies a fill to the current snapshot without waiting for the Data API to catch up.
+   */
+  public void applyFill(String tokenId, OrderSide side, BigDecimal price, BigDecimal shares) {
+    if (tokenId == null || side == null || price == null || shares == null || shares.signum() <= 0) {
+      return;
+    }
+    BigDecimal notional = price.multiply(shares);
+    PortfolioSnapshot updated;
+    fillsLock.lock();
+    try {
+      updated = latest.updateAndGet(s -> {
+        if (s == null) {
+          return null;
+        }
+        BigDecimal usdc = side == OrderSide.BUY ? s.usdcBalance().subtract(notional) : s.usdcBalance().add(notional);
+        return next(s.makerAddress(), usdc, withFill(s.makerAddress(), s.positions(), tokenId, side, price, shares, notional));
+      });
+      if (updated != null) {
+        PendingFill fill = new PendingFill(lastChainSizes.getOrDefault(tokenId, BigDecimal.ZERO),
+            side == OrderSide.BUY ? shares : shares.negate(),
+            side == OrderSide.BUY ? notional.negate() : notional,
+            price, clock.millis());
+        pendingFills.merge(tokenId, fill, PendingFill::plus);
+      }
+    } finally {
+      fillsLock.unlock();
+    }
+    if (updated != null) {
+      log.debug("portfolio fill applied token={} side={} shares={} price={} -> v{}", tokenId, side, shares, price, updated.version());
+    }
+  }
+
+  /**
+   * Assets with fills not yet reflected by a refresh.
+   */
+  public Set<String> pendingFillAssets() {
+    fillsLock.lock();
+    try {
+      return Set.copyOf(pendingFills.keySet());
+    } finally {
+      fillsLock.unlock();
+    }
+  }
+
+  public long loads() {
+    return loads.get();
+  }
+
+  public long coalescedLoads() {
+    return coalesced.get();
+  }
+
+  /**
+   * Exchange approvals found missing by the last refresh, e.g. {@code "USDC allowance -> exchange"}.
+   */
+  public List<String> missingApprovals() {
+    return missingApprovals;
+  }
+
+  @Scheduled(initialDelay = 1_000L, fixedDelayString = "${executor.portfolio.refresh-millis:5000}")
+  void backgroundRefresh() {
+    if (!available()) {
+      return;
+    }
+    try {
+      refresh();
+    } catch (Exception e) {
+      log.debug("portfolio background refresh failed: {}", e.toString());
+    }
+  }
+
+  private boolean available() {
+    String maker = makerAddress();
+    return !simulator.enabled() && maker != null && !maker.isBlank();
+  }
+
+  private PortfolioSnapshot load() {
+    loads.incrementAndGet();
+    String maker = makerAddress();
+
+    JsonNode raw = dataApiClient.getPositions(maker, portfolioProperties.positionsLimit(), 0);
+    List<PolymarketPosition> apiPositions = objectMapper.convertValue(raw, POSITIONS_LIST).stream()
+        .filter(Objects::nonNull)
+        .toList();
+
+    // One multicall for USDC, every position token's balance and the exchange approvals; the Data API supplies the
+    // metadata (prices, flags, titles) but can lag the chain by several seconds on sizes.
+    // Assets with pending fills are read too, so a fill into a position the Data API doesn't list yet is still seen.
+    Set<String> assets = new LinkedHashSet<>();
+    apiPositions.forEach(p -> assets.add(p.asset()));
+    assets.addAll(pendingFillAssets());
+    OnchainWalletReader.WalletState wallet;
+    try {
+      wallet = walletReader.read(maker, List.copyOf(assets));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    List<PolymarketPosition> onchain = apiPositions.stream()
+        .map(p -> withSize(p, wallet.tokenBalances().get(p.asset())))
+        .toList();
+    if (!wallet.missingApprovals().equals(missingApprovals)) {
+      missingApprovals = wallet.missingApprovals();
+      if (!missingApprovals.isEmpty()) {
+        log.warn("maker {} is missing approvals: {}", maker, missingApprovals);
+      }
+    }
+
+    long now = clock.millis();
+    fillsLock.lock();
+    try {
+      lastChainSizes = Map.copyOf(wallet.tokenBalances());
+      PortfolioSnapshot overlaid = withPendingFills(maker, wallet, onchain, now);
+      return latest.updateAndGet(prev -> prev != null && prev.sameContent(maker, overlaid.usdcBalance(), overlaid.positions())
+          ? new PortfolioSnapshot(prev.makerAddress(), prev.usdcBalance(), prev.positions(), prev.version(), prev.etag(), now)
+          : next(maker, overlaid.usdcBalance(), overlaid.positions()));
+    } finally {
+      fillsLock.unlock();
+    }
+  }
+
+  /**
+   * Re-applies the part of each pending fill the fresh balances don't show yet and forgets the reflected or expired
+   * ones. A bought asset the Data API doesn't list yet keeps its whole fill as a position. Only the balance and
+   * positions of the result are meaningful. Caller holds {@code fillsLock}.
+   */
+  private PortfolioSnapshot withPendingFills(String maker, OnchainWalletReader.WalletState wallet,
+                                             List<PolymarketPosition> onchain, long now) {
+    BigDecimal usdc = wallet.usdcBalance();
+    List<PolymarketPosition> positions = onchain;
+    Iterator<Map.Entry<String, PendingFill>> it = pendingFills.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, PendingFill> e = it.next();
+      String asset = e.getKey();
+      PendingFill fill = e.getValue();
+      BigDecimal chainSize = wallet.tokenBalances().get(asset);
+      BigDecimal moved = chainSize == null ? BigDecimal.ZERO : chainSize.subtract(fill.baseSize());
+      BigDecimal reflected = fill.shares().signum() > 0
+          ? moved.max(BigDecimal.ZERO).min(fill.shares())
+          : moved.min(BigDecimal.ZERO).max(fill.shares());
+      BigDecimal remaining = fill.shares().subtract(reflected);
+      boolean listed = positions.stream().anyMatch(p -> asset.equals(p.asset()));
+      if (now - fill.updatedAtMillis() > portfolioProperties.pendingFillTtlMillis()
+          || fill.shares().signum() == 0
+          || (remaining.signum() == 0 && (listed || fill.shares().signum() < 0))) {
+        it.remove();
+        continue;
+      }
+      usdc = usdc.add(fill.usdc().multiply(remaining).divide(fill.shares(), MathContext.DECIMAL64));
+      BigDecimal shown = listed ? remaining : fill.shares();
+      if (shown.signum() != 0) {
+        OrderSide side = shown.signum() > 0 ? OrderSide.BUY : OrderSide.SELL;
+        positions = withFill(maker, positions, asset, side, fill.price(), shown.abs(), fill.price().multiply(shown.abs()));
+      }
+    }
+    return new PortfolioSnapshot(maker, usdc, positions, 0L, null, now);
+  }
+
+  /**
+   * The positions with one fill applied to {@code tokenId}, adding the position for a first buy.
+   */
+  private static List<PolymarketPosition> withFill(String maker, List<PolymarketPosition> current, String tokenId,
+                                                   OrderSide side, BigDecimal price, BigDecimal shares, BigDecimal notional) {
+    List<PolymarketPosition> positions = new ArrayList<>(current.size() + 1);
+    boolean found = false;
+    for (PolymarketPosition p : current) {
+      if (p != null && tokenId.equals(p.asset())) {
+        found = true;
+        p = withFill(p, side, shares, notional);
+      }
+      positions.add(p);
+    }
+    if (!found && side == OrderSide.BUY) {
+      positions.add(new PolymarketPosition(maker, tokenId, null, shares, price, notional, notional,
+          null, null, price, false, false, null, null, null, null, null, null, null));
+    }
+    return positions;
+  }
+
+  private PortfolioSnapshot next(String maker, BigDecimal usdc, List<PolymarketPosition> positions) {
+    long version = versions.incrementAndGet();
+    String etag = "\"" + processId + "-" + version + "\"";
+    return new PortfolioSnapshot(maker, usdc, List.copyOf(positions), version, etag, clock.millis());
+  }
+
+  private static PolymarketPosition withSize(PolymarketPosition p, BigDecimal onchainSize) {
+    if (onchainSize == null || (p.size() != null && p.size().compareTo(onchainSize) == 0)) {
+      return p;
+    }
+    BigDecimal current = p.curPrice() == null ? p.currentValue() : p.curPrice().multiply(onchainSize);
+    return new PolymarketPosition(p.proxyWallet(), p.asset(), p.conditionId(), onchainSize, p.avgPrice(), p.initialValue(), current,
+        p.cashPnl(), p.realizedPnl(), p.curPrice(), p.redeemable(), p.mergeable(), p.title(), p.slug(), p.outcome(),
+        p.outcomeIndex(), p.oppositeOutcome(), p.oppositeAsset(), p.negativeRisk());
+  }
+
+  private static PolymarketPosition withFill(PolymarketPosition p, OrderSide side, BigDecimal shares, BigDecimal notional) {
+    BigDecimal size = p.size() == null ? BigDecimal.ZERO : p.size();
+    BigDecimal initial = p.initialValue() == null ? BigDecimal.ZERO : p.initialValue();
+    BigDecimal nextSize = side == OrderSide.BUY ? size.add(shares) : size.subtract(shares).max(BigDecimal.ZERO);
+    BigDecimal nextInitial = side == OrderSide.BUY ? initial.add(notional) : initial;
+    BigDecimal current = p.curPrice() == null ? p.currentValue() : p.curPrice().multiply(nextSize);
+    return new PolymarketPosition(p.proxyWallet(), p.asset(), p.conditionId(), nextSize, p.avgPrice(), nextInitial, current,
+        p.cashPnl(), p.realizedPnl(), p.curPrice(), p.redeemable(), p.mergeable(), p.title(), p.slug(), p.outcome(),
+        p.outcomeIndex(), p.oppositeOutcome(), p.oppositeAsset(), p.negativeRisk());
+  }
+
+  private String makerAddress() {
+    String funder = authContext.funderAddress().orElse(null);
+    if (funder != null && !funder.isBlank()) {
+      return funder.toLowerCase();
+    }
+    return authContext.signerCredentials()
+        .map(Credentials::getAddress)
+        .map(String::toLowerCase)
+        .orElse(null);
+  }
+
+  /**
+   * Fills on one asset not yet reflected by a refresh: signed shares (+BUY) and USDC (-BUY) relative to the chain
+   * balance {@code baseSize} the asset had when the first of them was applied.
+   */
+  private record PendingFill(BigDecimal baseSize, BigDecimal shares, BigDecimal usdc, BigDecimal price, long updatedAtMillis) {
+    PendingFill plus(PendingFill later) {
+      return new PendingFill(baseSize, shares.add(later.shares), usdc.add(later.usdc), later.price, later.updatedAtMillis);
+    }
+  }
+}
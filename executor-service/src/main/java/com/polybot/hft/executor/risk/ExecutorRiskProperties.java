@@ -0,0 +1,37 @@
+package com.polybot.hft.executor.risk;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.math.BigDecimal;
+
+@Validated
+@ConfigurationProperties(prefix = "executor.risk")
+public record ExecutorRiskProperties(
+    /**
+     * Cap on open BUY notional + filled cost basis in one market (both outcomes). 0 = unlimited.
+     */
+    @NotNull @PositiveOrZero BigDecimal maxMarketNotionalUsd,
+    /**
+     * Cap across all markets of one series (e.g. btc 15m). 0 = unlimited.
+     */
+    @NotNull @PositiveOrZero BigDecimal maxSeriesNotionalUsd,
+    /**
+     * Cap across everything the executor trades. 0 = unlimited.
+     */
+    @NotNull @PositiveOrZero BigDecimal maxTotalNotionalUsd
+) {
+  public ExecutorRiskProperties {
+    if (maxMarketNotionalUsd == null) {
+      maxMarketNotionalUsd = BigDecimal.ZERO;
+    }
+    if (maxSeriesNotionalUsd == null) {
+      maxSeriesNotionalUsd = BigDecimal.ZERO;
+    }
+    if (maxTotalNotionalUsd == null) {
+      maxTotalNotionalUsd = BigDecimal.ZERO;
+    }
+  }
+}
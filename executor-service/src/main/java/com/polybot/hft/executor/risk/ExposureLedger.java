@@ -0,0 +1,290 @@
+package com.polybot.hft.executor.risk;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Exposure (open BUY notional + filled cost basis, in micro-USD) per market, per series and in total.
+ * <p>
+ * A market's state is guarded by one of a fixed set of striped locks, so orders on different markets don't contend;
+ * series and total are lock-free counters bumped with a capped CAS. A pre-trade check is therefore O(1): one stripe
+ * lock plus two CAS loops, with the earlier levels rolled back if a later cap rejects.
+ */
+public final class ExposureLedger {
+
+  public enum Level {
+    MARKET,
+    SERIES,
+    TOTAL
+  }
+
+  private static final int STRIPES = 64;
+
+  private final long marketCapMicros;
+  private final long seriesCapMicros;
+  private final long totalCapMicros;
+
+  private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+  private final Map<String, MarketExposure> markets = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> series = new ConcurrentHashMap<>();
+  private final Map<String, OrderExposure> orders = new ConcurrentHashMap<>();
+  private final AtomicLong total = new AtomicLong();
+
+  /**
+   * Caps in micro-USD; 0 disables a level.
+   */
+  public ExposureLedger(long marketCapMicros, long seriesCapMicros, long totalCapMicros) {
+    this.marketCapMicros = marketCapMicros;
+    this.seriesCapMicros = seriesCapMicros;
+    this.totalCapMicros = totalCapMicros;
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Books {@code notionalMicros} of open exposure for {@code orderKey}, or throws without booking anything.
+   */
+  public void reserve(String orderKey, String market, String seriesKey, long notionalMicros) {
+    ReentrantLock lock = stripe(market);
+    lock.lock();
+    try {
+      MarketExposure m = markets.computeIfAbsent(market, k -> new MarketExposure(seriesKey));
+      long current = m.open + m.filled;
+      if (marketCapMicros > 0 && current + notionalMicros > marketCapMicros) {
+        throw new ExposureLimitExceededException(Level.MARKET, market, current, notionalMicros, marketCapMicros);
+      }
+      AtomicLong s = seriesCounter(m.series);
+      if (!tryAdd(s, notionalMicros, seriesCapMicros)) {
+        throw new ExposureLimitExceededException(Level.SERIES, m.series, s.get(), notionalMicros, seriesCapMicros);
+      }
+      if (!tryAdd(total, notionalMicros, totalCapMicros)) {
+        s.addAndGet(-notionalMicros);
+        throw new ExposureLimitExceededException(Level.TOTAL, "total", total.get(), notionalMicros, totalCapMicros);
+      }
+      m.open += notionalMicros;
+      orders.put(orderKey, new OrderExposure(market, notionalMicros));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Moves a reservation to the exchange order id once it's known.
+   */
+  public void rekey(String fromKey, String toKey) {
+    OrderExposure o = orders.remove(fromKey);
+    if (o != null) {
+      orders.put(toKey, o);
+    }
+  }
+
+  /**
+   * Drops whatever is still open on the order (cancel, reject, expiry, or a placement that failed).
+   */
+  public void release(String orderKey) {
+    OrderExposure o = orders.get(orderKey);
+    if (o == null) {
+      return;
+    }
+    ReentrantLock lock = stripe(o.market);
+    lock.lock();
+    try {
+      if (orders.remove(orderKey) == null) {
+        return;
+      }
+      MarketExposure m = markets.get(o.market);
+      if (m != null && o.open > 0) {
+        m.open -= o.open;
+        add(m.series, -o.open);
+        o.open = 0;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * A BUY fill: moves {@code filledMicros} from open to filled. Fills beyond the reserved amount (price improvement
+   * the other way, rounding) are added on top.
+   */
+  public void fill(String orderKey, long filledMicros) {
+    OrderExposure o = orders.get(orderKey);
+    if (o == null || filledMicros <= 0) {
+      return;
+    }
+    ReentrantLock lock = stripe(o.market);
+    lock.lock();
+    try {
+      MarketExposure m = markets.get(o.market);
+      if (m == null) {
+        return;
+      }
+      long fromOpen = Math.min(filledMicros, o.open);
+      o.open -= fromOpen;
+      m.open -= fromOpen;
+      m.filled += filledMicros;
+      add(m.series, filledMicros - fromOpen);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * A SELL fill reduces the market's filled exposure.
+   */
+  public void reduce(String market, long micros) {
+    ReentrantLock lock = stripe(market);
+    lock.lock();
+    try {
+      MarketExposure m = markets.get(market);
+      if (m == null || micros <= 0) {
+        return;
+      }
+      long delta = Math.min(micros, m.filled);
+      m.filled -= delta;
+      add(m.series, -delta);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Replaces filled exposure with the authoritative position cost basis; markets missing from the map are flat.
+   * Markets with neither open orders nor positions are dropped.
+   */
+  public void reconcileFilled(Map<String, Long> filledByMarket, Function<String, String> seriesOf) {
+    Set<String> keys = new HashSet<>(markets.keySet());
+    keys.addAll(filledByMarket.keySet());
+    for (String market : keys) {
+      long target = filledByMarket.getOrDefault(market, 0L);
+      ReentrantLock lock = stripe(market);
+      lock.lock();
+      try {
+        MarketExposure m = markets.get(market);
+        if (m == null) {
+          if (target == 0) {
+            continue;
+          }
+          m = markets.computeIfAbsent(market, k -> new MarketExposure(seriesOf.apply(k)));
+        }
+        long delta = target - m.filled;
+        m.filled = target;
+        add(m.series, delta);
+        if (m.open == 0 && m.filled == 0) {
+          markets.remove(market);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  public long totalMicros() {
+    return total.get();
+  }
+
+  public long seriesMicros(String seriesKey) {
+    AtomicLong s = series.get(seriesKey);
+    return s == null ? 0 : s.get();
+  }
+
+  public long marketMicros(String market) {
+    ReentrantLock lock = stripe(market);
+    lock.lock();
+    try {
+      MarketExposure m = markets.get(market);
+      return m == null ? 0 : m.open + m.filled;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int openOrders() {
+    return orders.size();
+  }
+
+  public Snapshot snapshot() {
+    List<MarketView> marketViews = new ArrayList<>(markets.size());
+    for (String market : markets.keySet()) {
+      ReentrantLock lock = stripe(market);
+      lock.lock();
+      try {
+        MarketExposure m = markets.get(market);
+        if (m != null) {
+          marketViews.add(new MarketView(market, m.series, m.open, m.filled));
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+    marketViews.sort(Comparator.comparingLong((MarketView v) -> v.openMicros() + v.filledMicros()).reversed());
+    Map<String, Long> seriesView = new TreeMap<>();
+    series.forEach((k, v) -> seriesView.put(k, v.get()));
+    return new Snapshot(total.get(), seriesView, marketViews, orders.size());
+  }
+
+  private ReentrantLock stripe(String market) {
+    return stripes[Math.floorMod(market.hashCode(), STRIPES)];
+  }
+
+  private AtomicLong seriesCounter(String seriesKey) {
+    return series.computeIfAbsent(seriesKey, k -> new AtomicLong());
+  }
+
+  private void add(String seriesKey, long delta) {
+    if (delta == 0) {
+      return;
+    }
+    seriesCounter(seriesKey).addAndGet(delta);
+    total.addAndGet(delta);
+  }
+
+  private static boolean tryAdd(AtomicLong counter, long delta, long cap) {
+    while (true) {
+      long current = counter.get();
+      long next = current + delta;
+      if (cap > 0 && next > cap) {
+        return false;
+      }
+      if (counter.compareAndSet(current, next)) {
+        return true;
+      }
+    }
+  }
+
+  private static final class MarketExposure {
+    private final String series;
+    private long open;
+    private long filled;
+
+    private MarketExposure(String series) {
+      this.series = series;
+    }
+  }
+
+  private static final class OrderExposure {
+    private final String market;
+    private long open;
+
+    private OrderExposure(String market, long open) {
+      this.market = market;
+      this.open = open;
+    }
+  }
+
+  public record MarketView(String market, String series, long openMicros, long filledMicros) {
+  }
+
+  public record Snapshot(long totalMicros, Map<String, Long> seriesMicros, List<MarketView> markets, int openOrders) {
+  }
+}
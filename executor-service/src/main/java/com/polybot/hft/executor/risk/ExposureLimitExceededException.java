@@ -0,0 +1,31 @@
+package com.polybot.hft.executor.risk;
+
+import java.math.BigDecimal;
+
+/**
+ * A BUY would push market, series or total exposure past its cap.
+ */
+public class ExposureLimitExceededException extends RuntimeException {
+
+  private final ExposureLedger.Level level;
+  private final String key;
+
+  public ExposureLimitExceededException(ExposureLedger.Level level, String key, long currentMicros, long requestedMicros, long capMicros) {
+    super(level + " exposure cap exceeded for " + key + ": current=" + usd(currentMicros)
+        + " requested=" + usd(requestedMicros) + " cap=" + usd(capMicros));
+    this.level = level;
+    this.key = key;
+  }
+
+  public ExposureLedger.Level level() {
+    return level;
+  }
+
+  public String key() {
+    return key;
+  }
+
+  private static BigDecimal usd(long micros) {
+    return BigDecimal.valueOf(micros, 6).stripTrailingZeros();
+  }
+}
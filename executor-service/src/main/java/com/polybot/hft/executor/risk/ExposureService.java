@@ -0,0 +1,176 @@
+package com.polybot.hft.executor.risk;
+
+import com.polybot.hft.domain.OrderSide;
+import com.polybot.hft.executor.portfolio.PortfolioSnapshot;
+import com.polybot.hft.executor.portfolio.PortfolioSnapshotService;
+import com.polybot.hft.metrics.PolybotMetrics;
+import com.polybot.hft.polymarket.data.PolymarketPosition;
+import com.polybot.hft.polymarket.discovery.UpDownMarketSlugs;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Tag;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cross-market exposure enforcement for live orders: BUYs reserve notional against the market / series / total caps
+ * before they're sent, fills and cancels from the order monitor move it, and the portfolio snapshot periodically
+ * replaces the filled side with the real cost basis (which also clears markets that were settled).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExposureService {
+
+  private final @NonNull ExecutorRiskProperties riskProperties;
+  private final @NonNull PortfolioSnapshotService portfolio;
+  private final @NonNull PolybotMetrics metrics;
+
+  private final Map<String, String> marketByToken = new ConcurrentHashMap<>();
+  private final Set<String> seriesGauges = ConcurrentHashMap.newKeySet();
+  private final Map<ExposureLedger.Level, Counter> rejections = new EnumMap<>(ExposureLedger.Level.class);
+  private ExposureLedger ledger;
+  private volatile long reconciledVersion = -1;
+
+  @PostConstruct
+  void init() {
+    ledger = new ExposureLedger(
+        micros(riskProperties.maxMarketNotionalUsd()),
+        micros(riskProperties.maxSeriesNotionalUsd()),
+        micros(riskProperties.maxTotalNotionalUsd()));
+    metrics.registerDoubleGauge("polybot_exposure_usd", "Open + filled BUY exposure",
+        () -> ledger.totalMicros() / 1e6, Tag.of("level", "total"));
+    metrics.registerDoubleGauge("polybot_exposure_utilization", "Exposure as a fraction of its cap (0 when uncapped)",
+        () -> utilization(ledger.totalMicros(), riskProperties.maxTotalNotionalUsd()), Tag.of("level", "total"));
+    metrics.registerIntGauge("polybot_exposure_open_orders", "Orders holding reserved exposure", () -> ledger.openOrders());
+    for (ExposureLedger.Level level : ExposureLedger.Level.values()) {
+      rejections.put(level, metrics.createCounter("polybot_exposure_rejections_total",
+          "BUY orders rejected by an exposure cap", Tag.of("level", level.name().toLowerCase())));
+    }
+  }
+
+  /**
+   * Reserves the BUY's notional; throws {@link ExposureLimitExceededException} when a cap would be breached.
+   *
+   * @return the reservation key, to be {@link #bind bound} to the exchange order id or {@link #release released}
+   */
+  public String reserveBuy(String tokenId, String marketSlug, BigDecimal notionalUsd) {
+    String market = market(tokenId, marketSlug);
+    String series = seriesOf(market);
+    registerSeriesGauge(series);
+    String reservation = "pending-" + UUID.randomUUID();
+    try {
+      ledger.reserve(reservation, market, series, micros(notionalUsd));
+    } catch (ExposureLimitExceededException e) {
+      rejections.get(e.level()).increment();
+      log.warn("exposure check rejected BUY token={} market={}: {}", tokenId, market, e.getMessage());
+      throw e;
+    }
+    return reservation;
+  }
+
+  public void bind(String reservation, String orderId) {
+    ledger.rekey(reservation, orderId);
+  }
+
+  public void release(String orderKey) {
+    ledger.release(orderKey);
+  }
+
+  public void onFill(String orderId, String tokenId, OrderSide side, BigDecimal price, BigDecimal shares) {
+    if (price == null || shares == null || shares.signum() <= 0) {
+      return;
+    }
+    long notional = micros(price.multiply(shares));
+    if (side == OrderSide.SELL) {
+      ledger.reduce(market(tokenId, null), notional);
+    } else {
+      ledger.fill(orderId, notional);
+    }
+  }
+
+  public ExposureLedger.Snapshot snapshot() {
+    return ledger.snapshot();
+  }
+
+  @Scheduled(initialDelay = 2_000L, fixedDelayString = "${executor.portfolio.refresh-millis:5000}")
+  void reconcile() {
+    PortfolioSnapshot snapshot;
+    try {
+      snapshot = portfolio.current().orElse(null);
+    } catch (Exception e) {
+      log.debug("exposure reconcile skipped: {}", e.toString());
+      return;
+    }
+    if (snapshot == null || snapshot.version() == reconciledVersion) {
+      return;
+    }
+    Map<String, Long> filledByMarket = new HashMap<>();
+    for (PolymarketPosition p : snapshot.positions()) {
+      // Resolved positions are worth 0 or 1 and only wait for redemption; they carry no more risk.
+      if (p.asset() == null || p.size() == null || p.size().signum() <= 0 || Boolean.TRUE.equals(p.redeemable())) {
+        continue;
+      }
+      if (p.slug() != null && !p.slug().isBlank()) {
+        marketByToken.put(p.asset(), p.slug());
+      }
+      BigDecimal cost = p.avgPrice() == null ? p.initialValue() : p.avgPrice().multiply(p.size());
+      if (cost != null) {
+        filledByMarket.merge(market(p.asset(), p.slug()), micros(cost), Long::sum);
+      }
+    }
+    ledger.reconcileFilled(filledByMarket, ExposureService::seriesOf);
+    reconciledVersion = snapshot.version();
+  }
+
+  private String market(String tokenId, String marketSlug) {
+    if (marketSlug != null && !marketSlug.isBlank()) {
+      marketByToken.putIfAbsent(tokenId, marketSlug);
+      return marketSlug;
+    }
+    String known = marketByToken.get(tokenId);
+    return known != null ? known : "token:" + tokenId;
+  }
+
+  /**
+   * Asset + market type of an Up/Down slug (e.g. {@code btc/updown-15m}); anything else is its own series.
+   */
+  static String seriesOf(String market) {
+    String type = UpDownMarketSlugs.marketType(market);
+    if (type == null || market.startsWith("token:")) {
+      return "other";
+    }
+    int dash = market.indexOf('-');
+    return (dash > 0 ? market.substring(0, dash) : market) + "/" + type;
+  }
+
+  private void registerSeriesGauge(String series) {
+    if (seriesGauges.add(series)) {
+      metrics.registerDoubleGauge("polybot_exposure_usd", "Open + filled BUY exposure",
+          () -> ledger.seriesMicros(series) / 1e6, Tag.of("level", "series"), Tag.of("series", series));
+      metrics.registerDoubleGauge("polybot_exposure_utilization", "Exposure as a fraction of its cap (0 when uncapped)",
+          () -> utilization(ledger.seriesMicros(series), riskProperties.maxSeriesNotionalUsd()),
+          Tag.of("level", "series"), Tag.of("series", series));
+    }
+  }
+
+  private static double utilization(long micros, BigDecimal capUsd) {
+    return capUsd == null || capUsd.signum() <= 0 ? 0.0 : micros / 1e6 / capUsd.doubleValue();
+  }
+
+  static long micros(BigDecimal usd) {
+    return usd == null ? 0 : usd.movePointRight(6).setScale(0, RoundingMode.UP).longValueExact();
+  }
+}
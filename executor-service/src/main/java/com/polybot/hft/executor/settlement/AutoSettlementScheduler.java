@@ -14,7 +14,7 @@ public class AutoSettlementScheduler {
   private final @NonNull ExecutorSettlementProperties settlementProperties;
   private final @NonNull PolymarketSettlementService settlementService;
 
-  @Scheduled(fixedDelayString = "${executor.settlement.poll-interval-millis:30000}")
+  @Scheduled(fixedDelayString = "${executor.settlement.poll-interval-millis:300000}")
   public void tick() {
     if (!settlementProperties.enabled()) {
       log.debug("auto-settlement disabled");
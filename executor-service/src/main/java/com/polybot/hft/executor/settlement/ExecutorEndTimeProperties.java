@@ -0,0 +1,51 @@
+package com.polybot.hft.executor.settlement;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.net.URI;
+
+@Validated
+@ConfigurationProperties(prefix = "executor.end-times")
+public record ExecutorEndTimeProperties(
+    /**
+     * ClickHouse HTTP endpoint holding {@code polybot.gamma_markets_latest}.
+     */
+    URI clickhouseUrl,
+    /**
+     * Background incremental refresh interval (only rows captured since the last watermark are fetched).
+     */
+    @NotNull @Min(1_000) Long refreshMillis,
+    /**
+     * Markets that ended more than this many days ago are neither loaded nor kept.
+     */
+    @NotNull @Min(1) Integer lookbackDays,
+    /**
+     * Conditions still unknown after a refresh (or all of them while ClickHouse is down) are looked up on Gamma.
+     */
+    @NotNull Boolean gammaFallbackEnabled,
+    /**
+     * Maximum Gamma lookups per refresh.
+     */
+    @NotNull @Min(0) Integer gammaFallbackMaxPerRefresh
+) {
+  public ExecutorEndTimeProperties {
+    if (clickhouseUrl == null) {
+      clickhouseUrl = URI.create("http://localhost:8123");
+    }
+    if (refreshMillis == null) {
+      refreshMillis = 60_000L;
+    }
+    if (lookbackDays == null) {
+      lookbackDays = 7;
+    }
+    if (gammaFallbackEnabled == null) {
+      gammaFallbackEnabled = true;
+    }
+    if (gammaFallbackMaxPerRefresh == null) {
+      gammaFallbackMaxPerRefresh = 20;
+    }
+  }
+}
@@ -39,7 +39,31 @@ public record ExecutorOnchainProperties(
     /**
      * Receipt polling attempts.
      */
-    @NotNull @Min(1) Integer receiptPollAttempts
+    @NotNull @Min(1) Integer receiptPollAttempts,
+    /**
+     * How long an eth_gasPrice result is reused across transactions.
+     */
+    @NotNull @Min(0) Long gasPriceCacheMillis,
+    /**
+     * A tx without a receipt after this long is re-broadcast with the same nonce and a bumped gas price.
+     */
+    @NotNull @Min(1_000) Long replaceAfterMillis,
+    /**
+     * Gas price multiplier of each replacement (nodes reject replacements below +10%).
+     */
+    @NotNull @DecimalMin("1.1") Double replacementGasPriceMultiplier,
+    /**
+     * Maximum replacements per tx before waiting out the remaining receipt timeout.
+     */
+    @NotNull @Min(0) Integer maxReplacements,
+    /**
+     * Multicall3 contract used to batch read-only eth_calls (same address on every chain it's deployed to).
+     */
+    String multicallAddress,
+    /**
+     * How long a multicall read result is reused.
+     */
+    @NotNull @Min(0) Long readCacheMillis
 ) {
   public ExecutorOnchainProperties {
     if (rpcUrl == null) {
@@ -64,6 +88,24 @@ public record ExecutorOnchainProperties(
     if (receiptPollAttempts == null) {
       receiptPollAttempts = 60;
     }
+    if (gasPriceCacheMillis == null) {
+      gasPriceCacheMillis = 3_000L;
+    }
+    if (replaceAfterMillis == null) {
+      replaceAfterMillis = 20_000L;
+    }
+    if (replacementGasPriceMultiplier == null) {
+      replacementGasPriceMultiplier = 1.15;
+    }
+    if (maxReplacements == null) {
+      maxReplacements = 2;
+    }
+    if (multicallAddress == null || multicallAddress.isBlank()) {
+      multicallAddress = "0xcA11bde05977b3631167028862bE2a173976CA11";
+    }
+    if (readCacheMillis == null) {
+      readCacheMillis = 1_000L;
+    }
   }
 }
 
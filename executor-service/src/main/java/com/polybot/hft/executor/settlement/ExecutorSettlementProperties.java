@@ -20,7 +20,7 @@ public record ExecutorSettlementProperties(
      */
     @NotNull Boolean dryRun,
     /**
-     * Poll interval for auto settlement.
+     * Interval of the full-scan backstop; resolved and ending markets are picked up by the resolution watcher.
      */
     @NotNull @Min(1_000) Long pollIntervalMillis,
     /**
@@ -39,7 +39,32 @@ public record ExecutorSettlementProperties(
     /**
      * Only merge if market ends within this many seconds (when mergeOnlyNearEnd = true).
      */
-    @NotNull @PositiveOrZero Long mergeSecondsBeforeEnd
+    @NotNull @PositiveOrZero Long mergeSecondsBeforeEnd,
+    /**
+     * Gas budget of one batched proxy transaction; redeem/merge actions are packed until their estimates reach it.
+     * 0 sends every action in its own transaction.
+     */
+    @NotNull @PositiveOrZero Long batchGasBudget,
+    /**
+     * Planning estimate of the gas one redeem/merge call adds to a batch (the transaction itself is still estimated).
+     */
+    @NotNull @Min(21_000) Long actionGasEstimate,
+    /**
+     * After a held market ends, start watching for its on-chain resolution this much later.
+     */
+    @NotNull @PositiveOrZero Long resolutionDelayMillis,
+    /**
+     * Poll interval of the resolution watcher (position sync + ConditionResolution logs).
+     */
+    @NotNull @Min(500) Long resolutionPollMillis,
+    /**
+     * Blocks scanned back on the first ConditionResolution log query, so resolutions just before start-up are seen.
+     */
+    @NotNull @PositiveOrZero Long resolutionLogLookbackBlocks,
+    /**
+     * Largest block range of one ConditionResolution log query; longer catch-ups are split into several queries.
+     */
+    @NotNull @Min(1) Long resolutionLogMaxBlocks
 ) {
   public ExecutorSettlementProperties {
     if (enabled == null) {
@@ -49,7 +74,7 @@ public record ExecutorSettlementProperties(
       dryRun = true;
     }
     if (pollIntervalMillis == null) {
-      pollIntervalMillis = 30_000L;
+      pollIntervalMillis = 300_000L;
     }
     if (minMergeShares == null) {
       minMergeShares = BigDecimal.ONE;
@@ -63,6 +88,24 @@ public record ExecutorSettlementProperties(
     if (mergeSecondsBeforeEnd == null) {
       mergeSecondsBeforeEnd = 300L; // 5 minutes
     }
+    if (batchGasBudget == null) {
+      batchGasBudget = 3_000_000L;
+    }
+    if (actionGasEstimate == null) {
+      actionGasEstimate = 200_000L;
+    }
+    if (resolutionDelayMillis == null) {
+      resolutionDelayMillis = 60_000L;
+    }
+    if (resolutionPollMillis == null) {
+      resolutionPollMillis = 3_000L;
+    }
+    if (resolutionLogLookbackBlocks == null) {
+      resolutionLogLookbackBlocks = 300L;
+    }
+    if (resolutionLogMaxBlocks == null) {
+      resolutionLogMaxBlocks = 1_000L;
+    }
   }
 }
 
@@ -1,94 +1,241 @@
 package com.polybot.hft.executor.settlement;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.polybot.hft.polymarket.discovery.UpDownMarketSlugs;
+import com.polybot.hft.polymarket.gamma.PolymarketGammaClient;
+import jakarta.annotation.PreDestroy;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
+/**
+ * conditionId -> market end time, kept warm in the background so settlement planning never waits on it.
+ * <p>
+ * ClickHouse is read incrementally: each refresh only asks for markets captured at or after the previous watermark
+ * (rows sharing the watermark's timestamp may arrive across refreshes, so those already read are skipped) and parses
+ * the JSONEachRow body line by line as it streams in. Conditions that are still unknown (or everything, while
+ * ClickHouse is unreachable) are looked up on Gamma, a few per refresh.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class MarketEndTimeCache {
 
+  private static final String INITIAL_WATERMARK = "1970-01-01 00:00:00.000";
+  private static final String INCREMENTAL_SQL = """
+      SELECT condition_id, end_date, latest_captured_at
+      FROM polybot.gamma_markets_latest
+      WHERE condition_id != ''
+        AND end_date > now() - INTERVAL {lookback:UInt32} DAY
+        AND latest_captured_at >= parseDateTime64BestEffort({watermark:String}, 3)
+      ORDER BY latest_captured_at
+      FORMAT JSONEachRow
+      """;
+
   private final @NonNull HttpClient httpClient;
   private final @NonNull ObjectMapper objectMapper;
+  private final @NonNull PolymarketGammaClient gammaClient;
+  private final @NonNull ExecutorEndTimeProperties endTimeProperties;
+  private final @NonNull Clock clock;
 
   private final Map<String, Instant> cache = new ConcurrentHashMap<>();
-  private volatile Instant lastRefresh = Instant.EPOCH;
+  private final Set<String> unknown = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean refreshing = new AtomicBoolean(false);
+  private final ExecutorService refresher = Executors.newVirtualThreadPerTaskExecutor();
+
+  // Only touched by the (single-flight) refresh.
+  private String watermark = INITIAL_WATERMARK;
+  private final Set<String> readAtWatermark = new HashSet<>();
+  private volatile boolean loaded;
 
   /**
-   * Get market end time for a condition ID. Returns null if not found or if market has no end time.
+   * Get market end time for a condition ID. Returns null if not (yet) known; never blocks on a refresh.
    */
   public Instant getEndTime(String conditionId) {
     if (conditionId == null || conditionId.isBlank()) {
       return null;
     }
+    Instant endTime = cache.get(conditionId);
+    if (endTime == null) {
+      unknown.add(conditionId);
+      if (!loaded) {
+        refreshAsync();
+      }
+    }
+    return endTime;
+  }
 
-    refreshIfStale();
+  /**
+   * End time from the market's slug when it encodes one (15m Up/Down series), otherwise from the cache.
+   */
+  public Instant getEndTime(String conditionId, String slug) {
+    Instant fromSlug = UpDownMarketSlugs.endTimeFromSlug(slug);
+    return fromSlug != null ? fromSlug : getEndTime(conditionId);
+  }
+
+  public int size() {
+    return cache.size();
+  }
 
-    return cache.get(conditionId);
+  @Scheduled(initialDelay = 0L, fixedDelayString = "${executor.end-times.refresh-millis:60000}")
+  void refreshAhead() {
+    refreshAsync();
   }
 
-  private void refreshIfStale() {
-    Instant now = Instant.now();
-    if (java.time.Duration.between(lastRefresh, now).toMinutes() < 5) {
-      return; // Cache is fresh (< 5 minutes old)
+  @PreDestroy
+  void shutdown() {
+    refresher.shutdownNow();
+  }
+
+  private void refreshAsync() {
+    if (!refreshing.compareAndSet(false, true)) {
+      return;
     }
+    refresher.execute(() -> {
+      try {
+        refresh();
+      } finally {
+        refreshing.set(false);
+      }
+    });
+  }
 
+  private void refresh() {
+    boolean clickhouseOk;
     try {
-      String sql = """
-          SELECT condition_id, end_date
-          FROM polybot.gamma_markets_latest
-          WHERE condition_id != ''
-            AND end_date > now() - INTERVAL 7 DAY
-          FORMAT JSONEachRow
-          """;
-
-      HttpRequest request = HttpRequest.newBuilder()
-          .uri(URI.create("http://localhost:8123"))
-          .POST(HttpRequest.BodyPublishers.ofString(sql))
-          .build();
-
-      HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-      if (response.statusCode() != 200) {
-        log.warn("failed to refresh market end time cache: HTTP {}", response.statusCode());
-        return;
+      int rows = loadIncrementalFromClickHouse();
+      clickhouseOk = true;
+      loaded = true;
+      if (rows > 0) {
+        log.debug("market end time cache: +{} rows (watermark={}, size={})", rows, watermark, cache.size());
+      }
+    } catch (Exception e) {
+      clickhouseOk = false;
+      log.warn("failed to refresh market end time cache from ClickHouse: {}", e.toString());
+    }
+
+    unknown.removeIf(cache::containsKey);
+    if (endTimeProperties.gammaFallbackEnabled() && !unknown.isEmpty()) {
+      int found = lookupOnGamma();
+      if (found > 0) {
+        log.debug("market end time cache: {} conditions from Gamma (clickhouse ok={})", found, clickhouseOk);
       }
+    }
+
+    Instant horizon = clock.instant().minus(Duration.ofDays(endTimeProperties.lookbackDays()));
+    cache.values().removeIf(end -> end.isBefore(horizon));
+  }
 
-      String[] lines = response.body().split("\n");
-      int count = 0;
-      for (String line : lines) {
-        if (line.isBlank()) continue;
+  private int loadIncrementalFromClickHouse() throws IOException, InterruptedException {
+    String base = endTimeProperties.clickhouseUrl().toString().replaceAll("/+$", "");
+    URI uri = URI.create(base + "/?param_lookback=" + endTimeProperties.lookbackDays()
+        + "&param_watermark=" + URLEncoder.encode(watermark, StandardCharsets.UTF_8));
+    HttpRequest request = HttpRequest.newBuilder()
+        .uri(uri)
+        .POST(HttpRequest.BodyPublishers.ofString(INCREMENTAL_SQL))
+        .build();
+
+    HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+    ObjectReader rowReader = objectMapper.readerFor(EndTimeRow.class);
+    int count = 0;
+    try (Stream<String> lines = response.body()) {
+      if (response.statusCode() != 200) {
+        throw new IOException("HTTP " + response.statusCode());
+      }
+      Iterator<String> it = lines.iterator();
+      while (it.hasNext()) {
+        String line = it.next();
+        if (line.isBlank()) {
+          continue;
+        }
         try {
-          JsonNode row = objectMapper.readTree(line);
-          String conditionId = row.has("condition_id") ? row.get("condition_id").asText() : null;
-          String endDateStr = row.has("end_date") ? row.get("end_date").asText() : null;
-
-          if (conditionId != null && !conditionId.isBlank() && endDateStr != null && !endDateStr.isBlank()) {
-            Instant endDate = Instant.parse(endDateStr.replace(' ', 'T') + "Z");
-            cache.put(conditionId, endDate);
-            count++;
+          EndTimeRow row = rowReader.readValue(line);
+          if (row.conditionId() == null || row.conditionId().isBlank() || row.endDate() == null || row.endDate().isBlank()) {
+            continue;
+          }
+          // Rows arrive ordered by capture time, so the last one seen is the new watermark.
+          String capturedAt = row.latestCapturedAt();
+          if (capturedAt != null && !capturedAt.isBlank()) {
+            if (!capturedAt.equals(watermark)) {
+              watermark = capturedAt;
+              readAtWatermark.clear();
+            }
+            if (!readAtWatermark.add(row.conditionId())) {
+              continue;
+            }
           }
+          cache.put(row.conditionId(), Instant.parse(row.endDate().replace(' ', 'T') + "Z"));
+          count++;
         } catch (Exception e) {
           log.debug("failed to parse market end time row: {}", e.toString());
         }
       }
+    }
+    return count;
+  }
 
-      lastRefresh = now;
-      log.debug("market end time cache refreshed: {} conditions", count);
-    } catch (Exception e) {
-      log.warn("failed to refresh market end time cache: {}", e.toString());
+  private int lookupOnGamma() {
+    List<String> batch = new ArrayList<>();
+    for (String conditionId : unknown) {
+      if (batch.size() >= endTimeProperties.gammaFallbackMaxPerRefresh()) {
+        break;
+      }
+      batch.add(conditionId);
     }
+    int found = 0;
+    for (String conditionId : batch) {
+      unknown.remove(conditionId);
+      try {
+        JsonNode markets = gammaClient.markets(Map.of("condition_ids", conditionId), Map.of());
+        if (markets == null || !markets.isArray()) {
+          continue;
+        }
+        for (JsonNode m : markets) {
+          String endDate = m.path("endDate").asText(null);
+          if (endDate != null && !endDate.isBlank() && conditionId.equalsIgnoreCase(m.path("conditionId").asText(""))) {
+            cache.put(conditionId, Instant.parse(endDate));
+            found++;
+            break;
+          }
+        }
+      } catch (Exception e) {
+        log.debug("gamma end time lookup failed condition={} err={}", conditionId, e.toString());
+      }
+    }
+    return found;
+  }
+
+  private record EndTimeRow(
+      @JsonProperty("condition_id") String conditionId,
+      @JsonProperty("end_date") String endDate,
+      @JsonProperty("latest_captured_at") String latestCapturedAt
+  ) {
   }
 }
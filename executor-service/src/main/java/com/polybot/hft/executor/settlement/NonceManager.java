@@ -0,0 +1,102 @@
+package com.polybot.hft.executor.settlement;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out account nonces locally so several transactions can be in flight at once.
+ * <p>
+ * The chain's pending count is read once and then incremented per reservation. A reservation whose tx never reached
+ * the node is released: the latest one is simply handed out again, anything older leaves a gap that the next
+ * reservation fills. Reserved nonces stay outstanding until their tx is mined, so a resync from the chain never hands
+ * out a nonce that is still in flight.
+ */
+final class NonceManager {
+
+  @FunctionalInterface
+  interface PendingNonceSource {
+    BigInteger pendingNonce() throws IOException;
+  }
+
+  private final PendingNonceSource source;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final NavigableSet<BigInteger> outstanding = new TreeSet<>();
+  private final NavigableSet<BigInteger> released = new TreeSet<>();
+  private BigInteger next;
+
+  NonceManager(PendingNonceSource source) {
+    this.source = source;
+  }
+
+  BigInteger reserve() throws IOException {
+    lock.lock();
+    try {
+      if (next == null) {
+        next = source.pendingNonce();
+        // Anything below the chain's count was used, by us or by another process.
+        released.headSet(next).clear();
+        outstanding.headSet(next).clear();
+      }
+      while (outstanding.contains(next)) {
+        next = next.add(BigInteger.ONE);
+      }
+      BigInteger reserved;
+      if (!released.isEmpty() && released.first().compareTo(next) < 0) {
+        reserved = released.pollFirst();
+      } else {
+        reserved = next;
+        released.remove(reserved);
+        next = next.add(BigInteger.ONE);
+      }
+      outstanding.add(reserved);
+      return reserved;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The tx using {@code nonce} was never accepted by the node.
+   */
+  void release(BigInteger nonce) {
+    lock.lock();
+    try {
+      outstanding.remove(nonce);
+      if (next != null && nonce.add(BigInteger.ONE).equals(next)) {
+        next = nonce;
+      } else {
+        released.add(nonce);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The tx using {@code nonce} was mined (whatever its status), so the nonce is no longer in flight.
+   */
+  void confirmed(BigInteger nonce) {
+    lock.lock();
+    try {
+      outstanding.remove(nonce);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Forgets the local view, e.g. after the node reported "nonce too low" because another process used the account.
+   */
+  void resync() {
+    lock.lock();
+    try {
+      next = null;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
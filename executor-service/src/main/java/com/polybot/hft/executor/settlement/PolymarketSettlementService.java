@@ -1,12 +1,10 @@
 package com.polybot.hft.executor.settlement;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.polybot.hft.config.HftProperties;
+import com.polybot.hft.executor.portfolio.PortfolioSnapshot;
+import com.polybot.hft.executor.portfolio.PortfolioSnapshotService;
 import com.polybot.hft.executor.sim.PaperExchangeSimulator;
 import com.polybot.hft.polymarket.auth.PolymarketAuthContext;
-import com.polybot.hft.polymarket.data.PolymarketDataApiClient;
 import com.polybot.hft.polymarket.data.PolymarketPosition;
 import com.polybot.hft.polymarket.onchain.ContractConfig;
 import lombok.NonNull;
@@ -20,6 +18,8 @@ import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
@@ -27,13 +27,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
 @Slf4j
 public class PolymarketSettlementService {
 
-  private static final TypeReference<List<PolymarketPosition>> POSITIONS_LIST = new TypeReference<>() {
-  };
-
   private final @NonNull HftProperties properties;
   private final @NonNull PolymarketAuthContext authContext;
-  private final @NonNull PolymarketDataApiClient dataApiClient;
-  private final @NonNull ObjectMapper objectMapper;
+  private final @NonNull PortfolioSnapshotService portfolio;
   private final @NonNull PaperExchangeSimulator simulator;
   private final @NonNull ExecutorSettlementProperties settlementProperties;
   private final @NonNull ProxyWalletFactoryTxSender txSender;
@@ -42,6 +38,14 @@ public class PolymarketSettlementService {
   private final AtomicBoolean inFlight = new AtomicBoolean(false);
 
   public List<SettlementAction> plan() {
+    return plan(Set.of());
+  }
+
+  /**
+   * @param resolvedConditionIds conditions known to be resolved on-chain; they're redeemed even if the Data API
+   *                             doesn't flag them redeemable yet
+   */
+  public List<SettlementAction> plan(Set<String> resolvedConditionIds) {
     if (simulator.enabled()) {
       log.debug("settlement plan: simulator enabled, skipping");
       return List.of();
@@ -52,9 +56,10 @@ public class PolymarketSettlementService {
       return List.of();
     }
 
-    log.debug("settlement plan: fetching positions for maker={}", maker);
-    JsonNode raw = dataApiClient.getPositions(maker, 500, 0);
-    List<PolymarketPosition> positions = objectMapper.convertValue(raw, POSITIONS_LIST);
+    log.debug("settlement plan: reading portfolio snapshot for maker={}", maker);
+    List<PolymarketPosition> positions = portfolio.current()
+        .map(PortfolioSnapshot::positions)
+        .orElse(List.of());
 
     int redeemable = 0;
     int mergeable = 0;
@@ -67,10 +72,14 @@ public class PolymarketSettlementService {
     log.debug("settlement plan: found {} positions ({} redeemable, {} mergeable)",
         positions.size(), redeemable, mergeable);
 
-    return planFromPositions(positions);
+    return planFromPositions(positions, resolvedConditionIds);
   }
 
   public SettlementRunResult runOnce(Boolean dryRunOverride) {
+    return runOnce(dryRunOverride, Set.of());
+  }
+
+  public SettlementRunResult runOnce(Boolean dryRunOverride, Set<String> resolvedConditionIds) {
     if (simulator.enabled()) {
       return new SettlementRunResult(false, true, "simulator enabled", List.of(), List.of());
     }
@@ -87,7 +96,7 @@ public class PolymarketSettlementService {
       return new SettlementRunResult(false, dryRun, "in-flight", List.of(), List.of());
     }
     try {
-      List<SettlementAction> actions = plan();
+      List<SettlementAction> actions = plan(resolvedConditionIds);
       if (actions.isEmpty()) {
         return new SettlementRunResult(true, dryRun, "no-actions", actions, List.of());
       }
@@ -100,18 +109,43 @@ public class PolymarketSettlementService {
         return new SettlementRunResult(true, true, "dry-run", actions, List.of());
       }
 
-      List<SettlementTxResult> txs = new ArrayList<>();
-      for (SettlementAction action : actions) {
-        SettlementTxResult result = executeActionWithRetry(action);
-        txs.add(result);
-      }
+      List<SettlementTxResult> txs = executeBatched(actions);
+      // Merges/redeems move USDC and positions; don't let the next plan or /bankroll read the pre-tx snapshot.
+      portfolio.invalidate();
       return new SettlementRunResult(true, false, "executed", actions, txs);
     } finally {
       inFlight.set(false);
     }
   }
 
-  private SettlementTxResult executeActionWithRetry(SettlementAction action) {
+  /**
+   * Packs actions into proxy calls bounded by the gas budget; a reverting batch is bisected down to the offending
+   * action(s) so the rest still settle.
+   */
+  private List<SettlementTxResult> executeBatched(List<SettlementAction> actions) {
+    long actionGas = settlementProperties.actionGasEstimate();
+    List<List<SettlementAction>> batches = SettlementBatcher.pack(actions, a -> actionGas, settlementProperties.batchGasBudget());
+    log.info("settlement: executing {} actions in {} batch(es)", actions.size(), batches.size());
+
+    // Batches are independent, so they go out together: the tx sender hands each its own nonce and confirms receipts
+    // in the background instead of one tx per confirmation interval.
+    List<List<SettlementTxResult>> perBatch = new ArrayList<>(batches.size());
+    try (ExecutorService pipeline = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (List<SettlementAction> batch : batches) {
+        List<SettlementTxResult> results = new ArrayList<>(batch.size());
+        perBatch.add(results);
+        pipeline.execute(() -> SettlementBatcher.sendBisecting(batch, this::executeBatchWithRetry,
+            ok -> ok.forEach(a -> results.add(SettlementTxResult.submitted(a))),
+            (failed, e) -> {
+              log.error("settlement batch of {} failed: {} err={}", failed.size(), failed.get(0).summary(), e.toString());
+              failed.forEach(a -> results.add(SettlementTxResult.failed(a, e.toString())));
+            }));
+      }
+    }
+    return perBatch.stream().flatMap(List::stream).toList();
+  }
+
+  private void executeBatchWithRetry(List<SettlementAction> batch) throws Exception {
     int maxRetries = settlementProperties.maxRetries() != null ? settlementProperties.maxRetries() : 3;
     Exception lastError = null;
 
@@ -119,54 +153,61 @@ public class PolymarketSettlementService {
       try {
         if (attempt > 0) {
           long backoffMs = (long) (1000 * Math.pow(2, attempt - 1)); // 1s, 2s, 4s
-          log.info("retrying settlement action (attempt {}/{}): {}", attempt + 1, maxRetries + 1, action.summary());
+          log.info("retrying settlement batch of {} (attempt {}/{})", batch.size(), attempt + 1, maxRetries + 1);
           Thread.sleep(backoffMs);
         }
-        executeAction(action);
-        return SettlementTxResult.submitted(action);
+        executeBatch(batch);
+        return;
+      } catch (SettlementTxRevertedException e) {
+        // Same calldata will revert again; let the batcher split it.
+        log.warn("settlement batch of {} reverted: {}", batch.size(), e.getMessage());
+        throw e;
+      } catch (InterruptedException e) {
+        throw e;
       } catch (Exception e) {
         lastError = e;
-        log.warn("settlement action failed (attempt {}/{}): {} err={}",
-            attempt + 1, maxRetries + 1, action.summary(), e.toString());
+        log.warn("settlement batch of {} failed (attempt {}/{}): err={}",
+            batch.size(), attempt + 1, maxRetries + 1, e.toString());
       }
     }
-
-    log.error("settlement action failed after {} retries: {} err={}",
-        maxRetries, action.summary(), lastError != null ? lastError.toString() : "unknown");
-    return SettlementTxResult.failed(action, lastError != null ? lastError.toString() : "unknown error");
+    throw lastError != null ? lastError : new IllegalStateException("unknown error");
   }
 
-  private void executeAction(SettlementAction action) throws Exception {
+  private void executeBatch(List<SettlementAction> batch) throws Exception {
     ContractConfig contracts = ContractConfig.forChainId(properties.polymarket().chainId());
-    String conditionalTokens = contracts.conditionalTokens();
-    String collateral = contracts.collateral();
+    List<ProxyWalletFactoryCallEncoder.ProxyCall> calls = new ArrayList<>(batch.size());
+    for (SettlementAction action : batch) {
+      calls.add(ProxyWalletFactoryCallEncoder.ProxyCall.call(contracts.conditionalTokens(), encodeAction(action, contracts.collateral())));
+    }
+    String factoryCalldata = ProxyWalletFactoryCallEncoder.encodeProxy(calls);
+    if (batch.size() > 1) {
+      log.debug("settlement batch: {}", batch.stream().map(SettlementAction::summary).toList());
+    }
 
-    String calldata;
+    // Configured fallback gas covers one call; size it to the batch when estimation is unavailable.
+    txSender.sendFactoryProxyTx(factoryCalldata, settlementProperties.actionGasEstimate() * batch.size());
+  }
+
+  private static String encodeAction(SettlementAction action, String collateral) {
     if (action.type() == SettlementActionType.REDEEM) {
-      calldata = ConditionalTokensCallEncoder.encodeRedeemPositions(
+      return ConditionalTokensCallEncoder.encodeRedeemPositions(
           collateral,
           action.conditionId(),
           action.indexSets()
       );
-    } else if (action.type() == SettlementActionType.MERGE) {
-      calldata = ConditionalTokensCallEncoder.encodeMergePositions(
+    }
+    if (action.type() == SettlementActionType.MERGE) {
+      return ConditionalTokensCallEncoder.encodeMergePositions(
           collateral,
           action.conditionId(),
           action.indexSets(),
           action.mergeAmountBaseUnits()
       );
-    } else {
-      throw new IllegalArgumentException("Unknown action type: " + action.type());
     }
-
-    String factoryCalldata = ProxyWalletFactoryCallEncoder.encodeProxy(
-        List.of(ProxyWalletFactoryCallEncoder.ProxyCall.call(conditionalTokens, calldata))
-    );
-
-    txSender.sendFactoryProxyTx(factoryCalldata);
+    throw new IllegalArgumentException("Unknown action type: " + action.type());
   }
 
-  private List<SettlementAction> planFromPositions(List<PolymarketPosition> positions) {
+  private List<SettlementAction> planFromPositions(List<PolymarketPosition> positions, Set<String> resolvedConditionIds) {
     if (positions == null || positions.isEmpty()) {
       return List.of();
     }
@@ -193,7 +234,13 @@ public class PolymarketSettlementService {
         continue;
       }
 
-      boolean redeemable = ps.stream().anyMatch(p -> Boolean.TRUE.equals(p.redeemable()));
+      // Sizes come from the chain; an already-redeemed position can linger in the Data API for a while.
+      if (ps.stream().noneMatch(p -> p.size() != null && p.size().signum() > 0)) {
+        continue;
+      }
+
+      boolean redeemable = resolvedConditionIds.contains(conditionId.toLowerCase())
+          || ps.stream().anyMatch(p -> Boolean.TRUE.equals(p.redeemable()));
       List<BigInteger> indexSets = computeIndexSets(ps);
 
       String slug = firstNonBlank(ps, PolymarketPosition::slug);
@@ -211,7 +258,7 @@ public class PolymarketSettlementService {
 
       // Check if we should merge based on market end time
       if (settlementProperties.mergeOnlyNearEnd()) {
-        Instant endTime = marketEndTimeCache.getEndTime(conditionId);
+        Instant endTime = marketEndTimeCache.getEndTime(conditionId, slug);
         if (endTime != null) {
           long secondsToEnd = java.time.Duration.between(Instant.now(), endTime).getSeconds();
           long mergeWindow = settlementProperties.mergeSecondsBeforeEnd();
@@ -52,13 +52,13 @@ final class ProxyWalletFactoryCallEncoder {
 
     out.writeBytes(encodeUint256(BigInteger.valueOf(n))); // length
 
-    // Offsets table (n words), relative to start of this array encoding (the length word)
+    // Offsets table (n words), relative to the first offset word (i.e. just after the length word)
     List<byte[]> encodedElements = new ArrayList<>(n);
     for (ProxyCall c : calls) {
       encodedElements.add(encodeProxyCallTuple(c));
     }
 
-    int headSize = 32 * (1 + n); // length + offsets
+    int headSize = 32 * n; // offsets
     int running = 0;
     for (byte[] element : encodedElements) {
       out.writeBytes(encodeUint256(BigInteger.valueOf(headSize + running)));
@@ -2,6 +2,7 @@ package com.polybot.hft.executor.settlement;
 
 import com.polybot.hft.config.HftProperties;
 import com.polybot.hft.polymarket.auth.PolymarketAuthContext;
+import jakarta.annotation.PreDestroy;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,14 +15,22 @@ import org.web3j.protocol.core.methods.response.EthGasPrice;
 import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
 import org.web3j.protocol.core.methods.response.EthSendTransaction;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.protocol.http.HttpService;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @RequiredArgsConstructor
@@ -31,78 +40,258 @@ public class ProxyWalletFactoryTxSender {
   private final @NonNull HftProperties properties;
   private final @NonNull PolymarketAuthContext authContext;
   private final @NonNull ExecutorOnchainProperties onchainProperties;
+  private final @NonNull Web3j web3j;
 
-  private volatile Web3j web3j;
+  private final ExecutorService confirmations =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("settlement-receipt-", 0).factory());
 
-  private Web3j web3j() {
-    Web3j existing = web3j;
+  /**
+   * Txs whose receipt timed out, by calldata: they still hold their nonce, so a retry of the same call re-broadcasts
+   * at that nonce instead of submitting the call a second time.
+   */
+  private final ConcurrentMap<String, StalledTx> stalled = new ConcurrentHashMap<>();
+
+  private volatile NonceManager nonces;
+  private volatile GasPriceQuote gasPriceQuote;
+
+  private NonceManager nonces(String from) {
+    NonceManager existing = nonces;
     if (existing != null) {
       return existing;
     }
     synchronized (this) {
-      if (web3j == null) {
-        web3j = Web3j.build(new HttpService(onchainProperties.rpcUrl().toString()));
+      if (nonces == null) {
+        nonces = new NonceManager(() -> resolveNonce(from));
       }
-      return web3j;
+      return nonces;
     }
   }
 
   public TransactionReceipt sendFactoryProxyTx(String calldataHex) throws IOException, InterruptedException {
+    return sendFactoryProxyTx(calldataHex, onchainProperties.fallbackGasLimit());
+  }
+
+  /**
+   * Submits and waits for the receipt; see {@link #submitFactoryProxyTx(String, long)}.
+   */
+  public TransactionReceipt sendFactoryProxyTx(String calldataHex, long fallbackGasLimit) throws IOException, InterruptedException {
+    try {
+      return submitFactoryProxyTx(calldataHex, fallbackGasLimit).get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * Signs and broadcasts the tx with a locally reserved nonce and returns once the node accepted it, so further txs
+   * can be submitted while this one confirms. The future completes with the receipt; a tx still pending after
+   * {@code replaceAfterMillis} is re-broadcast with the same nonce and a bumped gas price. If the receipt times out
+   * the nonce is kept, and submitting the same calldata again re-broadcasts at that nonce.
+   *
+   * @param fallbackGasLimit gas limit used when estimation fails for reasons other than a revert; batched calls pass
+   *                         a limit sized to the batch since the configured fallback covers a single call
+   * @throws SettlementTxRevertedException when gas estimation reports a revert (the future fails with it when the
+   *                                       mined tx has status 0)
+   */
+  public CompletableFuture<TransactionReceipt> submitFactoryProxyTx(String calldataHex, long fallbackGasLimit) throws IOException {
+    StalledTx previous = stalled.remove(calldataHex);
+    if (previous != null) {
+      return resume(previous);
+    }
+
     Credentials signer = authContext.requireSignerCredentials();
     String from = signer.getAddress();
     String to = onchainProperties.proxyWalletFactoryAddress();
-    BigInteger valueWei = BigInteger.ZERO;
 
+    // Estimate first: a call that reverts must not consume a nonce.
+    BigInteger gasLimit = resolveGasLimit(from, to, calldataHex, BigInteger.ZERO, fallbackGasLimit);
     BigInteger gasPrice = resolveGasPrice();
-    BigInteger gasLimit = resolveGasLimit(from, to, calldataHex, valueWei);
 
+    NonceManager nonceManager = nonces(from);
+    BigInteger nonce = nonceManager.reserve();
+    PendingTx tx = new PendingTx(signer, nonce, gasLimit, to, calldataHex);
+    String txHash;
+    try {
+      txHash = broadcast(tx, gasPrice);
+    } catch (IOException e) {
+      if (isNonceError(e.getMessage())) {
+        nonceManager.resync();
+      } else {
+        nonceManager.release(nonce);
+      }
+      throw e;
+    }
+    log.info("settlement tx sent (hash={}, nonce={}, gasPrice={}, gasLimit={})", txHash, nonce, gasPrice, gasLimit);
+    return confirmAsync(tx, List.of(txHash), gasPrice);
+  }
+
+  /**
+   * Re-broadcasts a timed-out tx at its own nonce with a bumped gas price and goes back to polling all its hashes.
+   */
+  private CompletableFuture<TransactionReceipt> resume(StalledTx previous) throws IOException {
+    PendingTx tx = previous.tx();
+    List<String> hashes = new ArrayList<>(previous.hashes());
+    BigInteger gasPrice = previous.gasPrice();
+    BigInteger bumped = bump(gasPrice).max(resolveGasPrice());
+    try {
+      hashes.add(broadcast(tx, bumped));
+      gasPrice = bumped;
+      log.warn("settlement tx nonce={} re-broadcast after receipt timeout with gasPrice={} (hash={})", tx.nonce(), bumped, hashes.getLast());
+    } catch (IOException e) {
+      if (!isNonceError(e.getMessage())) {
+        stalled.put(tx.calldataHex(), previous);
+        throw e;
+      }
+      // One of the earlier broadcasts was mined in the meantime; its receipt settles the call.
+      log.info("settlement tx nonce={} already used, polling its earlier hashes {}", tx.nonce(), hashes);
+    }
+    return confirmAsync(tx, hashes, gasPrice);
+  }
+
+  private CompletableFuture<TransactionReceipt> confirmAsync(PendingTx tx, List<String> hashes, BigInteger gasPrice) {
+    CompletableFuture<TransactionReceipt> receipt = new CompletableFuture<>();
+    confirmations.execute(() -> {
+      try {
+        receipt.complete(confirm(tx, hashes, gasPrice));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        receipt.completeExceptionally(e);
+      } catch (Exception e) {
+        receipt.completeExceptionally(e);
+      }
+    });
+    return receipt;
+  }
+
+  private String broadcast(PendingTx tx, BigInteger gasPrice) throws IOException {
     org.web3j.crypto.RawTransaction rawTx = org.web3j.crypto.RawTransaction.createTransaction(
-        resolveNonce(from),
+        tx.nonce(),
         gasPrice,
-        gasLimit,
-        to,
-        valueWei,
-        calldataHex
+        tx.gasLimit(),
+        tx.to(),
+        BigInteger.ZERO,
+        tx.calldataHex()
     );
 
-    byte[] signed = org.web3j.crypto.TransactionEncoder.signMessage(rawTx, properties.polymarket().chainId(), signer);
+    byte[] signed = org.web3j.crypto.TransactionEncoder.signMessage(rawTx, properties.polymarket().chainId(), tx.signer());
     String hexValue = org.web3j.utils.Numeric.toHexString(signed);
 
-    EthSendTransaction send = web3j().ethSendRawTransaction(hexValue).send();
+    EthSendTransaction send = web3j.ethSendRawTransaction(hexValue).send();
     if (send.hasError()) {
       throw new IOException("eth_sendRawTransaction error: " + send.getError().getMessage());
     }
+    return send.getTransactionHash();
+  }
+
+  /**
+   * Polls every hash broadcast for the nonce (original + replacements); whichever is mined settles the tx.
+   */
+  private TransactionReceipt confirm(PendingTx tx, List<String> broadcastHashes, BigInteger lastGasPrice) throws IOException, InterruptedException {
+    long sleepMillis = onchainProperties.receiptPollIntervalMillis();
+    long timeoutMillis = sleepMillis * (long) onchainProperties.receiptPollAttempts();
+    long startNanos = System.nanoTime();
+    long replaceAtNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(onchainProperties.replaceAfterMillis());
+
+    List<String> hashes = new ArrayList<>(broadcastHashes);
+    BigInteger gasPrice = lastGasPrice;
+    int replacements = 0;
+    while (true) {
+      for (String hash : hashes) {
+        Optional<TransactionReceipt> receipt = pollReceipt(hash);
+        if (receipt.isPresent()) {
+          nonces.confirmed(tx.nonce());
+          String status = receipt.get().getStatus();
+          if (status != null && status.equalsIgnoreCase("0x0")) {
+            throw new SettlementTxRevertedException("settlement tx reverted (hash=" + hash + ")");
+          }
+          log.info("settlement tx confirmed (hash={}, nonce={}, status={}, replacements={})", hash, tx.nonce(), status, replacements);
+          return receipt.get();
+        }
+      }
 
-    String txHash = send.getTransactionHash();
-    log.info("settlement tx sent (hash={}, gasPrice={}, gasLimit={})", txHash, gasPrice, gasLimit);
+      long now = System.nanoTime();
+      if (now - startNanos >= TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) {
+        // The tx may still be mined: keep its nonce for a retry instead of sending the call again under a new one.
+        stalled.put(tx.calldataHex(), new StalledTx(tx, List.copyOf(hashes), gasPrice));
+        throw new IOException("timed out waiting for receipt (hashes=" + hashes + ", waited=" + Duration.ofMillis(timeoutMillis) + ")");
+      }
+      if (replacements < onchainProperties.maxReplacements() && now - replaceAtNanos >= 0) {
+        replaceAtNanos = now + TimeUnit.MILLISECONDS.toNanos(onchainProperties.replaceAfterMillis());
+        BigInteger bumped = bump(gasPrice).max(resolveGasPrice());
+        try {
+          hashes.add(broadcast(tx, bumped));
+          gasPrice = bumped;
+          replacements++;
+          log.warn("settlement tx nonce={} still pending, replaced with gasPrice={} (hash={})", tx.nonce(), bumped, hashes.getLast());
+        } catch (IOException e) {
+          // "nonce too low" means one of the broadcasts was mined; its receipt shows up on the next poll.
+          log.debug("settlement tx replacement for nonce={} rejected: {}", tx.nonce(), e.getMessage());
+          if (isNonceError(e.getMessage())) {
+            replacements = onchainProperties.maxReplacements();
+          }
+        }
+      }
+      Thread.sleep(sleepMillis);
+    }
+  }
 
-    TransactionReceipt receipt = waitForReceipt(txHash);
-    String status = receipt.getStatus();
-    if (status != null && status.equalsIgnoreCase("0x0")) {
-      throw new IOException("settlement tx reverted (hash=" + txHash + ")");
+  private Optional<TransactionReceipt> pollReceipt(String txHash) {
+    try {
+      EthGetTransactionReceipt resp = web3j.ethGetTransactionReceipt(txHash).send();
+      return resp.getTransactionReceipt();
+    } catch (IOException e) {
+      // The tx is already broadcast; an RPC blip must not fail it (a retry would double-submit the action).
+      log.debug("receipt poll failed (hash={}): {}", txHash, e.toString());
+      return Optional.empty();
     }
-    log.info("settlement tx confirmed (hash={}, status={})", txHash, status);
-    return receipt;
+  }
+
+  private BigInteger bump(BigInteger gasPrice) {
+    BigDecimal scaled = new BigDecimal(gasPrice).multiply(BigDecimal.valueOf(onchainProperties.replacementGasPriceMultiplier()));
+    return scaled.setScale(0, RoundingMode.CEILING).toBigIntegerExact();
+  }
+
+  private static boolean isNonceError(String message) {
+    return message != null && message.toLowerCase().contains("nonce");
   }
 
   private BigInteger resolveNonce(String from) throws IOException {
-    return web3j().ethGetTransactionCount(from, org.web3j.protocol.core.DefaultBlockParameterName.PENDING)
+    return web3j.ethGetTransactionCount(from, org.web3j.protocol.core.DefaultBlockParameterName.PENDING)
         .send()
         .getTransactionCount();
   }
 
   private BigInteger resolveGasPrice() throws IOException {
-    EthGasPrice gasPrice = web3j().ethGasPrice().send();
+    GasPriceQuote cached = gasPriceQuote;
+    long now = System.nanoTime();
+    if (cached != null && now - cached.atNanos() < TimeUnit.MILLISECONDS.toNanos(onchainProperties.gasPriceCacheMillis())) {
+      return cached.price();
+    }
+    EthGasPrice gasPrice = web3j.ethGasPrice().send();
     BigInteger base = gasPrice.getGasPrice();
     BigDecimal scaled = new BigDecimal(base).multiply(BigDecimal.valueOf(onchainProperties.gasPriceMultiplier()));
-    return scaled.setScale(0, RoundingMode.CEILING).toBigIntegerExact();
+    BigInteger price = scaled.setScale(0, RoundingMode.CEILING).toBigIntegerExact();
+    gasPriceQuote = new GasPriceQuote(price, now);
+    return price;
   }
 
-  private BigInteger resolveGasLimit(String from, String to, String data, BigInteger valueWei) throws IOException {
-    BigInteger fallback = BigInteger.valueOf(onchainProperties.fallbackGasLimit());
+  private BigInteger resolveGasLimit(String from, String to, String data, BigInteger valueWei, long fallbackGasLimit) throws IOException {
+    BigInteger fallback = BigInteger.valueOf(Math.max(fallbackGasLimit, onchainProperties.fallbackGasLimit()));
+    EthEstimateGas estimate;
     try {
       Transaction tx = Transaction.createFunctionCallTransaction(from, null, null, null, to, valueWei, data);
-      EthEstimateGas estimate = web3j().ethEstimateGas(tx).send();
+      estimate = web3j.ethEstimateGas(tx).send();
+    } catch (Exception e) {
+      return fallback;
+    }
+    if (estimate.hasError() && isRevert(estimate.getError().getMessage())) {
+      // Don't pay for a tx the node already knows will revert.
+      throw new SettlementTxRevertedException("settlement call reverts in eth_estimateGas: " + estimate.getError().getMessage());
+    }
+    try {
       if (estimate.hasError() || estimate.getAmountUsed() == null) {
         return fallback;
       }
@@ -115,21 +304,21 @@ public class ProxyWalletFactoryTxSender {
     }
   }
 
-  private TransactionReceipt waitForReceipt(String txHash) throws IOException, InterruptedException {
-    long sleepMillis = onchainProperties.receiptPollIntervalMillis();
-    int attempts = onchainProperties.receiptPollAttempts();
+  private static boolean isRevert(String message) {
+    return message != null && message.toLowerCase().contains("revert");
+  }
 
-    for (int i = 0; i < attempts; i++) {
-      EthGetTransactionReceipt resp = web3j().ethGetTransactionReceipt(txHash).send();
-      Optional<TransactionReceipt> receipt = resp.getTransactionReceipt();
-      if (receipt.isPresent()) {
-        return receipt.get();
-      }
-      Thread.sleep(sleepMillis);
-    }
+  @PreDestroy
+  void shutdown() {
+    confirmations.shutdownNow();
+  }
 
-    throw new IOException("timed out waiting for receipt (hash=" + txHash + ", waited=" +
-        Duration.ofMillis(sleepMillis * (long) attempts) + ")");
+  private record PendingTx(Credentials signer, BigInteger nonce, BigInteger gasLimit, String to, String calldataHex) {
   }
-}
 
+  private record StalledTx(PendingTx tx, List<String> hashes, BigInteger gasPrice) {
+  }
+
+  private record GasPriceQuote(BigInteger price, long atNanos) {
+  }
+}
@@ -0,0 +1,78 @@
+package com.polybot.hft.executor.settlement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Packs settlement actions into proxy-wallet batches and isolates the action that makes a batch revert.
+ * <p>
+ * A proxy call is atomic, so one bad redeem/merge reverts the whole batch. On revert the batch is split in half and
+ * both halves are resent, down to single actions; k bad actions in a batch of n cost O(k log n) extra transactions
+ * instead of falling back to n.
+ */
+final class SettlementBatcher {
+
+  private SettlementBatcher() {
+  }
+
+  @FunctionalInterface
+  interface BatchSender<T> {
+    void send(List<T> batch) throws Exception;
+  }
+
+  /**
+   * Greedy packing in the given order; an item that alone exceeds the budget still gets a batch of its own.
+   */
+  static <T> List<List<T>> pack(List<T> items, ToLongFunction<T> gasEstimate, long gasBudget) {
+    List<List<T>> batches = new ArrayList<>();
+    List<T> current = new ArrayList<>();
+    long used = 0;
+    for (T item : items) {
+      long gas = Math.max(0, gasEstimate.applyAsLong(item));
+      if (!current.isEmpty() && used + gas > gasBudget) {
+        batches.add(List.copyOf(current));
+        current.clear();
+        used = 0;
+      }
+      current.add(item);
+      used += gas;
+    }
+    if (!current.isEmpty()) {
+      batches.add(List.copyOf(current));
+    }
+    return batches;
+  }
+
+  /**
+   * Sends {@code batch}, bisecting on {@link SettlementTxRevertedException}. Any other failure is reported for the
+   * whole (sub-)batch, since the sender is expected to have retried it already.
+   */
+  static <T> void sendBisecting(List<T> batch,
+                                BatchSender<T> sender,
+                                Consumer<List<T>> onSuccess,
+                                BiConsumer<List<T>, Exception> onFailure) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      sender.send(batch);
+      onSuccess.accept(batch);
+    } catch (SettlementTxRevertedException e) {
+      if (batch.size() == 1) {
+        onFailure.accept(batch, e);
+        return;
+      }
+      int mid = batch.size() / 2;
+      sendBisecting(batch.subList(0, mid), sender, onSuccess, onFailure);
+      sendBisecting(batch.subList(mid, batch.size()), sender, onSuccess, onFailure);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      onFailure.accept(batch, e);
+    } catch (Exception e) {
+      onFailure.accept(batch, e);
+    }
+  }
+}
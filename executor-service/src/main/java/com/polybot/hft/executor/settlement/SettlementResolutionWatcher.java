@@ -0,0 +1,263 @@
+package com.polybot.hft.executor.settlement;
+
+import com.polybot.hft.config.HftProperties;
+import com.polybot.hft.executor.portfolio.PortfolioSnapshot;
+import com.polybot.hft.executor.portfolio.PortfolioSnapshotService;
+import com.polybot.hft.polymarket.data.PolymarketPosition;
+import com.polybot.hft.polymarket.onchain.ContractConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Event;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+
+import java.math.BigInteger;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settles held markets as soon as they can be settled instead of waiting for the next full scan.
+ * <p>
+ * For every condition the maker holds, a check is scheduled at the merge window ({@code end - mergeSecondsBeforeEnd})
+ * and at {@code end + resolutionDelay}. From then on the condition is watched for the CTF {@code ConditionResolution}
+ * log, which triggers a redeem right away, ahead of the Data API's redeemable flag. {@link AutoSettlementScheduler}
+ * remains as a slow backstop.
+ * <p>
+ * Settlement runs on its own thread so a slow run (Data API refresh, tx submission) never delays the checks or the log
+ * polling on the scheduler thread.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SettlementResolutionWatcher {
+
+  private static final Event CONDITION_RESOLUTION = new Event("ConditionResolution", List.of(
+      new TypeReference<Bytes32>(true) {
+      },
+      new TypeReference<Address>(true) {
+      },
+      new TypeReference<Bytes32>(true) {
+      },
+      new TypeReference<Uint256>() {
+      },
+      new TypeReference<DynamicArray<Uint256>>() {
+      }
+  ));
+  private static final String CONDITION_RESOLUTION_TOPIC = EventEncoder.encode(CONDITION_RESOLUTION);
+  private static final long IN_FLIGHT_RETRY_MILLIS = 2_000L;
+
+  private final @NonNull HftProperties properties;
+  private final @NonNull ExecutorSettlementProperties settlementProperties;
+  private final @NonNull PolymarketSettlementService settlementService;
+  private final @NonNull PortfolioSnapshotService portfolio;
+  private final @NonNull MarketEndTimeCache marketEndTimeCache;
+  private final @NonNull Web3j web3j;
+  private final @NonNull Clock clock;
+
+  private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("settlement-resolution").factory());
+  private final ExecutorService settler =
+      Executors.newSingleThreadExecutor(Thread.ofVirtual().name("settlement-resolution-settle").factory());
+  private final Map<String, List<ScheduledFuture<?>>> scheduledByCondition = new ConcurrentHashMap<>();
+  private final Set<String> awaitingResolution = ConcurrentHashMap.newKeySet();
+
+  // Only touched on the scheduler thread.
+  private BigInteger lastLogBlock;
+  private boolean newlyAwaited;
+
+  @PostConstruct
+  void start() {
+    if (!settlementProperties.enabled()) {
+      return;
+    }
+    scheduler.scheduleWithFixedDelay(this::poll, 1_000L, settlementProperties.resolutionPollMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    scheduler.shutdownNow();
+    settler.shutdownNow();
+  }
+
+  public Set<String> awaitingResolution() {
+    return Set.copyOf(awaitingResolution);
+  }
+
+  public int scheduledConditions() {
+    return scheduledByCondition.size();
+  }
+
+  void poll() {
+    try {
+      syncHeldConditions();
+      Set<String> resolved = pollResolutionLogs();
+      if (!resolved.isEmpty()) {
+        log.info("settlement: {} held condition(s) resolved on-chain: {}", resolved.size(), resolved);
+        settleAsync(resolved);
+      }
+    } catch (Exception e) {
+      log.debug("settlement resolution poll failed: {}", e.toString());
+    }
+  }
+
+  /**
+   * Schedules checks for newly held conditions and forgets conditions no longer held (settled or sold).
+   */
+  private void syncHeldConditions() {
+    PortfolioSnapshot snapshot = portfolio.current().orElse(null);
+    if (snapshot == null) {
+      return;
+    }
+    Map<String, List<PolymarketPosition>> held = new HashMap<>();
+    for (PolymarketPosition p : snapshot.positions()) {
+      if (p.conditionId() == null || p.conditionId().isBlank() || Boolean.TRUE.equals(p.negativeRisk())
+          || p.size() == null || p.size().signum() <= 0) {
+        continue;
+      }
+      held.computeIfAbsent(p.conditionId().toLowerCase(), ignored -> new ArrayList<>()).add(p);
+    }
+
+    for (String conditionId : new HashSet<>(scheduledByCondition.keySet())) {
+      if (!held.containsKey(conditionId)) {
+        List<ScheduledFuture<?>> futures = scheduledByCondition.remove(conditionId);
+        if (futures != null) {
+          futures.forEach(f -> f.cancel(false));
+        }
+        awaitingResolution.remove(conditionId);
+      }
+    }
+
+    Instant now = clock.instant();
+    for (Map.Entry<String, List<PolymarketPosition>> e : held.entrySet()) {
+      String conditionId = e.getKey();
+      if (scheduledByCondition.containsKey(conditionId)) {
+        continue;
+      }
+      String slug = e.getValue().stream().map(PolymarketPosition::slug).filter(s -> s != null && !s.isBlank()).findFirst().orElse(null);
+      Instant endTime = marketEndTimeCache.getEndTime(conditionId, slug);
+      if (endTime == null) {
+        // Not known yet: the cache looks it up in the background, so ask again on the next poll.
+        continue;
+      }
+      List<ScheduledFuture<?>> futures = new ArrayList<>(2);
+      if (settlementProperties.mergeOnlyNearEnd()) {
+        Instant mergeAt = endTime.minusSeconds(settlementProperties.mergeSecondsBeforeEnd());
+        if (mergeAt.isAfter(now)) {
+          futures.add(scheduler.schedule(() -> settleAsync(Set.of()), Duration.between(now, mergeAt).toMillis(), TimeUnit.MILLISECONDS));
+        }
+      }
+      Instant watchAt = endTime.plusMillis(settlementProperties.resolutionDelayMillis());
+      futures.add(scheduler.schedule(() -> {
+        newlyAwaited = true;
+        awaitingResolution.add(conditionId);
+        settleAsync(Set.of());
+      }, Math.max(0, Duration.between(now, watchAt).toMillis()), TimeUnit.MILLISECONDS));
+      scheduledByCondition.put(conditionId, futures);
+      log.debug("settlement: watching condition={} slug={} end={}", conditionId, slug, endTime);
+    }
+  }
+
+  /**
+   * ConditionResolution logs since the last poll, filtered (by the indexed conditionId topic) to awaited conditions.
+   * <p>
+   * The cursor follows the chain head even while nothing is awaited, so the first query after an idle stretch doesn't
+   * span it. Conditions that just started being awaited are looked up {@code resolutionLogLookbackBlocks} back, since
+   * they may have resolved before their watch began. Ranges longer than {@code resolutionLogMaxBlocks} are queried in
+   * chunks, advancing the cursor after each.
+   */
+  private Set<String> pollResolutionLogs() throws Exception {
+    BigInteger latest = web3j.ethBlockNumber().send().getBlockNumber();
+    if (awaitingResolution.isEmpty()) {
+      lastLogBlock = latest;
+      return Set.of();
+    }
+    BigInteger lookbackFrom = latest.subtract(BigInteger.valueOf(settlementProperties.resolutionLogLookbackBlocks())).max(BigInteger.ZERO);
+    BigInteger from = lastLogBlock == null ? lookbackFrom : lastLogBlock.add(BigInteger.ONE);
+    if (newlyAwaited) {
+      from = from.min(lookbackFrom);
+      newlyAwaited = false;
+    }
+
+    String ctf = ContractConfig.forChainId(properties.polymarket().chainId()).conditionalTokens();
+    BigInteger maxBlocks = BigInteger.valueOf(settlementProperties.resolutionLogMaxBlocks());
+    Set<String> resolved = new HashSet<>();
+    while (from.compareTo(latest) <= 0 && !awaitingResolution.isEmpty()) {
+      BigInteger to = from.add(maxBlocks).subtract(BigInteger.ONE).min(latest);
+      EthFilter filter = new EthFilter(DefaultBlockParameter.valueOf(from), DefaultBlockParameter.valueOf(to), ctf);
+      filter.addSingleTopic(CONDITION_RESOLUTION_TOPIC);
+      filter.addOptionalTopics(awaitingResolution.toArray(String[]::new));
+      EthLog logs = web3j.ethGetLogs(filter).send();
+      if (logs.hasError()) {
+        throw new IllegalStateException("eth_getLogs error: " + logs.getError().getMessage());
+      }
+      if (lastLogBlock == null || to.compareTo(lastLogBlock) > 0) {
+        lastLogBlock = to;
+      }
+      for (EthLog.LogResult<?> result : logs.getLogs()) {
+        if (result.get() instanceof Log entry && entry.getTopics().size() > 1) {
+          String conditionId = entry.getTopics().get(1).toLowerCase();
+          if (awaitingResolution.remove(conditionId)) {
+            resolved.add(conditionId);
+          }
+        }
+      }
+      from = to.add(BigInteger.ONE);
+    }
+    if (awaitingResolution.isEmpty()) {
+      lastLogBlock = latest;
+    }
+    return resolved;
+  }
+
+  private void settleAsync(Set<String> resolvedConditionIds) {
+    settler.execute(() -> {
+      try {
+        settle(resolvedConditionIds);
+      } catch (Exception e) {
+        log.warn("settlement (resolution watcher) failed: {}", e.toString());
+      }
+    });
+  }
+
+  private void settle(Set<String> resolvedConditionIds) {
+    portfolio.invalidate();
+    var res = settlementService.runOnce(null, resolvedConditionIds);
+    if ("in-flight".equals(res.status())) {
+      // The backstop scan is running; try again shortly so a resolution isn't lost.
+      scheduler.schedule(() -> settleAsync(resolvedConditionIds), IN_FLIGHT_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+      return;
+    }
+    if (res.ok() && !"no-actions".equals(res.status())) {
+      log.info("settlement (resolution watcher): status={} planned={} txs={}",
+          res.status(), res.plannedActions().size(), res.txs().size());
+    } else if (!res.ok()) {
+      log.debug("settlement (resolution watcher): status={}", res.status());
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.polybot.hft.executor.settlement;
+
+import java.io.IOException;
+
+/**
+ * The settlement call itself failed (reverted on-chain or rejected by gas estimation), as opposed to an RPC/transport
+ * failure. Retrying the same calldata won't help; a batch that reverts is split instead.
+ */
+public class SettlementTxRevertedException extends IOException {
+
+  public SettlementTxRevertedException(String message) {
+    super(message);
+  }
+}
@@ -48,7 +48,32 @@ public record ExecutorSimulationProperties(
     /**
      * Fraction (0..1) of remaining size to fill when a maker-like fill triggers.
      */
-    @NotNull @DecimalMin("0.0") @DecimalMax("1.0") Double makerFillFractionOfRemaining
+    @NotNull @DecimalMin("0.0") @DecimalMax("1.0") Double makerFillFractionOfRemaining,
+    /**
+     * Maximum number of terminal (filled/canceled) orders kept for status lookups. Oldest are evicted first.
+     */
+    @NotNull @Min(1) Integer archiveMaxOrders,
+    /**
+     * How long terminal orders stay queryable after they finish. 0 disables age-based eviction.
+     */
+    @NotNull @Min(0) Long archiveRetentionMillis,
+    /**
+     * Back-off before retrying a Gamma token metadata lookup that failed or returned nothing.
+     */
+    @NotNull @Min(0) Long tokenMetaRetryMillis,
+    /**
+     * Deterministic mode: fill randomness comes from a generator seeded with {@link #seed}, order ids are sequential
+     * and inputs are processed one at a time, so a journaled session can be replayed exactly.
+     */
+    @NotNull Boolean deterministic,
+    /**
+     * Seed for deterministic mode.
+     */
+    @NotNull Long seed,
+    /**
+     * Optional NDJSON journal of every simulator input (requires deterministic mode). Blank disables journaling.
+     */
+    String journalPath
 ) {
   public ExecutorSimulationProperties {
     if (enabled == null) {
@@ -78,5 +103,20 @@ public record ExecutorSimulationProperties(
     if (makerFillFractionOfRemaining == null) {
       makerFillFractionOfRemaining = 0.25;
     }
+    if (archiveMaxOrders == null) {
+      archiveMaxOrders = 50_000;
+    }
+    if (archiveRetentionMillis == null) {
+      archiveRetentionMillis = 6 * 60 * 60 * 1000L;
+    }
+    if (tokenMetaRetryMillis == null) {
+      tokenMetaRetryMillis = 60_000L;
+    }
+    if (deterministic == null) {
+      deterministic = false;
+    }
+    if (seed == null) {
+      seed = 0L;
+    }
   }
 }
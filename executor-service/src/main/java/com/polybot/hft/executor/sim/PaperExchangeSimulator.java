@@ -9,6 +9,7 @@ import com.polybot.hft.domain.OrderSide;
 import com.polybot.hft.events.HftEventPublisher;
 import com.polybot.hft.events.HftEventTypes;
 import com.polybot.hft.executor.events.ExecutorOrderStatusEvent;
+import com.polybot.hft.metrics.PolybotMetrics;
 import com.polybot.hft.polymarket.api.LimitOrderRequest;
 import com.polybot.hft.polymarket.api.MarketOrderRequest;
 import com.polybot.hft.polymarket.api.OrderSubmissionResult;
@@ -16,28 +17,37 @@ import com.polybot.hft.polymarket.data.PolymarketPosition;
 import com.polybot.hft.polymarket.gamma.PolymarketGammaClient;
 import com.polybot.hft.polymarket.ws.ClobMarketWebSocketClient;
 import com.polybot.hft.polymarket.ws.TopOfBook;
-import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Path;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
 
 /**
  * A lightweight "paper exchange" simulator for local testing.
@@ -48,38 +58,163 @@ import java.util.concurrent.ThreadLocalRandom;
  * - Optionally publish simulated polymarket.user.trade events so ClickHouse views/analysis can run
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class PaperExchangeSimulator {
 
   private static final String USER_TRADE_EVENT_TYPE = "polymarket.user.trade";
 
-  private final @NonNull HftProperties hft;
-  private final @NonNull ExecutorSimulationProperties sim;
-  private final @NonNull ObjectMapper objectMapper;
-  private final @NonNull Clock clock;
-  private final @NonNull HftEventPublisher events;
-  private final @NonNull ClobMarketWebSocketClient marketWs;
-  private final @NonNull PolymarketGammaClient gammaClient;
+  private final HftProperties hft;
+  private final ExecutorSimulationProperties sim;
+  private final ObjectMapper objectMapper;
+  private final Clock clock;
+  private final HftEventPublisher events;
+  private final ClobMarketWebSocketClient marketWs;
+  private final PolymarketGammaClient gammaClient;
+  private final PolybotMetrics metrics;
 
-  private final ConcurrentMap<String, SimOrder> ordersById = new ConcurrentHashMap<>();
+  private final SimOrderStore orders;
   private final ConcurrentMap<String, Position> positionsByTokenId = new ConcurrentHashMap<>();
   private final ConcurrentMap<String, TokenMeta> metaByTokenId = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Long> metaRetryAfterMillisByTokenId = new ConcurrentHashMap<>();
+
+  // Deterministic mode: seeded randomness, sequential ids, one input at a time with a single timestamp per input.
+  private final RandomGenerator seededRandom;
+  private final AtomicLong orderSeq = new AtomicLong();
+  private final AtomicLong tradeSeq = new AtomicLong();
+  private final ReentrantLock inputLock = new ReentrantLock();
+  private volatile Instant inputTime;
+
+  private final SimulationJournal journal;
+  private final Map<String, TopOfBook> lastJournaledBookByTokenId = new ConcurrentHashMap<>();
+  // Non-null only when driven by SimulationJournalReplayer: books come from the journal instead of the market WS,
+  // and token metadata from its META entries instead of Gamma.
+  private final Map<String, TopOfBook> replayBooks;
+  private final Map<String, TokenMeta> replayMetas;
+
+  @Autowired
+  public PaperExchangeSimulator(
+      HftProperties hft,
+      ExecutorSimulationProperties sim,
+      ObjectMapper objectMapper,
+      Clock clock,
+      HftEventPublisher events,
+      ClobMarketWebSocketClient marketWs,
+      PolymarketGammaClient gammaClient,
+      PolybotMetrics metrics
+  ) {
+    this(
+        hft,
+        sim,
+        objectMapper,
+        clock,
+        events,
+        Objects.requireNonNull(marketWs, "marketWs"),
+        Objects.requireNonNull(gammaClient, "gammaClient"),
+        Objects.requireNonNull(metrics, "metrics"),
+        openJournal(sim, objectMapper),
+        null
+    );
+  }
+
+  private PaperExchangeSimulator(
+      HftProperties hft,
+      ExecutorSimulationProperties sim,
+      ObjectMapper objectMapper,
+      Clock clock,
+      HftEventPublisher events,
+      ClobMarketWebSocketClient marketWs,
+      PolymarketGammaClient gammaClient,
+      PolybotMetrics metrics,
+      SimulationJournal journal,
+      Map<String, TopOfBook> replayBooks
+  ) {
+    this.hft = Objects.requireNonNull(hft, "hft");
+    this.sim = Objects.requireNonNull(sim, "sim");
+    this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper");
+    this.clock = Objects.requireNonNull(clock, "clock");
+    this.events = Objects.requireNonNull(events, "events");
+    this.marketWs = marketWs;
+    this.gammaClient = gammaClient;
+    this.metrics = metrics;
+    this.orders = new SimOrderStore(sim.archiveMaxOrders(), sim.archiveRetentionMillis());
+    this.seededRandom = Boolean.TRUE.equals(sim.deterministic()) ? new Random(sim.seed()) : null;
+    this.journal = journal;
+    this.replayBooks = replayBooks;
+    this.replayMetas = replayBooks == null ? null : new HashMap<>();
+    if (journal != null) {
+      ObjectNode config = journal.entry(SimulationJournal.CONFIG);
+      config.set("config", objectMapper.valueToTree(sim));
+      journal.append(clock.instant(), config);
+    }
+  }
+
+  /**
+   * Builds a simulator that takes top-of-book from {@code replayBooks} and never touches the network.
+   */
+  static PaperExchangeSimulator forReplay(
+      HftProperties hft,
+      ExecutorSimulationProperties sim,
+      ObjectMapper objectMapper,
+      Clock clock,
+      HftEventPublisher events,
+      Map<String, TopOfBook> replayBooks
+  ) {
+    return new PaperExchangeSimulator(hft, sim, objectMapper, clock, events, null, null, null, null, Objects.requireNonNull(replayBooks, "replayBooks"));
+  }
+
+  private static SimulationJournal openJournal(ExecutorSimulationProperties sim, ObjectMapper objectMapper) {
+    if (!Boolean.TRUE.equals(sim.enabled()) || sim.journalPath() == null || sim.journalPath().isBlank()) {
+      return null;
+    }
+    if (!Boolean.TRUE.equals(sim.deterministic())) {
+      log.warn("executor.sim.journal-path is set but deterministic mode is off; journal disabled (replay would not be reproducible)");
+      return null;
+    }
+    Path path = Path.of(sim.journalPath().trim());
+    try {
+      SimulationJournal journal = SimulationJournal.open(path, objectMapper);
+      log.info("paper-exchange journal enabled path={}", path.toAbsolutePath());
+      return journal;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open simulation journal " + path, e);
+    }
+  }
+
+  @PreDestroy
+  void closeJournal() {
+    if (journal == null) {
+      return;
+    }
+    try {
+      journal.close();
+    } catch (IOException e) {
+      log.warn("paper-exchange journal close failed error={}", e.toString());
+    }
+  }
 
   @PostConstruct
-  void logSimConfig() {
+  void init() {
+    metrics.registerIntGauge("polybot_sim_orders_live", "Working (non-terminal) simulated orders", () -> orders.liveCount());
+    metrics.registerIntGauge("polybot_sim_orders_archived", "Terminal simulated orders retained in the archive", () -> orders.archivedCount());
+    metrics.registerDoubleGauge("polybot_sim_orders_evicted_total", "Archived simulated orders dropped by size/retention", () -> (double) orders.evictedTotal());
+    metrics.registerIntGauge("polybot_sim_token_meta_cached", "Token metadata entries cached by the simulator", metaByTokenId::size);
+
     if (!enabled()) {
       log.info("paper-exchange simulator disabled");
       return;
     }
     log.info(
-        "paper-exchange simulator enabled (fillsEnabled={}, fillPollMillis={}, makerP0={}, makerMultPerTick={}, makerPMax={}, makerFillFrac={})",
+        "paper-exchange simulator enabled (fillsEnabled={}, fillPollMillis={}, makerP0={}, makerMultPerTick={}, makerPMax={}, makerFillFrac={}, archiveMax={}, archiveRetentionMs={}, deterministic={}, seed={})",
         sim.fillsEnabled(),
         sim.fillPollMillis(),
         sim.makerFillProbabilityPerPoll(),
         sim.makerFillProbabilityMultiplierPerTick(),
         sim.makerFillProbabilityMaxPerPoll(),
-        sim.makerFillFractionOfRemaining()
+        sim.makerFillFractionOfRemaining(),
+        sim.archiveMaxOrders(),
+        sim.archiveRetentionMillis(),
+        deterministic(),
+        sim.seed()
     );
   }
 
@@ -87,10 +222,54 @@ public class PaperExchangeSimulator {
     return Boolean.TRUE.equals(sim.enabled());
   }
 
+  private boolean deterministic() {
+    return seededRandom != null;
+  }
+
   public OrderSubmissionResult placeLimitOrder(LimitOrderRequest request) {
     Objects.requireNonNull(request, "request");
-    marketWs.subscribeAssets(List.of(request.tokenId()));
-    String orderId = "sim-" + UUID.randomUUID();
+    return input(() -> {
+      if (journal != null) {
+        ObjectNode e = journal.entry(SimulationJournal.LIMIT)
+            .put("tokenId", request.tokenId())
+            .put("side", request.side() == null ? null : request.side().name());
+        SimulationJournal.putDecimal(e, "price", request.price());
+        SimulationJournal.putDecimal(e, "size", request.size());
+        journal.append(now(), e);
+      }
+      return doPlaceLimitOrder(request);
+    });
+  }
+
+  public OrderSubmissionResult placeMarketOrder(MarketOrderRequest request) {
+    Objects.requireNonNull(request, "request");
+    return input(() -> {
+      // Observe (and journal) the book before the order entry so replay sees the same TOB.
+      TopOfBook tob = observeBook(request.tokenId());
+      if (journal != null) {
+        ObjectNode e = journal.entry(SimulationJournal.MARKET)
+            .put("tokenId", request.tokenId())
+            .put("side", request.side() == null ? null : request.side().name());
+        SimulationJournal.putDecimal(e, "price", request.price());
+        SimulationJournal.putDecimal(e, "amount", request.amount());
+        journal.append(now(), e);
+      }
+      return doPlaceMarketOrder(request, tob);
+    });
+  }
+
+  public JsonNode cancelOrder(String orderId) {
+    return input(() -> {
+      if (journal != null) {
+        journal.append(now(), journal.entry(SimulationJournal.CANCEL).put("orderId", orderId));
+      }
+      return doCancelOrder(orderId);
+    });
+  }
+
+  private OrderSubmissionResult doPlaceLimitOrder(LimitOrderRequest request) {
+    subscribe(request.tokenId());
+    String orderId = nextOrderId();
     BigDecimal size = request.size() == null ? BigDecimal.ZERO : request.size();
     BigDecimal matched = BigDecimal.ZERO;
     BigDecimal remaining = size.max(BigDecimal.ZERO);
@@ -101,12 +280,12 @@ public class PaperExchangeSimulator {
         request.side(),
         request.price(),
         size,
-        Instant.now(clock),
+        now(),
         "OPEN",
         matched,
         remaining
     );
-    ordersById.put(orderId, order);
+    orders.put(order);
     publishOrderStatus(order, null);
 
     ObjectNode resp = objectMapper.createObjectNode()
@@ -114,15 +293,13 @@ public class PaperExchangeSimulator {
         .put("orderID", orderId)
         .put("orderId", orderId)
         .put("status", "OPEN");
-    return new OrderSubmissionResult(hft.mode(), null, resp);
+    return new OrderSubmissionResult(hft.mode(), null, resp, null);
   }
 
-  public OrderSubmissionResult placeMarketOrder(MarketOrderRequest request) {
-    Objects.requireNonNull(request, "request");
-    marketWs.subscribeAssets(List.of(request.tokenId()));
+  private OrderSubmissionResult doPlaceMarketOrder(MarketOrderRequest request, TopOfBook tob) {
+    subscribe(request.tokenId());
 
-    String orderId = "sim-" + UUID.randomUUID();
-    TopOfBook tob = marketWs.getTopOfBook(request.tokenId()).orElse(null);
+    String orderId = nextOrderId();
     if (tob == null || tob.bestBid() == null || tob.bestAsk() == null) {
       ObjectNode resp = objectMapper.createObjectNode()
           .put("mode", "SIM")
@@ -130,7 +307,7 @@ public class PaperExchangeSimulator {
           .put("orderId", orderId)
           .put("status", "REJECTED")
           .put("reason", "no_tob");
-      return new OrderSubmissionResult(hft.mode(), null, resp);
+      return new OrderSubmissionResult(hft.mode(), null, resp, null);
     }
 
     BigDecimal limitPrice = request.price();
@@ -147,7 +324,7 @@ public class PaperExchangeSimulator {
             .put("orderId", orderId)
             .put("status", "REJECTED")
             .put("reason", "ask_above_limit");
-        return new OrderSubmissionResult(hft.mode(), null, resp);
+        return new OrderSubmissionResult(hft.mode(), null, resp, null);
       }
 
       BigDecimal notionalUsd = request.amount();
@@ -158,7 +335,7 @@ public class PaperExchangeSimulator {
             .put("orderId", orderId)
             .put("status", "REJECTED")
             .put("reason", "amount_invalid");
-        return new OrderSubmissionResult(hft.mode(), null, resp);
+        return new OrderSubmissionResult(hft.mode(), null, resp, null);
       }
 
       BigDecimal shares = notionalUsd.divide(bestAsk, 2, RoundingMode.DOWN);
@@ -169,7 +346,7 @@ public class PaperExchangeSimulator {
             .put("orderId", orderId)
             .put("status", "REJECTED")
             .put("reason", "shares_too_small");
-        return new OrderSubmissionResult(hft.mode(), null, resp);
+        return new OrderSubmissionResult(hft.mode(), null, resp, null);
       }
 
       SimOrder order = new SimOrder(
@@ -178,12 +355,12 @@ public class PaperExchangeSimulator {
           request.side(),
           bestAsk,
           shares,
-          Instant.now(clock),
+          now(),
           "FILLED",
           shares,
           BigDecimal.ZERO
       );
-      ordersById.put(orderId, order);
+      orders.put(order);
 
       positionsByTokenId.compute(order.tokenId, (k, prev) -> {
         Position cur = prev == null ? new Position(BigDecimal.ZERO, BigDecimal.ZERO) : prev;
@@ -194,13 +371,14 @@ public class PaperExchangeSimulator {
 
       publishOrderStatus(order, null);
       publishUserTrade(order, shares, bestAsk, "TAKER");
+      orders.archive(order, now());
 
       ObjectNode resp = objectMapper.createObjectNode()
           .put("mode", "SIM")
           .put("orderID", orderId)
           .put("orderId", orderId)
           .put("status", "FILLED");
-      return new OrderSubmissionResult(hft.mode(), null, resp);
+      return new OrderSubmissionResult(hft.mode(), null, resp, null);
     }
 
     if (request.side() == OrderSide.SELL) {
@@ -212,7 +390,7 @@ public class PaperExchangeSimulator {
             .put("orderId", orderId)
             .put("status", "REJECTED")
             .put("reason", "bid_below_limit");
-        return new OrderSubmissionResult(hft.mode(), null, resp);
+        return new OrderSubmissionResult(hft.mode(), null, resp, null);
       }
 
       BigDecimal shares = request.amount();
@@ -223,7 +401,7 @@ public class PaperExchangeSimulator {
             .put("orderId", orderId)
             .put("status", "REJECTED")
             .put("reason", "amount_invalid");
-        return new OrderSubmissionResult(hft.mode(), null, resp);
+        return new OrderSubmissionResult(hft.mode(), null, resp, null);
       }
 
       SimOrder order = new SimOrder(
@@ -232,12 +410,12 @@ public class PaperExchangeSimulator {
           request.side(),
           bestBid,
           shares,
-          Instant.now(clock),
+          now(),
           "FILLED",
           shares,
           BigDecimal.ZERO
       );
-      ordersById.put(orderId, order);
+      orders.put(order);
 
       positionsByTokenId.compute(order.tokenId, (k, prev) -> {
         Position cur = prev == null ? new Position(BigDecimal.ZERO, BigDecimal.ZERO) : prev;
@@ -248,13 +426,14 @@ public class PaperExchangeSimulator {
 
       publishOrderStatus(order, null);
       publishUserTrade(order, shares, bestBid, "TAKER");
+      orders.archive(order, now());
 
       ObjectNode resp = objectMapper.createObjectNode()
           .put("mode", "SIM")
           .put("orderID", orderId)
           .put("orderId", orderId)
           .put("status", "FILLED");
-      return new OrderSubmissionResult(hft.mode(), null, resp);
+      return new OrderSubmissionResult(hft.mode(), null, resp, null);
     }
 
     ObjectNode resp = objectMapper.createObjectNode()
@@ -263,19 +442,21 @@ public class PaperExchangeSimulator {
         .put("orderId", orderId)
         .put("status", "REJECTED")
         .put("reason", "unsupported_side");
-    return new OrderSubmissionResult(hft.mode(), null, resp);
+    return new OrderSubmissionResult(hft.mode(), null, resp, null);
   }
 
-  public JsonNode cancelOrder(String orderId) {
+  private JsonNode doCancelOrder(String orderId) {
     if (orderId == null || orderId.isBlank()) {
       return objectMapper.createObjectNode().put("canceled", false);
     }
-    SimOrder order = ordersById.get(orderId);
+    SimOrder order = orders.live(orderId);
     if (order == null) {
-      return objectMapper.createObjectNode()
+      ObjectNode resp = objectMapper.createObjectNode()
           .put("mode", "SIM")
           .put("canceled", false)
           .put("orderId", orderId);
+      orders.archived(orderId).ifPresent(a -> resp.put("status", a.status()));
+      return resp;
     }
     synchronized (order) {
       if (isTerminal(order.status)) {
@@ -288,6 +469,7 @@ public class PaperExchangeSimulator {
       order.status = "CANCELED";
     }
     publishOrderStatus(order, null);
+    orders.archive(order, now());
     return objectMapper.createObjectNode()
         .put("mode", "SIM")
         .put("canceled", true)
@@ -299,27 +481,44 @@ public class PaperExchangeSimulator {
     if (orderId == null || orderId.isBlank()) {
       return objectMapper.createObjectNode().put("error", "orderId blank");
     }
-    SimOrder order = ordersById.get(orderId);
+    SimOrder order = orders.live(orderId);
     if (order == null) {
-      return objectMapper.createObjectNode()
-          .put("mode", "SIM")
-          .put("orderId", orderId)
-          .put("status", "UNKNOWN");
+      SimOrderStore.ArchivedOrder a = orders.archived(orderId).orElse(null);
+      if (a == null) {
+        return objectMapper.createObjectNode()
+            .put("mode", "SIM")
+            .put("orderId", orderId)
+            .put("status", "UNKNOWN");
+      }
+      return orderJson(a.orderId(), a.tokenId(), a.side(), a.status(), a.matchedSize(), a.remainingSize(), a.requestedPrice(), a.requestedSize());
     }
     synchronized (order) {
-      return objectMapper.createObjectNode()
-          .put("mode", "SIM")
-          .put("orderId", order.orderId)
-          .put("tokenId", order.tokenId)
-          .put("side", order.side == null ? null : order.side.name())
-          .put("status", order.status)
-          .put("matched_size", order.matchedSize == null ? 0.0 : order.matchedSize.doubleValue())
-          .put("remaining_size", order.remainingSize == null ? 0.0 : order.remainingSize.doubleValue())
-          .put("requestedPrice", order.requestedPrice == null ? null : order.requestedPrice.doubleValue())
-          .put("requestedSize", order.requestedSize == null ? null : order.requestedSize.doubleValue());
+      return orderJson(order.orderId, order.tokenId, order.side, order.status, order.matchedSize, order.remainingSize, order.requestedPrice, order.requestedSize);
     }
   }
 
+  private ObjectNode orderJson(
+      String orderId,
+      String tokenId,
+      OrderSide side,
+      String status,
+      BigDecimal matchedSize,
+      BigDecimal remainingSize,
+      BigDecimal requestedPrice,
+      BigDecimal requestedSize
+  ) {
+    return objectMapper.createObjectNode()
+        .put("mode", "SIM")
+        .put("orderId", orderId)
+        .put("tokenId", tokenId)
+        .put("side", side == null ? null : side.name())
+        .put("status", status)
+        .put("matched_size", matchedSize == null ? 0.0 : matchedSize.doubleValue())
+        .put("remaining_size", remainingSize == null ? 0.0 : remainingSize.doubleValue())
+        .put("requestedPrice", requestedPrice == null ? null : requestedPrice.doubleValue())
+        .put("requestedSize", requestedSize == null ? null : requestedSize.doubleValue());
+  }
+
   public PolymarketPosition[] getPositions(int limit, int offset) {
     if (limit <= 0) {
       limit = 200;
@@ -382,19 +581,45 @@ public class PaperExchangeSimulator {
     if (!enabled()) {
       return;
     }
+    input(() -> {
+      pollFills();
+      return null;
+    });
+  }
+
+  private void pollFills() {
+    orders.evictExpired(now());
     if (!Boolean.TRUE.equals(sim.fillsEnabled())) {
       return;
     }
 
-    for (SimOrder order : ordersById.values()) {
+    List<SimOrder> working = new ArrayList<>(orders.liveOrders());
+    if (working.isEmpty()) {
+      return;
+    }
+    if (deterministic()) {
+      working.sort(Comparator.comparing(o -> o.orderId));
+    }
+    // Snapshot books once per poll so the journal holds exactly what this poll saw.
+    Map<String, TopOfBook> books = new HashMap<>();
+    for (SimOrder order : working) {
+      if (order != null && order.side == OrderSide.BUY && !books.containsKey(order.tokenId)) {
+        books.put(order.tokenId, observeBook(order.tokenId));
+      }
+    }
+    if (journal != null) {
+      journal.append(now(), journal.entry(SimulationJournal.TICK));
+    }
+
+    for (SimOrder order : working) {
       if (order == null) {
         continue;
       }
-      simulateOne(order);
+      simulateOne(order, books.get(order.tokenId));
     }
   }
 
-  private void simulateOne(SimOrder order) {
+  private void simulateOne(SimOrder order, TopOfBook tob) {
     if (order == null) {
       return;
     }
@@ -402,11 +627,10 @@ public class PaperExchangeSimulator {
       return;
     }
 
-    TopOfBook tob = marketWs.getTopOfBook(order.tokenId).orElse(null);
     if (tob == null || tob.bestBid() == null || tob.bestAsk() == null || tob.updatedAt() == null) {
       return;
     }
-    long ageMs = Math.max(0, Instant.now(clock).toEpochMilli() - tob.updatedAt().toEpochMilli());
+    long ageMs = Math.max(0, now().toEpochMilli() - tob.updatedAt().toEpochMilli());
     if (ageMs > 2_000) {
       return;
     }
@@ -456,7 +680,7 @@ public class PaperExchangeSimulator {
     if (p <= 0) {
       return;
     }
-    if (ThreadLocalRandom.current().nextDouble() > p) {
+    if (nextRandomDouble() > p) {
       return;
     }
     BigDecimal remaining;
@@ -519,6 +743,9 @@ public class PaperExchangeSimulator {
 
     publishOrderStatus(order, null);
     publishUserTrade(order, applied, fillPrice, kind);
+    if (isTerminal(nextStatus)) {
+      orders.archive(order, now());
+    }
   }
 
   private void publishUserTrade(SimOrder order, BigDecimal fillSize, BigDecimal fillPrice, String kind) {
@@ -529,7 +756,7 @@ public class PaperExchangeSimulator {
       return;
     }
     TokenMeta meta = resolveTokenMeta(order.tokenId).orElse(null);
-    long tsSeconds = Instant.now(clock).getEpochSecond();
+    long tsSeconds = now().getEpochSecond();
 
     ObjectNode trade = objectMapper.createObjectNode();
     if (meta != null) {
@@ -552,7 +779,7 @@ public class PaperExchangeSimulator {
         "proxyAddress", sim.proxyAddress(),
         "trade", trade
     );
-    String key = "simtrade:" + order.orderId + ":" + UUID.randomUUID();
+    String key = "simtrade:" + order.orderId + ":" + (deterministic() ? String.valueOf(tradeSeq.incrementAndGet()) : UUID.randomUUID().toString());
     events.publish(Instant.ofEpochSecond(tsSeconds), USER_TRADE_EVENT_TYPE, key, data);
   }
 
@@ -564,6 +791,54 @@ public class PaperExchangeSimulator {
     if (cached != null) {
       return Optional.of(cached);
     }
+    // Negative cache: unresolvable tokens would otherwise hit Gamma on every positions/fill call.
+    long nowMillis = now().toEpochMilli();
+    Long retryAfter = metaRetryAfterMillisByTokenId.get(tokenId);
+    if (retryAfter != null && nowMillis < retryAfter) {
+      return Optional.empty();
+    }
+    Optional<TokenMeta> fetched = fetchTokenMeta(tokenId);
+    if (fetched.isPresent()) {
+      TokenMeta meta = fetched.get();
+      metaByTokenId.put(tokenId, meta);
+      metaRetryAfterMillisByTokenId.remove(tokenId);
+      if (journal != null) {
+        journal.append(now(), journal.entry(SimulationJournal.META)
+            .put("tokenId", tokenId)
+            .put("marketSlug", meta.marketSlug())
+            .put("title", meta.title())
+            .put("conditionId", meta.conditionId())
+            .put("outcome", meta.outcome())
+            .put("outcomeIndex", meta.outcomeIndex()));
+      }
+    } else {
+      metaRetryAfterMillisByTokenId.put(tokenId, nowMillis + sim.tokenMetaRetryMillis());
+    }
+    return fetched;
+  }
+
+  /**
+   * Replay only: the next lookup of {@code tokenId} resolves to this metadata, as the Gamma fetch did live.
+   */
+  void offerTokenMeta(String tokenId, String marketSlug, String title, String conditionId, String outcome, int outcomeIndex) {
+    replayMetas.put(tokenId, new TokenMeta(marketSlug, title, conditionId, outcome, outcomeIndex));
+  }
+
+  /**
+   * Replay only: caches offered metadata no input looked up (it was resolved outside a journaled input).
+   */
+  void cacheOfferedTokenMeta() {
+    metaByTokenId.putAll(replayMetas);
+    replayMetas.clear();
+  }
+
+  private Optional<TokenMeta> fetchTokenMeta(String tokenId) {
+    if (replayMetas != null) {
+      return Optional.ofNullable(replayMetas.remove(tokenId));
+    }
+    if (gammaClient == null) {
+      return Optional.empty();
+    }
     try {
       // NOTE: CLOB /markets does not reliably support token filters; use Gamma API.
       JsonNode arr = gammaClient.markets(Map.of("clob_token_ids", tokenId.trim(), "limit", "1"), Map.of());
@@ -615,7 +890,6 @@ public class PaperExchangeSimulator {
           outcome,
           outcomeIndex
       );
-      metaByTokenId.put(tokenId, meta);
       return Optional.of(meta);
     } catch (Exception e) {
       log.debug("sim token meta lookup failed tokenId={} error={}", suffix(tokenId), e.toString());
@@ -657,7 +931,7 @@ public class PaperExchangeSimulator {
       orderJson = null;
     }
 
-    events.publish(clock.instant(), HftEventTypes.EXECUTOR_ORDER_STATUS, order.orderId, new ExecutorOrderStatusEvent(
+    events.publish(now(), HftEventTypes.EXECUTOR_ORDER_STATUS, order.orderId, new ExecutorOrderStatusEvent(
         order.orderId,
         order.tokenId,
         order.side,
@@ -719,9 +993,64 @@ public class PaperExchangeSimulator {
     return "..." + t.substring(t.length() - 6);
   }
 
+  private Instant now() {
+    Instant t = inputTime;
+    return t != null ? t : clock.instant();
+  }
+
+  /**
+   * Runs one simulator input. In deterministic mode inputs are serialized and share a single timestamp, so the
+   * journal order is the processing order.
+   */
+  private <T> T input(Supplier<T> action) {
+    if (!deterministic()) {
+      return action.get();
+    }
+    inputLock.lock();
+    try {
+      inputTime = clock.instant();
+      return action.get();
+    } finally {
+      inputTime = null;
+      inputLock.unlock();
+    }
+  }
+
+  private String nextOrderId() {
+    if (deterministic()) {
+      return String.format(Locale.ROOT, "sim-%012d", orderSeq.incrementAndGet());
+    }
+    return "sim-" + UUID.randomUUID();
+  }
+
+  private double nextRandomDouble() {
+    return seededRandom != null ? seededRandom.nextDouble() : ThreadLocalRandom.current().nextDouble();
+  }
+
+  private void subscribe(String tokenId) {
+    if (marketWs != null) {
+      marketWs.subscribeAssets(List.of(tokenId));
+    }
+  }
+
+  private TopOfBook observeBook(String tokenId) {
+    if (replayBooks != null) {
+      return replayBooks.get(tokenId);
+    }
+    TopOfBook tob = marketWs.getTopOfBook(tokenId).orElse(null);
+    if (journal != null && tob != null && !tob.equals(lastJournaledBookByTokenId.put(tokenId, tob))) {
+      ObjectNode e = journal.entry(SimulationJournal.TOB).put("tokenId", tokenId);
+      SimulationJournal.writeTopOfBook(e, tob);
+      journal.append(now(), e);
+    }
+    return tob;
+  }
+
   private BigDecimal bestEffortCurPrice(String tokenId) {
     try {
-      TopOfBook tob = marketWs.getTopOfBook(tokenId).orElse(null);
+      TopOfBook tob = replayBooks != null
+          ? replayBooks.get(tokenId)
+          : marketWs.getTopOfBook(tokenId).orElse(null);
       if (tob == null) {
         return null;
       }
@@ -756,43 +1085,4 @@ public class PaperExchangeSimulator {
       int outcomeIndex
   ) {
   }
-
-  private static final class SimOrder {
-    private final String orderId;
-    private final String tokenId;
-    private final OrderSide side;
-    private final BigDecimal requestedPrice;
-    private final BigDecimal requestedSize;
-    private final Instant createdAt;
-
-    private String status;
-    private BigDecimal matchedSize;
-    private BigDecimal remainingSize;
-
-    private String lastPublishedStatus;
-    private BigDecimal lastPublishedMatched;
-    private BigDecimal lastPublishedRemaining;
-
-    private SimOrder(
-        String orderId,
-        String tokenId,
-        OrderSide side,
-        BigDecimal requestedPrice,
-        BigDecimal requestedSize,
-        Instant createdAt,
-        String status,
-        BigDecimal matchedSize,
-        BigDecimal remainingSize
-    ) {
-      this.orderId = orderId;
-      this.tokenId = tokenId;
-      this.side = side;
-      this.requestedPrice = requestedPrice;
-      this.requestedSize = requestedSize;
-      this.createdAt = createdAt;
-      this.status = status;
-      this.matchedSize = matchedSize;
-      this.remainingSize = remainingSize;
-    }
-  }
 }
@@ -0,0 +1,48 @@
+package com.polybot.hft.executor.sim;
+
+import com.polybot.hft.domain.OrderSide;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Mutable state of a live simulated order. Guarded by synchronizing on the instance.
+ */
+final class SimOrder {
+  final String orderId;
+  final String tokenId;
+  final OrderSide side;
+  final BigDecimal requestedPrice;
+  final BigDecimal requestedSize;
+  final Instant createdAt;
+
+  String status;
+  BigDecimal matchedSize;
+  BigDecimal remainingSize;
+
+  String lastPublishedStatus;
+  BigDecimal lastPublishedMatched;
+  BigDecimal lastPublishedRemaining;
+
+  SimOrder(
+      String orderId,
+      String tokenId,
+      OrderSide side,
+      BigDecimal requestedPrice,
+      BigDecimal requestedSize,
+      Instant createdAt,
+      String status,
+      BigDecimal matchedSize,
+      BigDecimal remainingSize
+  ) {
+    this.orderId = orderId;
+    this.tokenId = tokenId;
+    this.side = side;
+    this.requestedPrice = requestedPrice;
+    this.requestedSize = requestedSize;
+    this.createdAt = createdAt;
+    this.status = status;
+    this.matchedSize = matchedSize;
+    this.remainingSize = remainingSize;
+  }
+}
@@ -0,0 +1,141 @@
+package com.polybot.hft.executor.sim;
+
+import com.polybot.hft.domain.OrderSide;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order storage for the paper exchange.
+ *
+ * Live (non-terminal) orders stay in a concurrent map that the fill loop iterates. Once an order reaches a terminal
+ * status it is moved to a bounded archive of immutable snapshots so status lookups keep working, while the fill loop
+ * only ever sees working orders. The archive is evicted FIFO by count and by age.
+ */
+final class SimOrderStore {
+
+  private final int archiveMaxOrders;
+  private final long archiveRetentionMillis;
+
+  private final ConcurrentMap<String, SimOrder> live = new ConcurrentHashMap<>();
+  private final LinkedHashMap<String, ArchivedOrder> archive = new LinkedHashMap<>(16, 0.75f, false);
+  private final AtomicLong evictedTotal = new AtomicLong();
+
+  SimOrderStore(int archiveMaxOrders, long archiveRetentionMillis) {
+    if (archiveMaxOrders <= 0) {
+      throw new IllegalArgumentException("archiveMaxOrders must be > 0");
+    }
+    this.archiveMaxOrders = archiveMaxOrders;
+    this.archiveRetentionMillis = Math.max(0, archiveRetentionMillis);
+  }
+
+  void put(SimOrder order) {
+    live.put(order.orderId, order);
+  }
+
+  SimOrder live(String orderId) {
+    return orderId == null ? null : live.get(orderId);
+  }
+
+  Collection<SimOrder> liveOrders() {
+    return live.values();
+  }
+
+  synchronized Optional<ArchivedOrder> archived(String orderId) {
+    return orderId == null ? Optional.empty() : Optional.ofNullable(archive.get(orderId));
+  }
+
+  /**
+   * Moves a terminal order from the live map into the archive. Safe to call more than once for the same order.
+   * <p>
+   * The archive entry is written before the live one is removed, both under the store lock, so a lookup that misses
+   * the live map finds the order in the archive.
+   */
+  void archive(SimOrder order, Instant now) {
+    if (order == null) {
+      return;
+    }
+    ArchivedOrder snapshot;
+    synchronized (order) {
+      snapshot = new ArchivedOrder(
+          order.orderId,
+          order.tokenId,
+          order.side,
+          order.requestedPrice,
+          order.requestedSize,
+          order.status,
+          order.matchedSize,
+          order.remainingSize,
+          now.toEpochMilli()
+      );
+    }
+    synchronized (this) {
+      if (live.get(order.orderId) != order) {
+        return;
+      }
+      archive.put(snapshot.orderId(), snapshot);
+      live.remove(order.orderId, order);
+      while (archive.size() > archiveMaxOrders) {
+        Iterator<String> it = archive.keySet().iterator();
+        it.next();
+        it.remove();
+        evictedTotal.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Drops archived orders older than the retention window. Returns the number of evicted entries.
+   */
+  synchronized int evictExpired(Instant now) {
+    if (archiveRetentionMillis <= 0 || archive.isEmpty()) {
+      return 0;
+    }
+    long cutoff = now.toEpochMilli() - archiveRetentionMillis;
+    int evicted = 0;
+    Iterator<Map.Entry<String, ArchivedOrder>> it = archive.entrySet().iterator();
+    while (it.hasNext()) {
+      ArchivedOrder o = it.next().getValue();
+      if (o.archivedAtMillis() >= cutoff) {
+        break;
+      }
+      it.remove();
+      evicted++;
+    }
+    evictedTotal.addAndGet(evicted);
+    return evicted;
+  }
+
+  int liveCount() {
+    return live.size();
+  }
+
+  synchronized int archivedCount() {
+    return archive.size();
+  }
+
+  long evictedTotal() {
+    return evictedTotal.get();
+  }
+
+  record ArchivedOrder(
+      String orderId,
+      String tokenId,
+      OrderSide side,
+      BigDecimal requestedPrice,
+      BigDecimal requestedSize,
+      String status,
+      BigDecimal matchedSize,
+      BigDecimal remainingSize,
+      long archivedAtMillis
+  ) {
+  }
+}
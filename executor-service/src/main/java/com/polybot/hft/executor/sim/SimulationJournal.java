@@ -0,0 +1,141 @@
+package com.polybot.hft.executor.sim;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.polybot.hft.polymarket.ws.TopOfBook;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only NDJSON journal of every input the paper exchange consumed (one JSON object per line).
+ *
+ * Entry types:
+ * - CONFIG: simulator properties the session ran with (always the first line)
+ * - TOB: top-of-book as observed by the simulator (only written when it changed for that token)
+ * - META: Gamma token metadata the first time it was resolved
+ * - LIMIT / MARKET / CANCEL: order requests
+ * - TICK: one fill-simulation poll
+ *
+ * Replaying the entries in order through {@link SimulationJournalReplayer} reproduces the same order ids, fills and
+ * status events, provided the session ran in deterministic mode.
+ */
+final class SimulationJournal implements Closeable {
+
+  static final String CONFIG = "CONFIG";
+  static final String TOB = "TOB";
+  static final String META = "META";
+  static final String LIMIT = "LIMIT";
+  static final String MARKET = "MARKET";
+  static final String CANCEL = "CANCEL";
+  static final String TICK = "TICK";
+
+  private final ObjectMapper objectMapper;
+  private final BufferedWriter writer;
+  private final ReentrantLock lock = new ReentrantLock();
+  private long seq;
+
+  private SimulationJournal(ObjectMapper objectMapper, BufferedWriter writer) {
+    this.objectMapper = objectMapper;
+    this.writer = writer;
+  }
+
+  /**
+   * Opens a fresh journal at {@code path}. An existing non-empty file is moved aside (suffixed with its
+   * last-modified millis) rather than appended to, so every file holds exactly one session.
+   */
+  static SimulationJournal open(Path path, ObjectMapper objectMapper) throws IOException {
+    Path parent = path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    if (Files.exists(path) && Files.size(path) > 0) {
+      long mtime = Files.getLastModifiedTime(path).toMillis();
+      Files.move(path, path.resolveSibling(path.getFileName() + "." + mtime), StandardCopyOption.REPLACE_EXISTING);
+    }
+    BufferedWriter writer = Files.newBufferedWriter(
+        path,
+        StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND
+    );
+    return new SimulationJournal(objectMapper, writer);
+  }
+
+  ObjectNode entry(String type) {
+    return objectMapper.createObjectNode().put("type", type);
+  }
+
+  void append(Instant ts, ObjectNode entry) {
+    lock.lock();
+    try {
+      entry.put("seq", ++seq);
+      entry.put("ts", ts.toEpochMilli());
+      writer.write(objectMapper.writeValueAsString(entry));
+      writer.newLine();
+      writer.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      writer.close();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  static void writeTopOfBook(ObjectNode node, TopOfBook tob) {
+    putDecimal(node, "bestBid", tob.bestBid());
+    putDecimal(node, "bestAsk", tob.bestAsk());
+    putDecimal(node, "bestBidSize", tob.bestBidSize());
+    putDecimal(node, "bestAskSize", tob.bestAskSize());
+    putDecimal(node, "lastTradePrice", tob.lastTradePrice());
+    if (tob.updatedAt() != null) {
+      node.put("updatedAt", tob.updatedAt().toEpochMilli());
+    }
+    if (tob.lastTradeAt() != null) {
+      node.put("lastTradeAt", tob.lastTradeAt().toEpochMilli());
+    }
+  }
+
+  static TopOfBook readTopOfBook(ObjectNode node) {
+    return new TopOfBook(
+        decimal(node, "bestBid"),
+        decimal(node, "bestAsk"),
+        decimal(node, "bestBidSize"),
+        decimal(node, "bestAskSize"),
+        decimal(node, "lastTradePrice"),
+        node.hasNonNull("updatedAt") ? Instant.ofEpochMilli(node.get("updatedAt").asLong()) : null,
+        node.hasNonNull("lastTradeAt") ? Instant.ofEpochMilli(node.get("lastTradeAt").asLong()) : null,
+        null
+    );
+  }
+
+  static void putDecimal(ObjectNode node, String field, BigDecimal value) {
+    if (value != null) {
+      node.put(field, value.toPlainString());
+    }
+  }
+
+  static BigDecimal decimal(ObjectNode node, String field) {
+    return node.hasNonNull(field) ? new BigDecimal(node.get(field).asText()) : null;
+  }
+}
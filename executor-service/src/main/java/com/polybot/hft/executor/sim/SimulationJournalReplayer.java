@@ -0,0 +1,183 @@
+package com.polybot.hft.executor.sim;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.polybot.hft.config.HftProperties;
+import com.polybot.hft.domain.OrderSide;
+import com.polybot.hft.events.HftEventPublisher;
+import com.polybot.hft.polymarket.api.LimitOrderRequest;
+import com.polybot.hft.polymarket.api.MarketOrderRequest;
+import com.polybot.hft.polymarket.ws.TopOfBook;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replays a {@link SimulationJournal} through a fresh, network-free {@link PaperExchangeSimulator} as fast as possible.
+ *
+ * Entries are applied in journal order with the simulator clock pinned to each one's timestamp. Books come from the
+ * TOB entries, and a META entry becomes visible at the point the live session resolved it, so a deterministic session
+ * yields the same fills and {@code ExecutorOrderStatusEvent}s it produced live. Intended for debugging and regression
+ * tests.
+ */
+@RequiredArgsConstructor
+public class SimulationJournalReplayer {
+
+  private static final Set<String> INPUTS = Set.of(
+      SimulationJournal.LIMIT, SimulationJournal.MARKET, SimulationJournal.CANCEL, SimulationJournal.TICK);
+
+  private final @NonNull HftProperties hft;
+  private final @NonNull ObjectMapper objectMapper;
+
+  public record ReplayedEvent(Instant ts, String type, String key, Object data) {
+  }
+
+  public List<ReplayedEvent> replay(Path journalPath) throws IOException {
+    ReplayClock clock = new ReplayClock();
+    CollectingPublisher events = new CollectingPublisher();
+    Map<String, TopOfBook> books = new HashMap<>();
+    PaperExchangeSimulator simulator = null;
+    ObjectNode pendingInput = null;
+    try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        ObjectNode entry = parse(line);
+        if (entry == null) {
+          continue;
+        }
+        String type = entry.path("type").asText("");
+        if (simulator == null) {
+          if (!SimulationJournal.CONFIG.equals(type)) {
+            throw new IllegalArgumentException("journal does not start with a CONFIG entry: " + journalPath);
+          }
+          ExecutorSimulationProperties config = objectMapper.treeToValue(entry.get("config"), ExecutorSimulationProperties.class);
+          simulator = PaperExchangeSimulator.forReplay(hft, config, objectMapper, clock, events, books);
+          continue;
+        }
+        // Metadata looked up while handling an input is journaled after that input's own entry, so the input only
+        // runs once the entries following it are known.
+        if (SimulationJournal.META.equals(type)) {
+          offerMeta(simulator, entry);
+          if (pendingInput == null) {
+            simulator.cacheOfferedTokenMeta();
+          }
+          continue;
+        }
+        if (pendingInput != null) {
+          run(simulator, clock, pendingInput);
+          pendingInput = null;
+        }
+        if (SimulationJournal.TOB.equals(type)) {
+          books.put(entry.path("tokenId").asText(), SimulationJournal.readTopOfBook(entry));
+        } else if (INPUTS.contains(type)) {
+          pendingInput = entry;
+        }
+      }
+    }
+    if (simulator == null) {
+      throw new IllegalArgumentException("journal has no CONFIG entry: " + journalPath);
+    }
+    if (pendingInput != null) {
+      run(simulator, clock, pendingInput);
+    }
+    return events.published;
+  }
+
+  private static void run(PaperExchangeSimulator simulator, ReplayClock clock, ObjectNode entry) {
+    clock.now = Instant.ofEpochMilli(entry.path("ts").asLong());
+    switch (entry.path("type").asText("")) {
+      case SimulationJournal.LIMIT -> simulator.placeLimitOrder(new LimitOrderRequest(
+          entry.path("tokenId").asText(),
+          side(entry),
+          SimulationJournal.decimal(entry, "price"),
+          SimulationJournal.decimal(entry, "size"),
+          null, null, null, null, null, null, null, null, null
+      ));
+      case SimulationJournal.MARKET -> simulator.placeMarketOrder(new MarketOrderRequest(
+          entry.path("tokenId").asText(),
+          side(entry),
+          SimulationJournal.decimal(entry, "amount"),
+          SimulationJournal.decimal(entry, "price"),
+          null, null, null, null, null, null, null, null
+      ));
+      case SimulationJournal.CANCEL -> simulator.cancelOrder(entry.path("orderId").asText(null));
+      case SimulationJournal.TICK -> simulator.simulateFills();
+      default -> {
+      }
+    }
+    // Whatever the input didn't look up was resolved outside it (e.g. for a positions call) and is cached from here.
+    simulator.cacheOfferedTokenMeta();
+  }
+
+  private static void offerMeta(PaperExchangeSimulator simulator, ObjectNode meta) {
+    simulator.offerTokenMeta(
+        meta.path("tokenId").asText(),
+        meta.path("marketSlug").asText(""),
+        meta.path("title").asText(""),
+        meta.path("conditionId").asText(""),
+        meta.path("outcome").asText(""),
+        meta.path("outcomeIndex").asInt(-1)
+    );
+  }
+
+  private ObjectNode parse(String line) throws IOException {
+    if (line == null || line.isBlank()) {
+      return null;
+    }
+    JsonNode node = objectMapper.readTree(line);
+    return node instanceof ObjectNode o ? o : null;
+  }
+
+  private static OrderSide side(ObjectNode entry) {
+    String s = entry.path("side").asText(null);
+    return s == null ? null : OrderSide.valueOf(s);
+  }
+
+  private static final class ReplayClock extends Clock {
+    private Instant now = Instant.EPOCH;
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+
+  private static final class CollectingPublisher implements HftEventPublisher {
+    private final List<ReplayedEvent> published = new ArrayList<>();
+
+    @Override
+    public boolean isEnabled() {
+      return true;
+    }
+
+    @Override
+    public void publish(Instant ts, String type, String key, Object data) {
+      published.add(new ReplayedEvent(ts, type, key, data));
+    }
+  }
+}
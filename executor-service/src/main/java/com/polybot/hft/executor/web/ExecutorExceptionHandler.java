@@ -1,7 +1,10 @@
 package com.polybot.hft.executor.web;
 
+import com.polybot.hft.executor.order.OrderGatewayException;
+import com.polybot.hft.executor.risk.ExposureLimitExceededException;
 import com.polybot.hft.polymarket.http.PolymarketHttpException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -16,6 +19,24 @@ public class ExecutorExceptionHandler {
     return ResponseEntity.status(e.statusCode()).body(new UpstreamHttpErrorResponse(e.statusCode(), e.method(), e.uri().toString(), e.responseSnippet()));
   }
 
+  @ExceptionHandler(ExposureLimitExceededException.class)
+  public ResponseEntity<ExposureRejectedResponse> handle(ExposureLimitExceededException e) {
+    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+        .body(new ExposureRejectedResponse(e.level().name(), e.key(), e.getMessage()));
+  }
+
+  @ExceptionHandler(OrderGatewayException.class)
+  public ResponseEntity<OrderNotSentResponse> handle(OrderGatewayException e) {
+    HttpStatus status = e.reason() == OrderGatewayException.Reason.SUPERSEDED ? HttpStatus.CONFLICT : HttpStatus.SERVICE_UNAVAILABLE;
+    return ResponseEntity.status(status).body(new OrderNotSentResponse(e.reason().name(), e.priority().name(), e.getMessage()));
+  }
+
+  public record OrderNotSentResponse(String reason, String lane, String message) {
+  }
+
+  public record ExposureRejectedResponse(String level, String key, String message) {
+  }
+
   public record UpstreamHttpErrorResponse(int status, String method, String url, String bodySnippet) {
   }
 }
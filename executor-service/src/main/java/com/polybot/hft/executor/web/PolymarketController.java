@@ -2,6 +2,9 @@ package com.polybot.hft.executor.web;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.polybot.hft.config.HftProperties;
+import com.polybot.hft.domain.HftHeaders;
+import com.polybot.hft.domain.OrderLatencyTrace;
+import com.polybot.hft.domain.OrderPriority;
 import com.polybot.hft.domain.OrderSide;
 import com.polybot.hft.events.HftEventPublisher;
 import com.polybot.hft.events.HftEventTypes;
@@ -9,9 +12,16 @@ import com.polybot.hft.executor.events.ExecutorCancelOrderEvent;
 import com.polybot.hft.executor.events.ExecutorLimitOrderEvent;
 import com.polybot.hft.executor.events.ExecutorMarketOrderEvent;
 import com.polybot.hft.executor.events.ExecutorOrderError;
+import com.polybot.hft.executor.portfolio.ExecutorPortfolioProperties;
 import com.polybot.hft.executor.portfolio.PolymarketBankrollService;
+import com.polybot.hft.executor.portfolio.PortfolioSnapshot;
+import com.polybot.hft.executor.portfolio.PortfolioSnapshotService;
+import com.polybot.hft.executor.risk.ExposureLimitExceededException;
+import com.polybot.hft.executor.risk.ExposureService;
 import com.polybot.hft.executor.metrics.ExecutorMetricsService;
 import com.polybot.hft.executor.order.ExecutorOrderMonitor;
+import com.polybot.hft.executor.order.OrderGateway;
+import com.polybot.hft.executor.order.OrderGatewayException;
 import com.polybot.hft.executor.sim.PaperExchangeSimulator;
 import com.polybot.hft.polymarket.api.PolymarketAccountResponse;
 import com.polybot.hft.polymarket.api.LimitOrderRequest;
@@ -19,26 +29,39 @@ import com.polybot.hft.polymarket.api.MarketOrderRequest;
 import com.polybot.hft.polymarket.api.OrderSubmissionResult;
 import com.polybot.hft.polymarket.api.PolymarketBankrollResponse;
 import com.polybot.hft.polymarket.api.PolymarketHealthResponse;
+import com.polybot.hft.polymarket.api.ReplaceOrderResult;
 import com.polybot.hft.polymarket.auth.PolymarketAuthContext;
 import com.polybot.hft.polymarket.data.PolymarketDataApiClient;
+import com.polybot.hft.polymarket.data.PolymarketPosition;
 import com.polybot.hft.polymarket.http.PolymarketHttpException;
 import com.polybot.hft.polymarket.model.OrderBook;
 import com.polybot.hft.polymarket.service.PolymarketTradingService;
 import com.polybot.hft.polymarket.ws.ClobMarketWebSocketClient;
 import com.polybot.hft.polymarket.ws.TopOfBook;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import jakarta.validation.Valid;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 import org.web3j.crypto.Credentials;
 
 @RestController
@@ -50,17 +73,29 @@ public class PolymarketController {
 
   private static final int ERROR_MAX_LEN = 512;
 
+  private final ExecutorService replaceLegExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
   private final @NonNull HftProperties properties;
   private final @NonNull PolymarketAuthContext authContext;
   private final @NonNull PolymarketTradingService tradingService;
   private final @NonNull ClobMarketWebSocketClient marketWebSocketClient;
   private final @NonNull PolymarketDataApiClient dataApiClient;
   private final @NonNull PolymarketBankrollService bankrollService;
+  private final @NonNull PortfolioSnapshotService portfolio;
+  private final @NonNull ExecutorPortfolioProperties portfolioProperties;
   private final @NonNull HftEventPublisher events;
   private final @NonNull ExecutorOrderMonitor orderMonitor;
+  private final @NonNull OrderGateway orderGateway;
+  private final @NonNull ExposureService exposure;
   private final @NonNull PaperExchangeSimulator simulator;
   private final @NonNull ObjectMapper objectMapper;
   private final @NonNull ExecutorMetricsService metricsService;
+  private final @NonNull Clock clock;
+
+  @PreDestroy
+  void shutdown() {
+    replaceLegExecutor.shutdownNow();
+  }
 
   private static String normalizeAddress(String address) {
     if (address == null) {
@@ -111,15 +146,25 @@ public class PolymarketController {
   }
 
   @GetMapping("/bankroll")
-  public ResponseEntity<PolymarketBankrollResponse> getBankroll() {
-    return ResponseEntity.ok(bankrollService.snapshot());
+  public ResponseEntity<PolymarketBankrollResponse> getBankroll(
+      @RequestHeader(name=HttpHeaders.IF_NONE_MATCH, required=false) String ifNoneMatch
+  ) {
+    PortfolioSnapshot snapshot = portfolio.current().orElse(null);
+    if (snapshot == null) {
+      return ResponseEntity.ok(bankrollService.from(null));
+    }
+    if (snapshot.etag().equals(ifNoneMatch)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).build();
+    }
+    return ResponseEntity.ok().eTag(snapshot.etag()).body(bankrollService.from(snapshot));
   }
 
   @GetMapping("/positions")
   public ResponseEntity<JsonNode> getPositions(
       @RequestParam(name="user", required=false) String user,
       @RequestParam(name="limit", required=false, defaultValue="200") int limit,
-      @RequestParam(name="offset", required=false, defaultValue="0") int offset
+      @RequestParam(name="offset", required=false, defaultValue="0") int offset,
+      @RequestHeader(name=HttpHeaders.IF_NONE_MATCH, required=false) String ifNoneMatch
   ) {
     if (simulator.enabled()) {
       return ResponseEntity.ok(objectMapper.valueToTree(simulator.getPositions(limit, offset)));
@@ -128,6 +173,18 @@ public class PolymarketController {
     if (resolvedUser == null || resolvedUser.isBlank()) {
       return ResponseEntity.badRequest().build();
     }
+    // The maker's own positions come from the shared snapshot, as long as the requested page lies within it.
+    PortfolioSnapshot snapshot = resolvedUser.equalsIgnoreCase(makerAddress()) ? portfolio.current().orElse(null) : null;
+    int from = Math.max(0, offset);
+    int to = from + Math.max(1, limit);
+    if (snapshot != null && (to <= snapshot.positions().size() || snapshot.positions().size() < portfolioProperties.positionsLimit())) {
+      if (snapshot.etag().equals(ifNoneMatch)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).build();
+      }
+      List<PolymarketPosition> positions = snapshot.positions();
+      List<PolymarketPosition> page = from >= positions.size() ? List.of() : positions.subList(from, Math.min(to, positions.size()));
+      return ResponseEntity.ok().eTag(snapshot.etag()).body(objectMapper.valueToTree(page));
+    }
     log.info("api /positions user={} limit={} offset={}", resolvedUser, limit, offset);
     return ResponseEntity.ok(dataApiClient.getPositions(resolvedUser, limit, offset));
   }
@@ -159,58 +216,193 @@ public class PolymarketController {
   }
 
   @PostMapping("/orders/limit")
-  public ResponseEntity<OrderSubmissionResult> placeLimitOrder(@Valid @RequestBody LimitOrderRequest request) {
-    log.info("api /orders/limit tokenId={} side={} price={} size={} orderType={}",
-        request.tokenId(), request.side(), request.price(), request.size(), request.orderType());
+  public ResponseEntity<OrderSubmissionResult> placeLimitOrder(
+      @Valid @RequestBody LimitOrderRequest request,
+      @RequestHeader(name=HftHeaders.ORDER_PRIORITY, required=false) OrderPriority priority,
+      @RequestHeader(name=HftHeaders.LATENCY_TRACE, required=false) String latencyTrace
+  ) {
+    OrderLatencyTrace trace = received(latencyTrace);
+    OrderPriority lane = priority == null || priority == OrderPriority.CANCEL ? OrderPriority.QUOTE : priority;
+    log.info("api /orders/limit tokenId={} side={} price={} size={} orderType={} lane={}",
+        request.tokenId(), request.side(), request.price(), request.size(), request.orderType(), lane);
+    return ResponseEntity.ok(submitLimitOrder(request, lane, null, trace));
+  }
+
+  @PostMapping("/orders/market")
+  public ResponseEntity<OrderSubmissionResult> placeMarketOrder(
+      @Valid @RequestBody MarketOrderRequest request,
+      @RequestHeader(name=HftHeaders.ORDER_PRIORITY, required=false) OrderPriority priority,
+      @RequestHeader(name=HftHeaders.LATENCY_TRACE, required=false) String latencyTrace
+  ) {
+    OrderLatencyTrace trace = received(latencyTrace);
+    // Market orders take liquidity, so they default to the taker lane.
+    OrderPriority lane = priority == null || priority == OrderPriority.CANCEL ? OrderPriority.TAKER : priority;
+    log.info("api /orders/market tokenId={} side={} amount={} price={} orderType={} lane={}",
+        request.tokenId(), request.side(), request.amount(), request.price(), request.orderType(), lane);
+    String reservation = null;
     try {
+      if (!simulator.enabled() && request.side() == OrderSide.BUY) {
+        // BUY market orders are sized in USDC, which is the notional.
+        reservation = exposure.reserveBuy(request.tokenId(), request.marketSlug(), request.amount());
+      }
       metricsService.recordOrderPlaced();
-      OrderSubmissionResult result = simulator.enabled()
-          ? simulator.placeLimitOrder(request)
-          : tradingService.placeLimitOrder(request);
+      AtomicReference<Instant> dequeuedAt = new AtomicReference<>();
+      OrderSubmissionResult result = orderGateway.submit(lane, request.tokenId(), () -> {
+        dequeuedAt.set(clock.instant());
+        return simulator.enabled() ? simulator.placeMarketOrder(request) : tradingService.placeMarketOrder(request);
+      });
+      Map<String, Long> latency = acked(trace, dequeuedAt.get(), result);
       String orderId = resolveOrderId(result);
+      // Bound first: once tracked, the monitor can see a fill (and a terminal state that releases by orderId).
+      bindOrRelease(reservation, orderId);
       if (!simulator.enabled() && orderId != null && !orderId.isBlank()) {
-        orderMonitor.trackNewOrder(orderId, request.tokenId(), request.side(), request.price(), request.size());
+        // For BUY market orders, request.amount is USDC; size in shares is unknown without querying.
+        BigDecimal size = request.side() == OrderSide.SELL ? request.amount() : null;
+        orderMonitor.trackNewOrder(orderId, request.tokenId(), request.side(), request.price(), size);
       }
-      safePublishLimitOrderEvent(request, result, null);
+      safePublishMarketOrderEvent(request, result, null, latency);
       return ResponseEntity.ok(result);
     } catch (RuntimeException e) {
-      safePublishLimitOrderEvent(request, null, e);
+      if (reservation != null) {
+        exposure.release(reservation);
+      }
+      safePublishMarketOrderEvent(request, null, e, null);
       throw e;
     }
   }
 
-  @PostMapping("/orders/market")
-  public ResponseEntity<OrderSubmissionResult> placeMarketOrder(@Valid @RequestBody MarketOrderRequest request) {
-    log.info("api /orders/market tokenId={} side={} amount={} price={} orderType={}",
-        request.tokenId(), request.side(), request.amount(), request.price(), request.orderType());
+  @DeleteMapping("/orders/{orderId}")
+  public ResponseEntity<JsonNode> cancelOrder(@PathVariable String orderId) {
+    log.info("api /orders/cancel orderId={}", orderId);
+    return ResponseEntity.ok(submitCancel(orderId));
+  }
+
+  /**
+   * Cancels {@code orderId} and places {@code request} in one call, with both legs in flight at once so the maker is
+   * never out of the book for a full round trip.
+   * <p>
+   * While both legs are pending the old and the new order can both fill, so the new BUY is reserved against the
+   * exposure caps on top of the old one (which is only released once its cancel is acknowledged). If the caps have no
+   * room for both, the cancel is completed first and the new order is placed after it.
+   * <p>
+   * In the REPLACE lane the gateway throttles and supersedes the replace as a whole, before either leg is sent; a
+   * superseded or expired replace leaves the old order untouched. Once admitted, the place leg goes in the QUOTE lane,
+   * so it isn't held back or superseded behind a cancel that has already gone out.
+   */
+  @PostMapping("/orders/{orderId}/replace")
+  public ResponseEntity<ReplaceOrderResult> replaceOrder(
+      @PathVariable String orderId,
+      @Valid @RequestBody LimitOrderRequest request,
+      @RequestHeader(name=HftHeaders.ORDER_PRIORITY, required=false) OrderPriority priority,
+      @RequestHeader(name=HftHeaders.LATENCY_TRACE, required=false) String latencyTrace
+  ) {
+    OrderLatencyTrace trace = received(latencyTrace);
+    OrderPriority lane = priority == null || priority == OrderPriority.CANCEL ? OrderPriority.REPLACE : priority;
+    log.info("api /orders/replace orderId={} tokenId={} side={} price={} size={} lane={}",
+        orderId, request.tokenId(), request.side(), request.price(), request.size(), lane);
+
+    OrderPriority placeLane = lane;
+    if (lane == OrderPriority.REPLACE) {
+      orderGateway.submit(OrderPriority.REPLACE, request.tokenId(), () -> Boolean.TRUE);
+      placeLane = OrderPriority.QUOTE;
+    }
+
+    String reservation = null;
+    boolean concurrent = true;
+    if (!simulator.enabled() && request.side() == OrderSide.BUY) {
+      try {
+        reservation = exposure.reserveBuy(request.tokenId(), request.marketSlug(), request.price().multiply(request.size()));
+      } catch (ExposureLimitExceededException e) {
+        concurrent = false;
+      }
+    }
+
+    CompletableFuture<JsonNode> cancelLeg = concurrent
+        ? CompletableFuture.supplyAsync(() -> submitCancel(orderId), replaceLegExecutor)
+        : CompletableFuture.completedFuture(null);
+    String cancelError = null;
+    JsonNode cancelResponse = null;
+    if (!concurrent) {
+      try {
+        cancelResponse = submitCancel(orderId);
+      } catch (RuntimeException e) {
+        cancelError = truncate(e.toString(), ERROR_MAX_LEN);
+      }
+    }
+
+    OrderSubmissionResult placement = null;
+    String placeError = null;
+    String placeNotSentReason = null;
     try {
+      placement = submitLimitOrder(request, placeLane, reservation, trace);
+    } catch (RuntimeException e) {
+      placeError = truncate(e.toString(), ERROR_MAX_LEN);
+      if (e instanceof OrderGatewayException notSent) {
+        placeNotSentReason = notSent.reason().name();
+      }
+    }
+
+    if (concurrent) {
+      try {
+        cancelResponse = cancelLeg.join();
+      } catch (CompletionException e) {
+        cancelError = truncate(String.valueOf(e.getCause()), ERROR_MAX_LEN);
+      }
+    }
+    if (cancelError == null) {
+      cancelError = notCanceledReason(cancelResponse, orderId);
+    }
+    return ResponseEntity.ok(new ReplaceOrderResult(
+        orderId, cancelError == null, cancelError, placement, resolveOrderId(placement), placeError, placeNotSentReason,
+        concurrent));
+  }
+
+  /**
+   * Places a limit order through the gateway and registers it with the order monitor and the exposure ledger.
+   *
+   * @param reservation exposure already reserved for this order by the caller, or null to reserve here
+   * @param trace       latency stages up to the executor receiving the request
+   */
+  private OrderSubmissionResult submitLimitOrder(LimitOrderRequest request, OrderPriority lane, String reservation,
+                                                 OrderLatencyTrace trace) {
+    try {
+      if (reservation == null && !simulator.enabled() && request.side() == OrderSide.BUY) {
+        reservation = exposure.reserveBuy(request.tokenId(), request.marketSlug(), request.price().multiply(request.size()));
+      }
       metricsService.recordOrderPlaced();
-      OrderSubmissionResult result = simulator.enabled()
-          ? simulator.placeMarketOrder(request)
-          : tradingService.placeMarketOrder(request);
+      AtomicReference<Instant> dequeuedAt = new AtomicReference<>();
+      OrderSubmissionResult result = orderGateway.submit(lane, request.tokenId(), () -> {
+        dequeuedAt.set(clock.instant());
+        return simulator.enabled() ? simulator.placeLimitOrder(request) : tradingService.placeLimitOrder(request);
+      });
+      Map<String, Long> latency = acked(trace, dequeuedAt.get(), result);
       String orderId = resolveOrderId(result);
+      // Bound first: once tracked, the monitor can see a fill (and a terminal state that releases by orderId).
+      bindOrRelease(reservation, orderId);
       if (!simulator.enabled() && orderId != null && !orderId.isBlank()) {
-        // For BUY market orders, request.amount is USDC; size in shares is unknown without querying.
-        BigDecimal size = request.side() == OrderSide.SELL ? request.amount() : null;
-        orderMonitor.trackNewOrder(orderId, request.tokenId(), request.side(), request.price(), size);
+        orderMonitor.trackNewOrder(orderId, request.tokenId(), request.side(), request.price(), request.size());
       }
-      safePublishMarketOrderEvent(request, result, null);
-      return ResponseEntity.ok(result);
+      safePublishLimitOrderEvent(request, result, null, latency);
+      return result;
     } catch (RuntimeException e) {
-      safePublishMarketOrderEvent(request, null, e);
+      if (reservation != null) {
+        exposure.release(reservation);
+      }
+      safePublishLimitOrderEvent(request, null, e, null);
       throw e;
     }
   }
 
-  @DeleteMapping("/orders/{orderId}")
-  public ResponseEntity<JsonNode> cancelOrder(@PathVariable String orderId) {
-    log.info("api /orders/cancel orderId={}", orderId);
+  private JsonNode submitCancel(String orderId) {
     try {
-      JsonNode result = simulator.enabled()
+      JsonNode result = orderGateway.submit(OrderPriority.CANCEL, null, () -> simulator.enabled()
           ? simulator.cancelOrder(orderId)
-          : tradingService.cancelOrder(orderId);
+          : tradingService.cancelOrder(orderId));
+      if (!simulator.enabled()) {
+        exposure.release(orderId);
+      }
       safePublishCancelOrderEvent(orderId, result, null);
-      return ResponseEntity.ok(result);
+      return result;
     } catch (RuntimeException e) {
       safePublishCancelOrderEvent(orderId, null, e);
       throw e;
@@ -283,7 +475,26 @@ public class PolymarketController {
     return ResponseEntity.ok(tradingService.getTrades(query));
   }
 
-  private void safePublishLimitOrderEvent(LimitOrderRequest request, OrderSubmissionResult result, RuntimeException error) {
+  /**
+   * The strategy's stages from the {@link HftHeaders#LATENCY_TRACE} header (if any), stamped as received now.
+   */
+  private OrderLatencyTrace received(String latencyTrace) {
+    return OrderLatencyTrace.parseHeader(latencyTrace).withExecutorStages(clock.instant(), null, null, null);
+  }
+
+  /**
+   * Completes {@code trace} with the time the gateway let the order through, the signing time and the ack (now),
+   * records it and returns the stage latencies.
+   */
+  private Map<String, Long> acked(OrderLatencyTrace trace, Instant dequeuedAt, OrderSubmissionResult result) {
+    Map<String, Long> stages = trace.withExecutorStages(trace.receivedAt(), dequeuedAt, result.signedAt(), clock.instant())
+        .stageMicros();
+    metricsService.recordOrderLatency(stages);
+    return stages;
+  }
+
+  private void safePublishLimitOrderEvent(LimitOrderRequest request, OrderSubmissionResult result, RuntimeException error,
+                                          Map<String, Long> latencyMicros) {
     if (!events.isEnabled()) {
       return;
     }
@@ -309,14 +520,16 @@ public class PolymarketController {
               mode,
               error == null,
               orderId,
-              err
+              err,
+              latencyMicros
           )
       );
     } catch (Exception ignored) {
     }
   }
 
-  private void safePublishMarketOrderEvent(MarketOrderRequest request, OrderSubmissionResult result, RuntimeException error) {
+  private void safePublishMarketOrderEvent(MarketOrderRequest request, OrderSubmissionResult result, RuntimeException error,
+                                           Map<String, Long> latencyMicros) {
     if (!events.isEnabled()) {
       return;
     }
@@ -341,7 +554,8 @@ public class PolymarketController {
               mode,
               error == null,
               orderId,
-              err
+              err,
+              latencyMicros
           )
       );
     } catch (Exception ignored) {
@@ -364,6 +578,29 @@ public class PolymarketController {
     }
   }
 
+  /**
+   * The CLOB answers a cancel with {@code {"canceled": [...], "not_canceled": {id: reason}}}; an order that was already
+   * filled or cancelled shows up in the latter.
+   */
+  private static String notCanceledReason(JsonNode cancelResponse, String orderId) {
+    JsonNode notCanceled = cancelResponse == null ? null : cancelResponse.path("not_canceled");
+    if (notCanceled == null || !notCanceled.has(orderId)) {
+      return null;
+    }
+    return truncate("not canceled: " + notCanceled.get(orderId).asText(), ERROR_MAX_LEN);
+  }
+
+  private void bindOrRelease(String reservation, String orderId) {
+    if (reservation == null) {
+      return;
+    }
+    if (orderId == null || orderId.isBlank()) {
+      exposure.release(reservation);
+    } else {
+      exposure.bind(reservation, orderId);
+    }
+  }
+
   private static String resolveOrderId(OrderSubmissionResult result) {
     if (result == null) {
       return null;
@@ -0,0 +1,34 @@
+package com.polybot.hft.executor.web;
+
+import com.polybot.hft.executor.risk.ExecutorRiskProperties;
+import com.polybot.hft.executor.risk.ExposureLedger;
+import com.polybot.hft.executor.risk.ExposureService;
+import jakarta.validation.constraints.NotNull;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/polymarket/risk")
+@Validated
+@RequiredArgsConstructor
+public class RiskController {
+
+  private final @NonNull ExposureService exposure;
+  private final @NonNull ExecutorRiskProperties riskProperties;
+
+  @GetMapping("/exposure")
+  public ResponseEntity<Object> exposure() {
+    return ResponseEntity.ok(new ExposureResponse(riskProperties, exposure.snapshot()));
+  }
+
+  private record ExposureResponse(
+      @NotNull ExecutorRiskProperties limits,
+      @NotNull ExposureLedger.Snapshot exposure
+  ) {
+  }
+}
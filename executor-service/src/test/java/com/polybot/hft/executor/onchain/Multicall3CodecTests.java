@@ -0,0 +1,60 @@
+package com.polybot.hft.executor.onchain;
+
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.generated.Uint256;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class Multicall3CodecTests {
+
+  private static final String TOKEN = "0x2791bca1f2de4661ed88a30c99a7a9449aa84174";
+  private static final String OWNER = "0x1111111111111111111111111111111111111111";
+
+  private static String words(String... words) {
+    StringBuilder sb = new StringBuilder("0x");
+    for (String w : words) {
+      sb.append("0".repeat(64 - w.length())).append(w);
+    }
+    return sb.toString();
+  }
+
+  @Test
+  void encodeAggregate3_usesOffsetsRelativeToFirstOffsetWord() {
+    OnchainCall call = OnchainCall.of(TOKEN, new Function("balanceOf", List.of(new Address(OWNER)), List.of(new TypeReference<Uint256>() {
+    })));
+
+    String encoded = Multicall3Codec.encodeAggregate3(List.of(call, call));
+
+    assertThat(encoded).startsWith("0x82ad56cb");
+    String body = encoded.substring(10);
+    assertThat(body.substring(0, 64)).isEqualTo(words("20").substring(2));
+    assertThat(body.substring(64, 128)).isEqualTo(words("2").substring(2));
+    // two offset words, then element 0 starts: 2 * 32 = 0x40
+    assertThat(body.substring(128, 192)).isEqualTo(words("40").substring(2));
+    // element 0 = 3 head words + length word + 36 bytes of calldata padded to 64 = 0xc0 bytes
+    assertThat(body.substring(192, 256)).isEqualTo(words("100").substring(2));
+    assertThat(body).contains(call.callData().substring(2));
+  }
+
+  @Test
+  void decodeAggregate3_returnsDataOrNullPerCall() {
+    String response = words(
+        "20",         // offset to array
+        "2",          // length
+        "40", "c0",   // element offsets (relative to first offset word)
+        "1", "40", "20", "2a",  // (true, bytes(32) = 42)
+        "0", "40", "0"          // (false, empty bytes)
+    );
+
+    List<String> results = Multicall3Codec.decodeAggregate3(response, 2);
+
+    assertThat(results).hasSize(2);
+    assertThat(results.get(0)).isEqualTo(words("2a"));
+    assertThat(results.get(1)).isNull();
+  }
+}
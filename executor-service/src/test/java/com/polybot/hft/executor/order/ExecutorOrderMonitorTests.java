@@ -0,0 +1,78 @@
+package com.polybot.hft.executor.order;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polybot.hft.config.HftProperties;
+import com.polybot.hft.domain.OrderSide;
+import com.polybot.hft.events.HftEventPublisher;
+import com.polybot.hft.executor.metrics.ExecutorMetricsService;
+import com.polybot.hft.executor.portfolio.PortfolioSnapshotService;
+import com.polybot.hft.executor.risk.ExposureService;
+import com.polybot.hft.polymarket.service.PolymarketTradingService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ExecutorOrderMonitorTests {
+
+  private static final String ORDER = "0xorder";
+  private static final String TOKEN = "11";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final PolymarketTradingService tradingService = mock(PolymarketTradingService.class);
+  private final PortfolioSnapshotService portfolio = mock(PortfolioSnapshotService.class);
+  private final ExposureService exposure = mock(ExposureService.class);
+  private final ExecutorOrderMonitor monitor = new ExecutorOrderMonitor(
+      new HftProperties(HftProperties.TradingMode.LIVE, null, null, null, null), tradingService,
+      mock(HftEventPublisher.class), objectMapper, Clock.systemUTC(), mock(ExecutorMetricsService.class), portfolio, exposure);
+
+  @Test
+  void poll_booksFillsAtTheMatchedTradePrices() throws Exception {
+    monitor.trackNewOrder(ORDER, TOKEN, OrderSide.BUY, new BigDecimal("0.50"), BigDecimal.TEN);
+
+    // Taken for 4 @ 0.45 first; later 6 more rest and get hit @ 0.48 as a maker.
+    when(tradingService.getOrder(ORDER)).thenReturn(json("""
+        {"status":"LIVE","size_matched":"4","associate_trades":["t1"]}"""));
+    when(tradingService.getTrades(Map.of("id", "t1"))).thenReturn(json("""
+        [{"id":"t1","taker_order_id":"0xorder","price":"0.45","size":"4","maker_orders":[]}]"""));
+    monitor.poll();
+
+    when(tradingService.getOrder(ORDER)).thenReturn(json("""
+        {"status":"MATCHED","size_matched":"10","associate_trades":["t1","t2"]}"""));
+    when(tradingService.getTrades(Map.of("id", "t2"))).thenReturn(json("""
+        {"data":[{"id":"t2","taker_order_id":"0xother","price":"0.52","size":"6",
+          "maker_orders":[{"order_id":"0xorder","price":"0.48","matched_amount":"6"}]}]}"""));
+    monitor.poll();
+
+    verify(portfolio).applyFill(eq(TOKEN), eq(OrderSide.BUY), decimal("0.45"), decimal("4"));
+    verify(portfolio).applyFill(eq(TOKEN), eq(OrderSide.BUY), decimal("0.48"), decimal("6"));
+    verify(exposure).onFill(eq(ORDER), eq(TOKEN), eq(OrderSide.BUY), decimal("0.48"), decimal("6"));
+  }
+
+  @Test
+  void poll_fallsBackToTheRequestedPriceWithoutTrades() throws Exception {
+    monitor.trackNewOrder(ORDER, TOKEN, OrderSide.SELL, new BigDecimal("0.50"), BigDecimal.TEN);
+    when(tradingService.getOrder(ORDER)).thenReturn(json("""
+        {"status":"MATCHED","size_matched":"10"}"""));
+
+    monitor.poll();
+
+    verify(portfolio).applyFill(eq(TOKEN), eq(OrderSide.SELL), decimal("0.50"), decimal("10"));
+  }
+
+  private JsonNode json(String raw) throws Exception {
+    return objectMapper.readTree(raw);
+  }
+
+  private static BigDecimal decimal(String expected) {
+    return argThat(d -> d != null && d.compareTo(new BigDecimal(expected)) == 0);
+  }
+}
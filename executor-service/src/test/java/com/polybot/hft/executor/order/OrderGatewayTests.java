@@ -0,0 +1,137 @@
+package com.polybot.hft.executor.order;
+
+import com.polybot.hft.domain.OrderPriority;
+import com.polybot.hft.executor.web.ExecutorExceptionHandler;
+import com.polybot.hft.metrics.PolybotMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OrderGatewayTests {
+
+  private static final String TOKEN = "11";
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+  private final CountDownLatch busy = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private OrderGateway gateway;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    gateway.shutdown();
+    callers.shutdownNow();
+  }
+
+  @Test
+  void submit_dropsAnOrderThatWaitedPastMaxQueueMillis() throws Exception {
+    start(true, 50L);
+    occupyTheWorker();
+
+    Future<String> late = callers.submit(() -> gateway.submit(OrderPriority.QUOTE, TOKEN, () -> "sent"));
+    awaitDepth(OrderPriority.QUOTE, 1);
+    Thread.sleep(100);
+    release.countDown();
+
+    assertNotSent(late, OrderGatewayException.Reason.EXPIRED, HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  @Test
+  void submit_supersedesAWaitingReplaceForTheSameToken() throws Exception {
+    start(true, 0L);
+    occupyTheWorker();
+    AtomicInteger sent = new AtomicInteger();
+
+    Future<String> older = callers.submit(() -> gateway.submit(OrderPriority.REPLACE, TOKEN, () -> "r" + sent.incrementAndGet()));
+    awaitDepth(OrderPriority.REPLACE, 1);
+    Future<String> newer = callers.submit(() -> gateway.submit(OrderPriority.REPLACE, TOKEN, () -> "r" + sent.incrementAndGet()));
+
+    assertNotSent(older, OrderGatewayException.Reason.SUPERSEDED, HttpStatus.CONFLICT);
+    release.countDown();
+    assertThat(newer.get(5, TimeUnit.SECONDS)).isEqualTo("r1");
+    assertThat(sent).hasValue(1);
+  }
+
+  @Test
+  void shutdown_failsEverythingStillQueued() throws Exception {
+    start(true, 0L);
+    occupyTheWorker();
+
+    Future<String> queued = callers.submit(() -> gateway.submit(OrderPriority.TAKER, TOKEN, () -> "sent"));
+    awaitDepth(OrderPriority.TAKER, 1);
+    gateway.shutdown();
+
+    assertNotSent(queued, OrderGatewayException.Reason.SHUTDOWN, HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(depth(OrderPriority.TAKER)).isZero();
+  }
+
+  @Test
+  void submit_runsOnTheCallerWhenDisabled() {
+    start(false, 50L);
+    Thread caller = Thread.currentThread();
+
+    assertThat(gateway.submit(OrderPriority.REPLACE, TOKEN, () -> Thread.currentThread() == caller)).isTrue();
+    assertThatThrownBy(() -> gateway.submit(OrderPriority.QUOTE, TOKEN, () -> {
+      throw new IllegalStateException("rejected");
+    })).isInstanceOf(IllegalStateException.class).hasMessage("rejected");
+    assertThat(depth(OrderPriority.REPLACE)).isZero();
+  }
+
+  private void start(boolean enabled, long maxQueueMillis) {
+    gateway = new OrderGateway(new ExecutorGatewayProperties(enabled, 1, 0L, 100, maxQueueMillis),
+        new PolybotMetrics(registry));
+    gateway.start();
+  }
+
+  /**
+   * Parks the only worker on a cancel (never expired) until {@link #release} opens.
+   */
+  private void occupyTheWorker() throws InterruptedException {
+    callers.submit(() -> gateway.submit(OrderPriority.CANCEL, null, () -> {
+      busy.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return null;
+    }));
+    assertThat(busy.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private void awaitDepth(OrderPriority lane, int depth) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (depth(lane) != depth) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      Thread.sleep(5);
+    }
+  }
+
+  private int depth(OrderPriority lane) {
+    return (int) registry.get("polybot_order_gateway_depth").tag("lane", lane.name().toLowerCase()).gauge().value();
+  }
+
+  private static void assertNotSent(Future<?> call, OrderGatewayException.Reason reason, HttpStatus status) {
+    assertThatThrownBy(() -> call.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .cause()
+        .isInstanceOfSatisfying(OrderGatewayException.class, e -> {
+          assertThat(e.reason()).isEqualTo(reason);
+          assertThat(new ExecutorExceptionHandler().handle(e).getStatusCode()).isEqualTo(status);
+        });
+  }
+}
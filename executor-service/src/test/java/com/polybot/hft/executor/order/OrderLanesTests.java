@@ -0,0 +1,106 @@
+package com.polybot.hft.executor.order;
+
+import com.polybot.hft.domain.OrderPriority;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OrderLanesTests {
+
+  private static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+  private final AtomicLong now = new AtomicLong(1_000_000_000L);
+  private final OrderLanes<String> lanes = new OrderLanes<>(INTERVAL_NANOS, 4, now::get);
+
+  @Test
+  void poll_drainsHighestLaneFirst() {
+    lanes.offer(OrderPriority.REPLACE, "t1", "replace");
+    lanes.offer(OrderPriority.QUOTE, "t2", "quote");
+    lanes.offer(OrderPriority.TAKER, "t3", "taker");
+    lanes.offer(OrderPriority.CANCEL, null, "cancel");
+
+    assertThat(lanes.poll().item()).isEqualTo("cancel");
+    assertThat(lanes.poll().item()).isEqualTo("taker");
+    assertThat(lanes.poll().item()).isEqualTo("quote");
+    assertThat(lanes.poll().item()).isEqualTo("replace");
+    assertThat(lanes.poll()).isNull();
+  }
+
+  @Test
+  void offer_supersedesPendingReplaceForSameToken() {
+    assertThat(lanes.offer(OrderPriority.REPLACE, "t1", "r1")).isNull();
+    lanes.offer(OrderPriority.REPLACE, "t2", "other");
+
+    assertThat(lanes.offer(OrderPriority.REPLACE, "t1", "r2")).isEqualTo("r1");
+
+    assertThat(lanes.size(OrderPriority.REPLACE)).isEqualTo(2);
+    // The newer replace keeps the older one's place in line.
+    assertThat(lanes.poll().item()).isEqualTo("r2");
+    assertThat(lanes.poll().item()).isEqualTo("other");
+  }
+
+  @Test
+  void offer_supersedingReplaceKeepsTheOriginalEnqueueTime() {
+    long enqueuedAt = now.get();
+    lanes.offer(OrderPriority.REPLACE, "t1", "r1");
+
+    now.addAndGet(INTERVAL_NANOS);
+    lanes.offer(OrderPriority.REPLACE, "t1", "r2");
+
+    OrderLanes.Entry<String> next = lanes.poll();
+    assertThat(next.item()).isEqualTo("r2");
+    assertThat(next.enqueuedNanos()).isEqualTo(enqueuedAt);
+  }
+
+  @Test
+  void poll_throttlesReplacesPerToken() {
+    lanes.offer(OrderPriority.REPLACE, "t1", "r1");
+    assertThat(lanes.poll().item()).isEqualTo("r1");
+
+    lanes.offer(OrderPriority.REPLACE, "t1", "r2");
+    lanes.offer(OrderPriority.REPLACE, "t2", "other");
+    assertThat(lanes.poll().item()).isEqualTo("other");
+    assertThat(lanes.poll()).isNull();
+
+    now.addAndGet(INTERVAL_NANOS);
+    assertThat(lanes.poll().item()).isEqualTo("r2");
+  }
+
+  @Test
+  void offer_rejectsWhenFullExceptCancels() {
+    for (int i = 0; i < 4; i++) {
+      lanes.offer(OrderPriority.QUOTE, "t" + i, "q" + i);
+    }
+
+    assertThatThrownBy(() -> lanes.offer(OrderPriority.TAKER, "t9", "taker"))
+        .isInstanceOfSatisfying(OrderGatewayException.class,
+            e -> assertThat(e.reason()).isEqualTo(OrderGatewayException.Reason.QUEUE_FULL));
+    lanes.offer(OrderPriority.CANCEL, null, "cancel");
+    assertThat(lanes.poll().item()).isEqualTo("cancel");
+  }
+
+  @Test
+  void take_wakesUpWhenThrottledReplaceBecomesEligible() throws Exception {
+    OrderLanes<String> realTime = new OrderLanes<>(TimeUnit.MILLISECONDS.toNanos(50), 4, System::nanoTime);
+    realTime.offer(OrderPriority.REPLACE, "t1", "r1");
+    assertThat(realTime.take().item()).isEqualTo("r1");
+    realTime.offer(OrderPriority.REPLACE, "t1", "r2");
+
+    long start = System.nanoTime();
+    assertThat(realTime.take().item()).isEqualTo("r2");
+    assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(40));
+  }
+
+  @Test
+  void drain_returnsEverythingQueued() {
+    lanes.offer(OrderPriority.QUOTE, "t1", "q");
+    lanes.offer(OrderPriority.REPLACE, "t2", "r");
+
+    assertThat(lanes.drain()).extracting(OrderLanes.Entry::item).containsExactlyInAnyOrder("q", "r");
+    assertThat(lanes.poll()).isNull();
+  }
+}
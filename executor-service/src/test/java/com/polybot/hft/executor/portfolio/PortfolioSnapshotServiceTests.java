@@ -0,0 +1,185 @@
+package com.polybot.hft.executor.portfolio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polybot.hft.config.HftProperties;
+import com.polybot.hft.domain.OrderSide;
+import com.polybot.hft.events.HftEventPublisher;
+import com.polybot.hft.executor.metrics.ExecutorMetricsService;
+import com.polybot.hft.executor.order.ExecutorOrderMonitor;
+import com.polybot.hft.executor.order.OrderGateway;
+import com.polybot.hft.executor.risk.ExposureService;
+import com.polybot.hft.executor.sim.PaperExchangeSimulator;
+import com.polybot.hft.executor.web.PolymarketController;
+import com.polybot.hft.polymarket.auth.PolymarketAuthContext;
+import com.polybot.hft.polymarket.config.PolymarketConfiguration;
+import com.polybot.hft.polymarket.data.PolymarketDataApiClient;
+import com.polybot.hft.polymarket.data.PolymarketPosition;
+import com.polybot.hft.polymarket.http.PolymarketHttpTransport;
+import com.polybot.hft.polymarket.http.RequestRateLimiter;
+import com.polybot.hft.polymarket.http.RetryPolicy;
+import com.polybot.hft.polymarket.service.PolymarketTradingService;
+import com.polybot.hft.polymarket.ws.ClobMarketWebSocketClient;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PortfolioSnapshotServiceTests {
+
+  private static final String MAKER = "0x00000000000000000000000000000000000000aa";
+  private static final String TOKEN = "11";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final OnchainWalletReader walletReader = mock(OnchainWalletReader.class);
+  private final AtomicLong now = new AtomicLong(1_000_000L);
+  private final Clock clock = mock(Clock.class);
+
+  private HttpServer dataApi;
+  private volatile String positionsJson = "[]";
+  private volatile OnchainWalletReader.WalletState wallet;
+  private PortfolioSnapshotService portfolio;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    dataApi = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    dataApi.createContext("/positions", exchange -> {
+      byte[] body = positionsJson.getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+      exchange.close();
+    });
+    dataApi.start();
+    PolymarketDataApiClient dataApiClient = new PolymarketDataApiClient(
+        URI.create("http://127.0.0.1:" + dataApi.getAddress().getPort()),
+        new PolymarketHttpTransport(new PolymarketConfiguration().httpClient(), objectMapper,
+            RequestRateLimiter.noop(), new RetryPolicy(false, 1, 0, 0)));
+
+    when(clock.millis()).thenAnswer(inv -> now.get());
+    when(walletReader.read(anyString(), any())).thenAnswer(inv -> wallet);
+    PolymarketAuthContext authContext = mock(PolymarketAuthContext.class);
+    when(authContext.funderAddress()).thenReturn(Optional.of(MAKER));
+
+    portfolio = new PortfolioSnapshotService(new ExecutorPortfolioProperties(null, null, null, 30_000L), authContext,
+        dataApiClient, objectMapper, walletReader, mock(PaperExchangeSimulator.class), clock);
+  }
+
+  @AfterEach
+  void tearDown() {
+    dataApi.stop(0);
+  }
+
+  @Test
+  void refreshAfterFill_keepsTheFillUntilChainAndDataApiReflectIt() {
+    chain("100", Map.of());
+    portfolio.refresh();
+
+    portfolio.applyFill(TOKEN, OrderSide.BUY, new BigDecimal("0.40"), BigDecimal.TEN);
+
+    // The wallet was read before the fill settled: the refresh must not erase it.
+    PortfolioSnapshot beforeSettle = portfolio.refresh();
+    assertThat(size(beforeSettle)).isEqualByComparingTo("10");
+    assertThat(beforeSettle.usdcBalance()).isEqualByComparingTo("96");
+
+    // Settled on chain, but the Data API doesn't list the position yet.
+    chain("96", Map.of(TOKEN, BigDecimal.TEN));
+    PortfolioSnapshot settled = portfolio.refresh();
+    assertThat(size(settled)).isEqualByComparingTo("10");
+    assertThat(settled.usdcBalance()).isEqualByComparingTo("96");
+    assertThat(portfolio.pendingFillAssets()).containsExactly(TOKEN);
+
+    positionsJson = "[{\"asset\":\"11\",\"size\":10,\"curPrice\":0.5}]";
+    PortfolioSnapshot listed = portfolio.refresh();
+    assertThat(size(listed)).isEqualByComparingTo("10");
+    assertThat(listed.usdcBalance()).isEqualByComparingTo("96");
+    assertThat(portfolio.pendingFillAssets()).isEmpty();
+  }
+
+  @Test
+  void refreshAfterFill_reappliesOnlyThePartTheChainDoesNotShow() {
+    positionsJson = "[{\"asset\":\"11\",\"size\":5,\"curPrice\":0.5}]";
+    chain("100", Map.of(TOKEN, new BigDecimal("5")));
+    portfolio.refresh();
+
+    portfolio.applyFill(TOKEN, OrderSide.BUY, new BigDecimal("0.50"), BigDecimal.TEN);
+    chain("98", Map.of(TOKEN, new BigDecimal("9")));
+    PortfolioSnapshot partly = portfolio.refresh();
+
+    assertThat(size(partly)).isEqualByComparingTo("15");
+    assertThat(partly.usdcBalance()).isEqualByComparingTo("95");
+  }
+
+  @Test
+  void pendingFill_expiresWhenNeverReflected() {
+    chain("100", Map.of());
+    portfolio.refresh();
+    portfolio.applyFill(TOKEN, OrderSide.BUY, new BigDecimal("0.40"), BigDecimal.TEN);
+
+    now.addAndGet(30_001L);
+    PortfolioSnapshot expired = portfolio.refresh();
+
+    assertThat(expired.positions()).isEmpty();
+    assertThat(expired.usdcBalance()).isEqualByComparingTo("100");
+    assertThat(portfolio.pendingFillAssets()).isEmpty();
+  }
+
+  @Test
+  void bankroll_answersNotModifiedUntilAFillOrRefreshChangesTheSnapshot() {
+    PolymarketController controller = controller();
+    chain("100", Map.of());
+    String etag = portfolio.refresh().etag();
+
+    // An unchanged refresh keeps the etag.
+    assertThat(portfolio.refresh().etag()).isEqualTo(etag);
+    assertThat(controller.getBankroll(etag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+    portfolio.applyFill(TOKEN, OrderSide.BUY, new BigDecimal("0.40"), BigDecimal.TEN);
+    var afterFill = controller.getBankroll(etag);
+    assertThat(afterFill.getStatusCode()).isEqualTo(HttpStatus.OK);
+    String filledEtag = afterFill.getHeaders().getETag();
+    assertThat(filledEtag).isNotEqualTo(etag);
+
+    // The refresh re-applies the fill the chain doesn't show yet, so the content and etag stay put.
+    assertThat(portfolio.refresh().etag()).isEqualTo(filledEtag);
+    assertThat(controller.getBankroll(filledEtag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+  }
+
+  private void chain(String usdc, Map<String, BigDecimal> tokens) {
+    wallet = new OnchainWalletReader.WalletState(new BigDecimal(usdc), tokens, List.of());
+  }
+
+  private static BigDecimal size(PortfolioSnapshot snapshot) {
+    return snapshot.positions().stream()
+        .filter(p -> TOKEN.equals(p.asset()))
+        .map(PolymarketPosition::size)
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private PolymarketController controller() {
+    return new PolymarketController(new HftProperties(null, null, null, null, null), mock(PolymarketAuthContext.class),
+        mock(PolymarketTradingService.class), mock(ClobMarketWebSocketClient.class),
+        new PolymarketDataApiClient(URI.create("http://127.0.0.1:1"), new PolymarketHttpTransport(
+            new PolymarketConfiguration().httpClient(), objectMapper, RequestRateLimiter.noop(), new RetryPolicy(false, 1, 0, 0))),
+        mock(PolymarketBankrollService.class), portfolio, new ExecutorPortfolioProperties(null, null, null, null),
+        mock(HftEventPublisher.class), mock(ExecutorOrderMonitor.class), mock(OrderGateway.class),
+        mock(ExposureService.class), mock(PaperExchangeSimulator.class), objectMapper,
+        mock(ExecutorMetricsService.class), clock);
+  }
+}
@@ -0,0 +1,122 @@
+package com.polybot.hft.executor.risk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ExposureLedgerTests {
+
+  private static final String BTC_A = "btc-updown-15m-1700000000";
+  private static final String BTC_B = "btc-updown-15m-1700000900";
+  private static final String ETH_A = "eth-updown-15m-1700000000";
+  private static final String BTC = "btc/updown-15m";
+  private static final String ETH = "eth/updown-15m";
+
+  private final ExposureLedger ledger = new ExposureLedger(100, 150, 200);
+
+  @Test
+  void reserve_rejectsAtMarketCap() {
+    ledger.reserve("o1", BTC_A, BTC, 80);
+
+    assertThatThrownBy(() -> ledger.reserve("o2", BTC_A, BTC, 30))
+        .isInstanceOfSatisfying(ExposureLimitExceededException.class, e -> {
+          assertThat(e.level()).isEqualTo(ExposureLedger.Level.MARKET);
+          assertThat(e.key()).isEqualTo(BTC_A);
+        });
+    assertThat(ledger.marketMicros(BTC_A)).isEqualTo(80);
+    assertThat(ledger.seriesMicros(BTC)).isEqualTo(80);
+    assertThat(ledger.totalMicros()).isEqualTo(80);
+  }
+
+  @Test
+  void reserve_rejectsAtSeriesCapAcrossMarkets() {
+    ledger.reserve("o1", BTC_A, BTC, 90);
+
+    assertThatThrownBy(() -> ledger.reserve("o2", BTC_B, BTC, 90))
+        .isInstanceOfSatisfying(ExposureLimitExceededException.class,
+            e -> assertThat(e.level()).isEqualTo(ExposureLedger.Level.SERIES));
+    assertThat(ledger.marketMicros(BTC_B)).isZero();
+    assertThat(ledger.totalMicros()).isEqualTo(90);
+  }
+
+  @Test
+  void reserve_rollsBackSeriesWhenTotalCapRejects() {
+    ledger.reserve("o1", BTC_A, BTC, 100);
+    ledger.reserve("o2", BTC_B, BTC, 50);
+
+    assertThatThrownBy(() -> ledger.reserve("o3", ETH_A, ETH, 60))
+        .isInstanceOfSatisfying(ExposureLimitExceededException.class,
+            e -> assertThat(e.level()).isEqualTo(ExposureLedger.Level.TOTAL));
+    assertThat(ledger.seriesMicros(ETH)).isZero();
+    assertThat(ledger.marketMicros(ETH_A)).isZero();
+    assertThat(ledger.totalMicros()).isEqualTo(150);
+    assertThat(ledger.openOrders()).isEqualTo(2);
+  }
+
+  @Test
+  void fill_movesOpenToFilledAndReleaseDropsTheRest() {
+    ledger.reserve("pending-1", BTC_A, BTC, 80);
+    ledger.rekey("pending-1", "o1");
+
+    ledger.fill("o1", 30);
+    ledger.release("o1");
+
+    ExposureLedger.MarketView view = ledger.snapshot().markets().getFirst();
+    assertThat(view.openMicros()).isZero();
+    assertThat(view.filledMicros()).isEqualTo(30);
+    assertThat(ledger.totalMicros()).isEqualTo(30);
+    assertThat(ledger.openOrders()).isZero();
+  }
+
+  @Test
+  void fill_beyondReservationIsAddedOnTop() {
+    ledger.reserve("o1", BTC_A, BTC, 40);
+
+    ledger.fill("o1", 50);
+
+    assertThat(ledger.marketMicros(BTC_A)).isEqualTo(50);
+    assertThat(ledger.seriesMicros(BTC)).isEqualTo(50);
+    assertThat(ledger.totalMicros()).isEqualTo(50);
+  }
+
+  @Test
+  void release_isIdempotent() {
+    ledger.reserve("o1", BTC_A, BTC, 40);
+
+    ledger.release("o1");
+    ledger.release("o1");
+
+    assertThat(ledger.totalMicros()).isZero();
+    assertThat(ledger.seriesMicros(BTC)).isZero();
+  }
+
+  @Test
+  void reduce_neverGoesBelowZero() {
+    ledger.reserve("o1", BTC_A, BTC, 40);
+    ledger.fill("o1", 40);
+
+    ledger.reduce(BTC_A, 70);
+
+    assertThat(ledger.marketMicros(BTC_A)).isZero();
+    assertThat(ledger.totalMicros()).isZero();
+  }
+
+  @Test
+  void reconcileFilled_replacesFilledAndDropsFlatMarkets() {
+    ledger.reserve("o1", BTC_A, BTC, 40);
+    ledger.fill("o1", 40);
+    ledger.reserve("o2", BTC_B, BTC, 20);
+
+    ledger.reconcileFilled(Map.of(ETH_A, 70L), ExposureService::seriesOf);
+
+    assertThat(ledger.marketMicros(BTC_A)).isZero();
+    assertThat(ledger.marketMicros(BTC_B)).isEqualTo(20);
+    assertThat(ledger.seriesMicros(ETH)).isEqualTo(70);
+    assertThat(ledger.totalMicros()).isEqualTo(90);
+    assertThat(ledger.snapshot().markets()).extracting(ExposureLedger.MarketView::market)
+        .containsExactly(ETH_A, BTC_B);
+  }
+}
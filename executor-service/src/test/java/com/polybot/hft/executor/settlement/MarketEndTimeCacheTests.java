@@ -0,0 +1,262 @@
+package com.polybot.hft.executor.settlement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polybot.hft.polymarket.config.PolymarketConfiguration;
+import com.polybot.hft.polymarket.gamma.PolymarketGammaClient;
+import com.polybot.hft.polymarket.http.PolymarketHttpTransport;
+import com.polybot.hft.polymarket.http.RequestRateLimiter;
+import com.polybot.hft.polymarket.http.RetryPolicy;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MarketEndTimeCacheTests {
+
+  private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+  private static final int LOOKBACK_DAYS = 7;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final MutableClock clock = new MutableClock();
+  private final List<ClickHouseRequest> clickhouseRequests = new CopyOnWriteArrayList<>();
+  private final Queue<String> clickhouseResponses = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger clickhouseStatus = new AtomicInteger(200);
+  private final Map<String, String> gammaMarkets = new ConcurrentHashMap<>();
+  private final List<String> gammaLookups = new CopyOnWriteArrayList<>();
+  private volatile CountDownLatch clickhouseGate = new CountDownLatch(0);
+
+  private HttpServer server;
+  private MarketEndTimeCache cache;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    server.createContext("/", exchange -> {
+      clickhouseRequests.add(new ClickHouseRequest(
+          queryParam(exchange, "param_watermark"),
+          new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)));
+      try {
+        clickhouseGate.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      String body = clickhouseResponses.poll();
+      respond(exchange, clickhouseStatus.get(), body == null ? "" : body);
+    });
+    server.createContext("/markets", exchange -> {
+      String conditionId = queryParam(exchange, "condition_ids");
+      gammaLookups.add(conditionId);
+      respond(exchange, 200, gammaMarkets.getOrDefault(conditionId, "[]"));
+    });
+    server.start();
+
+    URI base = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    PolymarketGammaClient gammaClient = new PolymarketGammaClient(base,
+        new PolymarketHttpTransport(new PolymarketConfiguration().httpClient(), objectMapper, RequestRateLimiter.noop(),
+            new RetryPolicy(false, 1, 0, 0)),
+        objectMapper);
+    cache = new MarketEndTimeCache(HttpClient.newHttpClient(), objectMapper, gammaClient,
+        new ExecutorEndTimeProperties(base, null, LOOKBACK_DAYS, true, 20), clock);
+  }
+
+  @AfterEach
+  void tearDown() {
+    clickhouseGate.countDown();
+    cache.shutdown();
+    server.stop(0);
+  }
+
+  @Test
+  void refresh_readsFromTheWatermarkInclusiveAndSkipsRowsAlreadyReadAtIt() {
+    clickhouseResponses.add(rows(
+        row("0xa", "2026-01-01 00:15:00", "2026-01-01 00:00:01.000"),
+        row("0xb", "2026-01-01 00:30:00", "2026-01-01 00:00:02.000")));
+    refresh();
+
+    assertThat(clickhouseRequests.get(0).watermark()).isEqualTo("1970-01-01 00:00:00.000");
+    assertThat(clickhouseRequests.get(0).sql()).contains("latest_captured_at >= parseDateTime64BestEffort({watermark:String}, 3)");
+    assertThat(cache.getEndTime("0xa")).isEqualTo(Instant.parse("2026-01-01T00:15:00Z"));
+    assertThat(cache.getEndTime("0xb")).isEqualTo(Instant.parse("2026-01-01T00:30:00Z"));
+
+    // 0xb comes back because the query is inclusive; 0xc was captured in the same millisecond but missed the last read.
+    int next = clickhouseRequests.size();
+    clickhouseResponses.add(rows(
+        row("0xb", "2026-01-01 09:00:00", "2026-01-01 00:00:02.000"),
+        row("0xc", "2026-01-01 00:45:00", "2026-01-01 00:00:02.000"),
+        row("0xd", "2026-01-01 01:00:00", "2026-01-01 00:00:03.000")));
+    refresh();
+
+    assertThat(clickhouseRequests.get(next).watermark()).isEqualTo("2026-01-01 00:00:02.000");
+    assertThat(clickhouseRequests.get(clickhouseRequests.size() - 1).watermark()).isEqualTo("2026-01-01 00:00:03.000");
+    assertThat(cache.getEndTime("0xb")).isEqualTo(Instant.parse("2026-01-01T00:30:00Z"));
+    assertThat(cache.getEndTime("0xc")).isEqualTo(Instant.parse("2026-01-01T00:45:00Z"));
+    assertThat(cache.getEndTime("0xd")).isEqualTo(Instant.parse("2026-01-01T01:00:00Z"));
+    assertThat(cache.size()).isEqualTo(4);
+  }
+
+  @Test
+  void refresh_skipsMalformedLinesAndKeepsReading() {
+    clickhouseResponses.add(String.join("\n",
+        row("0xa", "2026-01-01 00:15:00", "2026-01-01 00:00:01.000"),
+        "{\"condition_id\":\"0xbroken\",",
+        "",
+        "not json",
+        "{\"condition_id\":\"0xnoend\",\"latest_captured_at\":\"2026-01-01 00:00:01.000\"}",
+        row("0xb", "2026-01-01 00:30:00", "2026-01-01 00:00:02.000")));
+    refresh();
+
+    assertThat(cache.getEndTime("0xa")).isEqualTo(Instant.parse("2026-01-01T00:15:00Z"));
+    assertThat(cache.getEndTime("0xb")).isEqualTo(Instant.parse("2026-01-01T00:30:00Z"));
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  void refresh_looksUpUnknownConditionsOnGammaWhileClickHouseIsDown() {
+    clickhouseStatus.set(500);
+    gammaMarkets.put("0xg", "[{\"conditionId\":\"0xG\",\"endDate\":\"2026-01-01T01:00:00Z\"}]");
+
+    assertThat(cache.getEndTime("0xg")).isNull();
+
+    await(() -> Instant.parse("2026-01-01T01:00:00Z").equals(cache.getEndTime("0xg")));
+    assertThat(gammaLookups).isNotEmpty().containsOnly("0xg");
+  }
+
+  @Test
+  void refresh_evictsMarketsThatEndedBeforeTheLookback() {
+    clickhouseResponses.add(rows(
+        row("0xa", "2026-01-01 00:15:00", "2026-01-01 00:00:01.000"),
+        row("0xb", "2026-01-03 00:00:00", "2026-01-01 00:00:02.000")));
+    refresh();
+    assertThat(cache.size()).isEqualTo(2);
+
+    clock.now = NOW.plus(Duration.ofDays(LOOKBACK_DAYS)).plus(Duration.ofHours(1));
+    refresh();
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.getEndTime("0xb")).isEqualTo(Instant.parse("2026-01-03T00:00:00Z"));
+  }
+
+  @Test
+  void getEndTime_returnsOnAMissWithoutWaitingForTheRefresh() throws Exception {
+    clickhouseGate = new CountDownLatch(1);
+    clickhouseResponses.add(rows(row("0xa", "2026-01-01 00:15:00", "2026-01-01 00:00:01.000")));
+
+    assertThat(cache.getEndTime("0xa")).isNull();
+    await(() -> clickhouseRequests.size() == 1);
+    // The first refresh is still parked on ClickHouse.
+    assertThat(cache.getEndTime("0xa")).isNull();
+    assertThat(clickhouseRequests).hasSize(1);
+
+    clickhouseGate.countDown();
+    await(() -> cache.getEndTime("0xa") != null);
+    assertThat(cache.getEndTime("0xa")).isEqualTo(Instant.parse("2026-01-01T00:15:00Z"));
+  }
+
+  /**
+   * Runs one refresh to completion: refreshes are single-flight, so once a second (empty) ClickHouse read arrives
+   * the first one has been fully applied.
+   */
+  private void refresh() {
+    for (int i = 0; i < 2; i++) {
+      int before = clickhouseRequests.size();
+      await(() -> {
+        cache.refreshAhead();
+        return clickhouseRequests.size() > before;
+      });
+    }
+  }
+
+  private static void await(BooleanSupplier condition) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      try {
+        Thread.sleep(5);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private static String rows(String... rows) {
+    return String.join("\n", rows) + "\n";
+  }
+
+  private static String row(String conditionId, String endDate, String capturedAt) {
+    return "{\"condition_id\":\"%s\",\"end_date\":\"%s\",\"latest_captured_at\":\"%s\"}"
+        .formatted(conditionId, endDate, capturedAt);
+  }
+
+  private static String queryParam(HttpExchange exchange, String name) {
+    String query = exchange.getRequestURI().getRawQuery();
+    if (query == null) {
+      return null;
+    }
+    for (String kv : query.split("&")) {
+      int eq = kv.indexOf('=');
+      if (eq > 0 && kv.substring(0, eq).equals(name)) {
+        return URLDecoder.decode(kv.substring(eq + 1), StandardCharsets.UTF_8);
+      }
+    }
+    return null;
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+    if (bytes.length > 0) {
+      exchange.getResponseBody().write(bytes);
+    }
+    exchange.close();
+  }
+
+  private record ClickHouseRequest(String watermark, String sql) {
+  }
+
+  private static final class MutableClock extends Clock {
+    private volatile Instant now = NOW;
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.polybot.hft.executor.settlement;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NonceManagerTests {
+
+  private final AtomicInteger chainReads = new AtomicInteger();
+  private BigInteger chainPending = BigInteger.valueOf(7);
+
+  private final NonceManager nonces = new NonceManager(() -> {
+    chainReads.incrementAndGet();
+    return chainPending;
+  });
+
+  @Test
+  void reserve_readsChainOnceThenCountsLocally() throws Exception {
+    assertThat(nonces.reserve()).isEqualTo(7);
+    assertThat(nonces.reserve()).isEqualTo(8);
+    assertThat(nonces.reserve()).isEqualTo(9);
+    assertThat(chainReads).hasValue(1);
+  }
+
+  @Test
+  void release_ofLatestReservationReusesIt() throws Exception {
+    nonces.reserve();
+    BigInteger failed = nonces.reserve();
+
+    nonces.release(failed);
+
+    assertThat(nonces.reserve()).isEqualTo(failed);
+    assertThat(chainReads).hasValue(1);
+  }
+
+  @Test
+  void release_withLaterReservationsFillsGapThenSkipsInFlight() throws Exception {
+    BigInteger failed = nonces.reserve();
+    BigInteger inFlight = nonces.reserve();
+
+    nonces.release(failed);
+
+    assertThat(nonces.reserve()).isEqualTo(failed);
+    assertThat(nonces.reserve()).isEqualTo(inFlight.add(BigInteger.ONE));
+    assertThat(chainReads).hasValue(1);
+  }
+
+  @Test
+  void resync_skipsNoncesStillInFlight() throws Exception {
+    nonces.reserve();
+    BigInteger failed = nonces.reserve();
+    BigInteger inFlight = nonces.reserve();
+    nonces.release(failed);
+
+    // The node reports the gap as its pending count; the nonce after it is still waiting for a receipt.
+    nonces.resync();
+    chainPending = failed;
+
+    assertThat(nonces.reserve()).isEqualTo(failed);
+    assertThat(nonces.reserve()).isEqualTo(inFlight.add(BigInteger.ONE));
+    assertThat(chainReads).hasValue(2);
+  }
+
+  @Test
+  void resync_readsChainAgain() throws Exception {
+    nonces.reserve();
+    chainPending = BigInteger.valueOf(20);
+
+    nonces.resync();
+
+    assertThat(nonces.reserve()).isEqualTo(20);
+  }
+}
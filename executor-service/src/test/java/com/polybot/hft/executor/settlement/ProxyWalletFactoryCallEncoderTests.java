@@ -0,0 +1,73 @@
+package com.polybot.hft.executor.settlement;
+
+import com.polybot.hft.executor.settlement.ProxyWalletFactoryCallEncoder.ProxyCall;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.TypeEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProxyWalletFactoryCallEncoderTests {
+
+  private static final String CTF = "0x4d97dcd97ec945f40cf65f87097ace5ea0476045";
+  private static final String ADAPTER = "0xd91e80cf2e7be2e162c6513ced06f1dd0da35296";
+
+  @Test
+  void encodeProxy_singleCallMatchesWeb3jLayout() {
+    List<ProxyCall> calls = List.of(ProxyCall.call(CTF, "0x01020304"));
+
+    assertThat(ProxyWalletFactoryCallEncoder.encodeProxy(calls)).isEqualTo(expected(calls));
+  }
+
+  @Test
+  void encodeProxy_multipleCallsMatchWeb3jLayout() {
+    List<ProxyCall> calls = List.of(
+        ProxyCall.call(CTF, "0x" + "ab".repeat(68)),
+        ProxyCall.call(ADAPTER, "0x"),
+        new ProxyCall(1, CTF, BigInteger.TEN, Numeric.hexStringToByteArray("0x" + "cd".repeat(33))));
+
+    String encoded = ProxyWalletFactoryCallEncoder.encodeProxy(calls);
+
+    assertThat(encoded).isEqualTo(expected(calls));
+    // First element offset is counted from the offsets table: n words past it.
+    assertThat(word(encoded, 2)).isEqualTo(BigInteger.valueOf(32L * calls.size()));
+  }
+
+  /**
+   * web3j 5 has no tuple types, so the tuples are built from its primitive encoders, and the array head (offset,
+   * length and element offsets) is taken from web3j's encoding of a {@code bytes[]} whose elements encode to the same
+   * lengths as the tuples.
+   */
+  private static String expected(List<ProxyCall> calls) {
+    List<String> tuples = calls.stream().map(ProxyWalletFactoryCallEncoderTests::tuple).toList();
+    List<DynamicBytes> standIns = tuples.stream()
+        .map(t -> new DynamicBytes(new byte[t.length() / 2 - 32]))
+        .toList();
+    String standInParams = FunctionEncoder.encodeConstructor(List.<Type>of(new DynamicArray<>(DynamicBytes.class, standIns)));
+    String head = standInParams.substring(0, 64 * (2 + calls.size()));
+    return "0x34ee9791" + head + String.join("", tuples);
+  }
+
+  private static String tuple(ProxyCall call) {
+    return TypeEncoder.encode(new Uint8(call.typeCode()))
+        + TypeEncoder.encode(new Address(call.to()))
+        + TypeEncoder.encode(new Uint256(call.value()))
+        + TypeEncoder.encode(new Uint256(128))
+        + TypeEncoder.encode(new DynamicBytes(call.data()));
+  }
+
+  private static BigInteger word(String calldata, int index) {
+    int start = 2 + 8 + 64 * index;
+    return new BigInteger(calldata.substring(start, start + 64), 16);
+  }
+}
@@ -0,0 +1,67 @@
+package com.polybot.hft.executor.settlement;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SettlementBatcherTests {
+
+  @Test
+  void pack_fillsBatchesUpToGasBudget() {
+    List<Integer> items = IntStream.range(0, 7).boxed().toList();
+
+    List<List<Integer>> batches = SettlementBatcher.pack(items, i -> 100, 300);
+
+    assertThat(batches).containsExactly(List.of(0, 1, 2), List.of(3, 4, 5), List.of(6));
+  }
+
+  @Test
+  void pack_zeroBudgetSendsOneItemPerBatch() {
+    assertThat(SettlementBatcher.pack(List.of(1, 2, 3), i -> 100, 0))
+        .containsExactly(List.of(1), List.of(2), List.of(3));
+  }
+
+  @Test
+  void sendBisecting_isolatesRevertingItems() {
+    Set<Integer> bad = Set.of(2, 5);
+    List<List<Integer>> sent = new ArrayList<>();
+    List<Integer> ok = new ArrayList<>();
+    List<Integer> failed = new ArrayList<>();
+
+    SettlementBatcher.sendBisecting(IntStream.range(0, 8).boxed().toList(), batch -> {
+          sent.add(List.copyOf(batch));
+          if (batch.stream().anyMatch(bad::contains)) {
+            throw new SettlementTxRevertedException("reverted");
+          }
+        },
+        ok::addAll,
+        (batch, e) -> failed.addAll(batch));
+
+    assertThat(failed).containsExactly(2, 5);
+    assertThat(ok).containsExactlyInAnyOrder(0, 1, 3, 4, 6, 7);
+    assertThat(sent).hasSizeLessThan(8 * 2);
+  }
+
+  @Test
+  void sendBisecting_doesNotSplitOnTransportFailure() {
+    List<List<Integer>> sent = new ArrayList<>();
+    List<Integer> failed = new ArrayList<>();
+
+    SettlementBatcher.sendBisecting(List.of(1, 2, 3, 4), batch -> {
+          sent.add(List.copyOf(batch));
+          throw new IOException("rpc down");
+        },
+        batch -> {
+        },
+        (batch, e) -> failed.addAll(batch));
+
+    assertThat(sent).hasSize(1);
+    assertThat(failed).containsExactly(1, 2, 3, 4);
+  }
+}
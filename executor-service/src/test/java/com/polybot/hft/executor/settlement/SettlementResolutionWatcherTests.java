@@ -0,0 +1,187 @@
+package com.polybot.hft.executor.settlement;
+
+import com.polybot.hft.config.HftProperties;
+import com.polybot.hft.executor.portfolio.PortfolioSnapshot;
+import com.polybot.hft.executor.portfolio.PortfolioSnapshotService;
+import com.polybot.hft.executor.settlement.PolymarketSettlementService.SettlementRunResult;
+import com.polybot.hft.polymarket.data.PolymarketPosition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthLog;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SettlementResolutionWatcherTests {
+
+  private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+  private static final String CONDITION = "0x" + "ab".repeat(32);
+
+  private final PolymarketSettlementService settlementService = mock(PolymarketSettlementService.class);
+  private final PortfolioSnapshotService portfolio = mock(PortfolioSnapshotService.class);
+  private final MarketEndTimeCache endTimes = mock(MarketEndTimeCache.class);
+  private final Web3j web3j = mock(Web3j.class);
+  private final List<long[]> queriedRanges = new CopyOnWriteArrayList<>();
+  private final List<EthLog.LogObject> resolutionLogs = new ArrayList<>();
+  private long chainHead;
+
+  private SettlementResolutionWatcher watcher;
+
+  @BeforeEach
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  void setUp() throws Exception {
+    Request blockNumber = mock(Request.class);
+    when(blockNumber.send()).thenAnswer(inv -> {
+      EthBlockNumber response = new EthBlockNumber();
+      response.setResult("0x" + Long.toHexString(chainHead));
+      return response;
+    });
+    when(web3j.ethBlockNumber()).thenReturn(blockNumber);
+    when(web3j.ethGetLogs(any(EthFilter.class))).thenAnswer(inv -> {
+      EthFilter filter = inv.getArgument(0);
+      long from = Long.decode(filter.getFromBlock().getValue());
+      long to = Long.decode(filter.getToBlock().getValue());
+      queriedRanges.add(new long[]{from, to});
+      List<EthLog.LogResult> results = new ArrayList<>();
+      for (EthLog.LogObject entry : resolutionLogs) {
+        long block = entry.getBlockNumber().longValue();
+        if (block >= from && block <= to) {
+          results.add(entry);
+        }
+      }
+      EthLog response = new EthLog();
+      response.setResult(results);
+      Request logs = mock(Request.class);
+      when(logs.send()).thenReturn(response);
+      return logs;
+    });
+    when(settlementService.runOnce(isNull(), anySet()))
+        .thenReturn(new SettlementRunResult(true, false, "no-actions", List.of(), List.of()));
+    when(portfolio.current()).thenReturn(Optional.empty());
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (watcher != null) {
+      watcher.shutdown();
+    }
+  }
+
+  @Test
+  void poll_followsChainHeadWhileNothingIsAwaited() {
+    watcher = watcher(10L, 1_000L);
+    chainHead = 1_000;
+    watcher.poll();
+    chainHead = 4_990;
+    watcher.poll();
+    assertThat(queriedRanges).isEmpty();
+
+    hold(NOW.minusSeconds(60));
+    chainHead = 5_000;
+    watcher.poll();
+    awaitWatchStarted();
+    watcher.poll();
+
+    // Only the lookback for the newly awaited condition, not everything since the first idle poll.
+    assertThat(queriedRanges).extracting(r -> r[0]).allMatch(from -> from >= 4_990);
+    assertThat(queriedRanges.getLast()).containsExactly(4_990, 5_000);
+  }
+
+  @Test
+  void poll_splitsLongRangesIntoChunksAndStopsOnceResolved() {
+    watcher = watcher(250L, 100L);
+    chainHead = 1_000;
+    resolutionLogs.add(resolution(CONDITION, 870));
+    hold(NOW.minusSeconds(60));
+    watcher.poll();
+    awaitWatchStarted();
+
+    watcher.poll();
+
+    assertThat(queriedRanges).containsExactly(new long[]{750, 849}, new long[]{850, 949});
+    assertThat(watcher.awaitingResolution()).isEmpty();
+    verify(settlementService, timeout(5_000)).runOnce(isNull(), eq(Set.of(CONDITION)));
+
+    chainHead = 1_010;
+    watcher.poll();
+    assertThat(queriedRanges).hasSize(2);
+  }
+
+  @Test
+  void poll_doesNotWaitForASlowSettlementRun() throws Exception {
+    watcher = watcher(10L, 1_000L);
+    chainHead = 1_000;
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch running = new CountDownLatch(1);
+    when(settlementService.runOnce(isNull(), anySet())).thenAnswer(inv -> {
+      running.countDown();
+      release.await();
+      return new SettlementRunResult(true, false, "no-actions", List.of(), List.of());
+    });
+    resolutionLogs.add(resolution(CONDITION, 995));
+    hold(NOW.minusSeconds(60));
+    watcher.poll();
+    assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // The settlement run for the watch check is still blocked; log polling and resolution go on regardless.
+    watcher.poll();
+
+    assertThat(watcher.awaitingResolution()).isEmpty();
+    assertThat(queriedRanges).isNotEmpty();
+    release.countDown();
+    verify(settlementService, timeout(5_000)).runOnce(isNull(), eq(Set.of(CONDITION)));
+  }
+
+  private SettlementResolutionWatcher watcher(long lookbackBlocks, long maxBlocks) {
+    HftProperties properties = new HftProperties(null, null, null, null, null);
+    ExecutorSettlementProperties settlement = new ExecutorSettlementProperties(
+        true, true, null, null, null, false, null, null, null, 0L, null, lookbackBlocks, maxBlocks);
+    return new SettlementResolutionWatcher(properties, settlement, settlementService, portfolio, endTimes, web3j,
+        Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  private void hold(Instant endTime) {
+    PolymarketPosition position = new PolymarketPosition(null, "1", CONDITION, BigDecimal.TEN, null, null, null,
+        null, null, null, false, false, null, null, null, 0, null, null, false);
+    when(portfolio.current()).thenReturn(Optional.of(new PortfolioSnapshot("0xmaker", BigDecimal.ZERO, List.of(position), 1L, null, 0L)));
+    when(endTimes.getEndTime(eq(CONDITION), any())).thenReturn(endTime);
+  }
+
+  private static EthLog.LogObject resolution(String conditionId, long block) {
+    EthLog.LogObject entry = new EthLog.LogObject();
+    entry.setTopics(List.of("0xresolution", conditionId, "0xoracle", "0xquestion"));
+    entry.setBlockNumber("0x" + Long.toHexString(block));
+    return entry;
+  }
+
+  /**
+   * The watch check (due right away, as the market has ended) runs on the scheduler thread and starts a settlement run.
+   */
+  private void awaitWatchStarted() {
+    verify(settlementService, timeout(5_000)).runOnce(isNull(), eq(Set.of()));
+  }
+}
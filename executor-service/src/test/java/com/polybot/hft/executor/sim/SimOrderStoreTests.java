@@ -0,0 +1,94 @@
+package com.polybot.hft.executor.sim;
+
+import com.polybot.hft.domain.OrderSide;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SimOrderStoreTests {
+
+  private static SimOrder order(String id, String status) {
+    return new SimOrder(id, "tok", OrderSide.BUY, new BigDecimal("0.45"), BigDecimal.TEN, Instant.EPOCH, status, BigDecimal.ZERO, BigDecimal.TEN);
+  }
+
+  @Test
+  void archive_movesTerminalOrderOutOfLiveSet() {
+    SimOrderStore store = new SimOrderStore(10, 0);
+    SimOrder o = order("a", "OPEN");
+    store.put(o);
+    o.status = "FILLED";
+
+    store.archive(o, Instant.ofEpochMilli(1_000));
+    store.archive(o, Instant.ofEpochMilli(2_000));
+
+    assertThat(store.liveCount()).isZero();
+    assertThat(store.live("a")).isNull();
+    assertThat(store.archivedCount()).isEqualTo(1);
+    assertThat(store.archived("a")).get().extracting(SimOrderStore.ArchivedOrder::status).isEqualTo("FILLED");
+  }
+
+  @Test
+  void archive_neverLeavesAnOrderInNeitherMap() throws Exception {
+    int count = 5_000;
+    SimOrderStore store = new SimOrderStore(count, 0);
+    SimOrder[] orders = new SimOrder[count];
+    for (int i = 0; i < count; i++) {
+      orders[i] = order("o" + i, "FILLED");
+      store.put(orders[i]);
+    }
+
+    CompletableFuture<Void> archiving = CompletableFuture.runAsync(() -> {
+      for (SimOrder o : orders) {
+        store.archive(o, Instant.ofEpochMilli(1_000));
+      }
+    });
+    int missing = 0;
+    while (!archiving.isDone()) {
+      for (SimOrder o : orders) {
+        // Same lookup order as PaperExchangeSimulator.getOrder: live first, then the archive.
+        if (store.live(o.orderId) == null && store.archived(o.orderId).isEmpty()) {
+          missing++;
+        }
+      }
+    }
+    archiving.get(5, TimeUnit.SECONDS);
+
+    assertThat(missing).isZero();
+    assertThat(store.archivedCount()).isEqualTo(count);
+  }
+
+  @Test
+  void archive_evictsOldestBeyondCapacity() {
+    SimOrderStore store = new SimOrderStore(2, 0);
+    for (String id : new String[]{"a", "b", "c"}) {
+      SimOrder o = order(id, "CANCELED");
+      store.put(o);
+      store.archive(o, Instant.ofEpochMilli(1_000));
+    }
+
+    assertThat(store.archivedCount()).isEqualTo(2);
+    assertThat(store.archived("a")).isEmpty();
+    assertThat(store.archived("c")).isPresent();
+    assertThat(store.evictedTotal()).isEqualTo(1);
+  }
+
+  @Test
+  void evictExpired_dropsEntriesOlderThanRetention() {
+    SimOrderStore store = new SimOrderStore(10, 1_000);
+    SimOrder old = order("old", "FILLED");
+    SimOrder recent = order("recent", "FILLED");
+    store.put(old);
+    store.put(recent);
+    store.archive(old, Instant.ofEpochMilli(1_000));
+    store.archive(recent, Instant.ofEpochMilli(5_000));
+
+    assertThat(store.evictExpired(Instant.ofEpochMilli(5_500))).isEqualTo(1);
+    assertThat(store.archived("old")).isEmpty();
+    assertThat(store.archived("recent")).isPresent();
+  }
+}
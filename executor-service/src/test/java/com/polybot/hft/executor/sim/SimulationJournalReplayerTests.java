@@ -0,0 +1,199 @@
+package com.polybot.hft.executor.sim;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.polybot.hft.config.HftProperties;
+import com.polybot.hft.domain.OrderSide;
+import com.polybot.hft.events.HftEventPublisher;
+import com.polybot.hft.events.HftEventTypes;
+import com.polybot.hft.metrics.PolybotMetrics;
+import com.polybot.hft.polymarket.api.LimitOrderRequest;
+import com.polybot.hft.polymarket.api.MarketOrderRequest;
+import com.polybot.hft.polymarket.config.PolymarketConfiguration;
+import com.polybot.hft.polymarket.gamma.PolymarketGammaClient;
+import com.polybot.hft.polymarket.http.PolymarketHttpTransport;
+import com.polybot.hft.polymarket.http.RequestRateLimiter;
+import com.polybot.hft.polymarket.http.RetryPolicy;
+import com.polybot.hft.polymarket.ws.ClobMarketWebSocketClient;
+import com.polybot.hft.polymarket.ws.TopOfBook;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SimulationJournalReplayerTests {
+
+  private static final String UP = "up";
+  private static final String DOWN = "down";
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  private final HftProperties hft = new HftProperties(null, null, null, null, null);
+
+  @TempDir
+  Path tmp;
+
+  @Test
+  void replay_isReproducibleAndUsesSequentialIds() throws Exception {
+    Path path = tmp.resolve("sim.ndjson");
+    ExecutorSimulationProperties props = new ExecutorSimulationProperties(
+        true, null, null, true, 250L, 0.5, 1.0, 1.0, 0.25, 100, 0L, 0L, true, 42L, null
+    );
+    try (SimulationJournal journal = SimulationJournal.open(path, objectMapper)) {
+      ObjectNode config = journal.entry(SimulationJournal.CONFIG);
+      config.set("config", objectMapper.valueToTree(props));
+      journal.append(Instant.ofEpochMilli(1_000), config);
+
+      ObjectNode limit = journal.entry(SimulationJournal.LIMIT).put("tokenId", "tok").put("side", "BUY");
+      SimulationJournal.putDecimal(limit, "price", new BigDecimal("0.45"));
+      SimulationJournal.putDecimal(limit, "size", new BigDecimal("100"));
+      journal.append(Instant.ofEpochMilli(1_000), limit);
+
+      for (int i = 1; i <= 20; i++) {
+        Instant ts = Instant.ofEpochMilli(1_000 + i * 250L);
+        ObjectNode tob = journal.entry(SimulationJournal.TOB).put("tokenId", "tok");
+        SimulationJournal.writeTopOfBook(tob, new TopOfBook(new BigDecimal("0.44"), new BigDecimal("0.50"), null, null, null, ts, null, null));
+        journal.append(ts, tob);
+        journal.append(ts, journal.entry(SimulationJournal.TICK));
+      }
+    }
+
+    SimulationJournalReplayer replayer = new SimulationJournalReplayer(hft, objectMapper);
+    List<SimulationJournalReplayer.ReplayedEvent> first = replayer.replay(path);
+    List<SimulationJournalReplayer.ReplayedEvent> second = replayer.replay(path);
+
+    assertThat(first).isNotEmpty().isEqualTo(second);
+    assertThat(first.get(0).type()).isEqualTo(HftEventTypes.EXECUTOR_ORDER_STATUS);
+    assertThat(first.get(0).key()).isEqualTo("sim-000000000001");
+    assertThat(first).anyMatch(e -> "polymarket.user.trade".equals(e.type()));
+  }
+
+  @Test
+  void replay_reproducesARecordedSession() throws Exception {
+    // Gamma has nothing for UP on the first lookup, so the first UP fill carries no metadata and the later one does.
+    Set<String> lookedUp = ConcurrentHashMap.newKeySet();
+    HttpServer gamma = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    gamma.createContext("/markets", exchange -> {
+      String query = exchange.getRequestURI().getQuery();
+      byte[] body = (query.contains("clob_token_ids=" + UP) && lookedUp.add(UP) ? "[]" : """
+          [{"slug":"btc-updown-15m-1","question":"BTC up or down","conditionId":"0xc1",
+            "clobTokenIds":"[\\"up\\",\\"down\\"]","outcomes":"[\\"Up\\",\\"Down\\"]"}]""")
+          .getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+      exchange.close();
+    });
+    gamma.start();
+
+    Path path = tmp.resolve("session.ndjson");
+    ExecutorSimulationProperties props = new ExecutorSimulationProperties(
+        true, null, null, true, 250L, 0.5, 1.0, 1.0, 0.25, 100, 0L, 1_000L, true, 7L, path.toString()
+    );
+    SteppedClock clock = new SteppedClock();
+    Map<String, TopOfBook> books = new ConcurrentHashMap<>();
+    ClobMarketWebSocketClient marketWs = mock(ClobMarketWebSocketClient.class);
+    when(marketWs.getTopOfBook(anyString())).thenAnswer(inv -> Optional.ofNullable(books.get(inv.<String>getArgument(0))));
+    List<SimulationJournalReplayer.ReplayedEvent> recorded = new ArrayList<>();
+    HftEventPublisher publisher = new HftEventPublisher() {
+      @Override
+      public boolean isEnabled() {
+        return true;
+      }
+
+      @Override
+      public void publish(Instant ts, String type, String key, Object data) {
+        recorded.add(new SimulationJournalReplayer.ReplayedEvent(ts, type, key, data));
+      }
+    };
+    PolymarketGammaClient gammaClient = new PolymarketGammaClient(
+        URI.create("http://127.0.0.1:" + gamma.getAddress().getPort()),
+        new PolymarketHttpTransport(new PolymarketConfiguration().httpClient(), objectMapper, RequestRateLimiter.noop(),
+            new RetryPolicy(false, 1, 0, 0)),
+        objectMapper);
+    PaperExchangeSimulator simulator = new PaperExchangeSimulator(hft, props, objectMapper, clock, publisher, marketWs,
+        gammaClient, new PolybotMetrics(new SimpleMeterRegistry()));
+    try {
+      books.put(UP, book("0.44", "0.50", clock.instant()));
+      books.put(DOWN, book("0.50", "0.55", clock.instant()));
+      simulator.placeLimitOrder(limit(UP, "0.45", "100"));
+      simulator.placeLimitOrder(limit(DOWN, "0.40", "50"));
+      for (int i = 1; i <= 16; i++) {
+        clock.now = clock.now.plusMillis(250);
+        books.put(UP, i < 5 ? book("0.44", "0.50", clock.now) : book("0.45", "0.48", clock.now));
+        books.put(DOWN, book("0.50", "0.55", clock.now));
+        if (i == 8) {
+          simulator.placeMarketOrder(new MarketOrderRequest(DOWN, OrderSide.BUY, BigDecimal.TEN, new BigDecimal("0.60"),
+              null, null, null, null, null, null, null, null));
+          simulator.cancelOrder("sim-000000000002");
+          simulator.placeLimitOrder(limit(UP, "0.45", "40"));
+        }
+        simulator.simulateFills();
+      }
+    } finally {
+      simulator.closeJournal();
+      gamma.stop(0);
+    }
+
+    List<SimulationJournalReplayer.ReplayedEvent> replayed = new SimulationJournalReplayer(hft, objectMapper).replay(path);
+
+    assertThat(replayed).isEqualTo(recorded);
+    List<JsonNode> upTrades = recorded.stream()
+        .filter(e -> "polymarket.user.trade".equals(e.type()))
+        .map(e -> (JsonNode) ((Map<?, ?>) e.data()).get("trade"))
+        .filter(t -> UP.equals(t.path("asset").asText()))
+        .toList();
+    assertThat(upTrades).anyMatch(t -> !t.has("slug")).anyMatch(t -> t.has("slug"));
+    assertThat(recorded).anyMatch(e -> e.key().startsWith("simtrade:sim-000000000003"))
+        .anyMatch(e -> e.key().startsWith("simtrade:sim-000000000004"));
+  }
+
+  private static LimitOrderRequest limit(String tokenId, String price, String size) {
+    return new LimitOrderRequest(tokenId, OrderSide.BUY, new BigDecimal(price), new BigDecimal(size), null, null, null,
+        null, null, null, null, null, null);
+  }
+
+  private static TopOfBook book(String bid, String ask, Instant at) {
+    return new TopOfBook(new BigDecimal(bid), new BigDecimal(ask), BigDecimal.valueOf(500), BigDecimal.valueOf(500), null,
+        at, null, at);
+  }
+
+  private static final class SteppedClock extends Clock {
+    private Instant now = Instant.ofEpochMilli(1_000);
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
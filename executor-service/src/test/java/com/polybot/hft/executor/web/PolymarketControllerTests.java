@@ -0,0 +1,215 @@
+package com.polybot.hft.executor.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polybot.hft.config.HftProperties;
+import com.polybot.hft.domain.OrderPriority;
+import com.polybot.hft.domain.OrderSide;
+import com.polybot.hft.events.HftEventPublisher;
+import com.polybot.hft.executor.metrics.ExecutorMetricsService;
+import com.polybot.hft.executor.order.ExecutorOrderMonitor;
+import com.polybot.hft.executor.order.OrderGateway;
+import com.polybot.hft.executor.order.OrderGatewayException;
+import com.polybot.hft.executor.portfolio.ExecutorPortfolioProperties;
+import com.polybot.hft.executor.portfolio.PolymarketBankrollService;
+import com.polybot.hft.executor.portfolio.PortfolioSnapshotService;
+import com.polybot.hft.executor.risk.ExposureLedger;
+import com.polybot.hft.executor.risk.ExposureLimitExceededException;
+import com.polybot.hft.executor.risk.ExposureService;
+import com.polybot.hft.executor.sim.PaperExchangeSimulator;
+import com.polybot.hft.polymarket.api.LimitOrderRequest;
+import com.polybot.hft.polymarket.api.MarketOrderRequest;
+import com.polybot.hft.polymarket.api.OrderSubmissionResult;
+import com.polybot.hft.polymarket.api.ReplaceOrderResult;
+import com.polybot.hft.polymarket.auth.PolymarketAuthContext;
+import com.polybot.hft.polymarket.config.PolymarketConfiguration;
+import com.polybot.hft.polymarket.data.PolymarketDataApiClient;
+import com.polybot.hft.polymarket.http.PolymarketHttpTransport;
+import com.polybot.hft.polymarket.http.RequestRateLimiter;
+import com.polybot.hft.polymarket.http.RetryPolicy;
+import com.polybot.hft.polymarket.service.PolymarketTradingService;
+import com.polybot.hft.polymarket.ws.ClobMarketWebSocketClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Clock;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PolymarketControllerTests {
+
+  private static final String TOKEN = "11";
+  private static final String ORDER = "0xnew";
+  private static final String OLD = "0xold";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final PolymarketTradingService tradingService = mock(PolymarketTradingService.class);
+  private final OrderGateway orderGateway = mock(OrderGateway.class);
+  private final ExposureService exposure = mock(ExposureService.class);
+  private final ExecutorOrderMonitor orderMonitor = mock(ExecutorOrderMonitor.class);
+
+  private PolymarketController controller;
+
+  @BeforeEach
+  void setUp() {
+    when(orderGateway.submit(any(), any(), any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(2).get());
+    when(exposure.reserveBuy(anyString(), any(), any())).thenReturn("pending-1");
+    controller = new PolymarketController(new HftProperties(HftProperties.TradingMode.LIVE, null, null, null, null),
+        mock(PolymarketAuthContext.class), tradingService, mock(ClobMarketWebSocketClient.class),
+        new PolymarketDataApiClient(URI.create("http://127.0.0.1:1"), new PolymarketHttpTransport(
+            new PolymarketConfiguration().httpClient(), objectMapper, RequestRateLimiter.noop(), new RetryPolicy(false, 1, 0, 0))),
+        mock(PolymarketBankrollService.class), mock(PortfolioSnapshotService.class), new ExecutorPortfolioProperties(null, null, null, null),
+        mock(HftEventPublisher.class), orderMonitor, orderGateway, exposure, mock(PaperExchangeSimulator.class), objectMapper,
+        mock(ExecutorMetricsService.class), Clock.systemUTC());
+  }
+
+  @AfterEach
+  void tearDown() {
+    controller.shutdown();
+  }
+
+  @Test
+  void placeLimitOrder_bindsTheReservationBeforeTrackingTheOrder() {
+    when(tradingService.placeLimitOrder(any())).thenReturn(accepted(ORDER));
+
+    controller.placeLimitOrder(limit(), null, null);
+
+    InOrder order = inOrder(exposure, orderMonitor);
+    order.verify(exposure).bind("pending-1", ORDER);
+    order.verify(orderMonitor).trackNewOrder(eq(ORDER), eq(TOKEN), eq(OrderSide.BUY), any(), any());
+  }
+
+  @Test
+  void placeMarketOrder_bindsTheReservationBeforeTrackingTheOrder() {
+    when(tradingService.placeMarketOrder(any())).thenReturn(accepted(ORDER));
+
+    controller.placeMarketOrder(new MarketOrderRequest(TOKEN, OrderSide.BUY, BigDecimal.TEN, new BigDecimal("0.50"),
+        null, null, null, null, null, null, null, null), null, null);
+
+    InOrder order = inOrder(exposure, orderMonitor);
+    order.verify(exposure).bind("pending-1", ORDER);
+    order.verify(orderMonitor).trackNewOrder(eq(ORDER), eq(TOKEN), eq(OrderSide.BUY), any(), any());
+  }
+
+  @Test
+  void replaceOrder_bothLegsSucceed() {
+    when(tradingService.cancelOrder(OLD)).thenReturn(canceled(OLD));
+    when(tradingService.placeLimitOrder(any())).thenReturn(accepted(ORDER));
+
+    ReplaceOrderResult result = controller.replaceOrder(OLD, limit(), OrderPriority.REPLACE, null).getBody();
+
+    assertThat(result.cancelled()).isTrue();
+    assertThat(result.orderId()).isEqualTo(ORDER);
+    assertThat(result.concurrent()).isTrue();
+    // The replace is admitted through the throttled lane once; its place leg is then sent as a quote.
+    InOrder order = inOrder(orderGateway);
+    order.verify(orderGateway).submit(eq(OrderPriority.REPLACE), eq(TOKEN), any());
+    order.verify(orderGateway).submit(eq(OrderPriority.QUOTE), eq(TOKEN), any());
+    verify(orderGateway).submit(eq(OrderPriority.CANCEL), eq(null), any());
+    verify(exposure).release(OLD);
+    verify(exposure).bind("pending-1", ORDER);
+  }
+
+  @Test
+  void replaceOrder_cancelFailsWhilePlaceSucceeds() {
+    when(tradingService.cancelOrder(OLD)).thenReturn(objectMapper.createObjectNode()
+        .set("not_canceled", objectMapper.createObjectNode().put(OLD, "matched")));
+    when(tradingService.placeLimitOrder(any())).thenReturn(accepted(ORDER));
+
+    ReplaceOrderResult result = controller.replaceOrder(OLD, limit(), OrderPriority.REPLACE, null).getBody();
+
+    assertThat(result.cancelled()).isFalse();
+    assertThat(result.cancelError()).contains("matched");
+    assertThat(result.orderId()).isEqualTo(ORDER);
+  }
+
+  @Test
+  void replaceOrder_placeFailsWhileCancelSucceeds() {
+    when(tradingService.cancelOrder(OLD)).thenReturn(canceled(OLD));
+    when(tradingService.placeLimitOrder(any())).thenThrow(new IllegalStateException("post-only order would cross"));
+
+    ReplaceOrderResult result = controller.replaceOrder(OLD, limit(), OrderPriority.REPLACE, null).getBody();
+
+    assertThat(result.cancelled()).isTrue();
+    assertThat(result.orderId()).isNull();
+    assertThat(result.placeError()).contains("would cross");
+    assertThat(result.placeNotSentReason()).isNull();
+    verify(exposure).release("pending-1");
+  }
+
+  @Test
+  void replaceOrder_reportsAPlaceLegTheGatewayNeverSent() {
+    when(tradingService.cancelOrder(OLD)).thenReturn(canceled(OLD));
+    doThrow(new OrderGatewayException(OrderGatewayException.Reason.EXPIRED, OrderPriority.QUOTE, TOKEN))
+        .when(orderGateway).submit(eq(OrderPriority.QUOTE), eq(TOKEN), any());
+
+    ReplaceOrderResult result = controller.replaceOrder(OLD, limit(), OrderPriority.REPLACE, null).getBody();
+
+    assertThat(result.cancelled()).isTrue();
+    assertThat(result.orderId()).isNull();
+    assertThat(result.placeNotSentReason()).isEqualTo("EXPIRED");
+  }
+
+  @Test
+  void replaceOrder_supersededBeforeAdmissionSendsNeitherLeg() {
+    doThrow(new OrderGatewayException(OrderGatewayException.Reason.SUPERSEDED, OrderPriority.REPLACE, TOKEN))
+        .when(orderGateway).submit(eq(OrderPriority.REPLACE), eq(TOKEN), any());
+
+    assertThatThrownBy(() -> controller.replaceOrder(OLD, limit(), OrderPriority.REPLACE, null))
+        .isInstanceOf(OrderGatewayException.class);
+
+    verify(tradingService, never()).cancelOrder(any());
+    verify(tradingService, never()).placeLimitOrder(any());
+    verify(exposure, never()).reserveBuy(anyString(), any(), any());
+  }
+
+  @Test
+  void replaceOrder_capsWithoutRoomForBothCancelFirst() {
+    when(exposure.reserveBuy(anyString(), any(), any()))
+        .thenThrow(new ExposureLimitExceededException(ExposureLedger.Level.MARKET, "m", 1, 1, 1))
+        .thenReturn("pending-2");
+    when(tradingService.cancelOrder(OLD)).thenReturn(canceled(OLD));
+    when(tradingService.placeLimitOrder(any())).thenReturn(accepted(ORDER));
+
+    ReplaceOrderResult result = controller.replaceOrder(OLD, limit(), OrderPriority.REPLACE, null).getBody();
+
+    assertThat(result.concurrent()).isFalse();
+    assertThat(result.cancelled()).isTrue();
+    assertThat(result.orderId()).isEqualTo(ORDER);
+    InOrder order = inOrder(tradingService, exposure);
+    order.verify(tradingService).cancelOrder(OLD);
+    order.verify(exposure).release(OLD);
+    order.verify(exposure).reserveBuy(anyString(), any(), any());
+    order.verify(tradingService).placeLimitOrder(any());
+    verify(exposure).bind("pending-2", ORDER);
+  }
+
+  private JsonNode canceled(String orderId) {
+    return objectMapper.createObjectNode().set("canceled", objectMapper.createArrayNode().add(orderId));
+  }
+
+  private static LimitOrderRequest limit() {
+    return new LimitOrderRequest(TOKEN, OrderSide.BUY, new BigDecimal("0.50"), BigDecimal.TEN, null, null, null, null,
+        null, null, null, null, null);
+  }
+
+  private OrderSubmissionResult accepted(String orderId) {
+    return new OrderSubmissionResult(HftProperties.TradingMode.LIVE, null,
+        objectMapper.createObjectNode().put("orderID", orderId), null);
+  }
+}
@@ -0,0 +1,53 @@
+package com.polybot.ingestor.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "ingestor.checkpoint")
+public record CheckpointProperties(
+    @NotNull Boolean enabled,
+    /**
+     * JSON file holding ingestion progress (trade cursors, receipt queue, log-scan blocks, gamma signatures).
+     */
+    String path,
+    /**
+     * Dirty state is written at most this often (and on shutdown).
+     */
+    @NotNull @Min(100) Long flushIntervalMillis,
+    /**
+     * Most recent trade keys kept per target; used to seed dedupe after a restart.
+     */
+    @NotNull @Min(1) Integer recentTradeKeysPerTarget,
+    /**
+     * Upper bound on pending receipt tx hashes persisted.
+     */
+    @NotNull @Min(0) Integer maxPendingReceipts,
+    /**
+     * Upper bound on persisted gamma signatures (least recently used, read or written, dropped first).
+     */
+    @NotNull @Min(0) Integer maxGammaSignatures
+) {
+  public CheckpointProperties {
+    if (enabled == null) {
+      enabled = true;
+    }
+    if (path == null || path.isBlank()) {
+      path = ".cache/ingestor/checkpoints.json";
+    }
+    if (flushIntervalMillis == null) {
+      flushIntervalMillis = 2_000L;
+    }
+    if (recentTradeKeysPerTarget == null) {
+      recentTradeKeysPerTarget = 2_000;
+    }
+    if (maxPendingReceipts == null) {
+      maxPendingReceipts = 20_000;
+    }
+    if (maxGammaSignatures == null) {
+      maxGammaSignatures = 5_000;
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package com.polybot.ingestor.config;
 
+import com.polybot.hft.polymarket.http.RequestRateLimiter;
+import com.polybot.hft.polymarket.http.TokenBucketRateLimiter;
 import org.springframework.boot.web.client.RestClientCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,6 +21,19 @@ public class IngestorHttpConfiguration {
     return Clock.systemUTC();
   }
 
+  /**
+   * Single budget for every Data API request, so adding targets spreads the same request rate across them
+   * instead of multiplying it.
+   */
+  @Bean
+  public RequestRateLimiter polymarketDataApiRateLimiter(IngestorProperties properties, Clock clock) {
+    return new TokenBucketRateLimiter(
+        properties.polling().dataApiRequestsPerSecond(),
+        properties.polling().dataApiBurst(),
+        clock
+    );
+  }
+
   @Bean
   public HttpClient httpClient() {
     return HttpClient.newBuilder()
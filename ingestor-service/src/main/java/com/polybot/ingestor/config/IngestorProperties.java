@@ -4,11 +4,17 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 @Validated
 @ConfigurationProperties(prefix = "ingestor")
@@ -20,13 +26,13 @@ public record IngestorProperties(
 
   public IngestorProperties {
     if (polymarket == null) {
-      polymarket = new Polymarket(null, null, null, null);
+      polymarket = new Polymarket(null, null, null, null, null);
     }
     if (polling == null) {
-      polling = new Polling(null, null, null, null, null, null);
+      polling = new Polling(null, null, null, null, null, null, null, null, null);
     }
     if (marketContext == null) {
-      marketContext = new MarketContext(null, null, null, null, null, null, null, null, null, null, null, null, null);
+      marketContext = new MarketContext(null, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
     }
   }
 
@@ -34,7 +40,11 @@ public record IngestorProperties(
       URI dataApiBaseUrl,
       String username,
       String proxyAddress,
-      String userAgent
+      String userAgent,
+      /**
+       * Additional wallets to ingest alongside {@code username} / {@code proxyAddress}.
+       */
+      List<@Valid TargetIdentity> targets
   ) {
     public Polymarket {
       if (dataApiBaseUrl == null) {
@@ -52,11 +62,60 @@ public record IngestorProperties(
       if (proxyAddress != null) {
         proxyAddress = proxyAddress.trim();
       }
+      targets = targets == null ? List.of() : List.copyOf(targets);
+    }
+
+    public boolean hasIdentity() {
+      return !allTargets().isEmpty();
+    }
+
+    /**
+     * The primary identity (if any) followed by {@link #targets()}, without duplicates or blank entries.
+     */
+    public List<TargetIdentity> allTargets() {
+      List<TargetIdentity> out = new ArrayList<>();
+      Set<String> seen = new LinkedHashSet<>();
+      List<TargetIdentity> candidates = new ArrayList<>();
+      candidates.add(new TargetIdentity(username, proxyAddress));
+      candidates.addAll(targets);
+      for (TargetIdentity t : candidates) {
+        if (t != null && t.hasIdentity() && seen.add(t.key())) {
+          out.add(t);
+        }
+      }
+      return out;
+    }
+  }
+
+  public record TargetIdentity(
+      String username,
+      String proxyAddress
+  ) {
+    public TargetIdentity {
+      if (username != null) {
+        username = username.trim();
+        if (username.startsWith("@")) {
+          username = username.substring(1);
+        }
+      }
+      if (proxyAddress != null) {
+        proxyAddress = proxyAddress.trim();
+      }
     }
 
     public boolean hasIdentity() {
       return (username != null && !username.isBlank()) || (proxyAddress != null && !proxyAddress.isBlank());
     }
+
+    /**
+     * Stable label for logs and metric tags: the proxy address when configured, otherwise the username.
+     */
+    public String key() {
+      if (proxyAddress != null && !proxyAddress.isBlank()) {
+        return proxyAddress.toLowerCase(Locale.ROOT);
+      }
+      return username == null ? "" : username.toLowerCase(Locale.ROOT);
+    }
   }
 
   public record Polling(
@@ -65,7 +124,16 @@ public record IngestorProperties(
       @NotNull @Min(1) Integer pollIntervalSeconds,
       @NotNull @Min(1) Integer pageSize,
       @NotNull @PositiveOrZero Long requestDelayMillis,
-      @PositiveOrZero Integer backfillMaxPages
+      @PositiveOrZero Integer backfillMaxPages,
+      /**
+       * Targets polled at the same time (each on its own virtual thread).
+       */
+      @NotNull @Min(1) Integer maxConcurrentTargets,
+      /**
+       * Request budget shared by every Data API caller (all targets, backfills and market context).
+       */
+      @NotNull @Positive Double dataApiRequestsPerSecond,
+      @NotNull @Min(1) Integer dataApiBurst
   ) {
     public Polling {
       if (enabled == null) {
@@ -83,6 +151,15 @@ public record IngestorProperties(
       if (requestDelayMillis == null) {
         requestDelayMillis = 250L;
       }
+      if (maxConcurrentTargets == null) {
+        maxConcurrentTargets = 8;
+      }
+      if (dataApiRequestsPerSecond == null) {
+        dataApiRequestsPerSecond = 10.0;
+      }
+      if (dataApiBurst == null) {
+        dataApiBurst = 20;
+      }
     }
   }
 
@@ -99,7 +176,16 @@ public record IngestorProperties(
       @NotNull @Min(1) Integer gammaPollMaxIdleSeconds,
       @NotNull @PositiveOrZero Long requestDelayMillis,
       @NotNull @Min(1) Integer maxTrackedMarkets,
-      @NotNull @PositiveOrZero Integer onTradeContextMaxAgeSeconds
+      @NotNull @PositiveOrZero Integer onTradeContextMaxAgeSeconds,
+      /**
+       * Gamma / CLOB / market-trades fetches in flight at once (requests for the same slug or token are coalesced).
+       */
+      @NotNull @Min(1) Integer maxConcurrentFetches,
+      /**
+       * Use the WS book as of a trade only if its last update before the trade is at most this old; otherwise
+       * fall back to a REST snapshot.
+       */
+      @NotNull @Min(1) Integer wsBookMaxStalenessSeconds
   ) {
     public MarketContext {
       if (enabled == null) {
@@ -141,6 +227,12 @@ public record IngestorProperties(
       if (onTradeContextMaxAgeSeconds == null) {
         onTradeContextMaxAgeSeconds = 300;
       }
+      if (maxConcurrentFetches == null) {
+        maxConcurrentFetches = 8;
+      }
+      if (wsBookMaxStalenessSeconds == null) {
+        wsBookMaxStalenessSeconds = 120;
+      }
     }
   }
 }
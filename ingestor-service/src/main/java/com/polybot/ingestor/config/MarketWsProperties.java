@@ -14,7 +14,19 @@ public record MarketWsProperties(
     @NotNull @Min(0) Integer lookahead15mMinutes,
     @NotNull @Min(0) Integer lookback1hHours,
     @NotNull @Min(0) Integer lookahead1hHours,
-    @NotNull @Min(0) Long requestDelayMillis
+    @NotNull @Min(0) Long requestDelayMillis,
+    /**
+     * Max Gamma slug lookups in flight per discovery cycle.
+     */
+    @NotNull @Min(1) Integer maxConcurrentFetches,
+    /**
+     * How often the closed/active flags of a currently trading market are re-read; everything else is cached per slug.
+     */
+    @NotNull @Min(0) Integer flagRecheckSeconds,
+    /**
+     * Markets opening within this window are subscribed ahead of their start, so the book is live at t=0.
+     */
+    @NotNull @Min(0) Integer preSubscribeSeconds
 ) {
   public MarketWsProperties {
     if (enabled == null) {
@@ -38,6 +50,15 @@ public record MarketWsProperties(
     if (requestDelayMillis == null) {
       requestDelayMillis = 100L;
     }
+    if (maxConcurrentFetches == null) {
+      maxConcurrentFetches = 4;
+    }
+    if (flagRecheckSeconds == null) {
+      flagRecheckSeconds = 60;
+    }
+    if (preSubscribeSeconds == null) {
+      preSubscribeSeconds = 900;
+    }
   }
 }
 
@@ -0,0 +1,61 @@
+package com.polybot.ingestor.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.List;
+
+@Validated
+@ConfigurationProperties(prefix = "ingestor.polygon.log-scan")
+public record PolygonLogScanProperties(
+    @NotNull Boolean enabled,
+    @NotNull @Min(1) Integer intervalSeconds,
+    /**
+     * Exchange contracts whose OrderFilled / OrdersMatched logs are scanned.
+     */
+    List<String> exchangeAddresses,
+    /**
+     * Largest eth_getLogs block range. The range is halved when the provider rejects a query as too large and grows
+     * back after consecutive successes.
+     */
+    @NotNull @Min(1) Integer maxBlockRange,
+    /**
+     * Blocks behind head that are not scanned yet (reorg safety).
+     */
+    @NotNull @PositiveOrZero Integer confirmations,
+    /**
+     * Where to start when there is no checkpoint for the target proxy: head minus this many blocks.
+     */
+    @NotNull @PositiveOrZero Long initialLookbackBlocks,
+    /**
+     * Upper bound on eth_getLogs ranges per scheduled run, so catch-up happens over several runs.
+     */
+    @NotNull @Min(1) Integer maxRangesPerRun
+) {
+  public PolygonLogScanProperties {
+    if (enabled == null) {
+      enabled = false;
+    }
+    if (intervalSeconds == null) {
+      intervalSeconds = 15;
+    }
+    if (exchangeAddresses == null || exchangeAddresses.isEmpty()) {
+      exchangeAddresses = List.of("0x4bfb41d5b3570defd03c39a9a4d8de6bd8b8982e");
+    }
+    if (maxBlockRange == null) {
+      maxBlockRange = 2_000;
+    }
+    if (confirmations == null) {
+      confirmations = 20;
+    }
+    if (initialLookbackBlocks == null) {
+      initialLookbackBlocks = 43_200L;
+    }
+    if (maxRangesPerRun == null) {
+      maxRangesPerRun = 20;
+    }
+  }
+}
@@ -14,11 +14,23 @@ public record PolygonProperties(
     URI rpcUrl,
     @NotNull @Min(1) Integer pollIntervalMillis,
     @NotNull @Min(1) Integer maxReceiptsPerPoll,
+    /**
+     * Base backoff after the RPC provider throttles us (HTTP 429 / -32005); doubles on repeated throttling.
+     */
     @NotNull @Min(0) Long requestDelayMillis,
     /**
-     * Concurrent workers for receipt fetching. When 1, behavior is essentially single-threaded.
+     * Upper bound on concurrent JSON-RPC batch requests. The effective concurrency adapts between 1 and this
+     * value based on observed latency and throttling.
      */
     @NotNull @Min(1) Integer receiptWorkers,
+    /**
+     * Transactions per eth_getTransactionReceipt JSON-RPC batch.
+     */
+    @NotNull @Min(1) Integer receiptBatchSize,
+    /**
+     * Batches slower than this shrink the concurrency limit; faster ones grow it.
+     */
+    @NotNull @Min(1) Long targetBatchLatencyMillis,
     /**
      * Cache size for blockNumber->timestamp lookups to avoid repeated eth_getBlockByNumber calls.
      */
@@ -43,6 +55,12 @@ public record PolygonProperties(
     if (receiptWorkers == null) {
       receiptWorkers = 1;
     }
+    if (receiptBatchSize == null) {
+      receiptBatchSize = 25;
+    }
+    if (targetBatchLatencyMillis == null) {
+      targetBatchLatencyMillis = 1_500L;
+    }
     if (blockTimestampCacheSize == null) {
       blockTimestampCacheSize = 50_000;
     }
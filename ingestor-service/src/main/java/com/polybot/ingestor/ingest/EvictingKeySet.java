@@ -1,67 +1,260 @@
 package com.polybot.ingestor.ingest;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Bounded dedupe set for string keys (trade keys, tx hashes). Oldest entries are evicted first.
+ *
+ * Keys are stored only as 64-bit hashes in striped open-addressing tables (linear probing, backward-shift
+ * deletion), so an entry costs a few dozen bytes instead of a String plus a LinkedHashMap node. Each stripe has its
+ * own lock and FIFO ring, so eviction order is FIFO per stripe (approximately FIFO overall).
+ *
+ * Two distinct keys with the same 64-bit hash are treated as equal. At 250k entries the chance of any collision is
+ * around 1e-9, which is acceptable for deduplicating ingestion (the worst case is one skipped event).
+ */
 public final class EvictingKeySet {
 
+  private static final int MAX_STRIPES = 64;
+  private static final int MIN_ENTRIES_PER_STRIPE = 1_024;
+  private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
   private final int maxSize;
-  private final LinkedHashMap<String, Boolean> map;
+  private final Stripe[] stripes;
+  private final int stripeMask;
 
   public EvictingKeySet(int maxSize) {
     if (maxSize <= 0) {
       throw new IllegalArgumentException("maxSize must be > 0");
     }
     this.maxSize = maxSize;
-    this.map = new LinkedHashMap<>(Math.min(maxSize, 16), 0.75f, false);
+    int n = 1;
+    while (n < MAX_STRIPES && (long) maxSize / (n * 2L) >= MIN_ENTRIES_PER_STRIPE) {
+      n *= 2;
+    }
+    this.stripes = new Stripe[n];
+    int perStripe = (maxSize + n - 1) / n;
+    for (int i = 0; i < n; i++) {
+      stripes[i] = new Stripe(perStripe);
+    }
+    this.stripeMask = n - 1;
+  }
+
+  public boolean add(String key) {
+    long h = hashOrZero(key);
+    return h != 0 && stripe(h).add(h);
+  }
+
+  public boolean contains(String key) {
+    long h = hashOrZero(key);
+    return h != 0 && stripe(h).contains(h);
+  }
+
+  public boolean remove(String key) {
+    long h = hashOrZero(key);
+    return h != 0 && stripe(h).remove(h);
   }
 
-  public synchronized boolean add(String key) {
-    if (key == null) {
-      return false;
+  public int size() {
+    int total = 0;
+    for (Stripe s : stripes) {
+      total += s.size();
     }
-    String k = key.trim();
-    if (k.isEmpty()) {
-      return false;
+    return total;
+  }
+
+  public int maxSize() {
+    return maxSize;
+  }
+
+  private Stripe stripe(long h) {
+    // Low bits pick the table slot; use high bits for the stripe so the two are independent.
+    return stripes[(int) (h >>> 58) & stripeMask];
+  }
+
+  /**
+   * 64-bit hash of the trimmed key's UTF-8 bytes, read 8 bytes at a time (murmur3-style mixing, fmix64 finalizer).
+   * Returns 0 for null/blank keys; a real hash of 0 is remapped to 1 because 0 marks empty slots.
+   */
+  static long hashOrZero(String key) {
+    if (key == null || key.isEmpty()) {
+      return 0L;
     }
-    if (map.containsKey(k)) {
-      return false;
+    if (key.charAt(0) <= ' ' || key.charAt(key.length() - 1) <= ' ') {
+      key = key.trim();
+      if (key.isEmpty()) {
+        return 0L;
+      }
     }
-    map.put(k, Boolean.TRUE);
-    if (map.size() > maxSize) {
-      String eldest = map.keySet().iterator().next();
-      map.remove(eldest);
+    byte[] b = key.getBytes(StandardCharsets.UTF_8);
+    long h = 0x9e3779b97f4a7c15L ^ b.length;
+    int i = 0;
+    for (; i + 8 <= b.length; i += 8) {
+      h ^= mixWord((long) LONGS.get(b, i));
+      h = Long.rotateLeft(h, 27) * 5 + 0x52dce729L;
     }
-    return true;
+    long tail = 0;
+    for (int shift = 0; i < b.length; i++, shift += 8) {
+      tail |= (b[i] & 0xffL) << shift;
+    }
+    h ^= mixWord(tail);
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h == 0 ? 1L : h;
+  }
+
+  private static long mixWord(long v) {
+    v *= 0x87c37b91114253d5L;
+    v = Long.rotateLeft(v, 31);
+    return v * 0x4cf5ad432745937fL;
   }
 
-  public synchronized boolean contains(String key) {
-    if (key == null) {
-      return false;
+  /**
+   * Open-addressing table plus a FIFO ring of (hash, seq) insertions. A ring entry whose seq no longer matches
+   * the table (the key was removed, or removed and re-added) is stale and is skipped on eviction.
+   */
+  private static final class Stripe {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] keys;
+    private final int[] seqs;
+    private final int mask;
+
+    private final long[] ringKeys;
+    private final int[] ringSeqs;
+    private int ringHead;
+    private int ringCount;
+
+    private int size;
+    private int nextSeq;
+
+    private Stripe(int capacity) {
+      int tableSize = Integer.highestOneBit(Math.max(4, capacity * 2 - 1)) << 1;
+      this.keys = new long[tableSize];
+      this.seqs = new int[tableSize];
+      this.mask = tableSize - 1;
+      this.ringKeys = new long[capacity];
+      this.ringSeqs = new int[capacity];
     }
-    String k = key.trim();
-    if (k.isEmpty()) {
-      return false;
+
+    boolean add(long h) {
+      lock.lock();
+      try {
+        int slot = find(h);
+        if (slot >= 0) {
+          return false;
+        }
+        if (ringCount == ringKeys.length) {
+          evictOldest();
+        }
+        int seq = nextSeq++;
+        insert(h, seq);
+        int tail = (ringHead + ringCount) % ringKeys.length;
+        ringKeys[tail] = h;
+        ringSeqs[tail] = seq;
+        ringCount++;
+        return true;
+      } finally {
+        lock.unlock();
+      }
     }
-    return map.containsKey(k);
-  }
 
-  public synchronized boolean remove(String key) {
-    if (key == null) {
-      return false;
+    boolean contains(long h) {
+      lock.lock();
+      try {
+        return find(h) >= 0;
+      } finally {
+        lock.unlock();
+      }
     }
-    String k = key.trim();
-    if (k.isEmpty()) {
-      return false;
+
+    boolean remove(long h) {
+      lock.lock();
+      try {
+        int slot = find(h);
+        if (slot < 0) {
+          return false;
+        }
+        delete(slot);
+        return true;
+      } finally {
+        lock.unlock();
+      }
     }
-    return map.remove(k) != null;
-  }
 
-  public synchronized int size() {
-    return map.size();
-  }
+    int size() {
+      lock.lock();
+      try {
+        return size;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void evictOldest() {
+      long h = ringKeys[ringHead];
+      int seq = ringSeqs[ringHead];
+      ringHead = (ringHead + 1) % ringKeys.length;
+      ringCount--;
+      int slot = find(h);
+      if (slot >= 0 && seqs[slot] == seq) {
+        delete(slot);
+      }
+    }
+
+    private int find(long h) {
+      int i = (int) h & mask;
+      while (true) {
+        long k = keys[i];
+        if (k == 0) {
+          return -1;
+        }
+        if (k == h) {
+          return i;
+        }
+        i = (i + 1) & mask;
+      }
+    }
+
+    private void insert(long h, int seq) {
+      int i = (int) h & mask;
+      while (keys[i] != 0) {
+        i = (i + 1) & mask;
+      }
+      keys[i] = h;
+      seqs[i] = seq;
+      size++;
+    }
 
-  public synchronized Map<String, Boolean> snapshot() {
-    return Map.copyOf(map);
+    /**
+     * Backward-shift deletion keeps probe chains intact without tombstones.
+     */
+    private void delete(int slot) {
+      int hole = slot;
+      int i = slot;
+      while (true) {
+        i = (i + 1) & mask;
+        long k = keys[i];
+        if (k == 0) {
+          break;
+        }
+        int home = (int) k & mask;
+        // Move k into the hole if its home slot is not cyclically within (hole, i].
+        boolean movable = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+        if (movable) {
+          keys[hole] = k;
+          seqs[hole] = seqs[i];
+          hole = i;
+        }
+      }
+      keys[hole] = 0;
+      seqs[hole] = 0;
+      size--;
+    }
   }
 }
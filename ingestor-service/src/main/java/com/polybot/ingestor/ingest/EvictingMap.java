@@ -1,45 +1,123 @@
 package com.polybot.ingestor.ingest;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Bounded map, oldest insertions evicted first. Keys are spread over independently locked stripes (FIFO per
+ * stripe) so concurrent readers and writers do not contend on one monitor.
+ */
 public final class EvictingMap<K, V> {
 
-  private final int maxSize;
-  private final LinkedHashMap<K, V> map;
+  private static final int MAX_STRIPES = 16;
+  private static final int MIN_ENTRIES_PER_STRIPE = 256;
 
+  private final Stripe<K, V>[] stripes;
+  private final int stripeMask;
+
+  @SuppressWarnings("unchecked")
   public EvictingMap(int maxSize) {
     if (maxSize <= 0) {
       throw new IllegalArgumentException("maxSize must be > 0");
     }
-    this.maxSize = maxSize;
-    this.map = new LinkedHashMap<>(Math.min(maxSize, 16), 0.75f, false);
+    int n = 1;
+    while (n < MAX_STRIPES && maxSize / (n * 2) >= MIN_ENTRIES_PER_STRIPE) {
+      n *= 2;
+    }
+    this.stripes = new Stripe[n];
+    int perStripe = (maxSize + n - 1) / n;
+    for (int i = 0; i < n; i++) {
+      stripes[i] = new Stripe<>(perStripe);
+    }
+    this.stripeMask = n - 1;
   }
 
-  public synchronized V get(K key) {
+  public V get(K key) {
     if (key == null) {
       return null;
     }
-    return map.get(key);
+    return stripe(key).get(key);
   }
 
-  public synchronized void put(K key, V value) {
+  public void put(K key, V value) {
     if (key == null) {
       return;
     }
-    map.put(key, value);
-    if (map.size() > maxSize) {
-      K eldest = map.keySet().iterator().next();
-      map.remove(eldest);
+    stripe(key).put(key, value);
+  }
+
+  public int size() {
+    int total = 0;
+    for (Stripe<K, V> s : stripes) {
+      total += s.size();
     }
+    return total;
   }
 
-  public synchronized int size() {
-    return map.size();
+  public Map<K, V> snapshot() {
+    Map<K, V> out = new HashMap<>();
+    for (Stripe<K, V> s : stripes) {
+      s.copyInto(out);
+    }
+    return Map.copyOf(out);
   }
 
-  public synchronized Map<K, V> snapshot() {
-    return Map.copyOf(map);
+  private Stripe<K, V> stripe(K key) {
+    int h = key.hashCode();
+    h ^= h >>> 16;
+    return stripes[h & stripeMask];
   }
-}
 
+  private static final class Stripe<K, V> {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int maxSize;
+    private final LinkedHashMap<K, V> map;
+
+    private Stripe(int maxSize) {
+      this.maxSize = maxSize;
+      this.map = new LinkedHashMap<>(Math.min(maxSize, 16), 0.75f, false);
+    }
+
+    V get(K key) {
+      lock.lock();
+      try {
+        return map.get(key);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void put(K key, V value) {
+      lock.lock();
+      try {
+        map.put(key, value);
+        if (map.size() > maxSize) {
+          K eldest = map.keySet().iterator().next();
+          map.remove(eldest);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int size() {
+      lock.lock();
+      try {
+        return map.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void copyInto(Map<K, V> out) {
+      lock.lock();
+      try {
+        out.putAll(map);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
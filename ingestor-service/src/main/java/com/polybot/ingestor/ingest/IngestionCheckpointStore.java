@@ -0,0 +1,331 @@
+package com.polybot.ingestor.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polybot.ingestor.config.CheckpointProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local, atomically replaced checkpoint file for ingestion progress, so restarts resume instead of re-scanning:
+ * <ul>
+ *   <li>per-target trade cursor (newest trade timestamp + most recent trade keys) and full-backfill progress,</li>
+ *   <li>pending Polygon receipt tx hashes,</li>
+ *   <li>next block per proxy for the eth_getLogs scanner,</li>
+ *   <li>last published gamma signature per market slug.</li>
+ * </ul>
+ * Updates are in-memory; the file is rewritten (tmp + atomic move) on a timer when dirty and on shutdown.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IngestionCheckpointStore {
+
+  private final @NonNull CheckpointProperties properties;
+  private final @NonNull ObjectMapper objectMapper;
+  private final @NonNull Clock clock;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<String, TradeState> tradesByTarget = new HashMap<>();
+  private final Map<String, Long> logScanNextBlockByProxy = new HashMap<>();
+  private final LinkedHashMap<String, String> gammaSignatureBySlug = new LinkedHashMap<>(16, 0.75f, true);
+  private List<PendingReceipt> pendingReceipts = List.of();
+  private boolean dirty;
+  private volatile long lastFlushAtMillis;
+
+  @PostConstruct
+  void load() {
+    if (!properties.enabled()) {
+      return;
+    }
+    Path path = Path.of(properties.path());
+    if (!Files.exists(path)) {
+      return;
+    }
+    try {
+      Snapshot snapshot = objectMapper.readValue(Files.readString(path), Snapshot.class);
+      if (snapshot == null) {
+        return;
+      }
+      lock.lock();
+      try {
+        if (snapshot.trades() != null) {
+          snapshot.trades().forEach((target, cursor) -> {
+            TradeState state = new TradeState();
+            state.lastTradeTsSeconds = cursor.lastTradeTsSeconds();
+            state.fullBackfillOffset = cursor.fullBackfillOffset();
+            state.fullBackfillComplete = cursor.fullBackfillComplete();
+            if (cursor.recentKeys() != null) {
+              state.recentKeys.addAll(cursor.recentKeys());
+            }
+            tradesByTarget.put(target, state);
+          });
+        }
+        if (snapshot.logScanNextBlock() != null) {
+          logScanNextBlockByProxy.putAll(snapshot.logScanNextBlock());
+        }
+        if (snapshot.gammaSignatures() != null) {
+          gammaSignatureBySlug.putAll(snapshot.gammaSignatures());
+        }
+        if (snapshot.pendingReceipts() != null) {
+          pendingReceipts = List.copyOf(snapshot.pendingReceipts());
+        }
+      } finally {
+        lock.unlock();
+      }
+      log.info("Loaded ingestion checkpoints from {} (savedAt={} targets={} pendingReceipts={} gammaSignatures={})",
+          path, snapshot.savedAt(), tradesByTarget.size(), pendingReceipts.size(), gammaSignatureBySlug.size());
+    } catch (Exception e) {
+      log.warn("Failed to load ingestion checkpoints from {}: {}", path, e.getMessage());
+    }
+  }
+
+  public TradeCursor tradeCursor(String target) {
+    lock.lock();
+    try {
+      TradeState state = tradesByTarget.get(key(target));
+      return state == null ? null : state.toCursor();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void recordTrade(String target, long tsSeconds, String tradeKey) {
+    lock.lock();
+    try {
+      TradeState state = tradesByTarget.computeIfAbsent(key(target), k -> new TradeState());
+      state.lastTradeTsSeconds = Math.max(state.lastTradeTsSeconds, tsSeconds);
+      state.recentKeys.addLast(tradeKey);
+      while (state.recentKeys.size() > properties.recentTradeKeysPerTarget()) {
+        state.recentKeys.removeFirst();
+      }
+      dirty = true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Offset (into the newest-first trade list) the FULL backfill has paged past; a restart resumes from here.
+   */
+  public void recordFullBackfillProgress(String target, int offset) {
+    lock.lock();
+    try {
+      TradeState state = tradesByTarget.computeIfAbsent(key(target), k -> new TradeState());
+      if (offset > state.fullBackfillOffset) {
+        state.fullBackfillOffset = offset;
+        dirty = true;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void markFullBackfillComplete(String target) {
+    lock.lock();
+    try {
+      TradeState state = tradesByTarget.computeIfAbsent(key(target), k -> new TradeState());
+      if (!state.fullBackfillComplete) {
+        state.fullBackfillComplete = true;
+        dirty = true;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public Long logScanNextBlock(String proxy) {
+    lock.lock();
+    try {
+      return logScanNextBlockByProxy.get(key(proxy));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void setLogScanNextBlock(String proxy, long nextBlock) {
+    lock.lock();
+    try {
+      Long prev = logScanNextBlockByProxy.put(key(proxy), nextBlock);
+      dirty |= prev == null || prev != nextBlock;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public String gammaSignature(String slug) {
+    lock.lock();
+    try {
+      return gammaSignatureBySlug.get(slug);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void setGammaSignature(String slug, String signature) {
+    lock.lock();
+    try {
+      gammaSignatureBySlug.put(slug, signature);
+      while (gammaSignatureBySlug.size() > properties.maxGammaSignatures()) {
+        gammaSignatureBySlug.remove(gammaSignatureBySlug.keySet().iterator().next());
+      }
+      dirty = true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public List<PendingReceipt> pendingReceipts() {
+    lock.lock();
+    try {
+      return pendingReceipts;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void setPendingReceipts(Collection<PendingReceipt> pending) {
+    List<PendingReceipt> bounded = pending.stream().limit(properties.maxPendingReceipts()).toList();
+    lock.lock();
+    try {
+      if (!bounded.equals(pendingReceipts)) {
+        pendingReceipts = bounded;
+        dirty = true;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Scheduled(initialDelayString = "5000", fixedDelayString = "${ingestor.checkpoint.flush-interval-millis:2000}")
+  public void flushIfDirty() {
+    if (!properties.enabled()) {
+      return;
+    }
+    Snapshot snapshot;
+    lock.lock();
+    try {
+      if (!dirty) {
+        return;
+      }
+      snapshot = snapshotLocked();
+      dirty = false;
+    } finally {
+      lock.unlock();
+    }
+    try {
+      write(snapshot);
+      lastFlushAtMillis = Instant.now(clock).toEpochMilli();
+    } catch (Exception e) {
+      lock.lock();
+      try {
+        dirty = true;
+      } finally {
+        lock.unlock();
+      }
+      log.warn("Ingestion checkpoint flush failed path={} error={}", properties.path(), e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  void close() {
+    flushIfDirty();
+  }
+
+  private Snapshot snapshotLocked() {
+    Map<String, TradeCursor> trades = new HashMap<>();
+    tradesByTarget.forEach((k, v) -> trades.put(k, v.toCursor()));
+    return new Snapshot(
+        Instant.now(clock),
+        trades,
+        new HashMap<>(logScanNextBlockByProxy),
+        new LinkedHashMap<>(gammaSignatureBySlug),
+        pendingReceipts
+    );
+  }
+
+  private void write(Snapshot snapshot) throws Exception {
+    Path path = Path.of(properties.path());
+    Path parent = path.getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    String json = objectMapper.writeValueAsString(snapshot);
+    Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+    Files.writeString(tmp, json, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    try {
+      Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (Exception e) {
+      Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static String key(String address) {
+    return address == null ? "" : address.trim().toLowerCase(Locale.ROOT);
+  }
+
+  public long lastFlushAtMillis() {
+    return lastFlushAtMillis;
+  }
+
+  private static final class TradeState {
+    private long lastTradeTsSeconds;
+    private final ArrayDeque<String> recentKeys = new ArrayDeque<>();
+    private int fullBackfillOffset;
+    private boolean fullBackfillComplete;
+
+    private TradeCursor toCursor() {
+      return new TradeCursor(lastTradeTsSeconds, new ArrayList<>(recentKeys), fullBackfillOffset, fullBackfillComplete);
+    }
+  }
+
+  /**
+   * @param lastTradeTsSeconds   newest trade published; not a bound on history, since FULL pages newest-first
+   * @param fullBackfillOffset   how far the FULL backfill has paged
+   * @param fullBackfillComplete whether the FULL backfill reached the end of the history (absent in older files)
+   */
+  public record TradeCursor(
+      long lastTradeTsSeconds,
+      List<String> recentKeys,
+      int fullBackfillOffset,
+      boolean fullBackfillComplete
+  ) {
+  }
+
+  public record PendingReceipt(
+      String txHash,
+      String username,
+      String proxyAddress,
+      String tradeKey
+  ) {
+  }
+
+  public record Snapshot(
+      Instant savedAt,
+      Map<String, TradeCursor> trades,
+      Map<String, Long> logScanNextBlock,
+      Map<String, String> gammaSignatures,
+      List<PendingReceipt> pendingReceipts
+  ) {
+  }
+}
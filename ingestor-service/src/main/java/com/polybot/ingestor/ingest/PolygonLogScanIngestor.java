@@ -0,0 +1,336 @@
+package com.polybot.ingestor.ingest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.polybot.hft.events.HftEventPublisher;
+import com.polybot.ingestor.config.PolygonLogScanProperties;
+import com.polybot.ingestor.polygon.ExchangeLogDecoder;
+import com.polybot.ingestor.polygon.PolygonJsonRpcClient;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Scans CTF Exchange OrderFilled / OrdersMatched logs for each target proxy with eth_getLogs over block ranges and
+ * publishes decoded fills. For a known proxy this is much cheaper than fetching a receipt for every trade.
+ *
+ * Every order the proxy signed gets its own OrderFilled with the proxy as maker, so one filter (proxy in topic[2])
+ * finds all of its fills and each is published once. A match also logs the taker order's fill a second time as
+ * OrdersMatched, and logs each counterparty's fill with the proxy as taker; neither is published. OrdersMatched only
+ * tells which of the proxy's fills took liquidity.
+ *
+ * A range the provider rejects as too large (range or result count) is halved until it succeeds. Any other failure
+ * keeps the range and backs off before retrying it. The next block per proxy is kept in
+ * {@link IngestionCheckpointStore} so restarts resume where they stopped.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PolygonLogScanIngestor {
+
+  public static final String ORDER_FILLED_EVENT_TYPE = "polygon.exchange.order_filled";
+
+  private static final Pattern ETH_ADDRESS = Pattern.compile("^0x[a-fA-F0-9]{40}$");
+  private static final int CHAIN_ID_POLYGON = 137;
+  private static final int GROW_AFTER_SUCCESSES = 3;
+  private static final long RETRY_MIN_MILLIS = 15_000L;
+  private static final long RETRY_MAX_MILLIS = 600_000L;
+  private static final BigDecimal ONE_MILLION = BigDecimal.valueOf(1_000_000L);
+
+  private final @NonNull PolygonLogScanProperties properties;
+  private final @NonNull PolygonJsonRpcClient rpc;
+  private final @NonNull PolymarketUserIngestor userIngestor;
+  private final @NonNull HftEventPublisher events;
+  private final @NonNull IngestionCheckpointStore checkpoints;
+  private final @NonNull ObjectMapper objectMapper;
+  private final @NonNull Clock clock;
+
+  private final AtomicLong runs = new AtomicLong(0);
+  private final AtomicLong scannedRanges = new AtomicLong(0);
+  private final AtomicLong rangeSplits = new AtomicLong(0);
+  private final AtomicLong publishedFills = new AtomicLong(0);
+  private final AtomicLong failures = new AtomicLong(0);
+
+  private volatile int blockRange;
+  private volatile int consecutiveFailures;
+  private volatile long retryAtMillis;
+  private volatile long lastScannedBlock;
+  private volatile long headBlock;
+
+  @Scheduled(
+      initialDelayString = "20000",
+      fixedDelayString = "${ingestor.polygon.log-scan.interval-seconds:15}000"
+  )
+  public void scan() {
+    if (!properties.enabled()) {
+      return;
+    }
+    if (!events.isEnabled()) {
+      return;
+    }
+    List<String> proxies = userIngestor.targets().stream()
+        .map(PolymarketUserIngestor.TargetStatus::proxyAddress)
+        .filter(p -> p != null && ETH_ADDRESS.matcher(p).matches())
+        .map(p -> p.trim().toLowerCase(Locale.ROOT))
+        .distinct()
+        .toList();
+    if (proxies.isEmpty()) {
+      return;
+    }
+
+    if (clock.millis() < retryAtMillis) {
+      return;
+    }
+
+    runs.incrementAndGet();
+    if (blockRange <= 0) {
+      blockRange = properties.maxBlockRange();
+    }
+
+    long safeHead;
+    try {
+      long head = rpc.blockNumber();
+      headBlock = head;
+      safeHead = head - properties.confirmations();
+    } catch (Exception e) {
+      failures.incrementAndGet();
+      log.debug("polygon log scan head lookup failed: {}", e.toString());
+      return;
+    }
+
+    for (String proxy : proxies) {
+      scanProxy(proxy, safeHead);
+      if (clock.millis() < retryAtMillis) {
+        return;
+      }
+    }
+  }
+
+  private void scanProxy(String proxy, long safeHead) {
+    Long checkpoint = checkpoints.logScanNextBlock(proxy);
+    long from = checkpoint != null ? checkpoint : Math.max(0, safeHead - properties.initialLookbackBlocks());
+    int successes = 0;
+    int ranges = 0;
+    while (from <= safeHead && ranges < properties.maxRangesPerRun()) {
+      long to = Math.min(safeHead, from + blockRange - 1);
+      List<Fill> fills;
+      try {
+        fills = fetchFills(proxy, from, to);
+      } catch (PolygonJsonRpcClient.RateLimitedException e) {
+        log.debug("polygon log scan throttled from={} to={}", from, to);
+        break;
+      } catch (PolygonJsonRpcClient.RpcErrorException e) {
+        if (PolygonJsonRpcClient.isRangeTooLarge(e.error()) && blockRange > 1) {
+          blockRange = Math.max(1, blockRange / 2);
+          rangeSplits.incrementAndGet();
+          successes = 0;
+          continue;
+        }
+        backOff(from, to, e);
+        break;
+      } catch (Exception e) {
+        backOff(from, to, e);
+        break;
+      }
+
+      consecutiveFailures = 0;
+      ranges++;
+      scannedRanges.incrementAndGet();
+      publish(proxy, fills);
+
+      from = to + 1;
+      lastScannedBlock = to;
+      checkpoints.setLogScanNextBlock(proxy, from);
+
+      if (++successes >= GROW_AFTER_SUCCESSES && blockRange < properties.maxBlockRange()) {
+        blockRange = Math.min(properties.maxBlockRange(), blockRange * 2);
+        successes = 0;
+      }
+    }
+  }
+
+  /**
+   * Keeps the range and holds off the whole scan, doubling the wait on each consecutive failure.
+   */
+  private void backOff(long from, long to, Exception e) {
+    failures.incrementAndGet();
+    long backoffMillis = Math.min(RETRY_MAX_MILLIS, RETRY_MIN_MILLIS << Math.min(consecutiveFailures, 16));
+    consecutiveFailures++;
+    retryAtMillis = clock.millis() + backoffMillis;
+    log.warn("polygon log scan failed from={} to={} attempt={} retryInMillis={} error={}",
+        from, to, consecutiveFailures, backoffMillis, e.toString());
+  }
+
+  /**
+   * The proxy's own fills in the range, each paired with whether it was the taker order of its match.
+   */
+  private List<Fill> fetchFills(String proxy, long from, long to) {
+    // topic[2] = OrderFilled.maker / OrdersMatched.takerOrderMaker
+    ArrayNode topics = objectMapper.createArrayNode();
+    topics.addArray().add(ExchangeLogDecoder.ORDER_FILLED_TOPIC).add(ExchangeLogDecoder.ORDERS_MATCHED_TOPIC);
+    topics.addNull();
+    topics.add(ExchangeLogDecoder.addressTopic(proxy));
+
+    JsonNode result = rpc.getLogs(filter(from, to, topics));
+    if (!result.isArray()) {
+      throw new IllegalStateException("eth_getLogs returned non-array result");
+    }
+    Map<String, ExchangeLogDecoder.OrderFilled> filled = new HashMap<>();
+    Set<String> takerOrders = new HashSet<>();
+    for (JsonNode l : result) {
+      switch (ExchangeLogDecoder.decode(l)) {
+        case ExchangeLogDecoder.OrderFilled f when proxy.equals(f.maker()) -> filled.putIfAbsent(f.eventKey(), f);
+        case ExchangeLogDecoder.OrdersMatched m -> takerOrders.add(m.txHash() + ":" + m.takerOrderHash());
+        case null, default -> {
+        }
+      }
+    }
+    List<Fill> out = new ArrayList<>(filled.size());
+    for (ExchangeLogDecoder.OrderFilled f : filled.values()) {
+      // The taker order's OrderFilled names the exchange as taker; a resting order's names the taker order's maker.
+      boolean taker = takerOrders.contains(f.txHash() + ":" + f.orderHash()) || f.exchange().equals(f.taker());
+      out.add(new Fill(f, taker));
+    }
+    out.sort(Comparator.comparingLong((Fill fill) -> fill.log().blockNumber())
+        .thenComparingLong(fill -> fill.log().logIndex()));
+    return out;
+  }
+
+  private ObjectNode filter(long from, long to, ArrayNode topics) {
+    ObjectNode filter = objectMapper.createObjectNode();
+    filter.put("fromBlock", "0x" + Long.toHexString(from));
+    filter.put("toBlock", "0x" + Long.toHexString(to));
+    ArrayNode addresses = filter.putArray("address");
+    properties.exchangeAddresses().forEach(a -> addresses.add(a.trim().toLowerCase(Locale.ROOT)));
+    filter.set("topics", topics);
+    return filter;
+  }
+
+  private void publish(String proxy, List<Fill> fills) {
+    if (fills.isEmpty()) {
+      return;
+    }
+    Map<Long, Instant> blockTimes = blockTimestamps(fills);
+    Instant capturedAt = Instant.now(clock);
+    for (Fill fill : fills) {
+      ExchangeLogDecoder.OrderFilled l = fill.log();
+      Instant blockTs = blockTimes.getOrDefault(l.blockNumber(), capturedAt);
+      Map<String, Object> data = new LinkedHashMap<>();
+      data.put("chainId", CHAIN_ID_POLYGON);
+      data.put("txHash", l.txHash());
+      data.put("logIndex", l.logIndex());
+      data.put("blockNumber", l.blockNumber());
+      data.put("blockTimestamp", blockTs.toString());
+      data.put("exchange", l.exchange());
+      data.put("proxyAddress", proxy);
+      data.put("proxyRole", fill.taker() ? "TAKER" : "MAKER");
+      data.put("orderHash", l.orderHash());
+      data.put("maker", l.maker());
+      data.put("taker", l.taker());
+      data.put("fee", scaled(l.fee()));
+
+      BigDecimal usdc = scaled(l.usdcAmountRaw());
+      BigDecimal shares = scaled(l.sharesAmountRaw());
+      data.put("makerAssetId", l.makerAssetId().toString());
+      data.put("takerAssetId", l.takerAssetId().toString());
+      data.put("tokenId", l.tokenId().toString());
+      data.put("makerSide", l.makerBuys() ? "BUY" : "SELL");
+      data.put("usdcAmount", usdc);
+      data.put("sharesAmount", shares);
+      if (shares.signum() > 0) {
+        data.put("price", usdc.divide(shares, 6, RoundingMode.HALF_UP));
+      }
+      data.put("capturedAt", capturedAt.toString());
+
+      events.publish(blockTs, ORDER_FILLED_EVENT_TYPE, l.eventKey(), data);
+      publishedFills.incrementAndGet();
+    }
+  }
+
+  private Map<Long, Instant> blockTimestamps(List<Fill> fills) {
+    List<Long> blocks = new ArrayList<>(new TreeSet<>(fills.stream().map(f -> f.log().blockNumber()).toList()));
+    Map<Long, Instant> out = new HashMap<>();
+    try {
+      List<PolygonJsonRpcClient.Result> results = rpc.batch(blocks.stream()
+          .map(b -> rpc.blockRequest("0x" + Long.toHexString(b)))
+          .toList());
+      for (int i = 0; i < blocks.size(); i++) {
+        PolygonJsonRpcClient.Result r = results.get(i);
+        if (r.isError() || r.result() == null) {
+          continue;
+        }
+        String hex = r.result().path("timestamp").asText("");
+        if (hex.startsWith("0x") && hex.length() > 2) {
+          out.put(blocks.get(i), Instant.ofEpochSecond(Long.parseLong(hex.substring(2), 16)));
+        }
+      }
+    } catch (Exception ignored) {
+      // Timestamp enrichment is optional; fall back to capture time.
+    }
+    return out;
+  }
+
+  private static BigDecimal scaled(BigInteger raw) {
+    return new BigDecimal(raw).divide(ONE_MILLION, 6, RoundingMode.UNNECESSARY);
+  }
+
+  public long runs() {
+    return runs.get();
+  }
+
+  public long scannedRanges() {
+    return scannedRanges.get();
+  }
+
+  public long rangeSplits() {
+    return rangeSplits.get();
+  }
+
+  public long publishedFills() {
+    return publishedFills.get();
+  }
+
+  public long failures() {
+    return failures.get();
+  }
+
+  public int blockRange() {
+    return blockRange;
+  }
+
+  public long lastScannedBlock() {
+    return lastScannedBlock;
+  }
+
+  public long headBlock() {
+    return headBlock;
+  }
+
+  private record Fill(
+      ExchangeLogDecoder.OrderFilled log,
+      boolean taker
+  ) {
+  }
+}
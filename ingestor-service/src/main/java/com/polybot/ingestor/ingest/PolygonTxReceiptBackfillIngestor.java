@@ -47,17 +47,26 @@ public class PolygonTxReceiptBackfillIngestor {
       return;
     }
 
-    PolymarketUserIngestor.TargetStatus t = userIngestor.target();
-    if (t == null || t.proxyAddress() == null || !ETH_ADDRESS.matcher(t.proxyAddress()).matches()) {
+    List<PolymarketUserIngestor.TargetStatus> targets = userIngestor.targets().stream()
+        .filter(t -> t.proxyAddress() != null && ETH_ADDRESS.matcher(t.proxyAddress()).matches())
+        .toList();
+    if (targets.isEmpty()) {
       return;
     }
 
-    int batch = Math.max(1, backfill.batchSize());
+    // Split the batch evenly so every target gets a share of each run.
+    int perTarget = Math.max(1, Math.max(1, backfill.batchSize()) / targets.size());
+    for (PolymarketUserIngestor.TargetStatus t : targets) {
+      backfillTarget(t, perTarget);
+    }
+  }
+
+  private void backfillTarget(PolymarketUserIngestor.TargetStatus t, int batch) {
     List<String> txs;
     try {
       txs = queryMissingTxHashes(t.proxyAddress(), batch);
     } catch (Exception e) {
-      log.debug("polygon receipt backfill query failed: {}", e.toString());
+      log.debug("polygon receipt backfill query failed proxyAddress={}: {}", suffix(t.proxyAddress()), e.toString());
       return;
     }
 
@@ -3,6 +3,7 @@ package com.polybot.ingestor.ingest;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.polybot.hft.events.HftEventPublisher;
 import com.polybot.ingestor.config.PolygonProperties;
+import com.polybot.ingestor.polygon.AdaptiveConcurrencyLimit;
 import com.polybot.ingestor.polygon.PolygonJsonRpcClient;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -15,15 +16,18 @@ import org.springframework.stereotype.Component;
 import java.math.BigInteger;
 import java.time.Clock;
 import java.time.Instant;
-import java.util.Locale;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
@@ -42,12 +46,14 @@ public class PolygonTxReceiptIngestor {
   private static final int DEFAULT_SEEN_TX_CAPACITY = 250_000;
   private static final int MAX_RECEIPT_ATTEMPTS_PER_TX = 200;
   private static final int CHAIN_ID_POLYGON = 137;
+  private static final long CHECKPOINT_INTERVAL_MILLIS = 5_000L;
 
   private static final Pattern TX_HASH = Pattern.compile("^0x[a-fA-F0-9]{64}$");
 
   private final @NonNull PolygonProperties properties;
   private final @NonNull PolygonJsonRpcClient rpc;
   private final @NonNull HftEventPublisher events;
+  private final @NonNull IngestionCheckpointStore checkpoints;
   private final @NonNull Clock clock;
 
   private final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
@@ -62,9 +68,10 @@ public class PolygonTxReceiptIngestor {
   private final AtomicLong publishedReceipts = new AtomicLong(0);
   private final AtomicLong failures = new AtomicLong(0);
   private volatile long lastPollAtMillis;
+  private volatile long lastCheckpointAtMillis;
 
   private volatile ExecutorService receiptPool;
-  private volatile Semaphore inFlightPermits;
+  private volatile AdaptiveConcurrencyLimit concurrency;
   private volatile EvictingMap<String, Instant> blockTimestampCache;
 
   private volatile int receiptWorkers;
@@ -77,8 +84,36 @@ public class PolygonTxReceiptIngestor {
       t.setDaemon(true);
       return t;
     });
-    inFlightPermits = new Semaphore(receiptWorkers);
+    concurrency = new AdaptiveConcurrencyLimit(
+        1,
+        receiptWorkers,
+        properties.targetBatchLatencyMillis(),
+        Math.max(100L, properties.requestDelayMillis())
+    );
     blockTimestampCache = new EvictingMap<>(Math.max(100, properties.blockTimestampCacheSize()));
+    restorePending();
+  }
+
+  /**
+   * Re-enqueues receipts that were still pending when the previous process stopped.
+   */
+  private void restorePending() {
+    List<IngestionCheckpointStore.PendingReceipt> pending = checkpoints.pendingReceipts();
+    if (pending.isEmpty()) {
+      return;
+    }
+    for (IngestionCheckpointStore.PendingReceipt p : pending) {
+      String txHash = p.txHash() == null ? "" : p.txHash().trim().toLowerCase(Locale.ROOT);
+      if (!TX_HASH.matcher(txHash).matches()) {
+        continue;
+      }
+      triggers.putIfAbsent(txHash, new Trigger(p.username(), p.proxyAddress(), p.tradeKey()));
+      if (queued.add(txHash)) {
+        queue.add(txHash);
+        queueDepth.incrementAndGet();
+      }
+    }
+    log.info("polygon receipts restored pending={} from checkpoint", queueDepth.get());
   }
 
   @PreDestroy
@@ -157,62 +192,132 @@ public class PolygonTxReceiptIngestor {
     }
 
     polls.incrementAndGet();
-    lastPollAtMillis = Instant.now(clock).toEpochMilli();
+    long now = Instant.now(clock).toEpochMilli();
+    lastPollAtMillis = now;
 
     int max = properties.maxReceiptsPerPoll();
-    long delayMillis = properties.requestDelayMillis();
+    int batchSize = Math.max(1, properties.receiptBatchSize());
 
-    int processedNow = 0;
-    while (processedNow < max) {
-      Semaphore permits = inFlightPermits;
+    int dispatched = 0;
+    while (dispatched < max) {
+      AdaptiveConcurrencyLimit limit = concurrency;
       ExecutorService pool = receiptPool;
-      if (permits == null || pool == null) {
+      if (limit == null || pool == null) {
         break;
       }
-      if (!permits.tryAcquire()) {
+      if (!limit.tryAcquire(now)) {
         break;
       }
 
+      List<String> batch = takeBatch(Math.min(batchSize, max - dispatched));
+      if (batch.isEmpty()) {
+        limit.onIgnore();
+        break;
+      }
+
+      dispatched += batch.size();
+      pool.execute(() -> fetchAndPublishBatch(batch, limit));
+    }
+
+    if (now - lastCheckpointAtMillis >= CHECKPOINT_INTERVAL_MILLIS) {
+      lastCheckpointAtMillis = now;
+      checkpointPending();
+    }
+  }
+
+  private void checkpointPending() {
+    Set<String> pending = new LinkedHashSet<>(inFlight);
+    pending.addAll(queue);
+    List<IngestionCheckpointStore.PendingReceipt> out = new ArrayList<>(pending.size());
+    for (String txHash : pending) {
+      if (processed.contains(txHash)) {
+        continue;
+      }
+      Trigger t = triggers.get(txHash);
+      out.add(t == null
+          ? new IngestionCheckpointStore.PendingReceipt(txHash, null, null, null)
+          : new IngestionCheckpointStore.PendingReceipt(txHash, t.username(), t.proxyAddress(), t.tradeKey()));
+    }
+    checkpoints.setPendingReceipts(out);
+  }
+
+  private List<String> takeBatch(int size) {
+    List<String> batch = new ArrayList<>(size);
+    while (batch.size() < size) {
       String txHash = queue.poll();
       if (txHash == null) {
-        permits.release();
         break;
       }
       queueDepth.decrementAndGet();
-
       if (processed.contains(txHash) || !inFlight.add(txHash)) {
-        permits.release();
         continue;
       }
-
-      processedNow++;
-      pool.execute(() -> {
-        try {
-          tryFetchAndPublish(txHash);
-        } finally {
-          inFlight.remove(txHash);
-          sleep(delayMillis);
-          permits.release();
-        }
-      });
+      batch.add(txHash);
     }
+    return batch;
   }
 
-  private void tryFetchAndPublish(String txHash) {
-    if (txHash == null || txHash.isBlank()) {
-      return;
-    }
-    if (processed.contains(txHash)) {
-      return;
-    }
-
+  /**
+   * One receipt batch, then one batch for the distinct uncached block numbers it references. The concurrency
+   * limit is adjusted from the receipt round trip only.
+   */
+  private void fetchAndPublishBatch(List<String> batch, AdaptiveConcurrencyLimit limit) {
+    boolean released = false;
     try {
-      JsonNode receipt = rpc.getTransactionReceipt(txHash);
-      if (receipt == null || receipt.isMissingNode() || receipt.isNull()) {
-        requeue(txHash, "missing receipt");
+      List<PolygonJsonRpcClient.Result> results;
+      long startedNanos = System.nanoTime();
+      try {
+        results = rpc.batch(batch.stream().map(rpc::receiptRequest).toList());
+      } catch (PolygonJsonRpcClient.RateLimitedException e) {
+        limit.onRateLimited(Instant.now(clock).toEpochMilli());
+        released = true;
+        batch.forEach(this::requeueThrottled);
         return;
+      } catch (Exception e) {
+        limit.onIgnore();
+        released = true;
+        failures.addAndGet(batch.size());
+        batch.forEach(txHash -> requeue(txHash, e.getMessage()));
+        return;
+      }
+      long latencyMillis = (System.nanoTime() - startedNanos) / 1_000_000L;
+
+      boolean throttled = false;
+      Map<String, JsonNode> receipts = new LinkedHashMap<>();
+      for (int i = 0; i < batch.size(); i++) {
+        String txHash = batch.get(i);
+        PolygonJsonRpcClient.Result r = results.get(i);
+        if (r.isRateLimited()) {
+          throttled = true;
+          requeueThrottled(txHash);
+        } else if (r.isError()) {
+          failures.incrementAndGet();
+          requeue(txHash, r.error().toString());
+        } else if (r.result() == null || r.result().isMissingNode() || r.result().isNull()) {
+          requeue(txHash, "missing receipt");
+        } else {
+          receipts.put(txHash, r.result());
+        }
+      }
+      if (throttled) {
+        limit.onRateLimited(Instant.now(clock).toEpochMilli());
+      } else {
+        limit.onSuccess(latencyMillis);
+      }
+      released = true;
+
+      resolveBlockTimestamps(receipts.values());
+      receipts.forEach(this::publishReceipt);
+    } finally {
+      if (!released) {
+        limit.onIgnore();
       }
+      batch.forEach(inFlight::remove);
+    }
+  }
 
+  private void publishReceipt(String txHash, JsonNode receipt) {
+    try {
       String blockNumberHex = textOrNull(receipt.path("blockNumber"));
       if (blockNumberHex == null) {
         requeue(txHash, "missing blockNumber");
@@ -260,6 +365,44 @@ public class PolygonTxReceiptIngestor {
     }
   }
 
+  /**
+   * Warms the block timestamp cache with one batch for the distinct block numbers that are not cached yet.
+   */
+  private void resolveBlockTimestamps(Collection<JsonNode> receipts) {
+    EvictingMap<String, Instant> cache = blockTimestampCache;
+    if (cache == null || receipts.isEmpty()) {
+      return;
+    }
+    Set<String> missing = new LinkedHashSet<>();
+    for (JsonNode receipt : receipts) {
+      String blockNumberHex = textOrNull(receipt.path("blockNumber"));
+      if (blockNumberHex == null) {
+        continue;
+      }
+      String key = blockNumberHex.trim().toLowerCase(Locale.ROOT);
+      if (cache.get(key) == null) {
+        missing.add(key);
+      }
+    }
+    if (missing.isEmpty()) {
+      return;
+    }
+
+    List<String> blocks = new ArrayList<>(missing);
+    try {
+      List<PolygonJsonRpcClient.Result> results = rpc.batch(blocks.stream().map(rpc::blockRequest).toList());
+      for (int i = 0; i < blocks.size(); i++) {
+        PolygonJsonRpcClient.Result r = results.get(i);
+        long blockTsSec = r.isError() ? 0L : parseHexLong(textOrNull(r.result() == null ? null : r.result().path("timestamp")));
+        if (blockTsSec > 0) {
+          cache.put(blocks.get(i), Instant.ofEpochSecond(blockTsSec));
+        }
+      }
+    } catch (Exception ignored) {
+      // Timestamp enrichment is optional; resolveBlockTimestamp falls back per receipt.
+    }
+  }
+
   private Instant resolveBlockTimestamp(String blockNumberHex) {
     if (blockNumberHex == null || blockNumberHex.isBlank()) {
       return Instant.now(clock);
@@ -301,6 +444,14 @@ public class PolygonTxReceiptIngestor {
     queueDepth.incrementAndGet();
   }
 
+  /**
+   * Puts a throttled tx back without counting an attempt; throttling says nothing about the tx itself.
+   */
+  private void requeueThrottled(String txHash) {
+    queue.add(txHash);
+    queueDepth.incrementAndGet();
+  }
+
   private static long parseHexLong(String hex) {
     if (hex == null || hex.isBlank() || "0x".equals(hex)) {
       return 0L;
@@ -342,17 +493,6 @@ public class PolygonTxReceiptIngestor {
     return v;
   }
 
-  private static void sleep(long millis) {
-    if (millis <= 0) {
-      return;
-    }
-    try {
-      Thread.sleep(millis);
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-    }
-  }
-
   public long polls() {
     return polls.get();
   }
@@ -381,6 +521,21 @@ public class PolygonTxReceiptIngestor {
     return receiptWorkers;
   }
 
+  public int rpcConcurrencyLimit() {
+    AdaptiveConcurrencyLimit limit = concurrency;
+    return limit == null ? 0 : limit.limit();
+  }
+
+  public long rpcBatchLatencyMillis() {
+    AdaptiveConcurrencyLimit limit = concurrency;
+    return limit == null ? 0 : limit.latencyEwmaMillis();
+  }
+
+  public long rpcThrottles() {
+    AdaptiveConcurrencyLimit limit = concurrency;
+    return limit == null ? 0 : limit.throttles();
+  }
+
   public int blockTimestampCacheSize() {
     EvictingMap<String, Instant> cache = blockTimestampCache;
     return cache == null ? 0 : cache.size();
@@ -4,10 +4,16 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.polybot.hft.events.HftEventPublisher;
+import com.polybot.hft.polymarket.http.RequestRateLimiter;
+import com.polybot.hft.polymarket.http.TokenBucketRateLimiter;
+import com.polybot.hft.polymarket.ws.ClobMarketWebSocketClient;
+import com.polybot.hft.polymarket.ws.TopOfBook;
 import com.polybot.ingestor.config.IngestorProperties;
 import com.polybot.ingestor.polymarket.PolymarketClobApiClient;
 import com.polybot.ingestor.polymarket.PolymarketDataApiClient;
 import com.polybot.ingestor.polymarket.PolymarketGammaApiClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,8 +29,25 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Publishes market context (gamma metadata, CLOB top-of-book, recent market trades) for markets the targets trade.
+ *
+ * Fetches run on virtual threads, at most {@code max-concurrent-fetches} at a time, paced by one gamma/CLOB rate
+ * limiter derived from {@code request-delay-millis} (Data API calls use the Data API budget). Requests are coalesced
+ * per slug (gamma, market trades) and per token (books): trades that arrive while a fetch is in flight attach to it,
+ * and later trades within the cache window reuse the cached book, so a burst of fills in one market costs one
+ * fetch and a slow market never blocks the others.
+ *
+ * For assets subscribed on the market WebSocket, the trade-time book comes from the WS book history as of the
+ * trade timestamp instead of a REST snapshot taken when the (delayed) trade is observed.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -40,7 +63,9 @@ public class PolymarketMarketContextIngestor {
   private final @NonNull PolymarketGammaApiClient gammaApi;
   private final @NonNull PolymarketClobApiClient clobApi;
   private final @NonNull PolymarketDataApiClient dataApi;
+  private final @NonNull ClobMarketWebSocketClient marketWs;
   private final @NonNull HftEventPublisher events;
+  private final @NonNull IngestionCheckpointStore checkpoints;
   private final @NonNull ObjectMapper objectMapper;
   private final @NonNull Clock clock;
 
@@ -48,14 +73,44 @@ public class PolymarketMarketContextIngestor {
 
   private final AtomicLong publishedGammaSnapshots = new AtomicLong(0);
   private final AtomicLong publishedClobTobs = new AtomicLong(0);
+  private final AtomicLong publishedWsTobs = new AtomicLong(0);
   private final AtomicLong publishedMarketTrades = new AtomicLong(0);
   private final AtomicLong failures = new AtomicLong(0);
   private final AtomicLong gammaPolls = new AtomicLong(0);
   private volatile long lastGammaPollAtMillis;
 
+  private volatile ExecutorService fetchers;
+  private volatile RequestRateLimiter rateLimiter;
+  private volatile RequestCoalescer<String, Void> gammaFetches;
+  private volatile RequestCoalescer<String, CachedTob> bookFetches;
+  private volatile RequestCoalescer<String, Void> marketTradeFetches;
+
   private final Object marketLock = new Object();
   private final Map<String, MarketState> markets = new LinkedHashMap<>(16, 0.75f, true);
 
+  @PostConstruct
+  void init() {
+    int maxConcurrent = properties.marketContext().maxConcurrentFetches();
+    long delayMillis = properties.marketContext().requestDelayMillis();
+    fetchers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("market-context-", 0).factory());
+    rateLimiter = delayMillis > 0
+        ? new TokenBucketRateLimiter(1000.0 / delayMillis, maxConcurrent, clock)
+        : RequestRateLimiter.noop();
+    // One cap across Gamma, CLOB and market-trades fetches, as maxConcurrentFetches documents.
+    Semaphore fetchPermits = new Semaphore(maxConcurrent);
+    gammaFetches = new RequestCoalescer<>(fetchers, fetchPermits);
+    bookFetches = new RequestCoalescer<>(fetchers, fetchPermits);
+    marketTradeFetches = new RequestCoalescer<>(fetchers, fetchPermits);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    ExecutorService pool = fetchers;
+    if (pool != null) {
+      pool.shutdownNow();
+    }
+  }
+
   public void onUserTrade(
       String username,
       String proxyAddress,
@@ -82,18 +137,26 @@ public class PolymarketMarketContextIngestor {
       if (state == null) {
         enforceMarketLimitLocked();
         state = new MarketState(slug, nowMillis);
+        String storedSignature = checkpoints.gammaSignature(slug);
+        if (storedSignature != null) {
+          // Unchanged markets are not republished after a restart.
+          state.lastGammaSignature = storedSignature;
+        }
         markets.put(slug, state);
         log.info("market-context tracking market slug={}", slug);
       }
       state.lastSeenAtMillis = nowMillis;
     }
 
-    maybeFetchAndPublishGamma(username, proxyAddress, userTradeKey, state, nowMillis);
+    CompletableFuture<Void> gammaReady = maybeFetchAndPublishGamma(username, proxyAddress, userTradeKey, state, nowMillis);
 
     long maxAgeSeconds = properties.marketContext().onTradeContextMaxAgeSeconds();
     long ageSeconds = Math.max(0, (nowMillis - userTradeAt.toEpochMilli()) / 1000L);
     if (ageSeconds <= maxAgeSeconds) {
-      maybePublishClobTobContext(username, proxyAddress, userTradeKey, userTradeAt, userTrade, state, nowMillis);
+      // Book context waits for a pending gamma fetch so a new market snapshots all of its outcomes.
+      MarketState tracked = state;
+      gammaReady.whenComplete((ignored, error) -> maybePublishClobTobContext(
+          username, proxyAddress, userTradeKey, userTradeAt, userTrade, tracked, Instant.now(clock).toEpochMilli()));
       maybeFetchAndPublishMarketTrades(slug, state, nowMillis);
     }
   }
@@ -146,11 +209,30 @@ public class PolymarketMarketContextIngestor {
       }
 
       maybeFetchAndPublishGamma(null, null, null, state, nowMillis);
-      sleep(properties.marketContext().requestDelayMillis());
     }
   }
 
-  private void maybeFetchAndPublishGamma(
+  /**
+   * Schedules a gamma fetch for the market when it is due; completes once any fetch for the slug is done.
+   */
+  private CompletableFuture<Void> maybeFetchAndPublishGamma(
+      String username,
+      String proxyAddress,
+      String userTradeKey,
+      MarketState state,
+      long nowMillis
+  ) {
+    long minIntervalMillis = properties.marketContext().gammaMinIntervalSeconds() * 1000L;
+    if (nowMillis - state.lastGammaFetchAtMillis < minIntervalMillis) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return gammaFetches.submit(state.slug, () -> {
+      fetchAndPublishGamma(username, proxyAddress, userTradeKey, state, Instant.now(clock).toEpochMilli());
+      return null;
+    });
+  }
+
+  private void fetchAndPublishGamma(
       String username,
       String proxyAddress,
       String userTradeKey,
@@ -164,6 +246,7 @@ public class PolymarketMarketContextIngestor {
 
     GammaMarket market;
     try {
+      rateLimiter.acquire();
       market = fetchGammaMarket(state.slug);
       if (market == null) {
         // Don't "lock out" the market for a full gammaMinInterval on transient failures.
@@ -188,6 +271,7 @@ public class PolymarketMarketContextIngestor {
     }
 
     state.lastGammaSignature = signature;
+    checkpoints.setGammaSignature(state.slug, signature);
     Map<String, Object> data = new LinkedHashMap<>();
     data.put("slug", market.slug());
     if (username != null && proxyAddress != null && userTradeKey != null) {
@@ -298,6 +382,10 @@ public class PolymarketMarketContextIngestor {
       return;
     }
 
+    if (maybePublishWsTobAsOf(username, proxyAddress, userTradeKey, userTradeAt, marketSlug, tokenId, userTrade, tokenOutcome)) {
+      return;
+    }
+
     long minIntervalMillis = properties.marketContext().clobBookMinIntervalSeconds() * 1000L;
     CachedTob cached = state.tobByTokenId.get(tokenId);
     if (cached != null && nowMillis - cached.fetchedAtMillis < minIntervalMillis) {
@@ -318,20 +406,54 @@ public class PolymarketMarketContextIngestor {
       return;
     }
 
-    JsonNode book;
-    try {
-      book = clobApi.getOrderBook(tokenId);
-    } catch (Exception e) {
-      failures.incrementAndGet();
-      log.debug("market-context clob book fetch failed tokenId={} error={}", tokenId, e.toString());
-      return;
+    bookFetches.submit(tokenId, () -> fetchBook(state, tokenId)).thenAccept(fetched -> {
+      if (fetched == null) {
+        return;
+      }
+      publishClobTobEvent(
+          username,
+          proxyAddress,
+          userTradeKey,
+          userTradeAt,
+          marketSlug,
+          tokenId,
+          userTrade,
+          fetched.tob,
+          fetched.fetchedAtMillis,
+          false,
+          0L,
+          tokenOutcome
+      );
+    });
+  }
+
+  /**
+   * Publishes the WS book in effect at the trade timestamp. Data API timestamps are whole seconds, so this is the
+   * book as of the start of the trade's second. Returns false (REST fallback) when the asset isn't subscribed, the
+   * history doesn't reach back to the trade, or the last update before it is older than the staleness bound.
+   */
+  private boolean maybePublishWsTobAsOf(
+      String username,
+      String proxyAddress,
+      String userTradeKey,
+      Instant userTradeAt,
+      String marketSlug,
+      String tokenId,
+      JsonNode userTrade,
+      String tokenOutcome
+  ) {
+    if (!marketWs.isSubscribed(tokenId)) {
+      return false;
     }
-    if (PolymarketClobApiClient.isNotFoundError(book)) {
-      return;
+    TopOfBook tob = marketWs.getTopOfBookAsOf(tokenId, userTradeAt).orElse(null);
+    if (tob == null) {
+      return false;
+    }
+    long stalenessMillis = userTradeAt.toEpochMilli() - tob.updatedAt().toEpochMilli();
+    if (stalenessMillis > properties.marketContext().wsBookMaxStalenessSeconds() * 1000L) {
+      return false;
     }
 
-    Map<String, Object> tob = topOfBook(book);
-    state.tobByTokenId.put(tokenId, new CachedTob(nowMillis, tob));
     publishClobTobEvent(
         username,
         proxyAddress,
@@ -340,12 +462,65 @@ public class PolymarketMarketContextIngestor {
         marketSlug,
         tokenId,
         userTrade,
-        tob,
-        nowMillis,
+        wsTopOfBook(tokenId, tob),
+        tob.updatedAt().toEpochMilli(),
         false,
         0L,
         tokenOutcome
     );
+    publishedWsTobs.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Same shape as {@link #topOfBook(JsonNode)} for the fields the WS carries (no depth levels).
+   */
+  private static Map<String, Object> wsTopOfBook(String tokenId, TopOfBook tob) {
+    BigDecimal bid = tob.bestBid();
+    BigDecimal ask = tob.bestAsk();
+    BigDecimal mid = bid != null && ask != null ? bid.add(ask).divide(BigDecimal.valueOf(2), 18, RoundingMode.HALF_UP) : null;
+    BigDecimal spread = bid != null && ask != null ? ask.subtract(bid) : null;
+
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("assetId", tokenId);
+    out.put("timestamp", String.valueOf(tob.updatedAt().toEpochMilli()));
+    out.put("hash", null);
+    out.put("bestBid", wsLevel(bid, tob.bestBidSize()));
+    out.put("bestAsk", wsLevel(ask, tob.bestAskSize()));
+    out.put("mid", mid == null ? null : mid.toPlainString());
+    out.put("spread", spread == null ? null : spread.toPlainString());
+    out.put("lastTradePrice", tob.lastTradePrice() == null ? null : tob.lastTradePrice().toPlainString());
+    out.put("source", "ws");
+    return out;
+  }
+
+  private static Map<String, Object> wsLevel(BigDecimal price, BigDecimal size) {
+    if (price == null) {
+      return null;
+    }
+    Map<String, Object> level = new LinkedHashMap<>();
+    level.put("price", price.toPlainString());
+    level.put("size", size == null ? null : size.toPlainString());
+    return level;
+  }
+
+  private CachedTob fetchBook(MarketState state, String tokenId) {
+    JsonNode book;
+    try {
+      rateLimiter.acquire();
+      book = clobApi.getOrderBook(tokenId);
+    } catch (Exception e) {
+      failures.incrementAndGet();
+      log.debug("market-context clob book fetch failed tokenId={} error={}", tokenId, e.toString());
+      return null;
+    }
+    if (PolymarketClobApiClient.isNotFoundError(book)) {
+      return null;
+    }
+
+    CachedTob fetched = new CachedTob(Instant.now(clock).toEpochMilli(), topOfBook(book));
+    state.tobByTokenId.put(tokenId, fetched);
+    return fetched;
   }
 
   private void publishClobTobEvent(
@@ -390,7 +565,13 @@ public class PolymarketMarketContextIngestor {
       return;
     }
     state.lastMarketTradesFetchAtMillis = nowMillis;
+    marketTradeFetches.submit(slug, () -> {
+      fetchAndPublishMarketTrades(slug, Instant.now(clock).toEpochMilli());
+      return null;
+    });
+  }
 
+  private void fetchAndPublishMarketTrades(String slug, long nowMillis) {
     int limit = properties.marketContext().marketTradesLimit();
     ArrayNode trades;
     try {
@@ -848,17 +1029,6 @@ public class PolymarketMarketContextIngestor {
     return "%s:%d:%s:%s".formatted(slug, tsSeconds, a, s);
   }
 
-  private static void sleep(long millis) {
-    if (millis <= 0) {
-      return;
-    }
-    try {
-      Thread.sleep(millis);
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-    }
-  }
-
   public long publishedGammaSnapshots() {
     return publishedGammaSnapshots.get();
   }
@@ -867,6 +1037,10 @@ public class PolymarketMarketContextIngestor {
     return publishedClobTobs.get();
   }
 
+  public long publishedWsTobs() {
+    return publishedWsTobs.get();
+  }
+
   public long publishedMarketTrades() {
     return publishedMarketTrades.get();
   }
@@ -883,6 +1057,14 @@ public class PolymarketMarketContextIngestor {
     return lastGammaPollAtMillis;
   }
 
+  public int inFlightFetches() {
+    return gammaFetches.inFlight() + bookFetches.inFlight() + marketTradeFetches.inFlight();
+  }
+
+  public long coalescedFetches() {
+    return gammaFetches.coalesced() + bookFetches.coalesced() + marketTradeFetches.coalesced();
+  }
+
   public int trackedMarkets() {
     synchronized (marketLock) {
       return markets.size();
@@ -898,7 +1080,7 @@ public class PolymarketMarketContextIngestor {
     private volatile long lastMarketTradesFetchAtMillis;
     private volatile GammaMarket gamma;
     private volatile String lastGammaSignature = "";
-    private final Map<String, CachedTob> tobByTokenId = new LinkedHashMap<>();
+    private final Map<String, CachedTob> tobByTokenId = new ConcurrentHashMap<>();
 
     private MarketState(String slug, long nowMillis) {
       this.slug = slug;
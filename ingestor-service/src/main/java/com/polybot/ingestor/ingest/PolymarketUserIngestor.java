@@ -3,8 +3,11 @@ package com.polybot.ingestor.ingest;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.polybot.hft.events.HftEventPublisher;
 import com.polybot.ingestor.config.IngestorProperties;
+import com.polybot.ingestor.metrics.IngestorMetricsService;
 import com.polybot.ingestor.polymarket.PolymarketDataApiClient;
 import com.polybot.ingestor.polymarket.PolymarketProfileResolver;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,12 +18,29 @@ import org.springframework.stereotype.Component;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
+/**
+ * Polls Data API trades / positions for every configured target wallet.
+ *
+ * Each scheduler tick hands every idle target to a virtual thread; at most
+ * {@code ingestor.polling.max-concurrent-targets} of them talk to the Data API at once, and all of them share the
+ * Data API request budget enforced by {@link PolymarketDataApiClient}. Backfills and checkpoint catch-ups are
+ * queued and advanced one page per turn, round-robin across targets, so one wallet with a long history does not
+ * hold up the others. Live polling of a target starts once its own backfill is done.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -31,6 +51,8 @@ public class PolymarketUserIngestor {
   private static final int DEFAULT_SEEN_KEYS_CAPACITY = 25_000;
   private static final int DATA_API_MAX_LIMIT = 500;
   private static final int DATA_API_MAX_OFFSET = 1_000;
+  private static final long BACKFILL_RETRY_MIN_MILLIS = 1_000L;
+  private static final long BACKFILL_RETRY_MAX_MILLIS = 60_000L;
 
   private final @NonNull IngestorProperties properties;
   private final @NonNull PolymarketProfileResolver profileResolver;
@@ -38,50 +60,68 @@ public class PolymarketUserIngestor {
   private final @NonNull PolymarketMarketContextIngestor marketContext;
   private final @NonNull PolygonTxReceiptIngestor polygonTxReceipts;
   private final @NonNull HftEventPublisher events;
+  private final @NonNull IngestionCheckpointStore checkpoints;
+  private final @NonNull IngestorMetricsService metrics;
   private final @NonNull Clock clock;
 
   private final AtomicBoolean initOnce = new AtomicBoolean(false);
   private final AtomicBoolean started = new AtomicBoolean(false);
-  private final AtomicBoolean pollingNow = new AtomicBoolean(false);
 
-  private final EvictingKeySet seenTradeKeys = new EvictingKeySet(DEFAULT_SEEN_KEYS_CAPACITY);
+  private final List<TargetState> targets = new CopyOnWriteArrayList<>();
+  private final ConcurrentLinkedQueue<BackfillJob> backfillQueue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger backfillQueueDepth = new AtomicInteger(0);
+  private final AtomicBoolean backfillRunning = new AtomicBoolean(false);
 
   private final AtomicLong polls = new AtomicLong(0);
   private final AtomicLong publishedTrades = new AtomicLong(0);
   private final AtomicLong publishedPositionSnapshots = new AtomicLong(0);
   private final AtomicLong failures = new AtomicLong(0);
 
-  private volatile Target target;
   private volatile long lastPollAtMillis;
   private volatile long lastPositionsSnapshotAtMillis;
 
+  private volatile ExecutorService pollers;
+  private volatile Semaphore dataApiPermits;
+
+  @PostConstruct
+  void init() {
+    pollers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("user-ingestor-", 0).factory());
+    dataApiPermits = new Semaphore(properties.polling().maxConcurrentTargets());
+    metrics.registerBackfillQueueDepth(backfillQueueDepth::get);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    ExecutorService pool = pollers;
+    if (pool != null) {
+      pool.shutdownNow();
+    }
+  }
+
   @EventListener(ApplicationReadyEvent.class)
   public void onReady() {
     if (!initOnce.compareAndSet(false, true)) {
       return;
     }
-    if (!properties.polymarket().hasIdentity()) {
-      log.warn("ingestor missing target identity: set ingestor.polymarket.username or ingestor.polymarket.proxy-address");
+    List<IngestorProperties.TargetIdentity> identities = properties.polymarket().allTargets();
+    if (identities.isEmpty()) {
+      log.warn("ingestor missing target identity: set ingestor.polymarket.username, ingestor.polymarket.proxy-address or ingestor.polymarket.targets");
       started.set(true);
       return;
     }
 
-    try {
-      resolveTargetIfNeeded();
-    } catch (Exception e) {
-      failures.incrementAndGet();
-      log.warn("ingestor resolve target failed error={}", e.toString());
+    for (IngestorProperties.TargetIdentity identity : identities) {
+      TargetState state = new TargetState(identity);
+      state.meters = metrics.registerUserTarget(
+          identity.key(),
+          () -> ageSeconds(state.lastPollAtMillis),
+          () -> ageSeconds(state.lastTradeTsSeconds * 1000L),
+          () -> state.backfillPending
+      );
+      targets.add(state);
     }
-
-    if (properties.polling().backfillOnStart() && target != null) {
-      try {
-        backfillTrades(target);
-      } catch (Exception e) {
-        failures.incrementAndGet();
-        log.warn("ingestor backfill failed error={}", e.toString());
-      }
-    }
-
+    log.info("ingestor targets configured count={} maxConcurrent={} dataApiRps={}",
+        targets.size(), properties.polling().maxConcurrentTargets(), properties.polling().dataApiRequestsPerSecond());
     started.set(true);
   }
 
@@ -93,65 +133,188 @@ public class PolymarketUserIngestor {
     if (!started.get()) {
       return;
     }
-    if (!pollingNow.compareAndSet(false, true)) {
+    ExecutorService pool = pollers;
+    if (pool == null) {
       return;
     }
 
-    try {
-      polls.incrementAndGet();
-      lastPollAtMillis = Instant.now(clock).toEpochMilli();
+    polls.incrementAndGet();
+    lastPollAtMillis = Instant.now(clock).toEpochMilli();
 
-      resolveTargetIfNeeded();
-      Target t = target;
-      if (t == null) {
-        return;
+    for (TargetState state : targets) {
+      if (state.polling.compareAndSet(false, true)) {
+        pool.execute(() -> pollTarget(state));
       }
+    }
+    if (!backfillQueue.isEmpty() && backfillRunning.compareAndSet(false, true)) {
+      pool.execute(this::drainBackfills);
+    }
+  }
+
+  private void pollTarget(TargetState state) {
+    try {
+      dataApiPermits.acquire();
+      try {
+        Target t = resolveTargetIfNeeded(state);
+        if (t == null || state.backfillPending) {
+          return;
+        }
 
-      int newTrades = pollLatestTrades(t);
+        int newTrades = pollLatestTrades(state, t);
+        long nowMillis = Instant.now(clock).toEpochMilli();
+        state.lastPollAtMillis = nowMillis;
+        state.polls.incrementAndGet();
+        state.meters.polls().increment();
 
-      long nowMillis = lastPollAtMillis;
-      boolean duePositions = nowMillis - lastPositionsSnapshotAtMillis >= POSITIONS_SNAPSHOT_MIN_INTERVAL_MILLIS;
-      if (newTrades > 0 || duePositions) {
-        pollPositionsSnapshot(t);
+        boolean duePositions = nowMillis - state.lastPositionsSnapshotAtMillis >= POSITIONS_SNAPSHOT_MIN_INTERVAL_MILLIS;
+        if (newTrades > 0 || duePositions) {
+          pollPositionsSnapshot(state, t);
+        }
+      } finally {
+        dataApiPermits.release();
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     } catch (Exception e) {
-      failures.incrementAndGet();
-      log.warn("ingestor poll failed error={}", e.toString());
+      recordFailure(state);
+      log.warn("ingestor poll failed target={} error={}", state.identity.key(), e.toString());
     } finally {
-      pollingNow.set(false);
+      state.polling.set(false);
     }
   }
 
-  private void resolveTargetIfNeeded() {
-    if (target != null) {
-      return;
+  /**
+   * Advances queued backfills one page at a time, re-queueing unfinished jobs at the tail (round-robin). A page that
+   * fails is retried with exponential backoff; a job only leaves the queue once it completes. Returns when every
+   * queued job is backing off, leaving the rest to a later poll.
+   */
+  private void drainBackfills() {
+    try {
+      BackfillJob job;
+      int backingOff = 0;
+      while ((job = backfillQueue.poll()) != null) {
+        if (job.retryAtMillis > clock.millis()) {
+          backfillQueue.add(job);
+          if (++backingOff >= backfillQueue.size()) {
+            return;
+          }
+          continue;
+        }
+        backingOff = 0;
+        boolean done;
+        try {
+          dataApiPermits.acquire();
+          try {
+            done = job.step();
+          } finally {
+            dataApiPermits.release();
+          }
+        } catch (InterruptedException e) {
+          backfillQueue.add(job);
+          Thread.currentThread().interrupt();
+          return;
+        } catch (Exception e) {
+          recordFailure(job.state);
+          long backoffMillis = Math.min(BACKFILL_RETRY_MAX_MILLIS, BACKFILL_RETRY_MIN_MILLIS << Math.min(job.failures, 16));
+          job.failures++;
+          job.retryAtMillis = clock.millis() + backoffMillis;
+          log.warn("ingestor {} failed target={} page={} attempt={} retryInMillis={} error={}",
+              job.mode.label, job.state.identity.key(), job.page, job.failures, backoffMillis, e.toString());
+          backfillQueue.add(job);
+          continue;
+        }
+
+        job.failures = 0;
+        if (done) {
+          log.info("ingestor {} done target={} pages={} published={}", job.mode.label, job.state.identity.key(), job.page, job.published);
+          if (job.next != null) {
+            backfillQueue.add(job.next);
+          } else {
+            backfillQueueDepth.decrementAndGet();
+            job.state.backfillPending = false;
+          }
+        } else {
+          backfillQueue.add(job);
+          sleep(properties.polling().requestDelayMillis());
+        }
+      }
+    } finally {
+      backfillRunning.set(false);
+    }
+  }
+
+  private Target resolveTargetIfNeeded(TargetState state) {
+    Target existing = state.target;
+    if (existing != null) {
+      return existing;
     }
 
-    String proxyAddress = normalizeAddress(properties.polymarket().proxyAddress());
+    String proxyAddress = normalizeAddress(state.identity.proxyAddress());
     if (proxyAddress != null) {
-      target = new Target(properties.polymarket().username(), null, proxyAddress, null, Instant.now(clock));
-      publishIdentity(target);
-      log.info("ingestor target resolved via config username={} proxyAddress={}", safe(properties.polymarket().username()), suffix(proxyAddress));
-      return;
+      Target t = new Target(state.identity.username(), null, proxyAddress, null, Instant.now(clock));
+      onTargetResolved(state, t);
+      log.info("ingestor target resolved via config username={} proxyAddress={}", safe(t.username), suffix(proxyAddress));
+      return t;
     }
 
-    String username = properties.polymarket().username();
+    String username = state.identity.username();
     if (username == null || username.isBlank()) {
-      return;
+      return null;
     }
 
-    profileResolver.resolve(username).ifPresent(identity -> {
+    return profileResolver.resolve(username).map(identity -> {
       String resolvedProxy = normalizeAddress(identity.proxyAddress());
       String resolvedPrimary = normalizeAddress(identity.primaryAddress());
       String resolvedBase = normalizeAddress(identity.baseAddress());
       String best = firstNonNull(resolvedProxy, resolvedPrimary, resolvedBase);
       if (best == null) {
-        return;
+        return null;
       }
-      target = new Target(identity.username(), resolvedBase, resolvedProxy != null ? resolvedProxy : best, resolvedPrimary, Instant.now(clock));
-      publishIdentity(target);
-      log.info("ingestor target resolved via profile username={} proxyAddress={} baseAddress={}", identity.username(), suffix(target.proxyAddress), suffix(target.baseAddress));
-    });
+      Target t = new Target(identity.username(), resolvedBase, resolvedProxy != null ? resolvedProxy : best, resolvedPrimary, Instant.now(clock));
+      onTargetResolved(state, t);
+      log.info("ingestor target resolved via profile username={} proxyAddress={} baseAddress={}", identity.username(), suffix(t.proxyAddress), suffix(t.baseAddress));
+      return t;
+    }).orElse(null);
+  }
+
+  private void onTargetResolved(TargetState state, Target t) {
+    IngestionCheckpointStore.TradeCursor cursor = checkpoints.tradeCursor(t.proxyAddress);
+    restoreSeenTradeKeys(state, t, cursor);
+    publishIdentity(t);
+
+    // The cursor's trade timestamp is the newest trade seen, so it only bounds a catch-up; older history is covered
+    // only once the FULL backfill has recorded that it reached the end.
+    boolean caughtUpBefore = cursor != null && cursor.lastTradeTsSeconds() > 0;
+    boolean fullPending = properties.polling().backfillOnStart() && (cursor == null || !cursor.fullBackfillComplete());
+    BackfillJob job = null;
+    if (fullPending) {
+      int resumeOffset = cursor == null ? 0 : cursor.fullBackfillOffset();
+      job = new BackfillJob(state, t, BackfillMode.FULL, 0, resumeOffset);
+      if (caughtUpBefore && resumeOffset > 0) {
+        // Trades that arrived while we were down sit in front of the resume offset: catch up on them first.
+        BackfillJob catchUp = new BackfillJob(state, t, BackfillMode.CATCH_UP, cursor.lastTradeTsSeconds(), 0);
+        catchUp.next = job;
+        job = catchUp;
+      }
+    } else if (caughtUpBefore) {
+      job = new BackfillJob(state, t, BackfillMode.CATCH_UP, cursor.lastTradeTsSeconds(), 0);
+    }
+    if (job != null) {
+      state.backfillPending = true;
+      backfillQueueDepth.incrementAndGet();
+      backfillQueue.add(job);
+    }
+    state.target = t;
+  }
+
+  private void restoreSeenTradeKeys(TargetState state, Target t, IngestionCheckpointStore.TradeCursor cursor) {
+    if (cursor == null || cursor.recentKeys() == null) {
+      return;
+    }
+    cursor.recentKeys().forEach(state.seenTradeKeys::add);
+    state.lastTradeTsSeconds = Math.max(state.lastTradeTsSeconds, cursor.lastTradeTsSeconds());
+    log.info("ingestor restored checkpoint proxyAddress={} lastTradeTs={} recentKeys={}",
+        suffix(t.proxyAddress), Instant.ofEpochSecond(cursor.lastTradeTsSeconds()), cursor.recentKeys().size());
   }
 
   private void publishIdentity(Target t) {
@@ -167,77 +330,21 @@ public class PolymarketUserIngestor {
     events.publish(Instant.now(clock), "ingestor.polymarket.user.identity", t.proxyAddress, data);
   }
 
-  private void backfillTrades(Target t) {
-    Integer maxPages = properties.polling().backfillMaxPages();
-    int pageSize = Math.max(1, Math.min(DATA_API_MAX_LIMIT, properties.polling().pageSize()));
-    long delayMillis = properties.polling().requestDelayMillis();
-
-    log.info("ingestor backfill starting username={} proxyAddress={} pageSize={} maxPages={}", safe(t.username), suffix(t.proxyAddress), pageSize, maxPages);
-
-    int offset = 0;
-    int page = 0;
-    boolean fetchedTail = false;
-    String lastSignature = null;
-    while (true) {
-      if (maxPages != null && page >= maxPages) {
-        break;
-      }
-
-      int requestOffset = offset;
-      int requestLimit = pageSize;
-      if (requestOffset >= DATA_API_MAX_OFFSET) {
-        if (fetchedTail) {
-          break;
-        }
-        fetchedTail = true;
-        requestOffset = DATA_API_MAX_OFFSET;
-        requestLimit = DATA_API_MAX_LIMIT;
-      }
-
-      ArrayNode trades = dataApi.getTrades(t.proxyAddress, requestLimit, requestOffset);
-      if (trades.isEmpty()) {
-        break;
-      }
-
-      int published = publishTrades(t, trades);
-      String signature = pageSignature(trades);
-      if (signature != null && signature.equals(lastSignature)) {
-        log.info("ingestor backfill reached stable tail offset={} limit={} fetched={} published={}", requestOffset, requestLimit, trades.size(), published);
-        break;
-      }
-      lastSignature = signature;
-
-      if (page % 10 == 0) {
-        log.info("ingestor backfill progress page={} offset={} limit={} fetched={} published={}", page, requestOffset, requestLimit, trades.size(), published);
-      }
-
-      if (fetchedTail) {
-        break;
-      }
-
-      offset += trades.size();
-      page++;
-      sleep(delayMillis);
-    }
-
-    log.info("ingestor backfill done pages={} publishedTrades={}", page, publishedTrades.get());
-  }
-
-  private int pollLatestTrades(Target t) {
+  private int pollLatestTrades(TargetState state, Target t) {
     int pageSize = properties.polling().pageSize();
     ArrayNode trades = dataApi.getTrades(t.proxyAddress, pageSize, 0);
     if (trades.isEmpty()) {
       return 0;
     }
 
-    int published = publishTrades(t, trades);
+    int published = publishTrades(state, t, trades);
     if (published > 0) {
       log.info("ingestor trades poll username={} proxyAddress={} fetched={} published={}", safe(t.username), suffix(t.proxyAddress), trades.size(), published);
     }
     return published;
   }
 
-  private void pollPositionsSnapshot(Target t) {
+  private void pollPositionsSnapshot(TargetState state, Target t) {
     if (!events.isEnabled()) {
       return;
     }
@@ -274,11 +381,13 @@ public class PolymarketUserIngestor {
 
     events.publish(Instant.now(clock), "polymarket.user.positions.snapshot", t.proxyAddress, data);
     publishedPositionSnapshots.incrementAndGet();
-    lastPositionsSnapshotAtMillis = Instant.now(clock).toEpochMilli();
+    long nowMillis = Instant.now(clock).toEpochMilli();
+    state.lastPositionsSnapshotAtMillis = nowMillis;
+    lastPositionsSnapshotAtMillis = nowMillis;
     log.info("ingestor positions snapshot username={} proxyAddress={} positions={}", safe(t.username), suffix(t.proxyAddress), all.size());
   }
 
-  private int publishTrades(Target t, ArrayNode trades) {
+  private int publishTrades(TargetState state, Target t, ArrayNode trades) {
     if (!events.isEnabled()) {
       return 0;
     }
@@ -302,7 +411,7 @@ public class PolymarketUserIngestor {
       // for recently-seen trades.
       polygonTxReceipts.onUserTrade(t.username, t.proxyAddress, eventKey, tx);
 
-      if (!seenTradeKeys.add(eventKey)) {
+      if (!state.seenTradeKeys.add(eventKey)) {
         continue;
       }
 
@@ -313,13 +422,32 @@ public class PolymarketUserIngestor {
 
       events.publish(ts, "polymarket.user.trade", eventKey, data);
       publishedTrades.incrementAndGet();
+      state.publishedTrades.incrementAndGet();
+      state.meters.publishedTrades().increment();
+      if (tsSeconds > state.lastTradeTsSeconds) {
+        state.lastTradeTsSeconds = tsSeconds;
+      }
       published++;
+      checkpoints.recordTrade(t.proxyAddress, tsSeconds, eventKey);
 
       marketContext.onUserTrade(t.username, t.proxyAddress, eventKey, ts, trade);
     }
     return published;
   }
 
+  private void recordFailure(TargetState state) {
+    failures.incrementAndGet();
+    state.failures.incrementAndGet();
+    state.meters.failures().increment();
+  }
+
+  private double ageSeconds(long epochMillis) {
+    if (epochMillis <= 0) {
+      return 0.0;
+    }
+    return Math.max(0L, Instant.now(clock).toEpochMilli() - epochMillis) / 1000.0;
+  }
+
   private static String pageSignature(ArrayNode trades) {
     if (trades == null || trades.isEmpty()) {
       return null;
@@ -386,6 +514,155 @@ public class PolymarketUserIngestor {
     return "..." + address.substring(address.length() - 6);
   }
 
+  private enum BackfillMode {
+    FULL("backfill"),
+    CATCH_UP("checkpoint catch-up");
+
+    private final String label;
+
+    BackfillMode(String label) {
+      this.label = label;
+    }
+  }
+
+  /**
+   * Paging state of one target's backfill. {@link #step()} fetches a single page and reports whether the job is
+   * finished, so the queue can interleave targets.
+   *
+   * FULL walks the whole Data API window (offset cap plus a tail page), checkpointing the offset it has paged past
+   * so an interrupted run resumes there, and records completion once it reaches the end. CATCH_UP pages newest-first
+   * only until a page reaches trades older than the checkpoint; trades at the checkpoint second are deduped by the
+   * restored keys.
+   */
+  private final class BackfillJob {
+    private final TargetState state;
+    private final Target target;
+    private final BackfillMode mode;
+    private final long sinceSeconds;
+    /**
+     * Queued for the same target once this job is done.
+     */
+    private BackfillJob next;
+
+    private int offset;
+    private int page;
+    private int published;
+    private boolean fetchedTail;
+    private String lastSignature;
+    /**
+     * Consecutive failed pages, and when the next attempt may run.
+     */
+    private int failures;
+    private long retryAtMillis;
+
+    private BackfillJob(TargetState state, Target target, BackfillMode mode, long sinceSeconds, int offset) {
+      this.state = state;
+      this.target = target;
+      this.mode = mode;
+      this.sinceSeconds = sinceSeconds;
+      this.offset = offset;
+      this.page = offset / pageSize();
+    }
+
+    private boolean step() {
+      if (mode == BackfillMode.CATCH_UP) {
+        return stepCatchUp();
+      }
+      boolean done = stepFull();
+      if (done) {
+        checkpoints.markFullBackfillComplete(target.proxyAddress);
+      }
+      return done;
+    }
+
+    private boolean stepFull() {
+      Integer maxPages = properties.polling().backfillMaxPages();
+      if (maxPages != null && page >= maxPages) {
+        return true;
+      }
+
+      int requestOffset = offset;
+      int requestLimit = pageSize();
+      if (requestOffset >= DATA_API_MAX_OFFSET) {
+        if (fetchedTail) {
+          return true;
+        }
+        fetchedTail = true;
+        requestOffset = DATA_API_MAX_OFFSET;
+        requestLimit = DATA_API_MAX_LIMIT;
+      }
+
+      ArrayNode trades = dataApi.getTrades(target.proxyAddress, requestLimit, requestOffset);
+      if (trades.isEmpty()) {
+        return true;
+      }
+
+      int pagePublished = publishTrades(state, target, trades);
+      published += pagePublished;
+      String signature = pageSignature(trades);
+      if (signature != null && signature.equals(lastSignature)) {
+        log.info("ingestor backfill reached stable tail target={} offset={} limit={} fetched={}", state.identity.key(), requestOffset, requestLimit, trades.size());
+        return true;
+      }
+      lastSignature = signature;
+
+      if (page % 10 == 0) {
+        log.info("ingestor backfill progress target={} page={} offset={} limit={} fetched={} published={}",
+            state.identity.key(), page, requestOffset, requestLimit, trades.size(), pagePublished);
+      }
+      if (fetchedTail) {
+        return true;
+      }
+
+      offset += trades.size();
+      page++;
+      checkpoints.recordFullBackfillProgress(target.proxyAddress, offset);
+      return false;
+    }
+
+    private boolean stepCatchUp() {
+      if (offset > DATA_API_MAX_OFFSET) {
+        return true;
+      }
+      ArrayNode trades = dataApi.getTrades(target.proxyAddress, pageSize(), offset);
+      if (trades.isEmpty()) {
+        return true;
+      }
+      published += publishTrades(state, target, trades);
+      page++;
+      long oldest = trades.get(trades.size() - 1).path("timestamp").asLong(0);
+      if (oldest > 0 && oldest < sinceSeconds) {
+        return true;
+      }
+      offset += trades.size();
+      return false;
+    }
+
+    private int pageSize() {
+      return Math.max(1, Math.min(DATA_API_MAX_LIMIT, properties.polling().pageSize()));
+    }
+  }
+
+  private static final class TargetState {
+    private final IngestorProperties.TargetIdentity identity;
+    private final EvictingKeySet seenTradeKeys = new EvictingKeySet(DEFAULT_SEEN_KEYS_CAPACITY);
+    private final AtomicBoolean polling = new AtomicBoolean(false);
+    private final AtomicLong polls = new AtomicLong(0);
+    private final AtomicLong publishedTrades = new AtomicLong(0);
+    private final AtomicLong failures = new AtomicLong(0);
+
+    private volatile Target target;
+    private volatile boolean backfillPending;
+    private volatile long lastPollAtMillis;
+    private volatile long lastPositionsSnapshotAtMillis;
+    private volatile long lastTradeTsSeconds;
+    private volatile IngestorMetricsService.UserTargetMeters meters;
+
+    private TargetState(IngestorProperties.TargetIdentity identity) {
+      this.identity = identity;
+    }
+  }
+
   private record Target(
       String username,
       String baseAddress,
@@ -419,11 +696,57 @@ public class PolymarketUserIngestor {
     return lastPositionsSnapshotAtMillis;
   }
 
+  public int backfillQueueDepth() {
+    return backfillQueueDepth.get();
+  }
+
+  /**
+   * First resolved target (the primary identity when it resolves).
+   */
   public TargetStatus target() {
-    Target t = target;
-    if (t == null) {
-      return null;
+    for (TargetState state : targets) {
+      Target t = state.target;
+      if (t != null) {
+        return toStatus(t);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * All resolved targets, in configuration order.
+   */
+  public List<TargetStatus> targets() {
+    List<TargetStatus> out = new ArrayList<>(targets.size());
+    for (TargetState state : targets) {
+      Target t = state.target;
+      if (t != null) {
+        out.add(toStatus(t));
+      }
+    }
+    return out;
+  }
+
+  public List<TargetStats> targetStats() {
+    List<TargetStats> out = new ArrayList<>(targets.size());
+    for (TargetState state : targets) {
+      Target t = state.target;
+      out.add(new TargetStats(
+          state.identity.key(),
+          t == null ? null : toStatus(t),
+          state.backfillPending,
+          state.polls.get(),
+          state.publishedTrades.get(),
+          state.failures.get(),
+          state.lastPollAtMillis,
+          state.lastPositionsSnapshotAtMillis,
+          state.lastTradeTsSeconds
+      ));
     }
+    return out;
+  }
+
+  private static TargetStatus toStatus(Target t) {
     return new TargetStatus(t.username, t.baseAddress, t.proxyAddress, t.primaryAddress, t.resolvedAt);
   }
 
@@ -435,4 +758,17 @@ public class PolymarketUserIngestor {
       Instant resolvedAt
   ) {
   }
+
+  public record TargetStats(
+      String key,
+      TargetStatus target,
+      boolean backfillPending,
+      long polls,
+      long publishedTrades,
+      long failures,
+      long lastPollAtMillis,
+      long lastPositionsSnapshotAtMillis,
+      long lastTradeTsSeconds
+  ) {
+  }
 }
@@ -0,0 +1,95 @@
+package com.polybot.ingestor.ingest;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs loaders on an executor with at most {@code maxConcurrent} in flight, and coalesces requests per key: while a
+ * load for a key is running, further requests for that key get the same future instead of starting another load.
+ * Coalescers built on the same {@link Semaphore} share one concurrency cap.
+ *
+ * Futures are completed after the concurrency permit is released, so dependent callbacks never hold a permit, and
+ * before the key is released, so a request never starts a second load while the first one is still completing.
+ */
+final class RequestCoalescer<K, V> {
+
+  private final Executor executor;
+  private final Semaphore permits;
+  private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong loads = new AtomicLong(0);
+  private final AtomicLong coalesced = new AtomicLong(0);
+
+  RequestCoalescer(Executor executor, int maxConcurrent) {
+    this(executor, permits(maxConcurrent));
+  }
+
+  RequestCoalescer(Executor executor, Semaphore permits) {
+    this.executor = executor;
+    this.permits = permits;
+  }
+
+  private static Semaphore permits(int maxConcurrent) {
+    if (maxConcurrent <= 0) {
+      throw new IllegalArgumentException("maxConcurrent must be > 0");
+    }
+    return new Semaphore(maxConcurrent);
+  }
+
+  CompletableFuture<V> submit(K key, Callable<V> loader) {
+    CompletableFuture<V> created = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+    if (existing != null) {
+      coalesced.incrementAndGet();
+      return existing;
+    }
+    loads.incrementAndGet();
+    try {
+      executor.execute(() -> run(key, created, loader));
+    } catch (RejectedExecutionException e) {
+      created.completeExceptionally(e);
+      inFlight.remove(key, created);
+    }
+    return created;
+  }
+
+  private void run(K key, CompletableFuture<V> future, Callable<V> loader) {
+    V value = null;
+    Throwable error = null;
+    try {
+      permits.acquire();
+      try {
+        value = loader.call();
+      } finally {
+        permits.release();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      error = e;
+    } catch (Throwable t) {
+      error = t;
+    }
+    if (error != null) {
+      future.completeExceptionally(error);
+    } else {
+      future.complete(value);
+    }
+    inFlight.remove(key, future);
+  }
+
+  int inFlight() {
+    return inFlight.size();
+  }
+
+  long loads() {
+    return loads.get();
+  }
+
+  long coalesced() {
+    return coalesced.get();
+  }
+}
@@ -1,17 +1,21 @@
 package com.polybot.ingestor.metrics;
 
 import com.polybot.hft.metrics.PolybotMetrics;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Tag;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
  * Metrics service for ingestor-service.
- * Tracks WebSocket connection status and message throughput.
+ * Tracks WebSocket connection status, message throughput and per-target user ingestion lag / throughput.
  */
 @Service
 @RequiredArgsConstructor
@@ -22,6 +26,12 @@ public class IngestorMetricsService {
 
     private AtomicReference<Boolean> marketWebSocketConnected;
 
+    /**
+     * Gauges only hold weak references to their suppliers; keep them reachable here.
+     */
+    private final Map<String, UserTargetMeters> userTargets = new ConcurrentHashMap<>();
+    private volatile Supplier<Integer> backfillQueueDepth;
+
     @PostConstruct
     public void initializeMetrics() {
         log.info("Initializing ingestor metrics...");
@@ -46,4 +56,67 @@ public class IngestorMetricsService {
         marketWebSocketConnected.set(connected);
         log.debug("Market WebSocket connected status updated to: {}", connected);
     }
+
+    /**
+     * Register metrics for one ingested user target (tagged {@code target=<proxy or username>}).
+     * Lag gauges report seconds since the last successful poll and since the newest ingested trade.
+     */
+    public UserTargetMeters registerUserTarget(
+            String target,
+            Supplier<Double> pollAgeSeconds,
+            Supplier<Double> lastTradeAgeSeconds,
+            Supplier<Boolean> backfillPending
+    ) {
+        return userTargets.computeIfAbsent(target, t -> {
+            Tag tag = Tag.of("target", t);
+            metrics.registerDoubleGauge(
+                    "polybot_ingestor_target_poll_age_seconds",
+                    "Seconds since the last successful trades poll for the target",
+                    pollAgeSeconds,
+                    tag
+            );
+            metrics.registerDoubleGauge(
+                    "polybot_ingestor_target_last_trade_age_seconds",
+                    "Seconds since the newest ingested trade of the target",
+                    lastTradeAgeSeconds,
+                    tag
+            );
+            metrics.registerBooleanGauge(
+                    "polybot_ingestor_target_backfill_pending",
+                    "Whether a backfill / checkpoint catch-up is queued or running for the target",
+                    backfillPending,
+                    tag
+            );
+            return new UserTargetMeters(
+                    metrics.createCounter("polybot_ingestor_target_trades_total", "User trades published for the target", tag),
+                    metrics.createCounter("polybot_ingestor_target_polls_total", "Trades polls completed for the target", tag),
+                    metrics.createCounter("polybot_ingestor_target_failures_total", "Failed polls / backfill pages for the target", tag),
+                    pollAgeSeconds,
+                    lastTradeAgeSeconds,
+                    backfillPending
+            );
+        });
+    }
+
+    /**
+     * Register the depth of the shared backfill queue.
+     */
+    public void registerBackfillQueueDepth(Supplier<Integer> depth) {
+        backfillQueueDepth = depth;
+        metrics.registerIntGauge(
+                "polybot_ingestor_backfill_queue_depth",
+                "User targets waiting for their next backfill page",
+                depth
+        );
+    }
+
+    public record UserTargetMeters(
+            Counter publishedTrades,
+            Counter polls,
+            Counter failures,
+            Supplier<Double> pollAgeSeconds,
+            Supplier<Double> lastTradeAgeSeconds,
+            Supplier<Boolean> backfillPending
+    ) {
+    }
 }
@@ -0,0 +1,135 @@
+package com.polybot.ingestor.polygon;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD limit on concurrent RPC requests. Each request that finishes within {@code targetLatencyMillis} raises the
+ * limit by about one per window. A slow request shrinks it slightly. A rate-limit response halves the limit and
+ * pauses new requests with exponential backoff.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+  private static final double SLOW_DECREASE = 0.9;
+  private static final double LATENCY_EWMA_ALPHA = 0.2;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final int minLimit;
+  private final int maxLimit;
+  private final long targetLatencyMillis;
+  private final long baseBackoffMillis;
+  private final long maxBackoffMillis;
+
+  private double limit;
+  private int inFlight;
+  private long pausedUntilMillis;
+  private long backoffMillis;
+  private double latencyEwmaMillis;
+  private long throttles;
+
+  public AdaptiveConcurrencyLimit(int initialLimit, int maxLimit, long targetLatencyMillis, long baseBackoffMillis) {
+    this.minLimit = 1;
+    this.maxLimit = Math.max(1, maxLimit);
+    this.limit = Math.max(minLimit, Math.min(this.maxLimit, initialLimit));
+    this.targetLatencyMillis = Math.max(1, targetLatencyMillis);
+    this.baseBackoffMillis = Math.max(1, baseBackoffMillis);
+    this.maxBackoffMillis = Math.max(this.baseBackoffMillis, 30_000L);
+  }
+
+  public boolean tryAcquire(long nowMillis) {
+    lock.lock();
+    try {
+      if (nowMillis < pausedUntilMillis || inFlight >= (int) limit) {
+        return false;
+      }
+      inFlight++;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Releases a permit after a request that completed normally.
+   */
+  public void onSuccess(long latencyMillis) {
+    lock.lock();
+    try {
+      inFlight = Math.max(0, inFlight - 1);
+      latencyEwmaMillis = latencyEwmaMillis == 0
+          ? latencyMillis
+          : latencyEwmaMillis + LATENCY_EWMA_ALPHA * (latencyMillis - latencyEwmaMillis);
+      backoffMillis = 0;
+      if (latencyMillis <= targetLatencyMillis) {
+        limit = Math.min(maxLimit, limit + 1.0 / limit);
+      } else {
+        limit = Math.max(minLimit, limit * SLOW_DECREASE);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Releases a permit after the provider throttled the request.
+   */
+  public void onRateLimited(long nowMillis) {
+    lock.lock();
+    try {
+      inFlight = Math.max(0, inFlight - 1);
+      throttles++;
+      limit = Math.max(minLimit, limit / 2);
+      backoffMillis = backoffMillis == 0 ? baseBackoffMillis : Math.min(maxBackoffMillis, backoffMillis * 2);
+      pausedUntilMillis = Math.max(pausedUntilMillis, nowMillis + backoffMillis);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Releases a permit without adjusting the limit (transport errors say nothing about provider capacity).
+   */
+  public void onIgnore() {
+    lock.lock();
+    try {
+      inFlight = Math.max(0, inFlight - 1);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int limit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int inFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long latencyEwmaMillis() {
+    lock.lock();
+    try {
+      return Math.round(latencyEwmaMillis);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long throttles() {
+    lock.lock();
+    try {
+      return throttles;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,190 @@
+package com.polybot.ingestor.polygon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigInteger;
+import java.util.Locale;
+
+/**
+ * Decodes Polymarket CTF Exchange logs returned by eth_getLogs.
+ *
+ * <pre>
+ * OrderFilled(bytes32 indexed orderHash, address indexed maker, address indexed taker,
+ *             uint256 makerAssetId, uint256 takerAssetId, uint256 makerAmountFilled, uint256 takerAmountFilled, uint256 fee)
+ * OrdersMatched(bytes32 indexed takerOrderHash, address indexed takerOrderMaker,
+ *               uint256 makerAssetId, uint256 takerAssetId, uint256 makerAmountFilled, uint256 takerAmountFilled)
+ * </pre>
+ *
+ * Asset id 0 is USDC; any other id is a CTF outcome token. Both use 6 decimals.
+ */
+public final class ExchangeLogDecoder {
+
+  public static final String ORDER_FILLED_TOPIC = "0xd0a08e8c493f9c94f29311604c9de1b4e8c8d4c06bd0c789af57f2d65bfec0f6";
+  public static final String ORDERS_MATCHED_TOPIC = "0x63bf4d16b7fa898ef4c4b2b6d90fd201e9c56313b65638af6088d149d2ce956c";
+
+  private static final int WORD_HEX = 64;
+
+  private ExchangeLogDecoder() {
+  }
+
+  /**
+   * Returns {@code null} for logs that are not OrderFilled / OrdersMatched, are removed (reorged), or are malformed.
+   */
+  public static ExchangeLog decode(JsonNode log) {
+    if (log == null || log.path("removed").asBoolean(false)) {
+      return null;
+    }
+    JsonNode topics = log.path("topics");
+    if (!topics.isArray() || topics.isEmpty()) {
+      return null;
+    }
+    String topic0 = topics.get(0).asText("").toLowerCase(Locale.ROOT);
+    String data = log.path("data").asText("");
+    if (!data.startsWith("0x")) {
+      return null;
+    }
+
+    String txHash = log.path("transactionHash").asText("").toLowerCase(Locale.ROOT);
+    long logIndex = hexLong(log.path("logIndex").asText(null));
+    long blockNumber = hexLong(log.path("blockNumber").asText(null));
+    String exchange = log.path("address").asText("").toLowerCase(Locale.ROOT);
+
+    if (ORDER_FILLED_TOPIC.equals(topic0) && topics.size() >= 4 && words(data) >= 5) {
+      return new OrderFilled(
+          txHash,
+          logIndex,
+          blockNumber,
+          exchange,
+          topics.get(1).asText("").toLowerCase(Locale.ROOT),
+          topicAddress(topics.get(2).asText("")),
+          topicAddress(topics.get(3).asText("")),
+          word(data, 0),
+          word(data, 1),
+          word(data, 2),
+          word(data, 3),
+          word(data, 4)
+      );
+    }
+    if (ORDERS_MATCHED_TOPIC.equals(topic0) && topics.size() >= 3 && words(data) >= 4) {
+      return new OrdersMatched(
+          txHash,
+          logIndex,
+          blockNumber,
+          exchange,
+          topics.get(1).asText("").toLowerCase(Locale.ROOT),
+          topicAddress(topics.get(2).asText("")),
+          word(data, 0),
+          word(data, 1),
+          word(data, 2),
+          word(data, 3)
+      );
+    }
+    return null;
+  }
+
+  /**
+   * Left-pads an address to a 32-byte topic, for eth_getLogs topic filters.
+   */
+  public static String addressTopic(String address) {
+    String clean = address.toLowerCase(Locale.ROOT);
+    if (clean.startsWith("0x")) {
+      clean = clean.substring(2);
+    }
+    return "0x" + "0".repeat(Math.max(0, WORD_HEX - clean.length())) + clean;
+  }
+
+  private static String topicAddress(String topic) {
+    String clean = topic.toLowerCase(Locale.ROOT);
+    if (clean.length() < 40) {
+      return "0x" + clean;
+    }
+    return "0x" + clean.substring(clean.length() - 40);
+  }
+
+  private static int words(String data) {
+    return (data.length() - 2) / WORD_HEX;
+  }
+
+  private static BigInteger word(String data, int index) {
+    int start = 2 + index * WORD_HEX;
+    return new BigInteger(data.substring(start, start + WORD_HEX), 16);
+  }
+
+  private static long hexLong(String hex) {
+    if (hex == null || !hex.startsWith("0x") || hex.length() < 3) {
+      return 0L;
+    }
+    return Long.parseLong(hex.substring(2), 16);
+  }
+
+  public sealed interface ExchangeLog permits OrderFilled, OrdersMatched {
+    String txHash();
+
+    long logIndex();
+
+    long blockNumber();
+
+    String exchange();
+
+    BigInteger makerAssetId();
+
+    BigInteger takerAssetId();
+
+    BigInteger makerAmountFilled();
+
+    BigInteger takerAmountFilled();
+
+    /**
+     * The order maker (OrderFilled) or the taker order's maker (OrdersMatched) buys outcome tokens when it pays USDC.
+     */
+    default boolean makerBuys() {
+      return makerAssetId().signum() == 0;
+    }
+
+    default BigInteger tokenId() {
+      return makerBuys() ? takerAssetId() : makerAssetId();
+    }
+
+    default BigInteger usdcAmountRaw() {
+      return makerBuys() ? makerAmountFilled() : takerAmountFilled();
+    }
+
+    default BigInteger sharesAmountRaw() {
+      return makerBuys() ? takerAmountFilled() : makerAmountFilled();
+    }
+
+    default String eventKey() {
+      return txHash() + ":" + logIndex();
+    }
+  }
+
+  public record OrderFilled(
+      String txHash,
+      long logIndex,
+      long blockNumber,
+      String exchange,
+      String orderHash,
+      String maker,
+      String taker,
+      BigInteger makerAssetId,
+      BigInteger takerAssetId,
+      BigInteger makerAmountFilled,
+      BigInteger takerAmountFilled,
+      BigInteger fee
+  ) implements ExchangeLog {
+  }
+
+  public record OrdersMatched(
+      String txHash,
+      long logIndex,
+      long blockNumber,
+      String exchange,
+      String takerOrderHash,
+      String takerOrderMaker,
+      BigInteger makerAssetId,
+      BigInteger takerAssetId,
+      BigInteger makerAmountFilled,
+      BigInteger takerAmountFilled
+  ) implements ExchangeLog {
+  }
+}
@@ -8,16 +8,43 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @Component
 @Slf4j
 public class PolygonJsonRpcClient {
 
+  /**
+   * JSON-RPC error codes providers use for throttling (-32005 "limit exceeded", some return the HTTP code).
+   */
+  private static final int RPC_LIMIT_EXCEEDED = -32005;
+  private static final int RPC_TOO_MANY_REQUESTS = 429;
+  /**
+   * Message fragments providers use when an eth_getLogs query spans too many blocks or matches too many logs.
+   */
+  private static final List<String> RANGE_TOO_LARGE_MESSAGES = List.of(
+      "block range",
+      "range too large",
+      "range is too large",
+      "too many results",
+      "more than 10000 results",
+      "query returned more than",
+      "response size exceeded",
+      "response size should not",
+      "is limited to"
+  );
+
   private final @NonNull RestClient rpc;
   private final @NonNull ObjectMapper objectMapper;
 
@@ -30,37 +57,111 @@ public class PolygonJsonRpcClient {
   }
 
   public JsonNode getTransactionReceipt(String txHash) {
-    ArrayNode params = objectMapper.createArrayNode().add(txHash);
-    return call("eth_getTransactionReceipt", params);
+    return call(receiptRequest(txHash));
   }
 
   public JsonNode getBlockByNumber(String blockNumberHex) {
-    ArrayNode params = objectMapper.createArrayNode().add(blockNumberHex).add(false);
-    return call("eth_getBlockByNumber", params);
+    return call(blockRequest(blockNumberHex));
   }
 
-  private JsonNode call(String method, ArrayNode params) {
-    ObjectNode req = objectMapper.createObjectNode();
-    req.put("jsonrpc", "2.0");
-    req.put("id", 1);
-    req.put("method", method);
-    req.set("params", params);
+  public long blockNumber() {
+    JsonNode result = call(new Request("eth_blockNumber", objectMapper.createArrayNode()));
+    String hex = result == null ? null : result.asText(null);
+    if (hex == null || !hex.startsWith("0x") || hex.length() < 3) {
+      throw new RuntimeException("polygon rpc invalid eth_blockNumber result=%s".formatted(result));
+    }
+    return Long.parseLong(hex.substring(2), 16);
+  }
+
+  /**
+   * Single attempt, no retries: provider range/result-size limits surface as {@link RpcErrorException} so the
+   * caller can shrink the block range instead of repeating the same query.
+   */
+  public JsonNode getLogs(ObjectNode filter) {
+    ArrayNode params = objectMapper.createArrayNode().add(filter);
+    JsonNode root = post(envelope(1, new Request("eth_getLogs", params)), "eth_getLogs");
+    JsonNode err = root.path("error");
+    if (!err.isMissingNode() && !err.isNull()) {
+      if (isRateLimit(err)) {
+        throw new RateLimitedException("polygon rpc rate limited method=eth_getLogs error=%s".formatted(err));
+      }
+      throw new RpcErrorException("eth_getLogs", err);
+    }
+    return root.path("result");
+  }
+
+  public Request receiptRequest(String txHash) {
+    return new Request("eth_getTransactionReceipt", objectMapper.createArrayNode().add(txHash));
+  }
+
+  public Request blockRequest(String blockNumberHex) {
+    return new Request("eth_getBlockByNumber", objectMapper.createArrayNode().add(blockNumberHex).add(false));
+  }
+
+  /**
+   * Sends all requests as one JSON-RPC batch (single HTTP round trip). Results are returned in request order;
+   * per-item errors are reported on the corresponding {@link Result} rather than failing the whole batch.
+   *
+   * No retries: the caller decides what to requeue. Throws {@link RateLimitedException} when the provider
+   * rejects the whole batch with HTTP 429.
+   */
+  public List<Result> batch(List<Request> requests) {
+    if (requests.isEmpty()) {
+      return List.of();
+    }
+    ArrayNode payload = objectMapper.createArrayNode();
+    for (int i = 0; i < requests.size(); i++) {
+      payload.add(envelope(i, requests.get(i)));
+    }
+
+    JsonNode root = post(payload, "batch[%d]".formatted(requests.size()));
+
+    List<Result> results = new ArrayList<>(requests.size());
+    if (!root.isArray()) {
+      // Some providers answer a batch with a single error object (e.g. batch too large / throttled).
+      JsonNode err = root.path("error");
+      if (isRateLimit(err)) {
+        throw new RateLimitedException("polygon rpc batch rate limited error=%s".formatted(err));
+      }
+      Result failed = new Result(null, err.isMissingNode() ? root : err);
+      for (int i = 0; i < requests.size(); i++) {
+        results.add(failed);
+      }
+      return results;
+    }
+
+    Map<Integer, JsonNode> byId = new HashMap<>(root.size() * 2);
+    for (JsonNode item : root) {
+      JsonNode id = item.path("id");
+      if (id.canConvertToInt()) {
+        byId.put(id.asInt(), item);
+      }
+    }
+    for (int i = 0; i < requests.size(); i++) {
+      JsonNode item = byId.get(i);
+      if (item == null) {
+        results.add(new Result(null, objectMapper.createObjectNode().put("message", "missing batch response")));
+        continue;
+      }
+      JsonNode err = item.path("error");
+      if (!err.isMissingNode() && !err.isNull()) {
+        results.add(new Result(null, err));
+      } else {
+        results.add(new Result(item.path("result"), null));
+      }
+    }
+    return results;
+  }
+
+  private JsonNode call(Request request) {
+    ObjectNode req = envelope(1, request);
+    String method = request.method();
 
     int maxAttempts = 3;
     Duration backoff = Duration.ofMillis(150);
     for (int attempt = 1; attempt <= maxAttempts; attempt++) {
       try {
-        String body = rpc.post()
-            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-            .body(req.toString())
-            .retrieve()
-            .body(String.class);
-
-        if (body == null || body.isBlank()) {
-          throw new RuntimeException("polygon rpc empty response method=%s".formatted(method));
-        }
-
-        JsonNode root = objectMapper.readTree(body);
+        JsonNode root = post(req, method);
         JsonNode err = root.path("error");
         if (err != null && !err.isMissingNode() && !err.isNull()) {
           throw new RuntimeException("polygon rpc error method=%s error=%s".formatted(method, err.toString()));
@@ -88,4 +189,100 @@ public class PolygonJsonRpcClient {
 
     throw new IllegalStateException("unreachable");
   }
+
+  private JsonNode post(JsonNode payload, String label) {
+    String body;
+    try {
+      body = rpc.post()
+          .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+          .body(payload.toString())
+          .retrieve()
+          .body(String.class);
+    } catch (RestClientResponseException e) {
+      if (e.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+        throw new RateLimitedException("polygon rpc rate limited method=%s".formatted(label));
+      }
+      throw e;
+    }
+
+    if (body == null || body.isBlank()) {
+      throw new RuntimeException("polygon rpc empty response method=%s".formatted(label));
+    }
+    try {
+      return objectMapper.readTree(body);
+    } catch (Exception e) {
+      throw new RuntimeException("polygon rpc invalid response method=%s".formatted(label), e);
+    }
+  }
+
+  private ObjectNode envelope(int id, Request request) {
+    ObjectNode req = objectMapper.createObjectNode();
+    req.put("jsonrpc", "2.0");
+    req.put("id", id);
+    req.put("method", request.method());
+    req.set("params", request.params());
+    return req;
+  }
+
+  public static boolean isRateLimit(JsonNode error) {
+    if (error == null || error.isMissingNode() || error.isNull()) {
+      return false;
+    }
+    int code = error.path("code").asInt(0);
+    if (code == RPC_LIMIT_EXCEEDED || code == RPC_TOO_MANY_REQUESTS) {
+      return true;
+    }
+    String message = error.path("message").asText("");
+    return message.contains("rate limit") || message.contains("Too Many Requests");
+  }
+
+  /**
+   * Whether the provider refused eth_getLogs because the block range or the result set is too large, i.e. a smaller
+   * range would succeed.
+   */
+  public static boolean isRangeTooLarge(JsonNode error) {
+    if (error == null || error.isMissingNode() || error.isNull()) {
+      return false;
+    }
+    String message = error.path("message").asText("").toLowerCase(Locale.ROOT);
+    return RANGE_TOO_LARGE_MESSAGES.stream().anyMatch(message::contains);
+  }
+
+  public record Request(
+      String method,
+      ArrayNode params
+  ) {
+  }
+
+  public record Result(
+      JsonNode result,
+      JsonNode error
+  ) {
+    public boolean isError() {
+      return error != null;
+    }
+
+    public boolean isRateLimited() {
+      return isRateLimit(error);
+    }
+  }
+
+  public static class RateLimitedException extends RuntimeException {
+    public RateLimitedException(String message) {
+      super(message);
+    }
+  }
+
+  public static class RpcErrorException extends RuntimeException {
+    private final transient JsonNode error;
+
+    public RpcErrorException(String method, JsonNode error) {
+      super("polygon rpc error method=%s error=%s".formatted(method, error));
+      this.error = error;
+    }
+
+    public JsonNode error() {
+      return error;
+    }
+  }
 }
@@ -3,6 +3,7 @@ package com.polybot.ingestor.polymarket;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.polybot.hft.polymarket.http.RequestRateLimiter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +17,7 @@ import org.springframework.web.client.RestClient;
 public class PolymarketDataApiClient {
 
   private final @NonNull @Qualifier("polymarketDataApiRestClient") RestClient polymarketDataApiRestClient;
+  private final @NonNull @Qualifier("polymarketDataApiRateLimiter") RequestRateLimiter polymarketDataApiRateLimiter;
   private final @NonNull ObjectMapper objectMapper;
 
   public ArrayNode getTrades(String userAddress, int limit, int offset) {
@@ -27,6 +29,7 @@ public class PolymarketDataApiClient {
   }
 
   public ArrayNode getMarketTrades(String marketSlug, int limit, int offset) {
+    polymarketDataApiRateLimiter.acquire();
     String body = polymarketDataApiRestClient.get()
         .uri(uriBuilder -> uriBuilder
             .path("/trades")
@@ -54,6 +57,7 @@ public class PolymarketDataApiClient {
   }
 
   private ArrayNode getArray(String path, String userAddress, int limit, int offset) {
+    polymarketDataApiRateLimiter.acquire();
     String body = polymarketDataApiRestClient.get()
         .uri(uriBuilder -> uriBuilder
             .path(path)
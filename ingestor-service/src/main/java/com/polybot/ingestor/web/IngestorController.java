@@ -7,6 +7,7 @@ import com.polybot.ingestor.config.MarketWsProperties;
 import com.polybot.ingestor.ingest.PolymarketMarketContextIngestor;
 import com.polybot.ingestor.ingest.PolymarketUpDownMarketWsIngestor;
 import com.polybot.ingestor.ingest.PolymarketUserIngestor;
+import com.polybot.ingestor.ingest.PolygonLogScanIngestor;
 import com.polybot.ingestor.ingest.PolygonTxReceiptIngestor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.env.Environment;
@@ -14,6 +15,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/ingestor")
 @RequiredArgsConstructor
@@ -28,6 +31,7 @@ public class IngestorController {
   private final PolymarketUpDownMarketWsIngestor marketWsIngestor;
   private final ClobMarketWebSocketClient marketWsClient;
   private final PolygonTxReceiptIngestor polygonTxReceipts;
+  private final PolygonLogScanIngestor polygonLogScan;
 
   @GetMapping("/status")
   public Status status() {
@@ -51,6 +55,9 @@ public class IngestorController {
         marketWsIngestor.cycles(),
         marketWsIngestor.marketsDiscovered(),
         marketWsIngestor.slugFetchFailures(),
+        marketWsIngestor.slugFetches(),
+        marketWsIngestor.slugCacheHits(),
+        marketWsIngestor.upcomingMarkets(),
         marketWsClient.isStarted(),
         marketWsClient.subscribedAssetCount(),
         marketWsClient.topOfBookCount(),
@@ -63,13 +70,20 @@ public class IngestorController {
         ingestor.lastPollAtMillis(),
         ingestor.lastPositionsSnapshotAtMillis(),
         ingestor.target(),
+        ingestor.targetStats(),
+        ingestorProperties.polling().maxConcurrentTargets(),
+        ingestorProperties.polling().dataApiRequestsPerSecond(),
+        ingestor.backfillQueueDepth(),
         marketContext.trackedMarkets(),
         marketContext.publishedGammaSnapshots(),
         marketContext.publishedClobTobs(),
+        marketContext.publishedWsTobs(),
         marketContext.publishedMarketTrades(),
         marketContext.gammaPolls(),
         marketContext.lastGammaPollAtMillis(),
         marketContext.failures(),
+        marketContext.inFlightFetches(),
+        marketContext.coalescedFetches(),
         polygonTxReceipts.polls(),
         polygonTxReceipts.publishedReceipts(),
         polygonTxReceipts.failures(),
@@ -77,7 +91,18 @@ public class IngestorController {
         polygonTxReceipts.queuedTxCount(),
         polygonTxReceipts.inFlightTxCount(),
         polygonTxReceipts.receiptWorkers(),
-        polygonTxReceipts.blockTimestampCacheSize()
+        polygonTxReceipts.rpcConcurrencyLimit(),
+        polygonTxReceipts.rpcBatchLatencyMillis(),
+        polygonTxReceipts.rpcThrottles(),
+        polygonTxReceipts.blockTimestampCacheSize(),
+        polygonLogScan.runs(),
+        polygonLogScan.scannedRanges(),
+        polygonLogScan.rangeSplits(),
+        polygonLogScan.publishedFills(),
+        polygonLogScan.failures(),
+        polygonLogScan.blockRange(),
+        polygonLogScan.lastScannedBlock(),
+        polygonLogScan.headBlock()
     );
   }
 
@@ -101,6 +126,9 @@ public class IngestorController {
       long marketWsCycles,
       long marketWsMarketsDiscovered,
       long marketWsSlugFetchFailures,
+      long marketWsSlugFetches,
+      long marketWsSlugCacheHits,
+      int marketWsUpcomingMarkets,
       boolean marketWsClientStarted,
       int marketWsSubscribedAssets,
       int marketWsTopOfBookAssets,
@@ -113,13 +141,20 @@ public class IngestorController {
       long lastPollAtMillis,
       long lastPositionsSnapshotAtMillis,
       PolymarketUserIngestor.TargetStatus target,
+      List<PolymarketUserIngestor.TargetStats> targets,
+      int maxConcurrentTargets,
+      double dataApiRequestsPerSecond,
+      int userBackfillQueueDepth,
       int marketContextTrackedMarkets,
       long marketContextPublishedGammaSnapshots,
       long marketContextPublishedClobTobs,
+      long marketContextPublishedWsTobs,
       long marketContextPublishedMarketTrades,
       long marketContextGammaPolls,
       long marketContextLastGammaPollAtMillis,
       long marketContextFailures,
+      int marketContextInFlightFetches,
+      long marketContextCoalescedFetches,
       long polygonTxPolls,
       long polygonTxPublishedReceipts,
       long polygonTxFailures,
@@ -127,7 +162,18 @@ public class IngestorController {
       int polygonTxQueuedCount,
       int polygonTxInFlightCount,
       int polygonTxReceiptWorkers,
-      int polygonTxBlockTimestampCacheSize
+      int polygonTxRpcConcurrencyLimit,
+      long polygonTxRpcBatchLatencyMillis,
+      long polygonTxRpcThrottles,
+      int polygonTxBlockTimestampCacheSize,
+      long polygonLogScanRuns,
+      long polygonLogScanRanges,
+      long polygonLogScanRangeSplits,
+      long polygonLogScanPublishedFills,
+      long polygonLogScanFailures,
+      int polygonLogScanBlockRange,
+      long polygonLogScanLastScannedBlock,
+      long polygonLogScanHeadBlock
   ) {
   }
 }
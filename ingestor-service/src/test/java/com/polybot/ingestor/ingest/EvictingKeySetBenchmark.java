@@ -0,0 +1,196 @@
+package com.polybot.ingestor.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Memory / throughput comparison of {@link EvictingKeySet} against the previous synchronized LinkedHashMap
+ * implementation. The class name keeps surefire from picking it up; run it manually:
+ *
+ * <pre>
+ * mvn -pl ingestor-service test-compile
+ * java -Xms2g -Xmx2g -cp ingestor-service/target/test-classes:ingestor-service/target/classes \
+ *   com.polybot.ingestor.ingest.EvictingKeySetBenchmark [capacity] [threads] [seconds]
+ * </pre>
+ *
+ * or, with the default arguments, through surefire:
+ *
+ * <pre>
+ * POLYBOT_BENCHMARK=true mvn -pl ingestor-service -am test -Dtest=EvictingKeySetBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ *
+ * Keys are 0x-prefixed 64-hex-char strings (tx hash shaped). Memory is retained heap after GC with the set fully
+ * populated, excluding the key strings themselves (which the new set does not retain, but the old one did).
+ * Throughput is measured single-threaded and then with {@code threads} workers sharing one set, where the old
+ * set serializes every call on its monitor and the new one only contends within a stripe.
+ */
+public final class EvictingKeySetBenchmark {
+
+  @Test
+  @EnabledIfEnvironmentVariable(named = "POLYBOT_BENCHMARK", matches = "true")
+  void compareWithLegacy() throws Exception {
+    main(new String[0]);
+  }
+
+  public static void main(String[] args) throws Exception {
+    int capacity = args.length > 0 ? Integer.parseInt(args[0]) : 250_000;
+    int threads = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+    String[] keys = new String[capacity * 2];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = txHash(i);
+    }
+
+    System.out.printf(Locale.ROOT, "capacity=%d threads=%d seconds=%d%n", capacity, threads, seconds);
+    long keyBytes = retainedBytes(() -> {
+      String[] copy = new String[capacity];
+      for (int i = 0; i < capacity; i++) {
+        copy[i] = txHash(i);
+      }
+      return copy;
+    });
+    System.out.printf(Locale.ROOT, "key strings alone: %.1f MB%n", keyBytes / 1e6);
+
+    long legacyBytes = retainedBytes(() -> {
+      LegacyEvictingKeySet set = new LegacyEvictingKeySet(capacity);
+      for (int i = 0; i < capacity; i++) {
+        set.add(txHash(i));
+      }
+      return set;
+    });
+    long compactBytes = retainedBytes(() -> {
+      EvictingKeySet set = new EvictingKeySet(capacity);
+      for (int i = 0; i < capacity; i++) {
+        set.add(txHash(i));
+      }
+      return set;
+    });
+    System.out.printf(Locale.ROOT, "legacy  retained: %.1f MB (%.0f B/entry incl. keys)%n",
+        legacyBytes / 1e6, (double) legacyBytes / capacity);
+    System.out.printf(Locale.ROOT, "compact retained: %.1f MB (%.0f B/entry)%n",
+        compactBytes / 1e6, (double) compactBytes / capacity);
+
+    LegacyEvictingKeySet legacy = new LegacyEvictingKeySet(capacity);
+    EvictingKeySet compact = new EvictingKeySet(capacity);
+    for (int round = 0; round < 2; round++) {
+      String label = round == 0 ? "warmup " : "";
+      for (int workers : new int[]{1, threads}) {
+        System.out.printf(Locale.ROOT, "%slegacy  ops/s (%d threads): %,.0f%n",
+            label, workers, throughput(workers, seconds, keys, legacy::add, legacy::contains));
+        System.out.printf(Locale.ROOT, "%scompact ops/s (%d threads): %,.0f%n",
+            label, workers, throughput(workers, seconds, keys, compact::add, compact::contains));
+      }
+    }
+  }
+
+  /**
+   * Mixed workload: 1 add per 4 contains, over a key space twice the capacity so evictions happen continuously.
+   * Each op uses a fresh String copy, as keys parsed from API responses would be (no cached String.hashCode).
+   */
+  private static double throughput(int threads, int seconds, String[] keys, Predicate<String> add, Predicate<String> contains)
+      throws InterruptedException {
+    LongAdder ops = new LongAdder();
+    CountDownLatch start = new CountDownLatch(1);
+    long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      workers[t] = new Thread(() -> {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        long local = 0;
+        while ((local & 1023) != 0 || System.nanoTime() < deadline) {
+          String k = new String(keys[rnd.nextInt(keys.length)]);
+          if ((local % 5) == 0) {
+            add.test(k);
+          } else {
+            contains.test(k);
+          }
+          local++;
+        }
+        ops.add(local);
+      });
+      workers[t].start();
+    }
+    start.countDown();
+    for (Thread w : workers) {
+      w.join();
+    }
+    return ops.sum() / (double) seconds;
+  }
+
+  private static volatile Object sink;
+
+  private static long retainedBytes(Supplier<Object> build) {
+    sink = null;
+    long before = usedAfterGc();
+    sink = build.get();
+    long after = usedAfterGc();
+    sink = null;
+    return after - before;
+  }
+
+  /**
+   * Minimum over several full GCs; single readings fluctuate by a few MB depending on allocation buffers.
+   */
+  private static long usedAfterGc() {
+    Runtime rt = Runtime.getRuntime();
+    long min = Long.MAX_VALUE;
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      min = Math.min(min, rt.totalMemory() - rt.freeMemory());
+    }
+    return min;
+  }
+
+  private static String txHash(int i) {
+    long a = i * 0x9E3779B97F4A7C15L;
+    return "0x" + String.format(Locale.ROOT, "%016x%016x%016x%016x", a, ~a, a ^ 0x5555L, Long.rotateLeft(a, 17));
+  }
+
+  /**
+   * The pre-change implementation, kept here as the baseline.
+   */
+  private static final class LegacyEvictingKeySet {
+    private final int maxSize;
+    private final LinkedHashMap<String, Boolean> map;
+
+    private LegacyEvictingKeySet(int maxSize) {
+      this.maxSize = maxSize;
+      this.map = new LinkedHashMap<>(Math.min(maxSize, 16), 0.75f, false);
+    }
+
+    synchronized boolean add(String key) {
+      String k = key.trim();
+      if (map.containsKey(k)) {
+        return false;
+      }
+      map.put(k, Boolean.TRUE);
+      if (map.size() > maxSize) {
+        map.remove(map.keySet().iterator().next());
+      }
+      return true;
+    }
+
+    synchronized boolean contains(String key) {
+      return map.containsKey(key.trim());
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package com.polybot.ingestor.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EvictingKeySetTests {
+
+  @Test
+  void addIsIdempotentAndIgnoresBlankKeys() {
+    EvictingKeySet set = new EvictingKeySet(10);
+
+    assertThat(set.add(" 0xabc ")).isTrue();
+    assertThat(set.add("0xabc")).isFalse();
+    assertThat(set.contains("0xabc")).isTrue();
+    assertThat(set.add(null)).isFalse();
+    assertThat(set.add("  ")).isFalse();
+    assertThat(set.size()).isEqualTo(1);
+  }
+
+  @Test
+  void evictsOldestBeyondCapacity() {
+    EvictingKeySet set = new EvictingKeySet(3);
+    set.add("a");
+    set.add("b");
+    set.add("c");
+    set.add("d");
+
+    assertThat(set.contains("a")).isFalse();
+    assertThat(set.contains("b")).isTrue();
+    assertThat(set.contains("d")).isTrue();
+    assertThat(set.size()).isEqualTo(3);
+  }
+
+  @Test
+  void reAddedKeyIsNotEvictedByItsStaleInsertion() {
+    EvictingKeySet set = new EvictingKeySet(3);
+    set.add("a");
+    assertThat(set.remove("a")).isTrue();
+    assertThat(set.remove("a")).isFalse();
+    set.add("a");
+    set.add("b");
+
+    // Ring is [a(stale), a, b]; evicting the stale "a" insertion must not drop the live one.
+    set.add("c");
+    assertThat(set.contains("a")).isTrue();
+    assertThat(set.contains("b")).isTrue();
+    assertThat(set.contains("c")).isTrue();
+    assertThat(set.size()).isEqualTo(3);
+  }
+
+  @Test
+  void survivesChurnWithRemovalsAcrossManyStripes() {
+    // Stay well under capacity so per-stripe FIFO eviction does not kick in.
+    int capacity = 200_000;
+    int keys = capacity / 2;
+    EvictingKeySet set = new EvictingKeySet(capacity);
+    for (int i = 0; i < keys; i++) {
+      assertThat(set.add("0x" + i)).isTrue();
+      if (i % 3 == 0) {
+        assertThat(set.remove("0x" + i)).isTrue();
+      }
+    }
+    for (int i = 0; i < keys; i++) {
+      assertThat(set.contains("0x" + i)).isEqualTo(i % 3 != 0);
+    }
+    assertThat(set.size()).isEqualTo(keys - (keys + 2) / 3);
+  }
+
+  @Test
+  void concurrentAddsDeduplicate() throws Exception {
+    EvictingKeySet set = new EvictingKeySet(100_000);
+    AtomicInteger accepted = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(pool.submit(() -> {
+          for (int i = 0; i < 10_000; i++) {
+            if (set.add("trade-" + i)) {
+              accepted.incrementAndGet();
+            }
+          }
+        }));
+      }
+      for (Future<?> f : futures) {
+        f.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    assertThat(accepted.get()).isEqualTo(10_000);
+    assertThat(set.size()).isEqualTo(10_000);
+  }
+}
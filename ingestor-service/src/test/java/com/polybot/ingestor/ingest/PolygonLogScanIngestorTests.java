@@ -0,0 +1,201 @@
+package com.polybot.ingestor.ingest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.polybot.hft.events.HftEventPublisher;
+import com.polybot.ingestor.config.CheckpointProperties;
+import com.polybot.ingestor.config.PolygonLogScanProperties;
+import com.polybot.ingestor.polygon.PolygonJsonRpcClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PolygonLogScanIngestorTests {
+
+  private static final String PROXY = "0x6031b6eed1c97e853c6e0f03ad3ce3529351f96d";
+  private static final long HEAD = 63_121_000L;
+
+  @TempDir
+  Path dir;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final PolygonJsonRpcClient rpc = mock(PolygonJsonRpcClient.class);
+  private final HftEventPublisher events = mock(HftEventPublisher.class);
+  private final AtomicLong now = new AtomicLong(1_000_000L);
+  private final Clock clock = mock(Clock.class);
+  private final List<Map<String, Object>> published = new CopyOnWriteArrayList<>();
+  private final List<long[]> ranges = new CopyOnWriteArrayList<>();
+
+  private IngestionCheckpointStore checkpoints;
+  private PolygonLogScanIngestor scanner;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    when(clock.millis()).thenAnswer(inv -> now.get());
+    when(clock.instant()).thenAnswer(inv -> Instant.ofEpochMilli(now.get()));
+    when(events.isEnabled()).thenReturn(true);
+    doAnswer(inv -> {
+      published.add(inv.getArgument(3));
+      return null;
+    }).when(events).publish(any(Instant.class), eq(PolygonLogScanIngestor.ORDER_FILLED_EVENT_TYPE), anyString(), any());
+    when(rpc.blockNumber()).thenReturn(HEAD);
+
+    PolymarketUserIngestor userIngestor = mock(PolymarketUserIngestor.class);
+    when(userIngestor.targets()).thenReturn(List.of(
+        new PolymarketUserIngestor.TargetStatus("target", null, PROXY, null, Instant.EPOCH)));
+    checkpoints = new IngestionCheckpointStore(
+        new CheckpointProperties(true, dir.resolve("checkpoints.json").toString(), null, null, null, null),
+        objectMapper, clock);
+    checkpoints.load();
+    // One 1000-block range from the fixture blocks up to head.
+    scanner = new PolygonLogScanIngestor(new PolygonLogScanProperties(true, null, null, 1_000, 0, 999L, 1),
+        rpc, userIngestor, events, checkpoints, objectMapper, clock);
+  }
+
+  @Test
+  void scan_publishesOneRowPerFillWithTheRoleOfTheProxysOrder() throws Exception {
+    when(rpc.getLogs(any())).thenAnswer(inv -> matching(inv.getArgument(0)));
+
+    scanner.scan();
+
+    assertThat(published).hasSize(2);
+    Map<String, Object> taken = published.get(0);
+    assertThat(taken.get("proxyRole")).isEqualTo("TAKER");
+    assertThat(taken.get("makerSide")).isEqualTo("BUY");
+    assertThat(taken.get("sharesAmount").toString()).isEqualTo("100.000000");
+    assertThat(taken.get("price").toString()).isEqualTo("0.520000");
+    Map<String, Object> rested = published.get(1);
+    assertThat(rested.get("proxyRole")).isEqualTo("MAKER");
+    assertThat(rested.get("makerSide")).isEqualTo("SELL");
+    assertThat(rested.get("sharesAmount").toString()).isEqualTo("25.000000");
+    assertThat(rested.get("price").toString()).isEqualTo("0.610000");
+    assertThat(checkpoints.logScanNextBlock(PROXY)).isEqualTo(HEAD + 1);
+  }
+
+  @Test
+  void scan_halvesTheRangeOnlyWhenTheProviderSaysItIsTooLarge() throws Exception {
+    when(rpc.getLogs(any()))
+        .thenAnswer(inv -> fail(inv.getArgument(0), new PolygonJsonRpcClient.RpcErrorException("eth_getLogs",
+            error(-32005, "query returned more than 10000 results"))))
+        .thenAnswer(inv -> matching(inv.getArgument(0)));
+
+    scanner.scan();
+
+    assertThat(scanner.rangeSplits()).isEqualTo(1);
+    assertThat(scanner.blockRange()).isEqualTo(500);
+    assertThat(ranges).extracting(r -> r[0]).containsExactly(HEAD - 999, HEAD - 999);
+    assertThat(ranges.get(1)[1]).isEqualTo(HEAD - 500);
+  }
+
+  @Test
+  void scan_backsOffAndRetriesTheSameRangeOnOtherErrors() throws Exception {
+    when(rpc.getLogs(any()))
+        .thenAnswer(inv -> fail(inv.getArgument(0),
+            new PolygonJsonRpcClient.RpcErrorException("eth_getLogs", error(-32000, "header not found"))))
+        .thenAnswer(inv -> fail(inv.getArgument(0), new IllegalStateException("connection reset")))
+        .thenAnswer(inv -> matching(inv.getArgument(0)));
+
+    scanner.scan();
+    assertThat(scanner.blockRange()).isEqualTo(1_000);
+    assertThat(checkpoints.logScanNextBlock(PROXY)).isNull();
+
+    // Backing off: the next scheduled run doesn't query.
+    scanner.scan();
+    assertThat(ranges).hasSize(1);
+
+    now.addAndGet(15_000L);
+    scanner.scan();
+    // The wait doubled after the second failure.
+    now.addAndGet(15_000L);
+    scanner.scan();
+    assertThat(ranges).hasSize(2);
+    now.addAndGet(15_000L);
+    scanner.scan();
+
+    assertThat(ranges).extracting(r -> r[0]).containsOnly(HEAD - 999);
+    assertThat(ranges).extracting(r -> r[1]).containsOnly(HEAD);
+    assertThat(scanner.rangeSplits()).isZero();
+    assertThat(scanner.failures()).isEqualTo(2);
+    assertThat(published).hasSize(2);
+  }
+
+  /**
+   * Answers eth_getLogs from the fixture the way a node applies the filter: block range and topic[0]/topic[2].
+   */
+  private JsonNode matching(ObjectNode filter) throws Exception {
+    long[] range = record(filter);
+    long from = range[0];
+    long to = range[1];
+    JsonNode topics = filter.get("topics");
+    ArrayNode out = objectMapper.createArrayNode();
+    for (JsonNode l : fixture()) {
+      long block = Long.parseLong(l.get("blockNumber").asText().substring(2), 16);
+      if (block < from || block > to) {
+        continue;
+      }
+      if (matches(topics.get(0), l.get("topics").get(0)) && matches(topics.get(2), l.get("topics").get(2))) {
+        out.add(l);
+      }
+    }
+    return out;
+  }
+
+  private JsonNode fail(ObjectNode filter, RuntimeException error) {
+    record(filter);
+    throw error;
+  }
+
+  private long[] record(ObjectNode filter) {
+    long[] range = {
+        Long.parseLong(filter.get("fromBlock").asText().substring(2), 16),
+        Long.parseLong(filter.get("toBlock").asText().substring(2), 16)
+    };
+    ranges.add(range);
+    return range;
+  }
+
+  private static boolean matches(JsonNode wanted, JsonNode topic) {
+    if (wanted == null || wanted.isNull()) {
+      return true;
+    }
+    if (wanted.isArray()) {
+      for (JsonNode w : wanted) {
+        if (w.asText().equals(topic.asText())) {
+          return true;
+        }
+      }
+      return false;
+    }
+    return wanted.asText().equals(topic.asText());
+  }
+
+  private JsonNode fixture() throws Exception {
+    try (InputStream in = getClass().getResourceAsStream("/polygon/exchange-logs.json")) {
+      return objectMapper.readTree(in).get("result");
+    }
+  }
+
+  private JsonNode error(int code, String message) {
+    return objectMapper.createObjectNode().put("code", code).put("message", message);
+  }
+}
@@ -0,0 +1,365 @@
+package com.polybot.ingestor.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.polybot.hft.events.HftEventPublisher;
+import com.polybot.hft.polymarket.http.TokenBucketRateLimiter;
+import com.polybot.hft.metrics.PolybotMetrics;
+import com.polybot.ingestor.config.CheckpointProperties;
+import com.polybot.ingestor.config.IngestorProperties;
+import com.polybot.ingestor.metrics.IngestorMetricsService;
+import com.polybot.ingestor.polymarket.PolymarketDataApiClient;
+import com.polybot.ingestor.polymarket.PolymarketProfileResolver;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PolymarketUserIngestorTests {
+
+  private static final String PROXY = "0x1111111111111111111111111111111111111111";
+  private static final String PROXY_2 = "0x2222222222222222222222222222222222222222";
+  private static final String PROXY_3 = "0x3333333333333333333333333333333333333333";
+  private static final long NEWEST_TS = 1_767_225_600L;
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  private final List<PolymarketUserIngestor> started = new ArrayList<>();
+
+  @TempDir
+  Path dir;
+
+  @AfterEach
+  void tearDown() {
+    started.forEach(PolymarketUserIngestor::shutdown);
+  }
+
+  @Test
+  void restartAfterInterruptedFullBackfillResumesOlderHistory() {
+    List<String> history = new CopyOnWriteArrayList<>();
+    for (int i = 0; i < 350; i++) {
+      history.add("0xold" + i);
+    }
+
+    // First run: the Data API fails from the third page on, then the process goes away.
+    Run first = start(history, 200);
+    runUntil(first.ingestor, () -> first.published.size() == 200 && first.ingestor.failures() > 0);
+    first.stop();
+    assertThat(first.checkpoints.tradeCursor(PROXY).fullBackfillComplete()).isFalse();
+
+    // While it was down, 20 newer trades arrived in front of the history.
+    for (int i = 0; i < 20; i++) {
+      history.add(0, "0xnew" + i);
+    }
+    Run second = start(history, Integer.MAX_VALUE);
+    runUntil(second.ingestor, () -> second.ingestor.backfillQueueDepth() == 0 && second.published.size() == 170);
+    second.stop();
+
+    List<String> all = new ArrayList<>(first.published);
+    all.addAll(second.published);
+    assertThat(all).doesNotHaveDuplicates().hasSize(370);
+    assertThat(second.checkpoints.tradeCursor(PROXY).fullBackfillComplete()).isTrue();
+
+    // Once complete, a restart only catches up from the newest trade.
+    Run third = start(history, Integer.MAX_VALUE);
+    runUntil(third.ingestor, () -> third.ingestor.backfillQueueDepth() == 0 && !third.offsets.isEmpty());
+    third.stop();
+    assertThat(third.offsets).containsOnly(0);
+    assertThat(third.published).isEmpty();
+  }
+
+  @Test
+  void failedBackfillPageIsRetriedWithBackoffUntilTheJobCompletes() {
+    List<String> history = new ArrayList<>();
+    for (int i = 0; i < 150; i++) {
+      history.add("0xold" + i);
+    }
+    MutableClock clock = new MutableClock();
+    AtomicInteger failuresLeft = new AtomicInteger(2);
+    List<Integer> offsets = new CopyOnWriteArrayList<>();
+    PolymarketDataApiClient dataApi = mock(PolymarketDataApiClient.class);
+    when(dataApi.getTrades(anyString(), anyInt(), anyInt())).thenAnswer(inv -> {
+      int offset = inv.getArgument(2);
+      offsets.add(offset);
+      if (offset == 100 && failuresLeft.getAndDecrement() > 0) {
+        throw new IllegalStateException("data api unavailable");
+      }
+      return page(history, inv.getArgument(1), offset);
+    });
+    when(dataApi.getPositions(anyString(), anyInt(), anyInt())).thenReturn(objectMapper.createArrayNode());
+    Run run = start(List.of(PROXY), dataApi, clock, 8);
+
+    runUntil(run.ingestor, () -> run.ingestor.failures() == 1);
+    for (int i = 0; i < 5; i++) {
+      run.ingestor.poll();
+    }
+    // Still backing off: no second attempt yet, and the job hasn't been dropped as done.
+    assertThat(offsets).containsExactly(0, 100);
+    assertThat(run.ingestor.backfillQueueDepth()).isEqualTo(1);
+
+    clock.advance(1_000);
+    runUntil(run.ingestor, () -> run.ingestor.failures() == 2);
+    assertThat(run.checkpoints.tradeCursor(PROXY).fullBackfillComplete()).isFalse();
+
+    // The backoff doubled.
+    clock.advance(1_000);
+    for (int i = 0; i < 5; i++) {
+      run.ingestor.poll();
+    }
+    assertThat(offsets).containsExactly(0, 100, 100);
+    clock.advance(1_000);
+    runUntil(run.ingestor, () -> run.ingestor.backfillQueueDepth() == 0);
+    run.stop();
+
+    assertThat(run.published).hasSize(150).doesNotHaveDuplicates();
+    assertThat(run.checkpoints.tradeCursor(PROXY).fullBackfillComplete()).isTrue();
+  }
+
+  @Test
+  void poll_pollsEveryTargetWithAtMostMaxConcurrentInFlight() {
+    List<String> proxies = List.of(PROXY, PROXY_2, PROXY_3);
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger peak = new AtomicInteger();
+    Set<String> polled = ConcurrentHashMap.newKeySet();
+    PolymarketDataApiClient dataApi = mock(PolymarketDataApiClient.class);
+    when(dataApi.getTrades(anyString(), anyInt(), anyInt())).thenAnswer(inv -> {
+      peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(50);
+        polled.add(inv.getArgument(0));
+        return objectMapper.createArrayNode();
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    });
+    when(dataApi.getPositions(anyString(), anyInt(), anyInt())).thenReturn(objectMapper.createArrayNode());
+
+    Run run = start(proxies, dataApi, Clock.systemUTC(), 2, false);
+    runUntil(run.ingestor, () -> polled.size() == 3);
+    run.stop();
+
+    assertThat(polled).containsExactlyInAnyOrderElementsOf(proxies);
+    assertThat(peak.get()).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  void backfillsShareTheDataApiBudgetRoundRobin() throws Exception {
+    // A short and a long history behind the real client and a shared token bucket.
+    Map<String, List<String>> histories = Map.of(PROXY, history("0xa", 250), PROXY_2, history("0xb", 1_000));
+    List<String> requests = new CopyOnWriteArrayList<>();
+    HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", exchange -> {
+      Map<String, String> query = new HashMap<>();
+      for (String kv : exchange.getRequestURI().getQuery().split("&")) {
+        String[] parts = kv.split("=", 2);
+        query.put(parts[0], parts[1]);
+      }
+      ArrayNode body = objectMapper.createArrayNode();
+      if (exchange.getRequestURI().getPath().equals("/trades")) {
+        requests.add(query.get("user"));
+        body = page(histories.get(query.get("user")), Integer.parseInt(query.get("limit")), Integer.parseInt(query.get("offset")));
+      }
+      byte[] bytes = objectMapper.writeValueAsBytes(body);
+      exchange.sendResponseHeaders(200, bytes.length);
+      exchange.getResponseBody().write(bytes);
+      exchange.close();
+    });
+    server.start();
+    try {
+      double rps = 100.0;
+      PolymarketDataApiClient dataApi = new PolymarketDataApiClient(
+          RestClient.builder().baseUrl("http://127.0.0.1:" + server.getAddress().getPort()).build(),
+          new TokenBucketRateLimiter(rps, 1, Clock.systemUTC()),
+          objectMapper);
+      long startedNanos = System.nanoTime();
+      Run run = start(List.of(PROXY, PROXY_2), dataApi, Clock.systemUTC(), 8);
+      runUntil(run.ingestor, () -> run.published.size() == 1_250 && run.ingestor.backfillQueueDepth() == 0);
+      long elapsedMillis = (System.nanoTime() - startedNanos) / 1_000_000;
+      run.stop();
+
+      // The short backfill takes 4 pages (the last one empty). Interleaved, the long one is at most a page ahead by
+      // then; run one after the other, it would already have taken all of its 11.
+      List<String> backfill = List.copyOf(requests);
+      int shortDone = indexOfNth(backfill, PROXY, 4);
+      long longBefore = backfill.subList(0, shortDone).stream().filter(PROXY_2::equals).count();
+      assertThat(longBefore).isBetween(3L, 5L);
+      // Every request took a token from the shared bucket.
+      assertThat(elapsedMillis).isGreaterThanOrEqualTo((long) ((backfill.size() - 1) / rps * 1000));
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  private Run start(List<String> history, int failFromOffset) {
+    List<Integer> offsets = new CopyOnWriteArrayList<>();
+    PolymarketDataApiClient dataApi = mock(PolymarketDataApiClient.class);
+    when(dataApi.getTrades(anyString(), anyInt(), anyInt())).thenAnswer(inv -> {
+      int limit = inv.getArgument(1);
+      int offset = inv.getArgument(2);
+      offsets.add(offset);
+      if (offset >= failFromOffset) {
+        throw new IllegalStateException("data api unavailable");
+      }
+      return page(history, limit, offset);
+    });
+    when(dataApi.getPositions(anyString(), anyInt(), anyInt())).thenReturn(objectMapper.createArrayNode());
+    Run run = start(List.of(PROXY), dataApi, Clock.systemUTC(), 8);
+    return new Run(run.ingestor, run.checkpoints, run.published, offsets);
+  }
+
+  private Run start(List<String> proxies, PolymarketDataApiClient dataApi, Clock clock, int maxConcurrentTargets) {
+    return start(proxies, dataApi, clock, maxConcurrentTargets, true);
+  }
+
+  private Run start(List<String> proxies, PolymarketDataApiClient dataApi, Clock clock, int maxConcurrentTargets,
+                    boolean backfillOnStart) {
+    IngestionCheckpointStore checkpoints = new IngestionCheckpointStore(
+        new CheckpointProperties(true, dir.resolve("checkpoints.json").toString(), null, null, null, null),
+        objectMapper, clock);
+    checkpoints.load();
+
+    List<String> published = Collections.synchronizedList(new ArrayList<>());
+    HftEventPublisher events = new HftEventPublisher() {
+      @Override
+      public boolean isEnabled() {
+        return true;
+      }
+
+      @Override
+      public void publish(Instant ts, String type, String key, Object data) {
+        if ("polymarket.user.trade".equals(type)) {
+          published.add(key);
+        }
+      }
+    };
+
+    IngestorMetricsService metrics = new IngestorMetricsService(new PolybotMetrics(new SimpleMeterRegistry()));
+    metrics.initializeMetrics();
+    List<IngestorProperties.TargetIdentity> targets = proxies.stream()
+        .map(proxy -> new IngestorProperties.TargetIdentity(null, proxy))
+        .toList();
+    PolymarketUserIngestor ingestor = new PolymarketUserIngestor(
+        new IngestorProperties(
+            new IngestorProperties.Polymarket(null, null, null, null, targets),
+            new IngestorProperties.Polling(true, backfillOnStart, 1, 100, 0L, null, maxConcurrentTargets, 100.0, 10),
+            null),
+        mock(PolymarketProfileResolver.class),
+        dataApi,
+        mock(PolymarketMarketContextIngestor.class),
+        mock(PolygonTxReceiptIngestor.class),
+        events,
+        checkpoints,
+        metrics,
+        clock);
+    ingestor.init();
+    ingestor.onReady();
+    started.add(ingestor);
+    return new Run(ingestor, checkpoints, published, List.of());
+  }
+
+  private static int indexOfNth(List<String> values, String value, int n) {
+    int seen = 0;
+    for (int i = 0; i < values.size(); i++) {
+      if (values.get(i).equals(value) && ++seen == n) {
+        return i;
+      }
+    }
+    throw new AssertionError(value + " requested fewer than " + n + " times: " + values);
+  }
+
+  private static List<String> history(String prefix, int trades) {
+    List<String> out = new ArrayList<>();
+    for (int i = 0; i < trades; i++) {
+      out.add(prefix + i);
+    }
+    return out;
+  }
+
+  /**
+   * Trades newest-first, as the Data API returns them; one second apart.
+   */
+  private ArrayNode page(List<String> history, int limit, int offset) {
+    ArrayNode out = objectMapper.createArrayNode();
+    for (int i = offset; i < Math.min(history.size(), offset + limit); i++) {
+      out.addObject()
+          .put("transactionHash", history.get(i))
+          .put("asset", "1")
+          .put("side", "BUY")
+          .put("timestamp", NEWEST_TS + history.size() - i);
+    }
+    return out;
+  }
+
+  private static void runUntil(PolymarketUserIngestor ingestor, BooleanSupplier condition) {
+    long deadline = System.nanoTime() + 10_000_000_000L;
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).as("condition not reached in time").isLessThan(deadline);
+      ingestor.poll();
+      try {
+        Thread.sleep(5);
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private static final class MutableClock extends Clock {
+    private final AtomicLong millis = new AtomicLong(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli());
+
+    void advance(long deltaMillis) {
+      millis.addAndGet(deltaMillis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis.get());
+    }
+  }
+
+  private record Run(
+      PolymarketUserIngestor ingestor,
+      IngestionCheckpointStore checkpoints,
+      List<String> published,
+      List<Integer> offsets
+  ) {
+    void stop() {
+      ingestor.shutdown();
+      checkpoints.close();
+    }
+  }
+}
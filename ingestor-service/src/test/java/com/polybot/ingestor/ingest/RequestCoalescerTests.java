@@ -0,0 +1,133 @@
+package com.polybot.ingestor.ingest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestCoalescerTests {
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void concurrentRequestsForSameKeyShareOneLoad() throws Exception {
+    RequestCoalescer<String, String> coalescer = new RequestCoalescer<>(executor, 4);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+
+    CompletableFuture<String> first = coalescer.submit("token", () -> {
+      calls.incrementAndGet();
+      release.await();
+      return "book";
+    });
+    CompletableFuture<String> second = coalescer.submit("token", () -> {
+      calls.incrementAndGet();
+      return "other";
+    });
+    release.countDown();
+
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("book");
+    assertThat(second).isSameAs(first);
+    assertThat(calls).hasValue(1);
+    assertThat(coalescer.coalesced()).isEqualTo(1);
+  }
+
+  @Test
+  void keyIsReleasedAfterCompletion() throws Exception {
+    RequestCoalescer<String, Integer> coalescer = new RequestCoalescer<>(executor, 1);
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThat(coalescer.submit("k", calls::incrementAndGet).get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    assertThat(coalescer.submit("k", calls::incrementAndGet).get(5, TimeUnit.SECONDS)).isEqualTo(2);
+    assertThat(coalescer.inFlight()).isZero();
+    assertThat(coalescer.loads()).isEqualTo(2);
+  }
+
+  @Test
+  void keyIsHeldUntilItsFutureIsComplete() throws Exception {
+    RequestCoalescer<String, String> coalescer = new RequestCoalescer<>(executor, 1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<String> first = coalescer.submit("k", () -> {
+      release.await();
+      return "book";
+    });
+    // Runs on the loader thread as the future completes: the key must still map to the finished load.
+    CompletableFuture<CompletableFuture<String>> fromCallback = first.thenApply(v -> coalescer.submit("k", () -> "again"));
+    release.countDown();
+
+    assertThat(fromCallback.get(5, TimeUnit.SECONDS)).isSameAs(first);
+    assertThat(coalescer.loads()).isEqualTo(1);
+  }
+
+  @Test
+  void boundsConcurrencyAcrossKeys() throws Exception {
+    RequestCoalescer<Integer, Integer> coalescer = new RequestCoalescer<>(executor, 2);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[8];
+    for (int i = 0; i < futures.length; i++) {
+      int key = i;
+      futures[i] = coalescer.submit(key, () -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread.sleep(20);
+        running.decrementAndGet();
+        return key;
+      });
+    }
+    CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+
+    assertThat(maxRunning.get()).isBetween(1, 2);
+  }
+
+  @Test
+  void coalescersSharingPermitsShareTheCap() throws Exception {
+    Semaphore permits = new Semaphore(2);
+    RequestCoalescer<Integer, Integer> first = new RequestCoalescer<>(executor, permits);
+    RequestCoalescer<Integer, Integer> second = new RequestCoalescer<>(executor, permits);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[8];
+    for (int i = 0; i < futures.length; i++) {
+      int key = i;
+      futures[i] = (i % 2 == 0 ? first : second).submit(key, () -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread.sleep(20);
+        running.decrementAndGet();
+        return key;
+      });
+    }
+    CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+
+    assertThat(maxRunning.get()).isBetween(1, 2);
+    assertThat(permits.availablePermits()).isEqualTo(2);
+  }
+
+  @Test
+  void failuresPropagateAndReleaseTheKey() throws Exception {
+    RequestCoalescer<String, String> coalescer = new RequestCoalescer<>(executor, 1);
+
+    CompletableFuture<String> failed = coalescer.submit("k", () -> {
+      throw new IllegalStateException("boom");
+    });
+    assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+
+    assertThat(coalescer.submit("k", () -> "ok").get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+  }
+}
@@ -0,0 +1,114 @@
+package com.polybot.ingestor.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTests {
+
+  private static final long TARGET_MILLIS = 100;
+  private static final long BACKOFF_MILLIS = 50;
+
+  @Test
+  void fastRequestsRaiseTheLimitByAboutOnePerWindow() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 16, TARGET_MILLIS, BACKOFF_MILLIS);
+
+    // 4 -> 4.25 -> 4.49 -> 4.71 -> 4.92 -> 5.12
+    for (int i = 0; i < 4; i++) {
+      succeed(limit, TARGET_MILLIS);
+    }
+    assertThat(limit.limit()).isEqualTo(4);
+    succeed(limit, TARGET_MILLIS);
+    assertThat(limit.limit()).isEqualTo(5);
+    assertThat(limit.inFlight()).isZero();
+  }
+
+  @Test
+  void slowRequestsShrinkTheLimitByATenth() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 16, TARGET_MILLIS, BACKOFF_MILLIS);
+
+    succeed(limit, TARGET_MILLIS + 1);
+    assertThat(limit.limit()).isEqualTo(9);
+    succeed(limit, TARGET_MILLIS + 1);
+    assertThat(limit.limit()).isEqualTo(8);
+  }
+
+  @Test
+  void rateLimitHalvesTheLimitAndPausesWithExponentialBackoff() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 16, TARGET_MILLIS, BACKOFF_MILLIS);
+
+    assertThat(limit.tryAcquire(1_000)).isTrue();
+    limit.onRateLimited(1_000);
+    assertThat(limit.limit()).isEqualTo(4);
+    assertThat(limit.tryAcquire(1_049)).isFalse();
+    assertThat(limit.tryAcquire(1_050)).isTrue();
+
+    limit.onRateLimited(1_050);
+    assertThat(limit.limit()).isEqualTo(2);
+    assertThat(limit.tryAcquire(1_149)).isFalse();
+    assertThat(limit.tryAcquire(1_150)).isTrue();
+    assertThat(limit.throttles()).isEqualTo(2);
+  }
+
+  @Test
+  void successResetsTheBackoff() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 16, TARGET_MILLIS, BACKOFF_MILLIS);
+    assertThat(limit.tryAcquire(1_000)).isTrue();
+    limit.onRateLimited(1_000);
+    assertThat(limit.tryAcquire(1_050)).isTrue();
+    limit.onRateLimited(1_050);
+
+    assertThat(limit.tryAcquire(1_150)).isTrue();
+    limit.onSuccess(TARGET_MILLIS);
+    assertThat(limit.tryAcquire(2_000)).isTrue();
+    limit.onRateLimited(2_000);
+
+    assertThat(limit.tryAcquire(2_049)).isFalse();
+    assertThat(limit.tryAcquire(2_050)).isTrue();
+  }
+
+  @Test
+  void limitStaysWithinOneAndTheMaximum() {
+    assertThat(new AdaptiveConcurrencyLimit(0, 16, TARGET_MILLIS, BACKOFF_MILLIS).limit()).isEqualTo(1);
+    assertThat(new AdaptiveConcurrencyLimit(50, 16, TARGET_MILLIS, BACKOFF_MILLIS).limit()).isEqualTo(16);
+
+    AdaptiveConcurrencyLimit atMax = new AdaptiveConcurrencyLimit(16, 16, TARGET_MILLIS, BACKOFF_MILLIS);
+    for (int i = 0; i < 100; i++) {
+      succeed(atMax, 1);
+    }
+    assertThat(atMax.limit()).isEqualTo(16);
+
+    AdaptiveConcurrencyLimit atMin = new AdaptiveConcurrencyLimit(2, 16, TARGET_MILLIS, BACKOFF_MILLIS);
+    long now = 0;
+    for (int i = 0; i < 5; i++) {
+      now += 60_000;
+      assertThat(atMin.tryAcquire(now)).isTrue();
+      atMin.onRateLimited(now);
+    }
+    assertThat(atMin.limit()).isEqualTo(1);
+    now += 60_000;
+    assertThat(atMin.tryAcquire(now)).isTrue();
+    atMin.onSuccess(TARGET_MILLIS * 10);
+    assertThat(atMin.limit()).isEqualTo(1);
+  }
+
+  @Test
+  void tryAcquireRefusesAtTheLimitUntilAPermitIsReleased() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 16, TARGET_MILLIS, BACKOFF_MILLIS);
+
+    assertThat(limit.tryAcquire(0)).isTrue();
+    assertThat(limit.tryAcquire(0)).isTrue();
+    assertThat(limit.tryAcquire(0)).isFalse();
+    assertThat(limit.inFlight()).isEqualTo(2);
+
+    limit.onIgnore();
+    assertThat(limit.limit()).isEqualTo(2);
+    assertThat(limit.tryAcquire(0)).isTrue();
+    assertThat(limit.tryAcquire(0)).isFalse();
+  }
+
+  private static void succeed(AdaptiveConcurrencyLimit limit, long latencyMillis) {
+    assertThat(limit.tryAcquire(0)).isTrue();
+    limit.onSuccess(latencyMillis);
+  }
+}
@@ -0,0 +1,97 @@
+package com.polybot.ingestor.polygon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.math.BigInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExchangeLogDecoderTests {
+
+  private static final String EXCHANGE = "0x4bfb41d5b3570defd03c39a9a4d8de6bd8b8982e";
+  private static final String PROXY = "0x6031b6eed1c97e853c6e0f03ad3ce3529351f96d";
+  private static final BigInteger TOKEN =
+      new BigInteger("21742633143463906290569050155826241533067272736897614950488156847949938836455");
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void decodesTheTakerOrderFillOfAMatch() throws Exception {
+    ExchangeLogDecoder.ExchangeLog decoded = ExchangeLogDecoder.decode(fixture(2));
+
+    assertThat(decoded).isInstanceOf(ExchangeLogDecoder.OrderFilled.class);
+    ExchangeLogDecoder.OrderFilled filled = (ExchangeLogDecoder.OrderFilled) decoded;
+    assertThat(filled.exchange()).isEqualTo(EXCHANGE);
+    assertThat(filled.maker()).isEqualTo(PROXY);
+    // The taker order is filled against the exchange itself.
+    assertThat(filled.taker()).isEqualTo(EXCHANGE);
+    assertThat(filled.blockNumber()).isEqualTo(63_120_455L);
+    assertThat(filled.logIndex()).isEqualTo(0x13aL);
+    assertThat(filled.eventKey()).isEqualTo("0x8f1c2a4b6d8e0f1a3c5e7b9d1f3a5c7e9b1d3f5a7c9e1b3d5f7a9c1e3b5d7f9a:314");
+    assertThat(filled.makerBuys()).isTrue();
+    assertThat(filled.tokenId()).isEqualTo(TOKEN);
+    assertThat(filled.usdcAmountRaw()).isEqualTo(BigInteger.valueOf(52_000_000L));
+    assertThat(filled.sharesAmountRaw()).isEqualTo(BigInteger.valueOf(100_000_000L));
+    assertThat(filled.fee()).isZero();
+  }
+
+  @Test
+  void decodesARestingOrderFillWithTheTakerOrderMakerAsTaker() throws Exception {
+    ExchangeLogDecoder.OrderFilled filled = (ExchangeLogDecoder.OrderFilled) ExchangeLogDecoder.decode(fixture(0));
+
+    assertThat(filled.maker()).isEqualTo("0x3b8a6e5a7c0c2b0f1b9d2e4f6a8c0e2d4f6a8b1c");
+    assertThat(filled.taker()).isEqualTo(PROXY);
+    assertThat(filled.makerBuys()).isFalse();
+    assertThat(filled.tokenId()).isEqualTo(TOKEN);
+    assertThat(filled.usdcAmountRaw()).isEqualTo(BigInteger.valueOf(31_200_000L));
+    assertThat(filled.sharesAmountRaw()).isEqualTo(BigInteger.valueOf(60_000_000L));
+  }
+
+  @Test
+  void decodesOrdersMatchedForTheTakerOrder() throws Exception {
+    ExchangeLogDecoder.ExchangeLog decoded = ExchangeLogDecoder.decode(fixture(3));
+
+    assertThat(decoded).isInstanceOf(ExchangeLogDecoder.OrdersMatched.class);
+    ExchangeLogDecoder.OrdersMatched matched = (ExchangeLogDecoder.OrdersMatched) decoded;
+    ExchangeLogDecoder.OrderFilled takerFill = (ExchangeLogDecoder.OrderFilled) ExchangeLogDecoder.decode(fixture(2));
+    // Same order and amounts as the taker's OrderFilled: the same fill logged twice.
+    assertThat(matched.takerOrderHash()).isEqualTo(takerFill.orderHash());
+    assertThat(matched.takerOrderMaker()).isEqualTo(PROXY);
+    assertThat(matched.usdcAmountRaw()).isEqualTo(takerFill.usdcAmountRaw());
+    assertThat(matched.sharesAmountRaw()).isEqualTo(takerFill.sharesAmountRaw());
+  }
+
+  @Test
+  void skipsRemovedAndUnrelatedLogs() throws Exception {
+    ObjectNode removed = fixture(2).deepCopy();
+    removed.put("removed", true);
+    assertThat(ExchangeLogDecoder.decode(removed)).isNull();
+
+    ObjectNode transfer = fixture(2).deepCopy();
+    transfer.putArray("topics")
+        .add("0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef")
+        .add(ExchangeLogDecoder.addressTopic(PROXY))
+        .add(ExchangeLogDecoder.addressTopic(EXCHANGE));
+    assertThat(ExchangeLogDecoder.decode(transfer)).isNull();
+
+    ObjectNode truncated = fixture(2).deepCopy();
+    truncated.put("data", truncated.get("data").asText().substring(0, 2 + 64 * 4));
+    assertThat(ExchangeLogDecoder.decode(truncated)).isNull();
+  }
+
+  @Test
+  void addressTopicMatchesTheIndexedTopic() throws Exception {
+    assertThat(ExchangeLogDecoder.addressTopic(PROXY.toUpperCase().replace("0X", "0x")))
+        .isEqualTo(fixture(2).get("topics").get(2).asText());
+  }
+
+  private JsonNode fixture(int index) throws Exception {
+    try (InputStream in = getClass().getResourceAsStream("/polygon/exchange-logs.json")) {
+      return objectMapper.readTree(in).get("result").get(index);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package com.polybot.ingestor.polygon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PolygonJsonRpcClientTests {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final AtomicReference<String> requestBody = new AtomicReference<>();
+  private final AtomicReference<String> responseBody = new AtomicReference<>("[]");
+  private final AtomicInteger responseStatus = new AtomicInteger(200);
+
+  private HttpServer server;
+  private PolygonJsonRpcClient client;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", exchange -> {
+      requestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+      byte[] bytes = responseBody.get().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(responseStatus.get(), bytes.length);
+      exchange.getResponseBody().write(bytes);
+      exchange.close();
+    });
+    server.start();
+    client = new PolygonJsonRpcClient(
+        RestClient.builder().baseUrl("http://127.0.0.1:" + server.getAddress().getPort()).build(),
+        objectMapper);
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void batch_mapsOutOfOrderRepliesBackToRequestOrder() throws Exception {
+    responseBody.set("""
+        [{"jsonrpc":"2.0","id":2,"result":{"transactionHash":"0xc"}},
+         {"jsonrpc":"2.0","id":0,"result":{"transactionHash":"0xa"}}]
+        """);
+
+    List<PolygonJsonRpcClient.Result> results = client.batch(List.of(
+        client.receiptRequest("0xa"), client.receiptRequest("0xb"), client.receiptRequest("0xc")));
+
+    JsonNode sent = objectMapper.readTree(requestBody.get());
+    assertThat(sent).hasSize(3);
+    assertThat(sent.get(1).path("id").asInt()).isEqualTo(1);
+    assertThat(sent.get(1).path("method").asText()).isEqualTo("eth_getTransactionReceipt");
+    assertThat(sent.get(1).path("params").get(0).asText()).isEqualTo("0xb");
+
+    assertThat(results).hasSize(3);
+    assertThat(results.get(0).result().path("transactionHash").asText()).isEqualTo("0xa");
+    assertThat(results.get(1).isError()).isTrue();
+    assertThat(results.get(1).error().path("message").asText()).isEqualTo("missing batch response");
+    assertThat(results.get(2).result().path("transactionHash").asText()).isEqualTo("0xc");
+  }
+
+  @Test
+  void batch_reportsItemErrorsOnTheirOwnResult() {
+    responseBody.set("""
+        [{"jsonrpc":"2.0","id":0,"result":null},
+         {"jsonrpc":"2.0","id":1,"error":{"code":-32000,"message":"header not found"}},
+         {"jsonrpc":"2.0","id":2,"error":{"code":-32005,"message":"limit exceeded"}}]
+        """);
+
+    List<PolygonJsonRpcClient.Result> results = client.batch(List.of(
+        client.blockRequest("0x1"), client.blockRequest("0x2"), client.blockRequest("0x3")));
+
+    assertThat(results.get(0).isError()).isFalse();
+    assertThat(results.get(0).result().isNull()).isTrue();
+    assertThat(results.get(1).isError()).isTrue();
+    assertThat(results.get(1).isRateLimited()).isFalse();
+    assertThat(results.get(1).error().path("code").asInt()).isEqualTo(-32000);
+    assertThat(results.get(2).isRateLimited()).isTrue();
+  }
+
+  @Test
+  void batch_appliesASingleErrorObjectToEveryRequest() {
+    responseBody.set("""
+        {"jsonrpc":"2.0","id":null,"error":{"code":-32600,"message":"batch too large"}}
+        """);
+
+    List<PolygonJsonRpcClient.Result> results = client.batch(List.of(
+        client.receiptRequest("0xa"), client.receiptRequest("0xb")));
+
+    assertThat(results).hasSize(2).allSatisfy(r -> {
+      assertThat(r.isError()).isTrue();
+      assertThat(r.isRateLimited()).isFalse();
+      assertThat(r.error().path("message").asText()).isEqualTo("batch too large");
+    });
+  }
+
+  @Test
+  void batch_throwsWhenTheWholeBatchIsRateLimited() {
+    responseBody.set("""
+        {"jsonrpc":"2.0","id":null,"error":{"code":-32005,"message":"limit exceeded"}}
+        """);
+    assertThatThrownBy(() -> client.batch(List.of(client.receiptRequest("0xa"))))
+        .isInstanceOf(PolygonJsonRpcClient.RateLimitedException.class);
+
+    responseStatus.set(429);
+    responseBody.set("{}");
+    assertThatThrownBy(() -> client.batch(List.of(client.receiptRequest("0xa"))))
+        .isInstanceOf(PolygonJsonRpcClient.RateLimitedException.class);
+  }
+
+  @Test
+  void batch_sendsNothingForNoRequests() {
+    assertThat(client.batch(List.of())).isEmpty();
+    assertThat(requestBody.get()).isNull();
+  }
+}
@@ -57,7 +57,7 @@ public record HftProperties(
   }
 
   private static Polymarket defaultPolymarket() {
-    return new Polymarket(null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+    return new Polymarket(null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
   }
 
   private static Rest defaultRest() {
@@ -151,7 +151,12 @@ public record HftProperties(
       /**
        * Minimum interval between reconnect attempts when the WS is stale/disconnected.
        */
-      @NotNull @PositiveOrZero Long marketWsReconnectBackoffMillis
+      @NotNull @PositiveOrZero Long marketWsReconnectBackoffMillis,
+      /**
+       * Top-of-book states kept per subscribed asset for as-of lookups (see {@link com.polybot.hft.polymarket.ws.TopOfBookHistory}).
+       * Set to 0 to disable.
+       */
+      @NotNull @PositiveOrZero Integer marketWsBookHistorySize
   ) {
     public Polymarket {
       if (clobRestUrl == null || clobRestUrl.isBlank()) {
@@ -198,6 +203,9 @@ public record HftProperties(
       if (marketWsReconnectBackoffMillis == null) {
         marketWsReconnectBackoffMillis = 10_000L;
       }
+      if (marketWsBookHistorySize == null) {
+        marketWsBookHistorySize = 2_048;
+      }
     }
   }
 
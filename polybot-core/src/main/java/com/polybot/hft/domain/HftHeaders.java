@@ -6,5 +6,7 @@ import lombok.experimental.UtilityClass;
 public class HftHeaders {
 
   public static final String LIVE_ACK = "X-HFT-LIVE-ACK";
+  public static final String ORDER_PRIORITY = "X-HFT-ORDER-PRIORITY";
+  public static final String LATENCY_TRACE = "X-HFT-LATENCY-TRACE";
 }
 
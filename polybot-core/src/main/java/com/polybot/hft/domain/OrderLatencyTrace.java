@@ -0,0 +1,132 @@
+package com.polybot.hft.domain;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wall-clock timestamps of one order's path from a book change to the CLOB acknowledging it. The strategy fills the
+ * first four stages and forwards them in the {@link HftHeaders#LATENCY_TRACE} header; the executor adds its own.
+ * The WS and TOB stages are only set when the book changed since the strategy's previous decision on the token, so
+ * a requote on an unchanged book doesn't count the time the book sat idle. Other stages are missing when a request
+ * comes without the header, or when nothing is signed (sim).
+ *
+ * @param wsReceivedAt WS frame carrying the book update arrived
+ * @param tobAppliedAt top of book updated from that frame
+ * @param decidedAt    engine decided to place the order
+ * @param sentAt       strategy sent the request to the executor
+ * @param receivedAt   executor received the request
+ * @param dequeuedAt   order gateway let the request through (the {@code queued} stage is the wait before)
+ * @param signedAt     order built and signed
+ * @param ackedAt      CLOB response received
+ */
+public record OrderLatencyTrace(
+    Instant wsReceivedAt,
+    Instant tobAppliedAt,
+    Instant decidedAt,
+    Instant sentAt,
+    Instant receivedAt,
+    Instant dequeuedAt,
+    Instant signedAt,
+    Instant ackedAt
+) {
+
+  public static final OrderLatencyTrace EMPTY = new OrderLatencyTrace(null, null, null, null, null, null, null, null);
+
+  private static final String[] STAGES =
+      {"ws_received", "tob_applied", "decided", "sent", "received", "queued", "signed", "acked"};
+  private static final String[] HEADER_KEYS = {"ws", "tob", "decided", "sent"};
+
+  public static OrderLatencyTrace decided(Instant wsReceivedAt, Instant tobAppliedAt, Instant decidedAt) {
+    return new OrderLatencyTrace(wsReceivedAt, tobAppliedAt, decidedAt, null, null, null, null, null);
+  }
+
+  public OrderLatencyTrace withSentAt(Instant at) {
+    return new OrderLatencyTrace(wsReceivedAt, tobAppliedAt, decidedAt, at, receivedAt, dequeuedAt, signedAt, ackedAt);
+  }
+
+  public OrderLatencyTrace withExecutorStages(Instant received, Instant dequeued, Instant signed, Instant acked) {
+    return new OrderLatencyTrace(wsReceivedAt, tobAppliedAt, decidedAt, sentAt, received, dequeued, signed, acked);
+  }
+
+  /**
+   * The strategy-side stages as {@code ws=<epochMicros>;tob=...;decided=...;sent=...}, missing stages omitted.
+   */
+  public String toHeader() {
+    Instant[] at = stages();
+    StringBuilder sb = new StringBuilder(96);
+    for (int i = 0; i < HEADER_KEYS.length; i++) {
+      if (at[i] != null) {
+        if (!sb.isEmpty()) {
+          sb.append(';');
+        }
+        sb.append(HEADER_KEYS[i]).append('=').append(epochMicros(at[i]));
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Inverse of {@link #toHeader()}; unknown keys and malformed values are ignored, so a bad header only loses stages.
+   */
+  public static OrderLatencyTrace parseHeader(String header) {
+    if (header == null || header.isBlank()) {
+      return EMPTY;
+    }
+    Instant[] at = new Instant[HEADER_KEYS.length];
+    for (String part : header.split(";")) {
+      int eq = part.indexOf('=');
+      if (eq <= 0) {
+        continue;
+      }
+      String key = part.substring(0, eq).trim();
+      for (int i = 0; i < HEADER_KEYS.length; i++) {
+        if (HEADER_KEYS[i].equals(key)) {
+          try {
+            at[i] = ofEpochMicros(Long.parseLong(part.substring(eq + 1).trim()));
+          } catch (NumberFormatException ignored) {
+          }
+        }
+      }
+    }
+    return new OrderLatencyTrace(at[0], at[1], at[2], at[3], null, null, null, null);
+  }
+
+  /**
+   * Duration into each stage from the closest earlier stage that is known, keyed by stage name, plus {@code total}
+   * from the first to the last known stage. Negative values (clock skew between hosts) are kept as measured.
+   */
+  public Map<String, Long> stageMicros() {
+    Instant[] at = stages();
+    Map<String, Long> out = new LinkedHashMap<>();
+    Instant first = null;
+    Instant previous = null;
+    for (int i = 0; i < at.length; i++) {
+      if (at[i] == null) {
+        continue;
+      }
+      if (previous != null) {
+        out.put(STAGES[i], epochMicros(at[i]) - epochMicros(previous));
+      } else {
+        first = at[i];
+      }
+      previous = at[i];
+    }
+    if (first != null && previous != first) {
+      out.put("total", epochMicros(previous) - epochMicros(first));
+    }
+    return out;
+  }
+
+  private Instant[] stages() {
+    return new Instant[]{wsReceivedAt, tobAppliedAt, decidedAt, sentAt, receivedAt, dequeuedAt, signedAt, ackedAt};
+  }
+
+  private static long epochMicros(Instant t) {
+    return t.getEpochSecond() * 1_000_000L + t.getNano() / 1_000;
+  }
+
+  private static Instant ofEpochMicros(long micros) {
+    return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+  }
+}
@@ -0,0 +1,12 @@
+package com.polybot.hft.domain;
+
+/**
+ * Lane an order request is dispatched in by the executor, highest priority first. Sent as the
+ * {@link HftHeaders#ORDER_PRIORITY} header.
+ */
+public enum OrderPriority {
+  CANCEL,
+  TAKER,
+  QUOTE,
+  REPLACE
+}
@@ -39,13 +39,16 @@ public class PolybotMetrics {
     }
 
     /**
-     * Register a gauge that tracks a double value supplier.
+     * Register a gauge that tracks a double value supplier. The supplier gauges below hold their supplier strongly:
+     * callers pass lambdas nothing else references, and Micrometer's default weak reference would let them be
+     * collected, after which the gauge reads NaN.
      */
     public void registerDoubleGauge(String name, String description, Supplier<Double> valueSupplier, Tag... tags) {
         Gauge.builder(name, valueSupplier, supplier -> {
             Double value = supplier.get();
             return value != null ? value : 0.0;
         })
+                .strongReference(true)
                 .description(description)
                 .tags(List.of(tags))
                 .register(registry);
@@ -60,6 +63,7 @@ public class PolybotMetrics {
             Integer value = supplier.get();
             return value != null ? value.doubleValue() : 0.0;
         })
+                .strongReference(true)
                 .description(description)
                 .tags(List.of(tags))
                 .register(registry);
@@ -74,6 +78,7 @@ public class PolybotMetrics {
             Boolean value = supplier.get();
             return Boolean.TRUE.equals(value) ? 1.0 : 0.0;
         })
+                .strongReference(true)
                 .description(description)
                 .tags(List.of(tags))
                 .register(registry);
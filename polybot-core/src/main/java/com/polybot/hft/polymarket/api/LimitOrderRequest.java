@@ -21,6 +21,10 @@ public record LimitOrderRequest(
     Long nonce,
     Long expirationSeconds,
     String taker,
-    Boolean deferExec
+    Boolean deferExec,
+    /**
+     * Market the token belongs to; lets the executor aggregate exposure per market/series. Optional.
+     */
+    String marketSlug
 ) {
 }
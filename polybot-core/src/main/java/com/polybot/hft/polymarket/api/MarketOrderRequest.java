@@ -20,6 +20,10 @@ public record MarketOrderRequest(
     Integer feeRateBps,
     Long nonce,
     String taker,
-    Boolean deferExec
+    Boolean deferExec,
+    /**
+     * Market the token belongs to; lets the executor aggregate exposure per market/series. Optional.
+     */
+    String marketSlug
 ) {
 }
@@ -4,9 +4,15 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.polybot.hft.config.HftProperties;
 import com.polybot.hft.polymarket.model.SignedOrder;
 
+import java.time.Instant;
+
+/**
+ * @param signedAt when the order finished signing, just before it was posted; null when nothing was signed (sim)
+ */
 public record OrderSubmissionResult(
     HftProperties.TradingMode mode,
     SignedOrder signedOrder,
-    JsonNode clobResponse
+    JsonNode clobResponse,
+    Instant signedAt
 ) {
 }
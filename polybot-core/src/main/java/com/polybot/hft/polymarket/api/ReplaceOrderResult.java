@@ -0,0 +1,24 @@
+package com.polybot.hft.polymarket.api;
+
+/**
+ * Outcome of a cancel-and-replace. The two legs are reported separately because either can fail on its own: the old
+ * order may already be filled, or the new one rejected.
+ */
+public record ReplaceOrderResult(
+    String replacedOrderId,
+    boolean cancelled,
+    String cancelError,
+    OrderSubmissionResult placement,
+    String orderId,
+    String placeError,
+    /**
+     * Executor gateway reason (e.g. {@code EXPIRED}) when the place leg was never sent to the CLOB; null otherwise.
+     */
+    String placeNotSentReason,
+    /**
+     * Whether both legs were in flight at once; false when the exposure caps had no room for old + new order and the
+     * cancel was completed first.
+     */
+    boolean concurrent
+) {
+}
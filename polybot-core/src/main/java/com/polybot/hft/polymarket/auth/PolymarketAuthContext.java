@@ -12,6 +12,7 @@ import org.springframework.stereotype.Component;
 import org.web3j.crypto.Credentials;
 
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 
 @Component
@@ -31,6 +32,7 @@ public class PolymarketAuthContext {
   private volatile String funderAddress;
   private volatile boolean autoDeriveEnabled;
   private volatile long configuredNonce;
+  private final ReentrantLock deriveLock = new ReentrantLock();
 
   private static String strip0x(String hex) {
     String trimmed = hex.trim();
@@ -150,7 +152,16 @@ public class PolymarketAuthContext {
     return configuredNonce;
   }
 
-  public synchronized DeriveAttempt tryCreateOrDeriveApiCreds(long nonce) {
+  public DeriveAttempt tryCreateOrDeriveApiCreds(long nonce) {
+    deriveLock.lock();
+    try {
+      return createOrDeriveLocked(nonce);
+    } finally {
+      deriveLock.unlock();
+    }
+  }
+
+  private DeriveAttempt createOrDeriveLocked(long nonce) {
     if (this.apiCreds != null) {
       return new DeriveAttempt(false, true, "already-present", nonce, null);
     }
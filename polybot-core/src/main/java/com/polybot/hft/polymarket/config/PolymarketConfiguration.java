@@ -16,6 +16,7 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.time.Clock;
 import java.time.Duration;
+import java.util.concurrent.Executors;
 
 @Configuration(proxyBeanMethods=false)
 public class PolymarketConfiguration {
@@ -47,11 +48,16 @@ public class PolymarketConfiguration {
     return Clock.systemUTC();
   }
 
+  /**
+   * Shared outbound client. Callers block in {@code send} on their own (virtual) thread; the client's own async work
+   * (response handling, websocket listeners) also runs on virtual threads instead of its default cached pool.
+   */
   @Bean
   public HttpClient httpClient() {
     return HttpClient.newBuilder()
         .connectTimeout(Duration.ofSeconds(5))
         .version(HttpClient.Version.HTTP_1_1)
+        .executor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-client-", 0).factory()))
         .build();
   }
 
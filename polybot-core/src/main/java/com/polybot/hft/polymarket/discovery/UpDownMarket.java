@@ -0,0 +1,32 @@
+package com.polybot.hft.polymarket.discovery;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable identity of one BTC/ETH Up/Down market instance. None of these fields change once Gamma publishes the
+ * market, so they are safe to cache for the market's whole lifetime.
+ */
+public record UpDownMarket(
+    String slug,
+    String marketId,
+    String upTokenId,
+    String downTokenId,
+    Instant startTime,
+    Instant endTime,
+    String marketType
+) {
+
+  public boolean isOpenAt(Instant now) {
+    return !now.isBefore(startTime) && now.isBefore(endTime);
+  }
+
+  public boolean opensWithin(Instant now, Duration horizon) {
+    return now.isBefore(startTime) && !startTime.isAfter(now.plus(horizon));
+  }
+
+  public List<String> tokenIds() {
+    return List.of(upTokenId, downTokenId);
+  }
+}
@@ -0,0 +1,260 @@
+package com.polybot.hft.polymarket.discovery;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polybot.hft.polymarket.http.RequestRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-slug cache of the BTC/ETH Up/Down markets, shared by every service that tracks those series.
+ *
+ * Token ids and start/end times never change once Gamma publishes a market, so each slug is parsed once and kept
+ * until well after the market ends. Later refreshes only re-read the {@code closed}/{@code active} flags, and only
+ * for markets that are currently trading; a closed market is final and never fetched again. Slugs that aren't
+ * published yet are retried on every refresh, and all fetches of a refresh run concurrently, so the next interval's
+ * markets are usually known (and can be subscribed) before they open.
+ */
+@Slf4j
+public final class UpDownMarketCatalog implements AutoCloseable {
+
+  private static final Duration REFRESH_TIMEOUT = Duration.ofSeconds(15);
+  private static final Duration RETAIN_AFTER_END = Duration.ofHours(6);
+
+  /**
+   * Fetches Gamma's {@code /events?slug=} response for a slug: the response array or the event itself, or null when
+   * the slug isn't published yet.
+   */
+  @FunctionalInterface
+  public interface EventLookup {
+    JsonNode fetchEvent(String slug) throws Exception;
+  }
+
+  private record Entry(UpDownMarket market, boolean closed, boolean active, Instant checkedAt) {
+    boolean tradable() {
+      return !closed && active;
+    }
+  }
+
+  private final EventLookup lookup;
+  private final ObjectMapper objectMapper;
+  private final Clock clock;
+  private final RequestRateLimiter rateLimiter;
+  private final Duration flagRecheckInterval;
+  private final Semaphore permits;
+  private final ExecutorService fetchers;
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private final AtomicLong fetches = new AtomicLong(0);
+  private final AtomicLong cacheHits = new AtomicLong(0);
+  private final AtomicLong fetchFailures = new AtomicLong(0);
+
+  public UpDownMarketCatalog(
+      EventLookup lookup,
+      ObjectMapper objectMapper,
+      Clock clock,
+      RequestRateLimiter rateLimiter,
+      int maxConcurrentFetches,
+      Duration flagRecheckInterval
+  ) {
+    if (maxConcurrentFetches <= 0) {
+      throw new IllegalArgumentException("maxConcurrentFetches must be > 0");
+    }
+    this.lookup = Objects.requireNonNull(lookup, "lookup");
+    this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper");
+    this.clock = Objects.requireNonNull(clock, "clock");
+    this.rateLimiter = rateLimiter == null ? RequestRateLimiter.noop() : rateLimiter;
+    this.flagRecheckInterval = flagRecheckInterval == null ? Duration.ZERO : flagRecheckInterval;
+    this.permits = new Semaphore(maxConcurrentFetches);
+    this.fetchers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("updown-discovery-", 0).factory());
+  }
+
+  /**
+   * Resolves the given candidate slugs, fetching only the ones that are unknown or due a flag re-check, and returns
+   * the tradable (not closed, active) markets among them in candidate order. Callers pick open vs upcoming markets
+   * with {@link UpDownMarket#isOpenAt} / {@link UpDownMarket#opensWithin}.
+   */
+  public List<UpDownMarket> refresh(Collection<String> candidateSlugs) {
+    Instant now = clock.instant();
+    evictEnded(now);
+
+    Set<String> slugs = new LinkedHashSet<>();
+    for (String slug : candidateSlugs) {
+      if (slug != null && !slug.isBlank()) {
+        slugs.add(slug.trim());
+      }
+    }
+
+    List<CompletableFuture<Void>> pending = new ArrayList<>();
+    for (String slug : slugs) {
+      Entry entry = entries.get(slug);
+      if (entry != null && !flagCheckDue(entry, now)) {
+        cacheHits.incrementAndGet();
+        continue;
+      }
+      pending.add(CompletableFuture.runAsync(() -> load(slug, entry), fetchers));
+    }
+    await(pending);
+
+    List<UpDownMarket> out = new ArrayList<>(slugs.size());
+    for (String slug : slugs) {
+      Entry entry = entries.get(slug);
+      if (entry != null && entry.tradable()) {
+        out.add(entry.market());
+      }
+    }
+    return out;
+  }
+
+  public Optional<UpDownMarket> cached(String slug) {
+    Entry entry = slug == null ? null : entries.get(slug);
+    return entry == null ? Optional.empty() : Optional.of(entry.market());
+  }
+
+  public int cachedMarkets() {
+    return entries.size();
+  }
+
+  public long fetches() {
+    return fetches.get();
+  }
+
+  public long cacheHits() {
+    return cacheHits.get();
+  }
+
+  public long fetchFailures() {
+    return fetchFailures.get();
+  }
+
+  @Override
+  public void close() {
+    fetchers.shutdownNow();
+  }
+
+  /**
+   * Flags only matter while a market trades: upcoming ones are re-checked once they open, ended ones drop out by time.
+   */
+  private boolean flagCheckDue(Entry entry, Instant now) {
+    if (entry.closed() || !entry.market().isOpenAt(now)) {
+      return false;
+    }
+    return !entry.checkedAt().plus(flagRecheckInterval).isAfter(now);
+  }
+
+  private void load(String slug, Entry previous) {
+    JsonNode root;
+    try {
+      permits.acquire();
+      try {
+        rateLimiter.acquire();
+        fetches.incrementAndGet();
+        root = lookup.fetchEvent(slug);
+      } finally {
+        permits.release();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (Exception e) {
+      fetchFailures.incrementAndGet();
+      log.debug("updown discovery fetch failed slug={} err={}", slug, e.toString());
+      return;
+    }
+
+    JsonNode event = root != null && root.isArray() ? root.path(0) : root;
+    JsonNode market = pickMarket(event, slug);
+    if (market == null) {
+      return;
+    }
+    boolean closed = market.path("closed").asBoolean(false) || event.path("closed").asBoolean(false);
+    boolean active = market.path("active").asBoolean(true);
+
+    UpDownMarket parsed = previous != null ? previous.market() : parse(slug, market);
+    if (parsed == null) {
+      return;
+    }
+    entries.put(slug, new Entry(parsed, closed, active, clock.instant()));
+  }
+
+  private UpDownMarket parse(String slug, JsonNode market) {
+    String marketType = UpDownMarketSlugs.marketType(slug);
+    if (marketType == null) {
+      return null;
+    }
+    Long endMillis = PolymarketMarketParser.endEpochMillis(market);
+    Instant endTime = endMillis != null ? Instant.ofEpochMilli(endMillis) : UpDownMarketSlugs.endTimeFromSlug(slug);
+    if (endTime == null) {
+      return null;
+    }
+    Optional<YesNoTokens> tokens = PolymarketMarketParser.yesNoTokens(market, objectMapper);
+    if (tokens.isEmpty()) {
+      log.debug("updown discovery missing Up/Down tokens slug={}", slug);
+      return null;
+    }
+    Instant startTime = endTime.minus(UpDownMarketSlugs.interval(marketType));
+    return new UpDownMarket(
+        slug,
+        PolymarketMarketParser.id(market),
+        tokens.get().yesTokenId(),
+        tokens.get().noTokenId(),
+        startTime,
+        endTime,
+        marketType
+    );
+  }
+
+  private static JsonNode pickMarket(JsonNode event, String slug) {
+    if (event == null || event.isNull() || event.isMissingNode()) {
+      return null;
+    }
+    JsonNode markets = event.path("markets");
+    if (!markets.isArray() || markets.isEmpty()) {
+      return null;
+    }
+    for (JsonNode m : markets) {
+      if (m != null && slug.equals(m.path("slug").asText(null))) {
+        return m;
+      }
+    }
+    return markets.get(0);
+  }
+
+  private void evictEnded(Instant now) {
+    Instant cutoff = now.minus(RETAIN_AFTER_END);
+    entries.values().removeIf(e -> e.market().endTime().isBefore(cutoff));
+  }
+
+  private static void await(List<CompletableFuture<Void>> pending) {
+    if (pending.isEmpty()) {
+      return;
+    }
+    try {
+      CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).get(REFRESH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (TimeoutException e) {
+      log.debug("updown discovery refresh timed out pending={}", pending.stream().filter(f -> !f.isDone()).count());
+    } catch (Exception e) {
+      log.debug("updown discovery refresh failed: {}", e.toString());
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package com.polybot.hft.polymarket.discovery;
+
+import lombok.experimental.UtilityClass;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Deterministic slugs of the BTC/ETH Up/Down series. Gamma's public listings don't include these markets reliably,
+ * so they are looked up by slug instead:
+ * - 15m: {@code btc-updown-15m-{startEpochSeconds}}
+ * - 1h: {@code bitcoin-up-or-down-december-14-11am-et}
+ */
+@UtilityClass
+public class UpDownMarketSlugs {
+
+  public static final String TYPE_15M = "updown-15m";
+  public static final String TYPE_1H = "up-or-down";
+
+  private static final ZoneId ET_ZONE = ZoneId.of("America/New_York");
+  private static final long INTERVAL_15M_SECONDS = 900L;
+
+  public static List<String> candidates(Instant now, int lookback15mMinutes, int lookahead15mMinutes, int lookback1hHours, int lookahead1hHours) {
+    List<String> out = new ArrayList<>();
+    out.addAll(upDown15m("btc", now, lookback15mMinutes, lookahead15mMinutes));
+    out.addAll(upDown15m("eth", now, lookback15mMinutes, lookahead15mMinutes));
+
+    ZonedDateTime nowEt = ZonedDateTime.ofInstant(now, ET_ZONE);
+    out.addAll(upOrDown1h("bitcoin", nowEt, lookback1hHours, lookahead1hHours));
+    out.addAll(upOrDown1h("ethereum", nowEt, lookback1hHours, lookahead1hHours));
+    return out;
+  }
+
+  /**
+   * Market type for a slug of one of the tracked series, or null for anything else.
+   */
+  public static String marketType(String slug) {
+    if (slug == null) {
+      return null;
+    }
+    if (slug.contains(TYPE_15M)) {
+      return TYPE_15M;
+    }
+    if (slug.contains(TYPE_1H)) {
+      return TYPE_1H;
+    }
+    return null;
+  }
+
+  public static Duration interval(String marketType) {
+    return TYPE_15M.equals(marketType) ? Duration.ofMinutes(15) : Duration.ofHours(1);
+  }
+
+  /**
+   * End time encoded in a 15m slug (start epoch + 15m); 1h slugs don't carry one.
+   */
+  public static Instant endTimeFromSlug(String slug) {
+    if (!TYPE_15M.equals(marketType(slug))) {
+      return null;
+    }
+    int idx = slug.lastIndexOf('-');
+    if (idx < 0 || idx >= slug.length() - 1) {
+      return null;
+    }
+    try {
+      return Instant.ofEpochSecond(Long.parseLong(slug.substring(idx + 1)) + INTERVAL_15M_SECONDS);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static List<String> upDown15m(String assetPrefix, Instant now, int lookbackMinutes, int lookaheadMinutes) {
+    long nowSec = now.getEpochSecond();
+    long from = nowSec - Duration.ofMinutes(Math.max(0, lookbackMinutes)).toSeconds();
+    long to = nowSec + Duration.ofMinutes(Math.max(0, lookaheadMinutes)).toSeconds();
+
+    long startFrom = (from / INTERVAL_15M_SECONDS) * INTERVAL_15M_SECONDS;
+    long startTo = (to / INTERVAL_15M_SECONDS) * INTERVAL_15M_SECONDS;
+
+    List<String> out = new ArrayList<>();
+    for (long start = startFrom; start <= startTo; start += INTERVAL_15M_SECONDS) {
+      out.add(assetPrefix + "-" + TYPE_15M + "-" + start);
+    }
+    return out;
+  }
+
+  private static List<String> upOrDown1h(String assetPrefix, ZonedDateTime nowEt, int lookbackHours, int lookaheadHours) {
+    ZonedDateTime hourStart = nowEt.truncatedTo(ChronoUnit.HOURS);
+    int back = Math.max(0, lookbackHours);
+    int ahead = Math.max(0, lookaheadHours);
+
+    List<String> out = new ArrayList<>();
+    for (int i = back; i >= 1; i--) {
+      out.add(upOrDown1hSlug(assetPrefix, hourStart.minusHours(i)));
+    }
+    out.add(upOrDown1hSlug(assetPrefix, hourStart));
+    for (int i = 1; i <= ahead; i++) {
+      out.add(upOrDown1hSlug(assetPrefix, hourStart.plusHours(i)));
+    }
+    return out;
+  }
+
+  private static String upOrDown1hSlug(String assetPrefix, ZonedDateTime hourStartEt) {
+    String month = hourStartEt.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH).toLowerCase(Locale.ROOT);
+    int day = hourStartEt.getDayOfMonth();
+    int hour24 = hourStartEt.getHour();
+    int hour12 = hour24 % 12;
+    if (hour12 == 0) {
+      hour12 = 12;
+    }
+    String ampm = hour24 < 12 ? "am" : "pm";
+    return "%s-%s-%s-%d-%d%s-et".formatted(assetPrefix, TYPE_1H, month, day, hour12, ampm);
+  }
+}
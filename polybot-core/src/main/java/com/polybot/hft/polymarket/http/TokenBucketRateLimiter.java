@@ -5,12 +5,17 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Token bucket shared by all callers of a transport. Waiting for a token happens outside the lock.
+ */
 public final class TokenBucketRateLimiter implements RequestRateLimiter {
 
   private final double tokensPerSecond;
   private final double burst;
   private final Clock clock;
+  private final ReentrantLock lock = new ReentrantLock();
 
   private double availableTokens;
   private Instant lastRefill;
@@ -41,7 +46,8 @@ public final class TokenBucketRateLimiter implements RequestRateLimiter {
   public void acquire() {
     while (true) {
       long sleepMillis = 0;
-      synchronized (this) {
+      lock.lock();
+      try {
         refill();
         if (availableTokens >= 1.0) {
           availableTokens -= 1.0;
@@ -49,6 +55,8 @@ public final class TokenBucketRateLimiter implements RequestRateLimiter {
         }
         double missing = 1.0 - availableTokens;
         sleepMillis = Math.max(1, (long) Math.ceil(missing / tokensPerSecond * 1000.0));
+      } finally {
+        lock.unlock();
       }
       sleepQuietly(sleepMillis);
     }
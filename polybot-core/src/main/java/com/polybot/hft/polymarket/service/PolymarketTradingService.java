@@ -22,6 +22,8 @@ import org.springframework.stereotype.Service;
 import org.web3j.crypto.Credentials;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.UUID;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -35,6 +37,7 @@ public class PolymarketTradingService {
   private final @NonNull PolymarketAuthContext authContext;
   private final @NonNull PolymarketClobClient clobClient;
   private final @NonNull ObjectMapper objectMapper;
+  private final @NonNull Clock clock;
 
   public OrderBook getOrderBook(String tokenId) {
     log.info("Fetching order book for tokenId={}", tokenId);
@@ -72,6 +75,7 @@ public class PolymarketTradingService {
         request.expirationSeconds(),
         request.taker()
     );
+    Instant signedAt = clock.instant();
 
     if (properties.mode() == HftProperties.TradingMode.PAPER) {
       String paperOrderId = "paper-" + UUID.randomUUID();
@@ -80,7 +84,7 @@ public class PolymarketTradingService {
           .put("orderID", paperOrderId)
           .put("orderId", paperOrderId)
           .put("status", "OPEN");
-      return new OrderSubmissionResult(properties.mode(), order, paperResp);
+      return new OrderSubmissionResult(properties.mode(), order, paperResp, signedAt);
     }
 
     ApiCreds creds = authContext.requireApiCreds();
@@ -92,7 +96,7 @@ public class PolymarketTradingService {
         orderType,
         request.deferExec() != null && request.deferExec()
     );
-    return new OrderSubmissionResult(properties.mode(), order, resp);
+    return new OrderSubmissionResult(properties.mode(), order, resp, signedAt);
   }
 
   public OrderSubmissionResult placeMarketOrder(MarketOrderRequest request) {
@@ -113,6 +117,7 @@ public class PolymarketTradingService {
         request.nonce(),
         request.taker()
     );
+    Instant signedAt = clock.instant();
 
     if (properties.mode() == HftProperties.TradingMode.PAPER) {
       String paperOrderId = "paper-" + UUID.randomUUID();
@@ -121,7 +126,7 @@ public class PolymarketTradingService {
           .put("orderID", paperOrderId)
           .put("orderId", paperOrderId)
           .put("status", "OPEN");
-      return new OrderSubmissionResult(properties.mode(), order, paperResp);
+      return new OrderSubmissionResult(properties.mode(), order, paperResp, signedAt);
     }
 
     ApiCreds creds = authContext.requireApiCreds();
@@ -133,7 +138,7 @@ public class PolymarketTradingService {
         orderType,
         request.deferExec() != null && request.deferExec()
     );
-    return new OrderSubmissionResult(properties.mode(), order, resp);
+    return new OrderSubmissionResult(properties.mode(), order, resp, signedAt);
   }
 
   public JsonNode cancelOrder(String orderId) {
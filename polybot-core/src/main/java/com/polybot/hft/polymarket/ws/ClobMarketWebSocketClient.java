@@ -35,6 +35,7 @@ import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Component
@@ -55,6 +56,7 @@ public class ClobMarketWebSocketClient {
   private final Map<String, TopOfBook> topOfBookByAssetId = new ConcurrentHashMap<>();
   private final Set<String> subscribedAssetIds = ConcurrentHashMap.newKeySet();
   private final Map<String, AtomicLong> lastTobEventAtMillisByAssetId = new ConcurrentHashMap<>();
+  private final Map<String, TopOfBookHistory> bookHistoryByAssetId = new ConcurrentHashMap<>();
 
   private final AtomicLong messagesReceived = new AtomicLong(0);
   private final AtomicLong bookMessages = new AtomicLong(0);
@@ -63,12 +65,10 @@ public class ClobMarketWebSocketClient {
   private final AtomicLong lastMessageAtMillis = new AtomicLong(0);
   private final AtomicLong lastReconnectAttemptAtMillis = new AtomicLong(0);
   private final AtomicBoolean maintenanceScheduled = new AtomicBoolean(false);
+  private final ReentrantLock connectionLock = new ReentrantLock();
 
-  private final ScheduledExecutorService pingExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
-    Thread t = new Thread(r, "clob-ws-ping");
-    t.setDaemon(true);
-    return t;
-  });
+  private final ScheduledExecutorService pingExecutor =
+      Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("clob-ws-ping").factory());
 
   private volatile WebSocket webSocket;
   @Getter
@@ -166,6 +166,22 @@ public class ClobMarketWebSocketClient {
     return Optional.ofNullable(topOfBookByAssetId.get(assetId));
   }
 
+  /**
+   * Top-of-book in effect at {@code at}, from live WS updates only (the warm-start disk cache is not history).
+   * Empty when the asset is not subscribed or {@code at} predates the retained history.
+   */
+  public Optional<TopOfBook> getTopOfBookAsOf(String assetId, Instant at) {
+    if (assetId == null) {
+      return Optional.empty();
+    }
+    TopOfBookHistory history = bookHistoryByAssetId.get(assetId);
+    return history == null ? Optional.empty() : history.asOf(at);
+  }
+
+  public boolean isSubscribed(String assetId) {
+    return assetId != null && subscribedAssetIds.contains(assetId);
+  }
+
   public int subscribedAssetCount() {
     return subscribedAssetIds.size();
   }
@@ -202,7 +218,8 @@ public class ClobMarketWebSocketClient {
       return;
     }
 
-    synchronized (this) {
+    connectionLock.lock();
+    try {
       boolean changed = subscribedAssetIds.addAll(sanitized);
       if (!started) {
         connectLocked();
@@ -211,6 +228,8 @@ public class ClobMarketWebSocketClient {
       if (changed) {
         reconnectLocked();
       }
+    } finally {
+      connectionLock.unlock();
     }
   }
 
@@ -230,7 +249,8 @@ public class ClobMarketWebSocketClient {
     }
 
     Set<String> desired = new HashSet<>(sanitized);
-    synchronized (this) {
+    connectionLock.lock();
+    try {
       if (subscribedAssetIds.equals(desired)) {
         return;
       }
@@ -241,12 +261,15 @@ public class ClobMarketWebSocketClient {
       // Prune stale caches so we don't persist/heartbeat thousands of dead markets.
       topOfBookByAssetId.keySet().retainAll(desired);
       lastTobEventAtMillisByAssetId.keySet().retainAll(desired);
+      bookHistoryByAssetId.keySet().retainAll(desired);
 
       if (!started) {
         connectLocked();
         return;
       }
       reconnectLocked();
+    } finally {
+      connectionLock.unlock();
     }
   }
 
@@ -337,7 +360,7 @@ public class ClobMarketWebSocketClient {
     log.info("Subscribed to {} market assets via WS (e.g. {})", snapshot.size(), sampleAssetSuffixes(snapshot, 4));
   }
 
-  private void handleMessage(String message) {
+  private void handleMessage(String message, Instant receivedAt) {
     if ("PONG".equalsIgnoreCase(message) || "PING".equalsIgnoreCase(message)) {
       lastMessageAtMillis.set(System.currentTimeMillis());
       return;
@@ -346,19 +369,19 @@ public class ClobMarketWebSocketClient {
     lastMessageAtMillis.set(System.currentTimeMillis());
     try {
       JsonNode node = objectMapper.readTree(message);
-      handleMessageNode(node);
+      handleMessageNode(node, receivedAt);
     } catch (Exception e) {
       log.debug("Failed to parse ws message: {}", message);
     }
   }
 
-  private void handleMessageNode(JsonNode node) {
+  private void handleMessageNode(JsonNode node, Instant receivedAt) {
     if (node == null || node.isNull()) {
       return;
     }
     if (node.isArray()) {
       for (JsonNode n : node) {
-        handleMessageNode(n);
+        handleMessageNode(n, receivedAt);
       }
       return;
     }
@@ -367,15 +390,15 @@ public class ClobMarketWebSocketClient {
     switch (eventType) {
       case "book" -> {
         bookMessages.incrementAndGet();
-        handleBook(node);
+        handleBook(node, receivedAt);
       }
       case "price_change" -> {
         priceChangeMessages.incrementAndGet();
-        handlePriceChange(node);
+        handlePriceChange(node, receivedAt);
       }
       case "last_trade_price" -> {
         lastTradeMessages.incrementAndGet();
-        handleLastTradePrice(node);
+        handleLastTradePrice(node, receivedAt);
       }
       default -> {
       }
@@ -419,11 +442,14 @@ public class ClobMarketWebSocketClient {
     long lastAgo = lastAt <= 0 ? -1 : now - lastAt;
     log.warn("Market WS reconnecting (reason={}, subscribed={}, tobKnown={}, lastMsgAgoMs={})", reason, subscribedAssetIds.size(), topOfBookByAssetId.size(), lastAgo);
 
-    synchronized (this) {
+    connectionLock.lock();
+    try {
       if (subscribedAssetIds.isEmpty()) {
         return;
       }
       reconnectLocked();
+    } finally {
+      connectionLock.unlock();
     }
   }
 
@@ -492,14 +518,15 @@ public class ClobMarketWebSocketClient {
           tob.bestAskSize(),
           tob.lastTradePrice(),
           now,
-          tob.lastTradeAt()
+          tob.lastTradeAt(),
+          null
       );
       topOfBookByAssetId.put(assetId, snapshot);
       maybePublishTopOfBook(assetId, snapshot);
     }
   }
 
-  private void handleBook(JsonNode node) {
+  private void handleBook(JsonNode node, Instant receivedAt) {
     String assetId = node.path("asset_id").asText(null);
     if (assetId == null) {
       return;
@@ -528,12 +555,13 @@ public class ClobMarketWebSocketClient {
       }
       BigDecimal nextBidSize = bestBidSize != null ? bestBidSize : (prev == null ? null : prev.bestBidSize());
       BigDecimal nextAskSize = bestAskSize != null ? bestAskSize : (prev == null ? null : prev.bestAskSize());
-      return new TopOfBook(bestBid, bestAsk, nextBidSize, nextAskSize, nextLast, now, nextTradeAt);
+      return new TopOfBook(bestBid, bestAsk, nextBidSize, nextAskSize, nextLast, now, nextTradeAt, receivedAt);
     });
+    recordHistory(assetId, tob);
     maybePublishTopOfBook(assetId, tob);
   }
 
-  private void handlePriceChange(JsonNode node) {
+  private void handlePriceChange(JsonNode node, Instant receivedAt) {
     JsonNode changes = node.path("price_changes");
     if (!changes.isArray()) {
       return;
@@ -556,13 +584,15 @@ public class ClobMarketWebSocketClient {
           bestAskSize != null ? bestAskSize : (prev == null ? null : prev.bestAskSize()),
           prev == null ? null : prev.lastTradePrice(),
           now,
-          prev == null ? null : prev.lastTradeAt()
+          prev == null ? null : prev.lastTradeAt(),
+          receivedAt
       ));
+      recordHistory(assetId, tob);
       maybePublishTopOfBook(assetId, tob);
     }
   }
 
-  private void handleLastTradePrice(JsonNode node) {
+  private void handleLastTradePrice(JsonNode node, Instant receivedAt) {
     String assetId = node.path("asset_id").asText(null);
     if (assetId == null) {
       return;
@@ -576,11 +606,21 @@ public class ClobMarketWebSocketClient {
         prev == null ? null : prev.bestAskSize(),
         price,
         now,
-        now
+        now,
+        receivedAt
     ));
+    recordHistory(assetId, tob);
     maybePublishTopOfBook(assetId, tob);
   }
 
+  private void recordHistory(String assetId, TopOfBook tob) {
+    int capacity = properties.polymarket().marketWsBookHistorySize();
+    if (capacity <= 0 || tob == null) {
+      return;
+    }
+    bookHistoryByAssetId.computeIfAbsent(assetId, k -> new TopOfBookHistory(capacity)).record(tob);
+  }
+
   private void maybePublishTopOfBook(String assetId, TopOfBook tob) {
     if (assetId == null || assetId.isBlank() || tob == null) {
       return;
@@ -741,9 +781,11 @@ public class ClobMarketWebSocketClient {
     public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
       buf.append(data);
       if (last) {
+        // Stamped before parsing so order latency traces include the time spent decoding the frame.
+        Instant receivedAt = Instant.now(clock);
         String message = buf.toString();
         buf.setLength(0);
-        handleMessage(message);
+        handleMessage(message, receivedAt);
       }
       webSocket.request(1);
       return null;
@@ -3,6 +3,11 @@ package com.polybot.hft.polymarket.ws;
 import java.math.BigDecimal;
 import java.time.Instant;
 
+/**
+ * @param updatedAt  when this snapshot was applied locally
+ * @param receivedAt when the WS frame it was built from arrived (before parsing); null when not built from a frame
+ *                   (e.g. a republished snapshot)
+ */
 public record TopOfBook(
     BigDecimal bestBid,
     BigDecimal bestAsk,
@@ -10,6 +15,7 @@ public record TopOfBook(
     BigDecimal bestAskSize,
     BigDecimal lastTradePrice,
     Instant updatedAt,
-    Instant lastTradeAt
+    Instant lastTradeAt,
+    Instant receivedAt
 ) {
 }
@@ -0,0 +1,113 @@
+package com.polybot.hft.polymarket.ws;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size ring of top-of-book states for one asset, ordered by {@link TopOfBook#updatedAt()}.
+ * Lookups return the state in effect at a given instant (latest update at or before it).
+ */
+public final class TopOfBookHistory {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final TopOfBook[] states;
+  private final long[] updatedAtMillis;
+  private int head;
+  private int size;
+
+  public TopOfBookHistory(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be > 0");
+    }
+    this.states = new TopOfBook[capacity];
+    this.updatedAtMillis = new long[capacity];
+  }
+
+  /**
+   * Appends a state. Updates older than the newest recorded one are dropped so the ring stays ordered;
+   * an update with the same timestamp replaces the newest entry.
+   */
+  public void record(TopOfBook tob) {
+    if (tob == null || tob.updatedAt() == null) {
+      return;
+    }
+    long at = tob.updatedAt().toEpochMilli();
+    lock.lock();
+    try {
+      if (size > 0) {
+        int newest = index(size - 1);
+        if (at < updatedAtMillis[newest]) {
+          return;
+        }
+        if (at == updatedAtMillis[newest]) {
+          states[newest] = tob;
+          return;
+        }
+      }
+      int slot;
+      if (size < states.length) {
+        slot = index(size);
+        size++;
+      } else {
+        slot = head;
+        head = (head + 1) % states.length;
+      }
+      states[slot] = tob;
+      updatedAtMillis[slot] = at;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The state in effect at {@code at}, or empty when {@code at} predates the oldest retained state.
+   */
+  public Optional<TopOfBook> asOf(Instant at) {
+    if (at == null) {
+      return Optional.empty();
+    }
+    long target = at.toEpochMilli();
+    lock.lock();
+    try {
+      if (size == 0 || target < updatedAtMillis[head]) {
+        return Optional.empty();
+      }
+      int lo = 0;
+      int hi = size - 1;
+      while (lo < hi) {
+        int mid = (lo + hi + 1) >>> 1;
+        if (updatedAtMillis[index(mid)] <= target) {
+          lo = mid;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      return Optional.of(states[index(lo)]);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public Optional<Instant> oldest() {
+    lock.lock();
+    try {
+      return size == 0 ? Optional.empty() : Optional.of(Instant.ofEpochMilli(updatedAtMillis[head]));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return size;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private int index(int offset) {
+    return (head + offset) % states.length;
+  }
+}
@@ -0,0 +1,63 @@
+package com.polybot.hft.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderLatencyTraceTests {
+
+  private static final Instant T0 = Instant.parse("2026-01-01T00:00:00.000100Z");
+
+  @Test
+  void header_roundTripsStrategyStagesAtMicrosecondPrecision() {
+    OrderLatencyTrace trace = OrderLatencyTrace.decided(T0, T0.plusNanos(250_000), T0.plusNanos(1_500_999))
+        .withSentAt(T0.plusMillis(2));
+
+    OrderLatencyTrace parsed = OrderLatencyTrace.parseHeader(trace.toHeader());
+
+    assertThat(parsed.wsReceivedAt()).isEqualTo(T0);
+    assertThat(parsed.tobAppliedAt()).isEqualTo(T0.plusNanos(250_000));
+    assertThat(parsed.decidedAt()).isEqualTo(T0.plusNanos(1_500_000));
+    assertThat(parsed.sentAt()).isEqualTo(T0.plusMillis(2));
+    assertThat(parsed.receivedAt()).isNull();
+  }
+
+  @Test
+  void parseHeader_keepsWellFormedStagesOnly() {
+    OrderLatencyTrace parsed = OrderLatencyTrace.parseHeader("ws=abc;tob=1767225600000100;bogus=1;decided");
+
+    assertThat(parsed.wsReceivedAt()).isNull();
+    assertThat(parsed.tobAppliedAt()).isEqualTo(T0);
+    assertThat(parsed.decidedAt()).isNull();
+    assertThat(OrderLatencyTrace.parseHeader(null)).isEqualTo(OrderLatencyTrace.EMPTY);
+  }
+
+  @Test
+  void stageMicros_measuresFromClosestKnownStage() {
+    OrderLatencyTrace trace = new OrderLatencyTrace(
+        T0, T0.plusNanos(300_000), T0.plusMillis(1), null, T0.plusMillis(3), null, null, T0.plusMillis(10));
+
+    assertThat(trace.stageMicros()).containsExactly(
+        Map.entry("tob_applied", 300L),
+        Map.entry("decided", 700L),
+        Map.entry("received", 2_000L),
+        Map.entry("acked", 7_000L),
+        Map.entry("total", 10_000L));
+    assertThat(OrderLatencyTrace.EMPTY.stageMicros()).isEmpty();
+  }
+
+  @Test
+  void stageMicros_keepsTheGatewayQueueOutOfSigning() {
+    OrderLatencyTrace trace = OrderLatencyTrace.EMPTY
+        .withExecutorStages(T0, T0.plusMillis(40), T0.plusMillis(42), T0.plusMillis(60));
+
+    assertThat(trace.stageMicros()).containsExactly(
+        Map.entry("queued", 40_000L),
+        Map.entry("signed", 2_000L),
+        Map.entry("acked", 18_000L),
+        Map.entry("total", 60_000L));
+  }
+}
@@ -0,0 +1,90 @@
+package com.polybot.hft.polymarket.discovery;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polybot.hft.polymarket.http.RequestRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpDownMarketCatalogTests {
+
+  private static final long OPEN_START = 1_700_000_100L;
+  private static final String OPEN_SLUG = "btc-updown-15m-" + OPEN_START;
+  private static final String NEXT_SLUG = "btc-updown-15m-" + (OPEN_START + 900);
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Clock clock = Clock.fixed(Instant.ofEpochSecond(OPEN_START + 60), ZoneOffset.UTC);
+  private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+  private final Map<String, Boolean> closedBySlug = new ConcurrentHashMap<>();
+
+  private JsonNode event(String slug) throws Exception {
+    calls.computeIfAbsent(slug, k -> new AtomicInteger()).incrementAndGet();
+    boolean closed = closedBySlug.getOrDefault(slug, false);
+    return objectMapper.readTree("""
+        [{"slug":"%s","markets":[{"id":"m-%s","slug":"%s","closed":%s,"active":true,
+          "outcomes":"[\\"Up\\", \\"Down\\"]","clobTokenIds":"[\\"up-%s\\", \\"down-%s\\"]"}]}]
+        """.formatted(slug, slug, slug, closed, slug, slug));
+  }
+
+  private UpDownMarketCatalog catalog(Duration flagRecheck) {
+    return new UpDownMarketCatalog(this::event, objectMapper, clock, RequestRateLimiter.noop(), 4, flagRecheck);
+  }
+
+  @Test
+  void parsesImmutableFieldsOnceAndKeepsUpcomingMarketsCached() {
+    try (UpDownMarketCatalog catalog = catalog(Duration.ofMinutes(5))) {
+      List<UpDownMarket> first = catalog.refresh(List.of(OPEN_SLUG, NEXT_SLUG));
+      List<UpDownMarket> second = catalog.refresh(List.of(OPEN_SLUG, NEXT_SLUG));
+
+      assertThat(first).extracting(UpDownMarket::slug).containsExactly(OPEN_SLUG, NEXT_SLUG);
+      assertThat(second).isEqualTo(first);
+      assertThat(calls.get(OPEN_SLUG)).hasValue(1);
+      assertThat(calls.get(NEXT_SLUG)).hasValue(1);
+      assertThat(catalog.cacheHits()).isEqualTo(2);
+
+      UpDownMarket open = first.get(0);
+      assertThat(open.upTokenId()).isEqualTo("up-" + OPEN_SLUG);
+      assertThat(open.downTokenId()).isEqualTo("down-" + OPEN_SLUG);
+      assertThat(open.endTime()).isEqualTo(Instant.ofEpochSecond(OPEN_START + 900));
+      assertThat(open.isOpenAt(clock.instant())).isTrue();
+      assertThat(first.get(1).opensWithin(clock.instant(), Duration.ofMinutes(15))).isTrue();
+    }
+  }
+
+  @Test
+  void rechecksFlagsOfOpenMarketsOnlyAndDropsClosedOnesForGood() {
+    try (UpDownMarketCatalog catalog = catalog(Duration.ZERO)) {
+      catalog.refresh(List.of(OPEN_SLUG, NEXT_SLUG));
+      closedBySlug.put(OPEN_SLUG, true);
+
+      assertThat(catalog.refresh(List.of(OPEN_SLUG, NEXT_SLUG))).extracting(UpDownMarket::slug).containsExactly(NEXT_SLUG);
+      assertThat(catalog.refresh(List.of(OPEN_SLUG, NEXT_SLUG))).extracting(UpDownMarket::slug).containsExactly(NEXT_SLUG);
+
+      assertThat(calls.get(OPEN_SLUG)).hasValue(2);
+      assertThat(calls.get(NEXT_SLUG)).hasValue(1);
+    }
+  }
+
+  @Test
+  void retriesUnpublishedSlugs() {
+    AtomicInteger lookups = new AtomicInteger();
+    try (UpDownMarketCatalog catalog = new UpDownMarketCatalog(slug -> {
+      lookups.incrementAndGet();
+      return null;
+    }, objectMapper, clock, RequestRateLimiter.noop(), 2, Duration.ZERO)) {
+      assertThat(catalog.refresh(List.of(NEXT_SLUG))).isEmpty();
+      assertThat(catalog.refresh(List.of(NEXT_SLUG))).isEmpty();
+      assertThat(lookups).hasValue(2);
+    }
+  }
+}
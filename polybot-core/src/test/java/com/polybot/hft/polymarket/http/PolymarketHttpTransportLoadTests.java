@@ -0,0 +1,137 @@
+package com.polybot.hft.polymarket.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polybot.hft.config.HftProperties;
+import com.polybot.hft.polymarket.config.PolymarketConfiguration;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many blocking callers on one transport against an upstream with fixed latency: without a rate limit, a bounded
+ * platform pool against virtual threads; with the wired defaults, all callers contending for the one token bucket.
+ */
+class PolymarketHttpTransportLoadTests {
+
+  private static final int CALLERS = 120;
+  private static final int UNTHROTTLED_CALLERS = 200;
+  private static final int PLATFORM_POOL_SIZE = 20;
+  private static final long UPSTREAM_LATENCY_MILLIS = 100;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger peakInFlight = new AtomicInteger();
+  private final ConcurrentLinkedQueue<Long> arrivalNanos = new ConcurrentLinkedQueue<>();
+  private HttpServer upstream;
+  private URI uri;
+
+  @BeforeEach
+  void startUpstream() throws Exception {
+    upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), UNTHROTTLED_CALLERS);
+    upstream.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    upstream.createContext("/book", exchange -> {
+      arrivalNanos.add(System.nanoTime());
+      peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(UPSTREAM_LATENCY_MILLIS);
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        inFlight.decrementAndGet();
+        exchange.close();
+      }
+    });
+    upstream.start();
+    uri = URI.create("http://127.0.0.1:" + upstream.getAddress().getPort() + "/book");
+  }
+
+  @AfterEach
+  void stopUpstream() {
+    upstream.stop(0);
+  }
+
+  @Test
+  void virtualThreadsKeepMoreCallsInFlightThanABoundedPlatformPool() throws Exception {
+    PolymarketHttpTransport transport = new PolymarketHttpTransport(new PolymarketConfiguration().httpClient(),
+        new ObjectMapper(), RequestRateLimiter.noop(), new RetryPolicy(false, 1, 0, 0));
+
+    int platformPeak;
+    try (ExecutorService pool = Executors.newFixedThreadPool(PLATFORM_POOL_SIZE)) {
+      platformPeak = peakInFlight(transport, pool, UNTHROTTLED_CALLERS);
+    }
+    int virtualPeak;
+    try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+      virtualPeak = peakInFlight(transport, virtualThreads, UNTHROTTLED_CALLERS);
+    }
+
+    // A pool thread is held for the whole upstream round trip, so the pool size caps the calls in flight.
+    assertThat(platformPeak).isLessThanOrEqualTo(PLATFORM_POOL_SIZE);
+    assertThat(virtualPeak).isGreaterThan(PLATFORM_POOL_SIZE * 2);
+  }
+
+  @Test
+  void contendedBucketAdmitsEveryCallerAtTheConfiguredRate() throws Exception {
+    HftProperties properties = new HftProperties(null, null, null, null, null);
+    HftProperties.RateLimit rateLimit = properties.polymarket().rest().rateLimit();
+    PolymarketConfiguration configuration = new PolymarketConfiguration();
+    long bucketCreatedNanos = System.nanoTime();
+    PolymarketHttpTransport transport = configuration.polymarketHttpTransport(properties, configuration.httpClient(),
+        new ObjectMapper(), Clock.systemUTC());
+
+    HttpRequest request = HttpRequest.newBuilder(uri).GET().timeout(Duration.ofSeconds(30)).build();
+    try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<String>> results = new ArrayList<>(CALLERS);
+      for (int i = 0; i < CALLERS; i++) {
+        results.add(callers.submit(() -> transport.sendString(request, true)));
+      }
+      for (Future<String> result : results) {
+        assertThat(result.get()).isEqualTo("{}");
+      }
+    }
+
+    // Each call reached the upstream once. A request can only arrive after its token was granted, so by any point
+    // the upstream has seen at most the burst plus the refill since the bucket was created.
+    assertThat(arrivalNanos).hasSize(CALLERS);
+    List<Long> arrivals = arrivalNanos.stream().sorted().toList();
+    for (int i = 0; i < arrivals.size(); i++) {
+      double elapsedSeconds = (arrivals.get(i) - bucketCreatedNanos) / 1e9;
+      double allowed = rateLimit.burst() + rateLimit.requestsPerSecond() * elapsedSeconds + 1;
+      assertThat((double) i + 1).as("requests seen %.3fs after the bucket was created", elapsedSeconds)
+          .isLessThanOrEqualTo(allowed);
+    }
+    // Callers waiting for a token don't hold up the ones that already have one.
+    assertThat(peakInFlight.get()).isGreaterThan(1);
+  }
+
+  private int peakInFlight(PolymarketHttpTransport transport, ExecutorService callers, int count) throws Exception {
+    peakInFlight.set(0);
+    HttpRequest request = HttpRequest.newBuilder(uri).GET().timeout(Duration.ofSeconds(30)).build();
+    List<Future<String>> results = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      results.add(callers.submit(() -> transport.sendString(request, true)));
+    }
+    for (Future<String> result : results) {
+      assertThat(result.get()).isEqualTo("{}");
+    }
+    return peakInFlight.get();
+  }
+}
@@ -0,0 +1,52 @@
+package com.polybot.hft.polymarket.ws;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopOfBookHistoryTests {
+
+  private static TopOfBook tob(String bid, long atMillis) {
+    return new TopOfBook(new BigDecimal(bid), null, null, null, null, Instant.ofEpochMilli(atMillis), null, null);
+  }
+
+  @Test
+  void returnsLatestStateAtOrBeforeInstant() {
+    TopOfBookHistory history = new TopOfBookHistory(8);
+    history.record(tob("0.40", 1_000));
+    history.record(tob("0.41", 2_000));
+    history.record(tob("0.42", 3_000));
+
+    assertThat(history.asOf(Instant.ofEpochMilli(999))).isEmpty();
+    assertThat(history.asOf(Instant.ofEpochMilli(1_000))).get().extracting(TopOfBook::bestBid).isEqualTo(new BigDecimal("0.40"));
+    assertThat(history.asOf(Instant.ofEpochMilli(2_500))).get().extracting(TopOfBook::bestBid).isEqualTo(new BigDecimal("0.41"));
+    assertThat(history.asOf(Instant.ofEpochMilli(9_000))).get().extracting(TopOfBook::bestBid).isEqualTo(new BigDecimal("0.42"));
+  }
+
+  @Test
+  void overwritesOldestWhenFull() {
+    TopOfBookHistory history = new TopOfBookHistory(3);
+    for (int i = 1; i <= 5; i++) {
+      history.record(tob("0." + i, i * 1_000L));
+    }
+
+    assertThat(history.size()).isEqualTo(3);
+    assertThat(history.oldest()).contains(Instant.ofEpochMilli(3_000));
+    assertThat(history.asOf(Instant.ofEpochMilli(2_500))).isEmpty();
+    assertThat(history.asOf(Instant.ofEpochMilli(4_200))).get().extracting(TopOfBook::bestBid).isEqualTo(new BigDecimal("0.4"));
+  }
+
+  @Test
+  void dropsOutOfOrderUpdatesAndReplacesSameTimestamp() {
+    TopOfBookHistory history = new TopOfBookHistory(4);
+    history.record(tob("0.50", 2_000));
+    history.record(tob("0.10", 1_000));
+    history.record(tob("0.55", 2_000));
+
+    assertThat(history.size()).isEqualTo(1);
+    assertThat(history.asOf(Instant.ofEpochMilli(2_000))).get().extracting(TopOfBook::bestBid).isEqualTo(new BigDecimal("0.55"));
+  }
+}
@@ -8,6 +8,7 @@ import com.polybot.hft.polymarket.strategy.model.GabagoolMarket;
 import com.polybot.hft.polymarket.strategy.model.MarketInventory;
 import com.polybot.hft.polymarket.strategy.model.OrderState;
 import com.polybot.hft.polymarket.strategy.service.BankrollService;
+import com.polybot.hft.polymarket.strategy.service.MarketCalendar;
 import com.polybot.hft.polymarket.strategy.service.OrderManager;
 import com.polybot.hft.polymarket.strategy.service.OrderManager.CancelReason;
 import com.polybot.hft.polymarket.strategy.service.OrderManager.PlaceReason;
@@ -36,6 +37,10 @@ import java.util.stream.Stream;
 
 /**
  * Gabagool22-style strategy for Up/Down binary markets (replica-oriented).
+ *
+ * Besides the fixed-rate refresh, the engine wakes at every market open/close from the {@link MarketCalendar}: a
+ * pre-roll shortly before readies the next markets (discovery, WS subscription, tick sizes) and the boundary task
+ * swaps the traded set and quotes immediately.
  */
 @Component
 @Slf4j
@@ -43,6 +48,7 @@ import java.util.stream.Stream;
 public class GabagoolDirectionalEngine {
 
     private static final Duration TICK_SIZE_CACHE_TTL = Duration.ofMinutes(10);
+    private static final Duration PRE_ROLL_LEAD = Duration.ofSeconds(10);
 
     private final @NonNull HftProperties properties;
     private final @NonNull ClobMarketWebSocketClient marketWs;
@@ -52,15 +58,21 @@ public class GabagoolDirectionalEngine {
     private final @NonNull Clock clock;
     private final @NonNull StrategyMetricsService metricsService;
 
-    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
-        Thread t = new Thread(r, "gabagool-directional");
-        t.setDaemon(true);
-        return t;
-    });
+    // Ticks block on executor HTTP calls; on a virtual thread that parks instead of holding a platform thread.
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("gabagool-directional").factory());
 
     private final String runId = UUID.randomUUID().toString();
     private final AtomicReference<List<GabagoolMarket>> activeMarkets = new AtomicReference<>(List.of());
     private final Map<String, TickSizeEntry> tickSizeCache = new ConcurrentHashMap<>();
+    private final MarketCalendar calendar = new MarketCalendar();
+    // Markets pinned in config, swapped as a whole on each discovery pass.
+    private volatile List<GabagoolMarket> configuredMarkets = List.of();
+
+    // Boundary scheduling; only touched on the engine thread.
+    private Instant armedBoundary;
+    private ScheduledFuture<?> preRollTask;
+    private ScheduledFuture<?> boundaryTask;
 
     // Services (initialized in startIfEnabled)
     private BankrollService bankrollService;
@@ -273,7 +285,7 @@ public class GabagoolDirectionalEngine {
         if (existing != null) {
             long ageMillis = Duration.between(existing.placedAt(), clock.instant()).toMillis();
             if (ageMillis < cfg.minReplaceMillis()) return;
-            orderManager.cancelOrder(tokenId, CancelReason.REPLACE_PRICE, secondsToEnd, book, otherBook);
+            // placeOrder cancels it in the same call as placing the replacement.
         }
 
         log.info("GABAGOOL: TAKER {} order on {} at ask {} (size={}, secondsToEnd={})",
@@ -376,7 +388,7 @@ public class GabagoolDirectionalEngine {
         if (existing != null) {
             long ageMillis = Duration.between(existing.placedAt(), clock.instant()).toMillis();
             if (ageMillis < cfg.minReplaceMillis()) return;
-            orderManager.cancelOrder(tokenId, CancelReason.REPLACE_PRICE, secondsToEnd, book, otherBook);
+            // placeOrder cancels it in the same call as placing the replacement.
         }
 
         log.info("GABAGOOL: TOP-UP {} on {} at ask {} (imbalance={}, topUpShares={}, secondsToEnd={})",
@@ -426,35 +438,31 @@ public class GabagoolDirectionalEngine {
 
     private void discoverMarkets() {
         try {
-            List<GabagoolMarket> markets = new ArrayList<>();
-
-            List<GabagoolMarketDiscovery.DiscoveredMarket> discovered = marketDiscovery.getActiveMarkets();
-            for (GabagoolMarketDiscovery.DiscoveredMarket d : discovered) {
-                markets.add(new GabagoolMarket(d.slug(), d.upTokenId(), d.downTokenId(), d.endTime(), d.marketType()));
-            }
+            List<GabagoolMarket> discovered = toMarkets(marketDiscovery.getActiveMarkets());
+            List<GabagoolMarket> upcoming = toMarkets(marketDiscovery.getUpcomingMarkets());
+            calendar.update(Stream.concat(discovered.stream(), upcoming.stream()).toList());
 
+            List<GabagoolMarket> configured = new ArrayList<>();
             GabagoolConfig cfg = getConfig();
             if (cfg.markets() != null) {
                 for (GabagoolConfig.GabagoolMarketConfig m : cfg.markets()) {
                     if (m.upTokenId() != null && m.downTokenId() != null) {
                         Instant endTime = m.endTime() != null ? m.endTime() : clock.instant().plus(Duration.ofMinutes(15));
-                        String upToken = m.upTokenId();
-                        boolean exists = markets.stream().anyMatch(existing -> existing.upTokenId().equals(upToken));
-                        if (!exists) {
-                            markets.add(new GabagoolMarket(
-                                    m.slug() != null ? m.slug() : "configured",
-                                    m.upTokenId(), m.downTokenId(), endTime, "unknown"
-                            ));
-                        }
+                        configured.add(new GabagoolMarket(
+                                m.slug() != null ? m.slug() : "configured",
+                                m.upTokenId(), m.downTokenId(), endTime, "unknown"
+                        ));
                     }
                 }
             }
+            configuredMarkets = configured;
 
-            activeMarkets.set(markets);
-            metricsService.updateActiveMarketsCount(markets.size());
+            Instant now = clock.instant();
+            List<GabagoolMarket> markets = publishActiveMarkets(now);
             if (cfg.bankrollUsd() != null) metricsService.updateBankroll(cfg.bankrollUsd());
 
-            List<String> assetIds = markets.stream()
+            // Upcoming markets are subscribed (not traded) so their books are live when they open.
+            List<String> assetIds = Stream.concat(markets.stream(), upcoming.stream())
                     .flatMap(m -> Stream.of(m.upTokenId(), m.downTokenId()))
                     .filter(Objects::nonNull)
                     .filter(s -> !s.isBlank())
@@ -462,15 +470,103 @@ public class GabagoolDirectionalEngine {
                     .toList();
             if (!assetIds.isEmpty()) marketWs.setSubscribedAssets(assetIds);
 
+            armNextBoundary(now);
+
             if (!markets.isEmpty()) {
-                log.debug("GABAGOOL: Tracking {} markets ({} discovered, {} configured)",
-                        markets.size(), discovered.size(), cfg.markets() != null ? cfg.markets().size() : 0);
+                log.debug("GABAGOOL: Tracking {} markets ({} discovered, {} configured, {} upcoming)",
+                        markets.size(), discovered.size(), configured.size(), upcoming.size());
             }
         } catch (Exception e) {
             log.error("GABAGOOL: Error discovering markets: {}", e.getMessage());
         }
     }
 
+    private static List<GabagoolMarket> toMarkets(List<GabagoolMarketDiscovery.DiscoveredMarket> discovered) {
+        return discovered.stream()
+                .map(d -> new GabagoolMarket(d.slug(), d.upTokenId(), d.downTokenId(), d.endTime(), d.marketType()))
+                .toList();
+    }
+
+    /**
+     * Recomputes the traded set from the calendar (plus configured markets) as of {@code at}.
+     */
+    private List<GabagoolMarket> publishActiveMarkets(Instant at) {
+        List<GabagoolMarket> markets = new ArrayList<>(calendar.openAt(at));
+        for (GabagoolMarket m : configuredMarkets) {
+            boolean exists = markets.stream().anyMatch(existing -> existing.upTokenId().equals(m.upTokenId()));
+            if (!exists) {
+                markets.add(m);
+            }
+        }
+        activeMarkets.set(markets);
+        metricsService.updateActiveMarketsCount(markets.size());
+        return markets;
+    }
+
+    /**
+     * Schedules a pre-roll {@link #PRE_ROLL_LEAD} before the next open/close and a wake-up exactly at it. Runs on the
+     * engine thread, like the tasks it schedules.
+     */
+    private void armNextBoundary(Instant now) {
+        Instant boundary = calendar.nextBoundary(now);
+        if (boundary.equals(armedBoundary)) {
+            return;
+        }
+        if (preRollTask != null) preRollTask.cancel(false);
+        if (boundaryTask != null) boundaryTask.cancel(false);
+        armedBoundary = boundary;
+
+        long delayMillis = Math.max(0, Duration.between(now, boundary).toMillis());
+        long preRollDelayMillis = delayMillis - PRE_ROLL_LEAD.toMillis();
+        preRollTask = preRollDelayMillis > 0
+                ? executor.schedule(() -> preRoll(boundary), preRollDelayMillis, TimeUnit.MILLISECONDS)
+                : null;
+        boundaryTask = executor.schedule(() -> onBoundary(boundary), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Makes sure the markets opening at {@code boundary} are discovered, subscribed and have tick sizes cached before
+     * the open. Network calls run off the engine thread; the resulting discovery pass hops back onto it.
+     */
+    private void preRoll(Instant boundary) {
+        Thread.ofVirtual().name("gabagool-preroll").start(() -> {
+            try {
+                marketDiscovery.discoverMarkets();
+                for (GabagoolMarketDiscovery.DiscoveredMarket m : marketDiscovery.getUpcomingMarkets()) {
+                    if (!m.startTime().isAfter(boundary)) {
+                        getTickSize(m.upTokenId());
+                        getTickSize(m.downTokenId());
+                    }
+                }
+                executor.execute(this::discoverMarkets);
+            } catch (Exception e) {
+                log.warn("GABAGOOL: pre-roll for {} failed: {}", boundary, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Swaps the traded set at the exact open/close and evaluates right away, so the first quote on a new market doesn't
+     * wait for the next refresh tick.
+     */
+    private void onBoundary(Instant boundary) {
+        Instant now = clock.instant();
+        // The scheduler may fire a hair before the wall clock reaches the boundary; evaluate as of the boundary then.
+        Instant at = now.isBefore(boundary) ? boundary : now;
+        try {
+            List<GabagoolMarket> markets = publishActiveMarkets(at);
+            List<GabagoolMarket> opening = calendar.openingAt(boundary);
+            log.info("GABAGOOL: boundary {} (+{}ms) active={} opening={}",
+                    boundary, Duration.between(boundary, now).toMillis(), markets.size(),
+                    opening.stream().map(GabagoolMarket::slug).toList());
+            tick(getConfig());
+        } catch (Exception e) {
+            log.error("GABAGOOL: Error at market boundary {}: {}", boundary, e.getMessage());
+        } finally {
+            armNextBoundary(at);
+        }
+    }
+
     private GabagoolConfig getConfig() {
         return GabagoolConfig.from(properties.strategy().gabagool());
     }
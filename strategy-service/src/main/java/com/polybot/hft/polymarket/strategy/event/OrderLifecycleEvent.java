@@ -3,9 +3,13 @@ package com.polybot.hft.polymarket.strategy.event;
 import com.polybot.hft.polymarket.ws.TopOfBook;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
 /**
  * Event published when an order lifecycle action occurs (PLACE, CANCEL, FILL).
+ *
+ * @param latencyMicros for a successful PLACE, microseconds spent in each stage from the WS frame to the executor's
+ *                      response as seen by the strategy (see {@link com.polybot.hft.domain.OrderLatencyTrace#stageMicros()})
  */
 public record OrderLifecycleEvent(
         String strategy,
@@ -30,5 +34,6 @@ public record OrderLifecycleEvent(
         Long orderAgeMillis,
         TopOfBook book,
         String otherTokenId,
-        TopOfBook otherBook
+        TopOfBook otherBook,
+        Map<String, Long> latencyMicros
 ) {}
@@ -0,0 +1,75 @@
+package com.polybot.hft.polymarket.strategy.service;
+
+import com.polybot.hft.polymarket.discovery.UpDownMarketSlugs;
+import com.polybot.hft.polymarket.strategy.model.GabagoolMarket;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Open/close schedule of the discovered Up/Down markets.
+ *
+ * Both series run on fixed boundaries: 15m markets every 15 minutes and 1h markets on the ET hour, which is a whole-hour
+ * offset from UTC, so every open and close lands on a 15-minute UTC grid. The engine uses this to wake exactly at the
+ * next boundary instead of waiting for the next discovery pass.
+ */
+public class MarketCalendar {
+
+    private static final long GRID_SECONDS = 900L;
+
+    private volatile List<GabagoolMarket> markets = List.of();
+
+    /**
+     * Replaces the known markets (open and upcoming). Markets without an end time can't be scheduled and are ignored.
+     */
+    public void update(Collection<GabagoolMarket> known) {
+        Map<String, GabagoolMarket> bySlug = new LinkedHashMap<>();
+        for (GabagoolMarket m : known) {
+            if (m != null && m.slug() != null && m.endTime() != null) {
+                bySlug.putIfAbsent(m.slug(), m);
+            }
+        }
+        markets = List.copyOf(bySlug.values());
+    }
+
+    public static Instant openTime(GabagoolMarket market) {
+        return market.endTime().minus(UpDownMarketSlugs.interval(market.marketType()));
+    }
+
+    public List<GabagoolMarket> openAt(Instant at) {
+        return markets.stream()
+                .filter(m -> !at.isBefore(openTime(m)) && at.isBefore(m.endTime()))
+                .toList();
+    }
+
+    public List<GabagoolMarket> openingAt(Instant boundary) {
+        return markets.stream()
+                .filter(m -> openTime(m).equals(boundary))
+                .toList();
+    }
+
+    /**
+     * The first open or close strictly after {@code after}; falls back to the series grid so the engine still wakes at
+     * a boundary whose market hasn't been discovered yet.
+     */
+    public Instant nextBoundary(Instant after) {
+        Instant next = Instant.ofEpochSecond((after.getEpochSecond() / GRID_SECONDS + 1) * GRID_SECONDS);
+        for (GabagoolMarket m : markets) {
+            Instant open = openTime(m);
+            if (open.isAfter(after) && open.isBefore(next)) {
+                next = open;
+            }
+            if (m.endTime().isAfter(after) && m.endTime().isBefore(next)) {
+                next = m.endTime();
+            }
+        }
+        return next;
+    }
+
+    public int size() {
+        return markets.size();
+    }
+}
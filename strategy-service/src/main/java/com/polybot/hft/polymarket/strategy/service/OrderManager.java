@@ -1,11 +1,14 @@
 package com.polybot.hft.polymarket.strategy.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.polybot.hft.domain.OrderLatencyTrace;
+import com.polybot.hft.domain.OrderPriority;
 import com.polybot.hft.domain.OrderSide;
 import com.polybot.hft.events.HftEventPublisher;
 import com.polybot.hft.events.HftEventTypes;
 import com.polybot.hft.polymarket.api.LimitOrderRequest;
 import com.polybot.hft.polymarket.api.OrderSubmissionResult;
+import com.polybot.hft.polymarket.api.ReplaceOrderResult;
 import com.polybot.hft.polymarket.model.ClobOrderType;
 import com.polybot.hft.polymarket.strategy.config.GabagoolConfig;
 import com.polybot.hft.polymarket.strategy.event.OrderLifecycleEvent;
@@ -42,6 +45,8 @@ public class OrderManager {
     private final String runId;
 
     private final Map<String, OrderState> ordersByTokenId = new ConcurrentHashMap<>();
+    // Book update each token's previous decision was made on, to tell a book-triggered order from a requote.
+    private final Map<String, Instant> decisionBookByTokenId = new ConcurrentHashMap<>();
 
     public OrderManager(ExecutorApiClient executorApi, HftEventPublisher events, Clock clock, String runId) {
         this.executorApi = executorApi;
@@ -63,12 +68,14 @@ public class OrderManager {
     }
 
     /**
-     * Place a maker order for a token.
+     * Place a maker order for a token. If {@code replaced} is still the live order for the token, it is cancelled in
+     * the same executor call (see {@link #replaceOrder}).
      */
     public void placeOrder(GabagoolMarket market, String tokenId, Direction direction,
                            BigDecimal price, BigDecimal size, long secondsToEnd,
                            BigDecimal tickSize, TopOfBook book, TopOfBook otherBook,
                            OrderState replaced, PlaceReason placeReason) {
+        OrderLatencyTrace trace = decisionTrace(tokenId, book);
         String reason = replaced == null ? PlaceReason.QUOTE.name() : PlaceReason.REPLACE.name();
         if (placeReason != null) reason = placeReason.name();
 
@@ -85,10 +92,18 @@ public class OrderManager {
 
             LimitOrderRequest request = new LimitOrderRequest(
                     tokenId, OrderSide.BUY, price, size, ClobOrderType.GTC,
-                    null, null, null, null, null, null, null
+                    null, null, null, null, null, null, null, market.slug()
             );
 
-            OrderSubmissionResult result = executorApi.placeLimitOrder(request);
+            OrderState live = replaced == null ? null : ordersByTokenId.get(tokenId);
+            if (live != null && live.orderId() != null && live.orderId().equals(replaced.orderId())) {
+                replaceOrder(market, tokenId, direction, request, live, reason, secondsToEnd, tickSize, book, otherBook, trace);
+                return;
+            }
+
+            OrderLatencyTrace sent = trace.withSentAt(clock.instant());
+            OrderSubmissionResult result = executorApi.placeLimitOrder(request, priorityOf(reason), sent);
+            Map<String, Long> latency = sent.withExecutorStages(null, null, null, clock.instant()).stageMicros();
             String orderId = resolveOrderId(result);
 
             if (orderId == null) {
@@ -98,7 +113,7 @@ public class OrderManager {
                         market.slug(), market.marketType(), tokenId, direction.name(),
                         secondsToEnd, tickSize, false, "orderId null",
                         null, price, size, replacedOrderId, replacedPrice, replacedSize,
-                        replacedAgeMillis, null, book, otherTokenId, otherBook
+                        replacedAgeMillis, null, book, otherTokenId, otherBook, latency
                 ));
                 return;
             }
@@ -116,7 +131,7 @@ public class OrderManager {
                     market.slug(), market.marketType(), tokenId, direction.name(),
                     secondsToEnd, tickSize, true, null,
                     orderId, price, size, replacedOrderId, replacedPrice, replacedSize,
-                    replacedAgeMillis, null, book, otherTokenId, otherBook
+                    replacedAgeMillis, null, book, otherTokenId, otherBook, latency
             ));
         } catch (Exception e) {
             log.error("GABAGOOL: Failed to place order on {}: {}", market.slug(), e.getMessage());
@@ -125,13 +140,14 @@ public class OrderManager {
                     market.slug(), market.marketType(), tokenId, direction.name(),
                     secondsToEnd, tickSize, false, truncateError(e),
                     null, price, size, replacedOrderId, replacedPrice, replacedSize,
-                    replacedAgeMillis, null, book, otherTokenId, otherBook
+                    replacedAgeMillis, null, book, otherTokenId, otherBook, null
             ));
         }
     }
 
     /**
-     * Cancel and replace an existing order if price/size changed.
+     * Decide whether an existing order needs replacing because price/size changed. The existing order stays tracked;
+     * {@link #placeOrder} then cancels it together with placing its replacement.
      */
     public ReplaceDecision maybeReplaceOrder(String tokenId, BigDecimal newPrice, BigDecimal newSize,
                                              GabagoolConfig cfg, CancelReason cancelReason,
@@ -152,15 +168,85 @@ public class OrderManager {
             return ReplaceDecision.SKIP; // No change needed
         }
 
-        CancelReason reason = (!samePrice && !sameSize)
-                ? CancelReason.REPLACE_PRICE_AND_SIZE
-                : (!samePrice ? CancelReason.REPLACE_PRICE : CancelReason.REPLACE_SIZE);
-
-        safeCancel(existing, reason, secondsToEnd, book, otherBook);
-        ordersByTokenId.remove(tokenId);
         return ReplaceDecision.REPLACE;
     }
 
+    /**
+     * Cancel {@code live} and place {@code request} with a single executor call that sends both legs concurrently, so
+     * the token is never left without a quote for a full cancel round trip.
+     * <p>
+     * The old order stays tracked until the executor acknowledges its cancel: if the call fails outright both legs are
+     * unknown and the old state is kept, and a cancel that failed while the new order went in is retried on its own.
+     * A place leg the executor gateway never sent (expired or superseded in its queue) after the cancel went through is
+     * placed again on its own, so the token isn't left without a quote until the next decision.
+     */
+    private void replaceOrder(GabagoolMarket market, String tokenId, Direction direction, LimitOrderRequest request,
+                              OrderState live, String reason, long secondsToEnd, BigDecimal tickSize,
+                              TopOfBook book, TopOfBook otherBook, OrderLatencyTrace trace) {
+        CancelReason cancelReason = replaceReason(live, request.price(), request.size());
+        Long replacedAgeMillis = Duration.between(live.placedAt(), clock.instant()).toMillis();
+        String otherTokenId = direction == Direction.UP ? market.downTokenId() : market.upTokenId();
+
+        OrderLatencyTrace sent = trace.withSentAt(clock.instant());
+        ReplaceOrderResult result;
+        try {
+            result = executorApi.replaceOrder(live.orderId(), request, priorityOf(reason), sent);
+        } catch (Exception e) {
+            log.error("GABAGOOL: Failed to replace order {} on {}: {}", live.orderId(), market.slug(), e.getMessage());
+            publishOrderEvent(new OrderLifecycleEvent(
+                    "gabagool-directional", runId, "PLACE", reason,
+                    market.slug(), market.marketType(), tokenId, direction.name(),
+                    secondsToEnd, tickSize, false, truncateError(e),
+                    null, request.price(), request.size(), live.orderId(), live.price(), live.size(),
+                    replacedAgeMillis, null, book, otherTokenId, otherBook, null
+            ));
+            return;
+        }
+        Map<String, Long> latency = sent.withExecutorStages(null, null, null, clock.instant()).stageMicros();
+
+        publishCancelEvent(live, cancelReason, secondsToEnd, book, otherBook, result.cancelled(), result.cancelError());
+        String orderId = result.orderId();
+        boolean placed = orderId != null && !orderId.isBlank();
+        if (placed) {
+            ordersByTokenId.put(tokenId, new OrderState(
+                    orderId, market, tokenId, direction, request.price(), request.size(),
+                    clock.instant(), BigDecimal.ZERO, null, secondsToEnd
+            ));
+            log.info("GABAGOOL: Order replaced: {} -> {} (direction={}, price={}, size={}, concurrent={})",
+                    live.orderId(), orderId, direction, request.price(), request.size(), result.concurrent());
+        } else if (result.cancelled()) {
+            ordersByTokenId.remove(tokenId, live);
+        }
+        String placeError = placed ? null : (result.placeError() != null ? result.placeError() : "orderId null");
+        publishOrderEvent(new OrderLifecycleEvent(
+                "gabagool-directional", runId, "PLACE", reason,
+                market.slug(), market.marketType(), tokenId, direction.name(),
+                secondsToEnd, tickSize, placed, placeError,
+                orderId, request.price(), request.size(), live.orderId(), live.price(), live.size(),
+                replacedAgeMillis, null, book, otherTokenId, otherBook, latency
+        ));
+
+        if (placed && !result.cancelled()) {
+            // The new order took the token's slot; make sure the old one doesn't linger untracked.
+            log.warn("GABAGOOL: Cancel leg of replace failed for {} ({}), retrying", live.orderId(), result.cancelError());
+            safeCancel(live, cancelReason, secondsToEnd, book, otherBook);
+        } else if (!placed && result.cancelled() && result.placeNotSentReason() != null) {
+            log.warn("GABAGOOL: Place leg of replace for {} not sent ({}), placing again",
+                    live.orderId(), result.placeNotSentReason());
+            placeOrder(market, tokenId, direction, request.price(), request.size(), secondsToEnd, tickSize, book,
+                    otherBook, null, PlaceReason.QUOTE);
+        }
+    }
+
+    private static CancelReason replaceReason(OrderState existing, BigDecimal newPrice, BigDecimal newSize) {
+        boolean samePrice = existing.price() != null && existing.price().compareTo(newPrice) == 0;
+        boolean sameSize = existing.size() != null && existing.size().compareTo(newSize) == 0;
+        if (!samePrice && !sameSize) {
+            return CancelReason.REPLACE_PRICE_AND_SIZE;
+        }
+        return samePrice ? CancelReason.REPLACE_SIZE : CancelReason.REPLACE_PRICE;
+    }
+
     /**
      * Cancel an order by token ID.
      */
@@ -177,6 +263,8 @@ public class OrderManager {
         if (market == null) return;
         cancelOrder(market.upTokenId(), reason, secondsToEnd, null, null);
         cancelOrder(market.downTokenId(), reason, secondsToEnd, null, null);
+        decisionBookByTokenId.remove(market.upTokenId());
+        decisionBookByTokenId.remove(market.downTokenId());
     }
 
     /**
@@ -185,6 +273,23 @@ public class OrderManager {
     public void cancelAll(CancelReason reason) {
         ordersByTokenId.values().forEach(state -> safeCancel(state, reason, null, null, null));
         ordersByTokenId.clear();
+        decisionBookByTokenId.clear();
+    }
+
+    /**
+     * Starts the latency trace of a decision. The WS and TOB stages are only kept when {@code book} changed since the
+     * previous decision on the token; a requote on the same book would otherwise count the time the book sat idle.
+     */
+    private OrderLatencyTrace decisionTrace(String tokenId, TopOfBook book) {
+        Instant decidedAt = clock.instant();
+        if (book == null || book.updatedAt() == null) {
+            return OrderLatencyTrace.decided(null, null, decidedAt);
+        }
+        Instant previous = decisionBookByTokenId.put(tokenId, book.updatedAt());
+        if (book.updatedAt().equals(previous)) {
+            return OrderLatencyTrace.decided(null, null, decidedAt);
+        }
+        return OrderLatencyTrace.decided(book.receivedAt(), book.updatedAt(), decidedAt);
     }
 
     /**
@@ -277,7 +382,11 @@ public class OrderManager {
         } catch (Exception e) {
             error = truncateError(e);
         }
+        publishCancelEvent(state, reason, secondsToEndNow, book, otherBook, success, error);
+    }
 
+    private void publishCancelEvent(OrderState state, CancelReason reason, Long secondsToEndNow,
+                                    TopOfBook book, TopOfBook otherBook, boolean success, String error) {
         String otherTokenId = null;
         if (state.market() != null && state.direction() != null) {
             otherTokenId = state.direction() == Direction.UP
@@ -292,7 +401,7 @@ public class OrderManager {
                 secondsToEndNow, null, success, error,
                 state.orderId(), state.price(), state.size(), null, null, null, null,
                 Duration.between(state.placedAt(), clock.instant()).toMillis(),
-                book, otherTokenId, otherBook
+                book, otherTokenId, otherBook, null
         ));
     }
 
@@ -364,6 +473,17 @@ public class OrderManager {
         return s.length() <= ERROR_MAX_LEN ? s : s.substring(0, ERROR_MAX_LEN) + "...";
     }
 
+    /**
+     * Executor gateway lane: top-ups and taker orders jump ahead of quoting, replaces go last.
+     */
+    private static OrderPriority priorityOf(String placeReason) {
+        return switch (PlaceReason.valueOf(placeReason)) {
+            case TOP_UP, FAST_TOP_UP, TAKER -> OrderPriority.TAKER;
+            case REPLACE -> OrderPriority.REPLACE;
+            case QUOTE -> OrderPriority.QUOTE;
+        };
+    }
+
     public enum PlaceReason {
         QUOTE, REPLACE, TOP_UP, FAST_TOP_UP, TAKER
     }
@@ -4,10 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.polybot.hft.config.HftProperties;
 import com.polybot.hft.domain.HftHeaders;
+import com.polybot.hft.domain.OrderLatencyTrace;
+import com.polybot.hft.domain.OrderPriority;
 import com.polybot.hft.polymarket.api.PolymarketAccountResponse;
 import com.polybot.hft.polymarket.api.PolymarketBankrollResponse;
 import com.polybot.hft.polymarket.api.LimitOrderRequest;
 import com.polybot.hft.polymarket.api.OrderSubmissionResult;
+import com.polybot.hft.polymarket.api.ReplaceOrderResult;
 import com.polybot.hft.polymarket.data.PolymarketPosition;
 import com.polybot.hft.polymarket.http.HttpRequestFactory;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +24,7 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @RequiredArgsConstructor
@@ -32,6 +36,8 @@ public class ExecutorApiClient {
   private final HttpClient httpClient;
   private final ObjectMapper objectMapper;
 
+  private final Map<URI, CachedBody> conditionalCache = new ConcurrentHashMap<>();
+
   private static String truncate(String s) {
     if (s == null) {
       return "";
@@ -45,16 +51,31 @@ public class ExecutorApiClient {
     return sendJson(request, BigDecimal.class);
   }
 
-  public OrderSubmissionResult placeLimitOrder(LimitOrderRequest requestBody) {
+  /**
+   * @param priority executor gateway lane the order is dispatched in
+   * @param trace    strategy-side latency stages, forwarded so the executor can time the whole path
+   */
+  public OrderSubmissionResult placeLimitOrder(LimitOrderRequest requestBody, OrderPriority priority, OrderLatencyTrace trace) {
     String path = "/api/polymarket/orders/limit";
     String body = writeJson(requestBody);
-    HttpRequest request = baseRequest(path, Map.of()).POST(HttpRequest.BodyPublishers.ofString(body)).timeout(HTTP_TIMEOUT).header("Content-Type", "application/json").header("Accept", "application/json").build();
+    HttpRequest request = baseRequest(path, Map.of()).POST(HttpRequest.BodyPublishers.ofString(body)).timeout(HTTP_TIMEOUT).header("Content-Type", "application/json").header("Accept", "application/json").header(HftHeaders.ORDER_PRIORITY, priority.name()).header(HftHeaders.LATENCY_TRACE, trace.toHeader()).build();
     return sendJson(request, OrderSubmissionResult.class);
   }
 
+  /**
+   * Cancels {@code orderId} and places {@code requestBody} in one executor call; both legs are in flight at once.
+   */
+  public ReplaceOrderResult replaceOrder(String orderId, LimitOrderRequest requestBody, OrderPriority priority,
+                                         OrderLatencyTrace trace) {
+    String path = "/api/polymarket/orders/" + orderId + "/replace";
+    String body = writeJson(requestBody);
+    HttpRequest request = baseRequest(path, Map.of()).POST(HttpRequest.BodyPublishers.ofString(body)).timeout(HTTP_TIMEOUT).header("Content-Type", "application/json").header("Accept", "application/json").header(HftHeaders.ORDER_PRIORITY, priority.name()).header(HftHeaders.LATENCY_TRACE, trace.toHeader()).build();
+    return sendJson(request, ReplaceOrderResult.class);
+  }
+
   public void cancelOrder(String orderId) {
     String path = "/api/polymarket/orders/" + orderId;
-    HttpRequest request = baseRequest(path, Map.of()).DELETE().timeout(HTTP_TIMEOUT).header("Accept", "application/json").build();
+    HttpRequest request = baseRequest(path, Map.of()).DELETE().timeout(HTTP_TIMEOUT).header("Accept", "application/json").header(HftHeaders.ORDER_PRIORITY, OrderPriority.CANCEL.name()).build();
     sendString(request);
   }
 
@@ -72,8 +93,8 @@ public class ExecutorApiClient {
 
   public PolymarketBankrollResponse getBankroll() {
     String path = "/api/polymarket/bankroll";
-    HttpRequest request = baseRequest(path, Map.of()).GET().timeout(HTTP_TIMEOUT).header("Accept", "application/json").build();
-    return sendJson(request, PolymarketBankrollResponse.class);
+    HttpRequest.Builder request = baseRequest(path, Map.of()).GET().timeout(HTTP_TIMEOUT).header("Accept", "application/json");
+    return sendConditionalJson(request, PolymarketBankrollResponse.class);
   }
 
   public PolymarketPosition[] getPositions(int limit, int offset) {
@@ -89,8 +110,8 @@ public class ExecutorApiClient {
     query.put("limit", Integer.toString(Math.max(1, limit)));
     query.put("offset", Integer.toString(Math.max(0, offset)));
 
-    HttpRequest request = baseRequest(path, query).GET().timeout(HTTP_TIMEOUT).header("Accept", "application/json").build();
-    return sendJson(request, PolymarketPosition[].class);
+    HttpRequest.Builder request = baseRequest(path, query).GET().timeout(HTTP_TIMEOUT).header("Accept", "application/json");
+    return sendConditionalJson(request, PolymarketPosition[].class);
   }
 
   private HttpRequest.Builder baseRequest(String path, Map<String, String> query) {
@@ -114,6 +135,44 @@ public class ExecutorApiClient {
     }
   }
 
+  /**
+   * GET with {@code If-None-Match}: the executor answers 304 while its portfolio snapshot is unchanged, and the body
+   * cached from the last 200 is decoded again instead of being re-sent.
+   */
+  private <T> T sendConditionalJson(HttpRequest.Builder builder, Class<T> type) {
+    HttpRequest probe = builder.build();
+    URI uri = probe.uri();
+    CachedBody cached = conditionalCache.get(uri);
+    HttpRequest request = cached == null ? probe : builder.header("If-None-Match", cached.etag()).build();
+    String body;
+    try {
+      HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+      if (response.statusCode() == 304 && cached != null) {
+        body = cached.body();
+      } else if (response.statusCode() >= 200 && response.statusCode() < 300) {
+        body = response.body();
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        if (etag != null) {
+          conditionalCache.put(uri, new CachedBody(etag, body));
+        } else {
+          conditionalCache.remove(uri);
+        }
+      } else {
+        throw new RuntimeException("HTTP " + response.statusCode() + " from " + request.method() + " " + uri + ": " + truncate(response.body()));
+      }
+    } catch (Exception e) {
+      if (e instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new RuntimeException("Executor request failed: " + uri, e);
+    }
+    try {
+      return objectMapper.readValue(body, type);
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to decode JSON response from " + uri, e);
+    }
+  }
+
   private String sendString(HttpRequest request) {
     try {
       HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
@@ -136,4 +195,7 @@ public class ExecutorApiClient {
       throw new RuntimeException("Failed to encode JSON", e);
     }
   }
+
+  private record CachedBody(String etag, String body) {
+  }
 }
@@ -0,0 +1,79 @@
+package com.polybot.hft.polymarket.strategy.service;
+
+import com.polybot.hft.polymarket.discovery.UpDownMarketSlugs;
+import com.polybot.hft.polymarket.strategy.model.GabagoolMarket;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarketCalendarTests {
+
+    private static final Instant NOON = Instant.parse("2026-01-01T12:00:00Z");
+    private static final Instant MIDNIGHT = Instant.parse("2026-01-02T00:00:00Z");
+
+    private final MarketCalendar calendar = new MarketCalendar();
+
+    @Test
+    void openAt_includesTheOpenAndExcludesTheClose() {
+        GabagoolMarket quarter = market15m("btc-updown-15m-noon", NOON.plusSeconds(900));
+        GabagoolMarket hour = market1h("bitcoin-up-or-down-january-1-11am-et", NOON);
+        calendar.update(List.of(quarter, hour));
+
+        assertThat(calendar.openAt(NOON.minusSeconds(1))).containsExactly(hour);
+        assertThat(calendar.openAt(NOON)).containsExactly(quarter);
+        assertThat(calendar.openAt(NOON.plusSeconds(899))).containsExactly(quarter);
+        assertThat(calendar.openAt(NOON.plusSeconds(900))).isEmpty();
+    }
+
+    @Test
+    void openingAt_matchesBothSeriesOnTheSameBoundary() {
+        GabagoolMarket quarter = market15m("btc-updown-15m-noon", NOON.plusSeconds(900));
+        GabagoolMarket hour = market1h("bitcoin-up-or-down-january-1-12pm-et", NOON.plusSeconds(3_600));
+        GabagoolMarket later = market15m("btc-updown-15m-later", NOON.plusSeconds(1_800));
+        calendar.update(List.of(quarter, hour, later));
+
+        assertThat(calendar.openingAt(NOON)).containsExactly(quarter, hour);
+        assertThat(calendar.openingAt(NOON.plusSeconds(900))).containsExactly(later);
+        assertThat(calendar.openingAt(NOON.plusSeconds(1))).isEmpty();
+    }
+
+    @Test
+    void nextBoundary_isStrictlyAfterABoundary() {
+        assertThat(calendar.nextBoundary(NOON)).isEqualTo(NOON.plusSeconds(900));
+        assertThat(calendar.nextBoundary(NOON.minusMillis(1))).isEqualTo(NOON);
+    }
+
+    @Test
+    void nextBoundary_crossesUtcMidnight() {
+        GabagoolMarket hour = market1h("bitcoin-up-or-down-january-1-6pm-et", MIDNIGHT);
+        GabagoolMarket quarter = market15m("btc-updown-15m-midnight", MIDNIGHT.plusSeconds(900));
+        calendar.update(List.of(hour, quarter));
+
+        assertThat(calendar.nextBoundary(MIDNIGHT.minusSeconds(600))).isEqualTo(MIDNIGHT);
+        assertThat(calendar.openAt(MIDNIGHT.minusSeconds(1))).containsExactly(hour);
+        assertThat(calendar.openingAt(MIDNIGHT)).containsExactly(quarter);
+        assertThat(calendar.openAt(MIDNIGHT)).containsExactly(quarter);
+        assertThat(calendar.nextBoundary(MIDNIGHT)).isEqualTo(MIDNIGHT.plusSeconds(900));
+    }
+
+    @Test
+    void nextBoundary_prefersAKnownMarketOffTheGrid() {
+        GabagoolMarket configured = new GabagoolMarket("configured", "1", "2", NOON.plusSeconds(420), UpDownMarketSlugs.TYPE_15M);
+        calendar.update(List.of(configured));
+
+        assertThat(calendar.nextBoundary(NOON.minusSeconds(600))).isEqualTo(NOON.minusSeconds(480));
+        assertThat(calendar.nextBoundary(NOON)).isEqualTo(NOON.plusSeconds(420));
+        assertThat(calendar.nextBoundary(NOON.plusSeconds(420))).isEqualTo(NOON.plusSeconds(900));
+    }
+
+    private static GabagoolMarket market15m(String slug, Instant endTime) {
+        return new GabagoolMarket(slug, slug + "-up", slug + "-down", endTime, UpDownMarketSlugs.TYPE_15M);
+    }
+
+    private static GabagoolMarket market1h(String slug, Instant endTime) {
+        return new GabagoolMarket(slug, slug + "-up", slug + "-down", endTime, UpDownMarketSlugs.TYPE_1H);
+    }
+}
@@ -0,0 +1,168 @@
+package com.polybot.hft.polymarket.strategy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polybot.hft.config.HftProperties;
+import com.polybot.hft.domain.OrderLatencyTrace;
+import com.polybot.hft.domain.OrderPriority;
+import com.polybot.hft.events.HftEventPublisher;
+import com.polybot.hft.polymarket.api.OrderSubmissionResult;
+import com.polybot.hft.polymarket.api.ReplaceOrderResult;
+import com.polybot.hft.polymarket.strategy.model.Direction;
+import com.polybot.hft.polymarket.strategy.model.GabagoolMarket;
+import com.polybot.hft.polymarket.strategy.model.OrderState;
+import com.polybot.hft.polymarket.ws.TopOfBook;
+import com.polybot.hft.strategy.executor.ExecutorApiClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderManagerTests {
+
+    private static final String TOKEN = "11";
+    private static final String OLD = "0xold";
+    private static final String NEW = "0xnew";
+    private static final GabagoolMarket MARKET =
+            new GabagoolMarket("btc-updown-15m-1", TOKEN, "12", Instant.parse("2026-01-01T00:15:00Z"), "updown-15m");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorApiClient executorApi = mock(ExecutorApiClient.class);
+    private final OrderManager orders = new OrderManager(executorApi, mock(HftEventPublisher.class), Clock.systemUTC(), "run-1");
+
+    private OrderState live;
+
+    @BeforeEach
+    void placeOldOrder() {
+        when(executorApi.placeLimitOrder(any(), eq(OrderPriority.QUOTE), any())).thenReturn(accepted(OLD));
+        place(null);
+        live = orders.getOrder(TOKEN);
+        assertThat(live.orderId()).isEqualTo(OLD);
+    }
+
+    @Test
+    void replace_bothLegsSucceed() {
+        replaceReturns(new ReplaceOrderResult(OLD, true, null, accepted(NEW), NEW, null, null, true));
+
+        place(live);
+
+        assertThat(orders.getOrder(TOKEN).orderId()).isEqualTo(NEW);
+        assertThat(orders.getOrder(TOKEN).price()).isEqualByComparingTo("0.46");
+        verify(executorApi, never()).cancelOrder(anyString());
+    }
+
+    @Test
+    void replace_cancelFailedRetriesTheCancelAndTracksTheNewOrder() {
+        replaceReturns(new ReplaceOrderResult(OLD, false, "timeout", accepted(NEW), NEW, null, null, true));
+
+        place(live);
+
+        assertThat(orders.getOrder(TOKEN).orderId()).isEqualTo(NEW);
+        verify(executorApi).cancelOrder(OLD);
+    }
+
+    @Test
+    void replace_placeRejectedAfterCancelLeavesTheSlotForTheNextDecision() {
+        replaceReturns(new ReplaceOrderResult(OLD, true, null, null, null, "post-only order would cross", null, true));
+
+        place(live);
+
+        assertThat(orders.hasOrder(TOKEN)).isFalse();
+        verify(executorApi).placeLimitOrder(any(), any(), any());
+    }
+
+    @Test
+    void replace_placeNotSentAfterCancelIsPlacedAgain() {
+        replaceReturns(new ReplaceOrderResult(OLD, true, null, null, null, "QUOTE order expired", "EXPIRED", true));
+        when(executorApi.placeLimitOrder(any(), eq(OrderPriority.QUOTE), any())).thenReturn(accepted(NEW));
+
+        place(live);
+
+        assertThat(orders.getOrder(TOKEN).orderId()).isEqualTo(NEW);
+        assertThat(orders.getOrder(TOKEN).price()).isEqualByComparingTo("0.46");
+    }
+
+    @Test
+    void replace_bothLegsFailedKeepsTheOldOrder() {
+        replaceReturns(new ReplaceOrderResult(OLD, false, "timeout", null, null, "timeout", null, true));
+
+        place(live);
+
+        assertThat(orders.getOrder(TOKEN)).isEqualTo(live);
+    }
+
+    @Test
+    void replace_sequentialUnderCapsTracksTheNewOrder() {
+        replaceReturns(new ReplaceOrderResult(OLD, true, null, accepted(NEW), NEW, null, null, false));
+
+        place(live);
+
+        assertThat(orders.getOrder(TOKEN).orderId()).isEqualTo(NEW);
+        verify(executorApi, never()).cancelOrder(anyString());
+    }
+
+    @Test
+    void replace_supersededOrExpiredBeforeAdmissionKeepsTheOldOrder() {
+        when(executorApi.replaceOrder(eq(OLD), any(), any(), any()))
+                .thenThrow(new IllegalStateException("409 REPLACE order superseded"));
+
+        place(live);
+
+        assertThat(orders.getOrder(TOKEN)).isEqualTo(live);
+    }
+
+    @Test
+    void placeOrder_tracesTheBookStagesOnlyWhenTheBookChangedSinceTheLastDecision() {
+        TopOfBook book = book(Instant.parse("2026-01-01T00:00:01Z"));
+        TopOfBook updated = book(Instant.parse("2026-01-01T00:00:02Z"));
+
+        placeOn(book);
+        placeOn(book);
+        placeOn(updated);
+
+        ArgumentCaptor<OrderLatencyTrace> traces = ArgumentCaptor.forClass(OrderLatencyTrace.class);
+        verify(executorApi, times(4)).placeLimitOrder(any(), any(), traces.capture());
+        assertThat(traces.getAllValues().subList(1, 4))
+                .extracting(OrderLatencyTrace::tobAppliedAt)
+                .containsExactly(book.updatedAt(), null, updated.updatedAt());
+        assertThat(traces.getAllValues().get(2).wsReceivedAt()).isNull();
+        assertThat(traces.getAllValues().get(2).decidedAt()).isNotNull();
+    }
+
+    private void placeOn(TopOfBook book) {
+        orders.placeOrder(MARKET, TOKEN, Direction.UP, new BigDecimal("0.45"), BigDecimal.TEN, 600L,
+                new BigDecimal("0.01"), book, null, null, null);
+    }
+
+    private static TopOfBook book(Instant updatedAt) {
+        return new TopOfBook(new BigDecimal("0.44"), new BigDecimal("0.46"), BigDecimal.TEN, BigDecimal.TEN, null,
+                updatedAt, null, updatedAt.minusMillis(1));
+    }
+
+    private void place(OrderState replaced) {
+        BigDecimal price = replaced == null ? new BigDecimal("0.45") : new BigDecimal("0.46");
+        orders.placeOrder(MARKET, TOKEN, Direction.UP, price, BigDecimal.TEN, 600L, new BigDecimal("0.01"),
+                null, null, replaced, null);
+    }
+
+    private void replaceReturns(ReplaceOrderResult result) {
+        when(executorApi.replaceOrder(eq(OLD), any(), eq(OrderPriority.REPLACE), any())).thenReturn(result);
+    }
+
+    private OrderSubmissionResult accepted(String orderId) {
+        return new OrderSubmissionResult(HftProperties.TradingMode.LIVE, null,
+                objectMapper.createObjectNode().put("orderID", orderId), null);
+    }
+}